@@ -0,0 +1,126 @@
+// ============================================================================
+// GymMate Thread Mode Load Test (k6)
+// ============================================================================
+// Compares request latency between platform-thread and virtual-thread modes.
+// Run the same script once against each mode and compare the p99 columns:
+//
+//   APP_VIRTUAL_THREADS=false ./run.sh
+//   k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=owner@example.com \
+//          -e PASSWORD=... -e USER_ID=<unverified user id> -e MODE=platform \
+//          scripts/load-test-thread-modes.js
+//
+//   APP_VIRTUAL_THREADS=true ./run.sh
+//   k6 run ... -e MODE=virtual scripts/load-test-thread-modes.js
+//
+// Each run writes load-test-<MODE>.json with p50/p95/p99 per scenario.
+//
+// Scenarios (open model, so slow responses do not slow the arrival rate):
+//   reads   - notification list and unread count (database + Redis)
+//   logins  - password logins (BCrypt pool, shed with 503 when saturated)
+//   emails  - OTP resends, which queue SMTP work on the @Async executor
+// ============================================================================
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODE = __ENV.MODE || 'unknown';
+const RATE = parseInt(__ENV.RATE || '200', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+  scenarios: {
+    reads: {
+      executor: 'constant-arrival-rate',
+      exec: 'reads',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+    logins: {
+      executor: 'constant-arrival-rate',
+      exec: 'logins',
+      rate: Math.max(1, Math.floor(RATE / 10)),
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 50,
+      maxVUs: 500,
+    },
+    emails: {
+      executor: 'constant-arrival-rate',
+      exec: 'emails',
+      rate: Math.max(1, Math.floor(RATE / 20)),
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 20,
+      maxVUs: 200,
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    // Per-scenario sub-metrics so they show up in the summary
+    'http_req_duration{scenario:reads}': ['p(99)>=0'],
+    'http_req_duration{scenario:logins}': ['p(99)>=0'],
+    'http_req_duration{scenario:emails}': ['p(99)>=0'],
+  },
+};
+
+function login() {
+  return http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+}
+
+export function setup() {
+  const res = login();
+  check(res, { 'setup login ok': (r) => r.status === 200 });
+  return { token: res.json('data.accessToken') };
+}
+
+export function reads(data) {
+  const params = { headers: { Authorization: `Bearer ${data.token}` } };
+  const res = __ITER % 2 === 0
+    ? http.get(`${BASE_URL}/api/notifications/unread-count`, params)
+    : http.get(`${BASE_URL}/api/notifications`, params);
+  check(res, { 'read ok': (r) => r.status === 200 });
+}
+
+export function logins() {
+  // 503 is load shedding working as intended, not an error
+  check(login(), { 'login ok or shed': (r) => r.status === 200 || r.status === 503 });
+}
+
+export function emails() {
+  const res = http.post(`${BASE_URL}/api/auth/register/resend-otp`,
+    JSON.stringify({ userId: __ENV.USER_ID }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(res, { 'resend accepted': (r) => r.status < 500 || r.status === 503 });
+}
+
+export function handleSummary(data) {
+  const p = (scenario) => {
+    const metric = data.metrics[`http_req_duration{scenario:${scenario}}`];
+    return metric ? metric.values : {};
+  };
+  const result = {
+    mode: MODE,
+    rate: RATE,
+    duration: DURATION,
+    reads: p('reads'),
+    logins: p('logins'),
+    emails: p('emails'),
+    failedRate: data.metrics.http_req_failed ? data.metrics.http_req_failed.values.rate : null,
+  };
+  const line = (name) => `${name.padEnd(8)} p50=${fmt(result[name]['p(50)'])} `
+    + `p95=${fmt(result[name]['p(95)'])} p99=${fmt(result[name]['p(99)'])}`;
+  return {
+    stdout: `\n[${MODE}] latency (ms)\n${line('reads')}\n${line('logins')}\n${line('emails')}\n`,
+    [`load-test-${MODE}.json`]: JSON.stringify(result, null, 2),
+  };
+}
+
+function fmt(value) {
+  return value === undefined ? '-' : value.toFixed(1);
+}
@@ -17,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -116,6 +117,14 @@ public class AccessController {
     return ResponseEntity.ok(ApiResponse.success(creds));
   }
 
+  @GetMapping("/occupancy/gym/{gymId}")
+  @PreAuthorize("hasAnyRole('OWNER', 'ADMIN', 'SUPER_ADMIN', 'GYM_OWNER', 'MANAGER', 'STAFF')")
+  @Operation(summary = "Live occupancy", description = "Number of members currently inside a gym")
+  public ResponseEntity<ApiResponse<OccupancyResponse>> getOccupancy(@PathVariable UUID gymId) {
+    return ResponseEntity.ok(ApiResponse.success(
+        new OccupancyResponse(gymId, accessService.getOccupancy(gymId), LocalDateTime.now())));
+  }
+
   @GetMapping("/events/gym/{gymId}")
   @PreAuthorize("hasAnyRole('OWNER', 'ADMIN', 'SUPER_ADMIN', 'GYM_OWNER', 'MANAGER', 'STAFF')")
   @Operation(summary = "List access events", description = "Audit log / tailgating report for a gym")
@@ -0,0 +1,11 @@
+package com.gymmate.access.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record OccupancyResponse(
+    UUID gymId,
+    int inside,
+    LocalDateTime asOf
+) {
+}
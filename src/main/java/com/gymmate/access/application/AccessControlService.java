@@ -1,7 +1,8 @@
 package com.gymmate.access.application;
 
 import com.gymmate.access.domain.AccessLog;
-import com.gymmate.access.infrastructure.AccessLogRepository;
+import com.gymmate.access.domain.enums.AccessDirection;
+import com.gymmate.access.infrastructure.AccessEventWriter;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.user.application.MemberService;
 import com.gymmate.user.domain.Member;
@@ -10,19 +11,20 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class AccessControlService {
 
-    private final AccessLogRepository accessLogRepository;
+    private final AccessEventWriter accessEventWriter;
     private final MemberService memberService;
+    private final OccupancyTracker occupancyTracker;
 
-    // Time window for time-based lockout (in minutes)
-    private static final int LOCKOUT_MINUTES = 15;
+    // Time window for time-based lockout
+    private static final Duration LOCKOUT = Duration.ofMinutes(15);
 
     /**
      * Process a physical access request at a gym.
@@ -36,28 +38,37 @@ public class AccessControlService {
             return recordAccessLog(memberId, gymId, requestedDirection, AccessLog.AccessStatus.DENIED_MEMBERSHIP, accessMethod, "Membership is not active");
         }
 
-        Optional<AccessLog> lastAccess = accessLogRepository.findTopByMemberIdOrderByAccessTimeDesc(memberId);
+        // 2. Anti-passback and lockout, checked and applied atomically against the occupancy tracker
+        AccessDirection direction = requestedDirection == AccessLog.AccessDirection.ENTRY
+                ? AccessDirection.IN : AccessDirection.OUT;
+        LocalDateTime now = LocalDateTime.now();
+        Denial denial = occupancyTracker.tryMove(gymId, memberId, null, direction, now,
+                (presence, credentialLastEntry) -> evaluateMovement(presence, requestedDirection, now));
+        if (denial != null) {
+            return recordAccessLog(memberId, gymId, requestedDirection, denial.status(), accessMethod, denial.reason());
+        }
 
-        if (lastAccess.isPresent()) {
-            AccessLog previous = lastAccess.get();
+        // Access Granted
+        return recordAccessLog(memberId, gymId, requestedDirection, AccessLog.AccessStatus.GRANTED, accessMethod, null);
+    }
 
-            // 2. Strict Anti-Passback
-            if (previous.getDirection() == AccessLog.AccessDirection.ENTRY && requestedDirection == AccessLog.AccessDirection.ENTRY) {
-                // Determine if they just forgot to check out (time based heuristic)
-                if (previous.getAccessTime().plusHours(12).isAfter(LocalDateTime.now())) {
-                    return recordAccessLog(memberId, gymId, requestedDirection, AccessLog.AccessStatus.DENIED_PASSBACK, accessMethod, "User is already checked in");
-                }
-            }
+    private Denial evaluateMovement(OccupancyTracker.Presence presence, AccessLog.AccessDirection requestedDirection, LocalDateTime now) {
+        if (presence.lastMovementAt() == null) {
+            return null;
+        }
 
-            // 3. Time-based Lockout (if entry scanner used again too quickly)
-            if (previous.getDirection() == requestedDirection && 
-                previous.getAccessTime().plusMinutes(LOCKOUT_MINUTES).isAfter(LocalDateTime.now())) {
-                return recordAccessLog(memberId, gymId, requestedDirection, AccessLog.AccessStatus.DENIED_LOCKOUT, accessMethod, "Please wait " + LOCKOUT_MINUTES + " minutes between scans");
-            }
+        // Strict Anti-Passback. Members who forgot to check out are released by the tracker after its max stay.
+        if (presence.inside() && requestedDirection == AccessLog.AccessDirection.ENTRY) {
+            return new Denial(AccessLog.AccessStatus.DENIED_PASSBACK, "User is already checked in");
         }
 
-        // Access Granted
-        return recordAccessLog(memberId, gymId, requestedDirection, AccessLog.AccessStatus.GRANTED, accessMethod, null);
+        // Time-based Lockout (if entry scanner used again too quickly)
+        AccessLog.AccessDirection previousDirection = presence.inside()
+                ? AccessLog.AccessDirection.ENTRY : AccessLog.AccessDirection.EXIT;
+        if (previousDirection == requestedDirection && presence.movedWithin(LOCKOUT, now)) {
+            return new Denial(AccessLog.AccessStatus.DENIED_LOCKOUT, "Please wait " + LOCKOUT.toMinutes() + " minutes between scans");
+        }
+        return null;
     }
 
     /**
@@ -79,6 +90,9 @@ public class AccessControlService {
                 .build();
         log.setGymId(gymId);
         
-        return accessLogRepository.save(log);
+        return accessEventWriter.write(log);
+    }
+
+    private record Denial(AccessLog.AccessStatus status, String reason) {
     }
 }
@@ -0,0 +1,153 @@
+package com.gymmate.access.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gymmate.access.domain.AccessCredential;
+import com.gymmate.access.domain.AccessPoint;
+import com.gymmate.access.domain.DoorBenefit;
+import com.gymmate.access.infrastructure.AccessCredentialRepository;
+import com.gymmate.access.infrastructure.AccessPointRepository;
+import com.gymmate.access.infrastructure.AccessScheduleRepository;
+import com.gymmate.access.infrastructure.DoorBenefitRepository;
+import com.gymmate.membership.domain.MemberMembership;
+import com.gymmate.membership.infrastructure.MemberMembershipRepository;
+import com.gymmate.shared.exception.ResourceNotFoundException;
+import com.gymmate.user.domain.Member;
+import com.gymmate.user.domain.events.MemberEntitlementChangedEvent;
+import com.gymmate.user.infrastructure.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory entitlement data for the scan hot path: one {@link EntitlementSnapshot} per
+ * credential, plus access points and their door-benefit plan sets.
+ *
+ * Snapshots are evicted on {@link MemberEntitlementChangedEvent}, which is also published when
+ * a credential is revoked.
+ * Door benefits and access schedules have no write path in the application yet, so those
+ * rely on the TTL.
+ *
+ * Callers on the scan path run without a transaction; a cache miss loads in its own short
+ * read-only transaction, so a hit never borrows a database connection.
+ */
+@Slf4j
+@Component
+public class AccessEntitlementCache {
+
+  private final AccessCredentialRepository accessCredentialRepository;
+  private final AccessPointRepository accessPointRepository;
+  private final DoorBenefitRepository doorBenefitRepository;
+  private final AccessScheduleRepository accessScheduleRepository;
+  private final MemberRepository memberRepository;
+  private final MemberMembershipRepository memberMembershipRepository;
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final Cache<CredentialKey, EntitlementSnapshot> snapshots;
+  private final Cache<UUID, AccessPoint> accessPoints;
+  private final Cache<UUID, Set<UUID>> doorBenefitPlans;
+
+  public AccessEntitlementCache(AccessCredentialRepository accessCredentialRepository,
+                                AccessPointRepository accessPointRepository,
+                                DoorBenefitRepository doorBenefitRepository,
+                                AccessScheduleRepository accessScheduleRepository,
+                                MemberRepository memberRepository,
+                                MemberMembershipRepository memberMembershipRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.access.entitlement-cache.max-size:50000}") long maxSize,
+                                @Value("${app.access.entitlement-cache.ttl-minutes:10}") long ttlMinutes) {
+    this.accessCredentialRepository = accessCredentialRepository;
+    this.accessPointRepository = accessPointRepository;
+    this.doorBenefitRepository = doorBenefitRepository;
+    this.accessScheduleRepository = accessScheduleRepository;
+    this.memberRepository = memberRepository;
+    this.memberMembershipRepository = memberMembershipRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.snapshots = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .build();
+    this.accessPoints = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .build();
+    this.doorBenefitPlans = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .build();
+  }
+
+  public AccessPoint getAccessPoint(UUID accessPointId) {
+    return accessPoints.get(accessPointId, id -> readOnlyTransaction.execute(status -> accessPointRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("AccessPoint", id.toString()))));
+  }
+
+  /** Entitlement snapshot for an active credential at the given gym, if one exists. */
+  public Optional<EntitlementSnapshot> getSnapshot(UUID gymId, String tokenHash) {
+    return Optional.ofNullable(snapshots.get(new CredentialKey(gymId, tokenHash),
+        key -> readOnlyTransaction.execute(status -> accessCredentialRepository
+            .findByTokenHashAndActiveTrue(key.tokenHash())
+            .map(this::buildSnapshot)
+            .orElse(null))));
+  }
+
+  /**
+   * Plans allowed through the access point. An empty set means no benefit is configured
+   * and the point is open to every active member.
+   */
+  public Set<UUID> getDoorBenefitPlans(UUID accessPointId) {
+    return doorBenefitPlans.get(accessPointId, id -> readOnlyTransaction.execute(status -> doorBenefitRepository
+        .findByAccessPointId(id).stream()
+        .map(DoorBenefit::getMembershipPlanId)
+        .collect(Collectors.toUnmodifiableSet())));
+  }
+
+  public void evictMember(UUID memberId) {
+    snapshots.asMap().values().removeIf(snapshot -> memberId.equals(snapshot.memberId()));
+  }
+
+  public void evictAccessPoint(UUID accessPointId) {
+    accessPoints.invalidate(accessPointId);
+    doorBenefitPlans.invalidate(accessPointId);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onMemberEntitlementChanged(MemberEntitlementChangedEvent event) {
+    log.debug("Evicting entitlement snapshots for member {}", event.getMemberId());
+    evictMember(event.getMemberId());
+  }
+
+  private EntitlementSnapshot buildSnapshot(AccessCredential credential) {
+    Member member = memberRepository.findById(credential.getMemberId()).orElse(null);
+    if (member == null) {
+      return new EntitlementSnapshot(credential.getId(), credential.getExpiresAt(), null, null,
+          false, false, null, List.of());
+    }
+
+    Optional<MemberMembership> membership = memberMembershipRepository.findActiveMembershipByMemberId(member.getId());
+    UUID planId = membership.map(MemberMembership::getMembershipPlanId).orElse(null);
+    List<EntitlementSnapshot.ScheduleWindow> windows = planId == null ? List.of()
+        : accessScheduleRepository.findByMembershipPlanId(planId).stream()
+            .map(EntitlementSnapshot.ScheduleWindow::of)
+            .toList();
+
+    return new EntitlementSnapshot(credential.getId(), credential.getExpiresAt(), member.getId(),
+        member.getStatus(), member.isWaiverSigned(), membership.isPresent(), planId, windows);
+  }
+
+  private record CredentialKey(UUID gymId, String tokenHash) {
+  }
+}
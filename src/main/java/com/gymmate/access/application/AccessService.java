@@ -13,19 +13,18 @@ import com.gymmate.access.events.AccessDeniedEvent;
 import com.gymmate.access.events.TailgatingSuspectedEvent;
 import com.gymmate.access.infrastructure.AccessCredentialRepository;
 import com.gymmate.access.infrastructure.AccessEventRepository;
+import com.gymmate.access.infrastructure.AccessEventWriter;
 import com.gymmate.access.infrastructure.AccessPointRepository;
-import com.gymmate.access.infrastructure.AccessScheduleRepository;
-import com.gymmate.access.infrastructure.DoorBenefitRepository;
-import com.gymmate.membership.domain.MemberMembership;
-import com.gymmate.membership.infrastructure.MemberMembershipRepository;
 import com.gymmate.shared.constants.MemberStatus;
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import com.gymmate.user.domain.Member;
+import com.gymmate.user.domain.events.MemberEntitlementChangedEvent;
 import com.gymmate.user.infrastructure.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
@@ -33,7 +32,7 @@ import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -53,10 +52,10 @@ public class AccessService {
   private final AccessPointRepository accessPointRepository;
   private final AccessCredentialRepository accessCredentialRepository;
   private final AccessEventRepository accessEventRepository;
-  private final DoorBenefitRepository doorBenefitRepository;
-  private final AccessScheduleRepository accessScheduleRepository;
+  private final AccessEventWriter accessEventWriter;
   private final MemberRepository memberRepository;
-  private final MemberMembershipRepository memberMembershipRepository;
+  private final AccessEntitlementCache entitlementCache;
+  private final OccupancyTracker occupancyTracker;
   private final List<AccessDevicePort> devicePorts;
   private final ApplicationEventPublisher eventPublisher;
 
@@ -66,92 +65,87 @@ public class AccessService {
 
   /**
    * Validate a credential scan at an access point and decide entry. Records and
-   * returns the resulting {@link AccessEvent} (granted or denied).
+   * returns the resulting {@link AccessEvent} (granted or denied). Entitlement data
+   * comes from {@link AccessEntitlementCache} and the event is handed to
+   * {@link AccessEventWriter}, so the decision is returned before the row is committed.
+   * Runs outside any transaction; only a cache miss opens one, inside the cache loader.
    */
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public AccessEvent scan(String rawToken, UUID accessPointId, AccessDirection direction) {
-    AccessPoint point = accessPointRepository.findById(accessPointId)
-        .orElseThrow(() -> new ResourceNotFoundException("AccessPoint", accessPointId.toString()));
+    AccessPoint point = entitlementCache.getAccessPoint(accessPointId);
 
     AccessDirection dir = direction == null ? AccessDirection.IN : direction;
+    LocalDateTime now = LocalDateTime.now();
 
-    AccessCredential credential = (rawToken == null) ? null
-        : accessCredentialRepository.findByTokenHashAndActiveTrue(sha256(rawToken)).orElse(null);
+    EntitlementSnapshot snapshot = (rawToken == null) ? null
+        : entitlementCache.getSnapshot(point.getGymId(), sha256(rawToken)).orElse(null);
 
-    Member member = null;
-    if (credential != null && !credential.isExpired()) {
-      member = memberRepository.findById(credential.getMemberId()).orElse(null);
+    UUID credentialId = snapshot != null ? snapshot.credentialId() : null;
+    UUID memberId = null;
+    if (snapshot != null && !snapshot.isCredentialExpired(now)) {
+      memberId = snapshot.memberId();
     }
 
     // Exit is always recorded (no entitlement checks) to keep occupancy accurate.
     if (dir == AccessDirection.OUT) {
-      return record(point, credential, member, dir, AccessDecision.GRANTED, null, false, null);
+      if (memberId != null) {
+        occupancyTracker.recordMove(point.getGymId(), memberId, credentialId, dir, now);
+      }
+      return record(point, credentialId, memberId, dir, AccessDecision.GRANTED, null, false, null);
     }
 
-    if (credential == null || credential.isExpired() || member == null) {
-      return deny(point, credential, member, dir, DenyReason.INVALID_CREDENTIAL);
+    if (memberId == null) {
+      return deny(point, credentialId, null, dir, DenyReason.INVALID_CREDENTIAL);
     }
 
-    DenyReason reason = evaluateEntitlement(point, member);
+    DenyReason reason = evaluateEntitlement(point, snapshot, now);
     if (reason != null) {
-      return deny(point, credential, member, dir, reason);
+      return deny(point, credentialId, memberId, dir, reason);
     }
 
-    String tailgating = evaluateTailgating(point, credential, member);
+    // The tracker marks the member inside in the same step as the check, so two
+    // simultaneous scans of one credential cannot both pass.
+    String tailgating = occupancyTracker.tryMove(point.getGymId(), memberId, credentialId, dir, now,
+        (presence, credentialLastEntry) -> evaluateTailgating(point, presence, credentialLastEntry, now));
     if (tailgating != null) {
-      AccessEvent ev = record(point, credential, member, dir,
+      AccessEvent ev = record(point, credentialId, memberId, dir,
           AccessDecision.DENIED, DenyReason.TAILGATING_BLOCKED, true, tailgating);
       eventPublisher.publishEvent(TailgatingSuspectedEvent.builder()
           .organisationId(point.getOrganisationId()).gymId(point.getGymId())
-          .memberId(member.getId()).accessPointId(point.getId())
+          .memberId(memberId).accessPointId(point.getId())
           .accessPointName(point.getName()).reason(tailgating).build());
       return ev;
     }
 
     devicePort(point).openOnce(point);
-    return record(point, credential, member, dir, AccessDecision.GRANTED, null, false, null);
+    return record(point, credentialId, memberId, dir, AccessDecision.GRANTED, null, false, null);
   }
 
   /** Entry-decision pipeline. Returns the first failing reason, or null if allowed. */
-  private DenyReason evaluateEntitlement(AccessPoint point, Member member) {
-    if (member.getStatus() == MemberStatus.SUSPENDED) {
+  private DenyReason evaluateEntitlement(AccessPoint point, EntitlementSnapshot snapshot, LocalDateTime now) {
+    if (snapshot.memberStatus() == MemberStatus.SUSPENDED) {
       return DenyReason.SUSPENDED_OR_FROZEN;
     }
-    if (!member.isActive()) {
-      return DenyReason.NO_ACTIVE_MEMBERSHIP;
-    }
-    Optional<MemberMembership> membershipOpt =
-        memberMembershipRepository.findActiveMembershipByMemberId(member.getId());
-    if (membershipOpt.isEmpty()) {
+    if (snapshot.memberStatus() != MemberStatus.ACTIVE || !snapshot.hasActiveMembership()) {
       return DenyReason.NO_ACTIVE_MEMBERSHIP;
     }
-    MemberMembership membership = membershipOpt.get();
 
-    if (!member.isWaiverSigned()) {
+    if (!snapshot.waiverSigned()) {
       return DenyReason.INCOMPLETE_SIGNUP;
     }
 
-    UUID planId = membership.getMembershipPlanId();
+    UUID planId = snapshot.planId();
 
     // Door benefit: if any benefit is configured for this point, the member's
     // plan must be among them.
-    if (doorBenefitRepository.existsByAccessPointId(point.getId())
-        && (planId == null
-            || !doorBenefitRepository.existsByAccessPointIdAndMembershipPlanId(point.getId(), planId))) {
+    Set<UUID> allowedPlans = entitlementCache.getDoorBenefitPlans(point.getId());
+    if (!allowedPlans.isEmpty() && (planId == null || !allowedPlans.contains(planId))) {
       return DenyReason.NO_DOOR_BENEFIT;
     }
 
     // Access schedule: if windows exist for this plan, now must fall within one.
-    if (planId != null) {
-      var schedules = accessScheduleRepository.findByMembershipPlanId(planId);
-      if (!schedules.isEmpty()) {
-        LocalDateTime now = LocalDateTime.now();
-        boolean withinWindow = schedules.stream()
-            .anyMatch(s -> s.matches(now.getDayOfWeek(), now.toLocalTime()));
-        if (!withinWindow) {
-          return DenyReason.OUTSIDE_ACCESS_TIMES;
-        }
-      }
+    if (!snapshot.isWithinSchedule(now)) {
+      return DenyReason.OUTSIDE_ACCESS_TIMES;
     }
 
     // OVERDUE_OVER_LIMIT, VISITS_EXHAUSTED, STOP_AT_GATE_TASK are reserved for
@@ -160,46 +154,40 @@ public class AccessService {
   }
 
   /** Anti-tailgating checks (run after a grant). Returns a reason string when blocked. */
-  private String evaluateTailgating(AccessPoint point, AccessCredential credential, Member member) {
+  private String evaluateTailgating(AccessPoint point, OccupancyTracker.Presence presence,
+                                    LocalDateTime credentialLastEntry, LocalDateTime now) {
     // One-open-session / pass-back: member already inside with no exit recorded.
-    Optional<AccessEvent> lastGranted = accessEventRepository
-        .findTopByMemberIdAndDecisionOrderByOccurredAtDesc(member.getId(), AccessDecision.GRANTED);
-    if (lastGranted.isPresent() && lastGranted.get().getDirection() == AccessDirection.IN) {
+    if (presence.inside()) {
       return "member already inside (no exit recorded)";
     }
 
     // Re-entry lockout: credential re-used too soon to wave a second person in.
     int lockout = point.getReentryLockoutSeconds() == null ? 0 : point.getReentryLockoutSeconds();
-    if (lockout > 0) {
-      Optional<AccessEvent> lastIn = accessEventRepository
-          .findTopByCredentialIdAndDecisionAndDirectionOrderByOccurredAtDesc(
-              credential.getId(), AccessDecision.GRANTED, AccessDirection.IN);
-      if (lastIn.isPresent()
-          && lastIn.get().getOccurredAt().isAfter(LocalDateTime.now().minusSeconds(lockout))) {
-        return "credential re-used within " + lockout + "s lockout window";
-      }
+    if (lockout > 0 && credentialLastEntry != null
+        && credentialLastEntry.isAfter(now.minusSeconds(lockout))) {
+      return "credential re-used within " + lockout + "s lockout window";
     }
     return null;
   }
 
-  private AccessEvent deny(AccessPoint point, AccessCredential credential, Member member,
+  private AccessEvent deny(AccessPoint point, UUID credentialId, UUID memberId,
                            AccessDirection dir, DenyReason reason) {
-    AccessEvent ev = record(point, credential, member, dir, AccessDecision.DENIED, reason, false, null);
+    AccessEvent ev = record(point, credentialId, memberId, dir, AccessDecision.DENIED, reason, false, null);
     eventPublisher.publishEvent(AccessDeniedEvent.builder()
         .organisationId(point.getOrganisationId()).gymId(point.getGymId())
-        .memberId(member != null ? member.getId() : null)
+        .memberId(memberId)
         .accessPointId(point.getId()).accessPointName(point.getName())
         .denyReason(reason).build());
     return ev;
   }
 
-  private AccessEvent record(AccessPoint point, AccessCredential credential, Member member,
+  private AccessEvent record(AccessPoint point, UUID credentialId, UUID memberId,
                              AccessDirection dir, AccessDecision decision, DenyReason reason,
                              boolean tailgating, String note) {
     AccessEvent ev = AccessEvent.builder()
         .accessPointId(point.getId())
-        .credentialId(credential != null ? credential.getId() : null)
-        .memberId(member != null ? member.getId() : null)
+        .credentialId(credentialId)
+        .memberId(memberId)
         .direction(dir)
         .decision(decision)
         .denyReason(reason)
@@ -209,7 +197,7 @@ public class AccessService {
         .build();
     ev.setGymId(point.getGymId());
     ev.setOrganisationId(point.getOrganisationId());
-    return accessEventRepository.save(ev);
+    return accessEventWriter.write(ev);
   }
 
   private AccessDevicePort devicePort(AccessPoint point) {
@@ -229,10 +217,10 @@ public class AccessService {
    * passed than there were valid scans, flag tailgating, attach any captured
    * image, and raise a real-time alert.
    */
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public AccessEvent handleDeviceEvent(UUID accessPointId, Integer validScanCount,
                                        Integer passCount, String capturedImageUrl, String note) {
-    AccessPoint point = getAccessPoint(accessPointId);
+    AccessPoint point = entitlementCache.getAccessPoint(accessPointId);
 
     boolean tailgating = passCount != null && validScanCount != null && passCount > validScanCount;
 
@@ -249,7 +237,7 @@ public class AccessService {
         .build();
     ev.setGymId(point.getGymId());
     ev.setOrganisationId(point.getOrganisationId());
-    ev = accessEventRepository.save(ev);
+    ev = accessEventWriter.write(ev);
 
     if (tailgating) {
       eventPublisher.publishEvent(TailgatingSuspectedEvent.builder()
@@ -294,6 +282,7 @@ public class AccessService {
         .orElseThrow(() -> new ResourceNotFoundException("AccessCredential", credentialId.toString()));
     credential.setActive(false);
     accessCredentialRepository.save(credential);
+    eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, credential.getMemberId()));
     log.info("Revoked access credential {}", credentialId);
   }
 
@@ -319,6 +308,11 @@ public class AccessService {
         .orElseThrow(() -> new ResourceNotFoundException("AccessPoint", id.toString()));
   }
 
+  /** Live headcount for a gym. */
+  public int getOccupancy(UUID gymId) {
+    return occupancyTracker.occupancy(gymId);
+  }
+
   public List<AccessEvent> getEventsByGym(UUID gymId, boolean tailgatingOnly) {
     return tailgatingOnly
         ? accessEventRepository.findByGymIdAndTailgatingSuspectedTrueOrderByOccurredAtDesc(gymId)
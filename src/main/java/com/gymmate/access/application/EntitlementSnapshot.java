@@ -0,0 +1,50 @@
+package com.gymmate.access.application;
+
+import com.gymmate.access.domain.AccessSchedule;
+import com.gymmate.shared.constants.MemberStatus;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything the entry-decision pipeline needs to know about a credential,
+ * precomputed so a turnstile scan can be decided without touching the database.
+ * {@code memberId} is null when the credential's member no longer exists.
+ */
+public record EntitlementSnapshot(
+    UUID credentialId,
+    LocalDateTime credentialExpiresAt,
+    UUID memberId,
+    MemberStatus memberStatus,
+    boolean waiverSigned,
+    boolean hasActiveMembership,
+    UUID planId,
+    List<ScheduleWindow> scheduleWindows) {
+
+  public boolean isCredentialExpired(LocalDateTime now) {
+    return credentialExpiresAt != null && now.isAfter(credentialExpiresAt);
+  }
+
+  /** True when no windows are configured for the plan, or {@code now} falls inside one. */
+  public boolean isWithinSchedule(LocalDateTime now) {
+    return scheduleWindows.isEmpty()
+        || scheduleWindows.stream().anyMatch(w -> w.matches(now.getDayOfWeek(), now.toLocalTime()));
+  }
+
+  /** Immutable copy of an {@link AccessSchedule} row. */
+  public record ScheduleWindow(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+
+    static ScheduleWindow of(AccessSchedule schedule) {
+      return new ScheduleWindow(schedule.getDayOfWeek(), schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    public boolean matches(DayOfWeek day, LocalTime time) {
+      boolean dayOk = dayOfWeek == null || dayOfWeek == day;
+      boolean timeOk = !time.isBefore(startTime) && !time.isAfter(endTime);
+      return dayOk && timeOk;
+    }
+  }
+}
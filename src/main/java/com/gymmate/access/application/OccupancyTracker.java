@@ -0,0 +1,266 @@
+package com.gymmate.access.application;
+
+import com.gymmate.access.domain.AccessEvent;
+import com.gymmate.access.domain.AccessLog;
+import com.gymmate.access.domain.enums.AccessDecision;
+import com.gymmate.access.domain.enums.AccessDirection;
+import com.gymmate.access.infrastructure.AccessEventRepository;
+import com.gymmate.access.infrastructure.AccessLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inside/outside state per member, last entry per credential and a live headcount
+ * per gym. Pass-back and re-entry lockout are decided from this state instead of querying the
+ * latest AccessEvent / AccessLog rows.
+ *
+ * Updates for a member are serialised on a lock stripe chosen by member ID, so a check and the
+ * movement it allows happen atomically. A member still marked inside after {@code max-stay-hours}
+ * is treated as having left without scanning out.
+ * State is rebuilt from the granted movements of the last {@code max-stay-hours} at startup and
+ * is local to the node.
+ */
+@Slf4j
+@Component
+public class OccupancyTracker {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final AccessEventRepository accessEventRepository;
+  private final AccessLogRepository accessLogRepository;
+  private final Duration maxStay;
+
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  private final Map<UUID, Presence> presence = new ConcurrentHashMap<>();
+  private final Map<UUID, LocalDateTime> lastEntryByCredential = new ConcurrentHashMap<>();
+  private final Map<UUID, AtomicInteger> headcount = new ConcurrentHashMap<>();
+
+  public OccupancyTracker(AccessEventRepository accessEventRepository,
+                          AccessLogRepository accessLogRepository,
+                          @Value("${app.access.occupancy.max-stay-hours:12}") long maxStayHours) {
+    this.accessEventRepository = accessEventRepository;
+    this.accessLogRepository = accessLogRepository;
+    this.maxStay = Duration.ofHours(maxStayHours);
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Decide a movement against the member's current state and apply it when allowed.
+   * The rule returns a rejection, or null to let the movement through. Inside a transaction the
+   * movement is undone again if the transaction rolls back.
+   */
+  public <T> T tryMove(UUID gymId, UUID memberId, UUID credentialId, AccessDirection direction,
+                       LocalDateTime at, MovementRule<T> rule) {
+    synchronized (lockFor(memberId)) {
+      Presence before = current(memberId, at);
+      LocalDateTime credentialLastEntry = credentialId == null ? null : lastEntryByCredential.get(credentialId);
+      T rejection = rule.check(before, credentialLastEntry);
+      if (rejection == null) {
+        Presence after = apply(gymId, memberId, credentialId, direction, at);
+        undoOnRollback(memberId, credentialId, before, credentialLastEntry, after);
+      }
+      return rejection;
+    }
+  }
+
+  /** Apply a movement unconditionally, e.g. exits, which are never refused. */
+  public void recordMove(UUID gymId, UUID memberId, UUID credentialId, AccessDirection direction,
+                         LocalDateTime at) {
+    tryMove(gymId, memberId, credentialId, direction, at, (presence, lastEntry) -> null);
+  }
+
+  public Presence presenceOf(UUID memberId) {
+    synchronized (lockFor(memberId)) {
+      return current(memberId, LocalDateTime.now());
+    }
+  }
+
+  /** Number of members currently inside the gym. */
+  public int occupancy(UUID gymId) {
+    AtomicInteger count = headcount.get(gymId);
+    return count == null ? 0 : count.get();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  /**
+   * Replace the state with a replay of the granted movements since {@code now - max-stay}.
+   * Intended for startup, before scans arrive.
+   */
+  public void rebuild() {
+    LocalDateTime since = LocalDateTime.now().minus(maxStay);
+    try {
+      List<Movement> movements = new ArrayList<>();
+      for (AccessEvent ev : accessEventRepository
+          .findByDecisionAndOccurredAtAfterOrderByOccurredAtAsc(AccessDecision.GRANTED, since)) {
+        if (ev.getMemberId() != null) {
+          movements.add(new Movement(ev.getGymId(), ev.getMemberId(), ev.getCredentialId(),
+              ev.getDirection(), ev.getOccurredAt()));
+        }
+      }
+      for (AccessLog entry : accessLogRepository
+          .findByStatusAndAccessTimeAfterOrderByAccessTimeAsc(AccessLog.AccessStatus.GRANTED, since)) {
+        movements.add(new Movement(entry.getGymId(), entry.getMemberId(), null,
+            entry.getDirection() == AccessLog.AccessDirection.ENTRY ? AccessDirection.IN : AccessDirection.OUT,
+            entry.getAccessTime()));
+      }
+      movements.sort(Comparator.comparing(Movement::at));
+
+      presence.clear();
+      lastEntryByCredential.clear();
+      headcount.clear();
+      movements.forEach(m -> {
+        synchronized (lockFor(m.memberId())) {
+          apply(m.gymId(), m.memberId(), m.credentialId(), m.direction(), m.at());
+        }
+      });
+      log.info("Occupancy rebuilt from {} movements, {} members inside", movements.size(),
+          headcount.values().stream().mapToInt(AtomicInteger::get).sum());
+    } catch (Exception e) {
+      log.error("Failed to rebuild occupancy state: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Check out members who overstayed and drop state that no longer affects any decision.
+   */
+  @Scheduled(fixedDelayString = "${app.access.occupancy.sweep-interval-ms:300000}")
+  public void sweep() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime cutoff = now.minus(maxStay);
+    presence.keySet().forEach(memberId -> {
+      synchronized (lockFor(memberId)) {
+        Presence p = current(memberId, now);
+        if (!p.inside() && p.lastMovementAt() != null && p.lastMovementAt().isBefore(cutoff)) {
+          presence.remove(memberId);
+        }
+      }
+    });
+    lastEntryByCredential.values().removeIf(at -> at.isBefore(cutoff));
+  }
+
+  /** Current state of a member; caller holds the member's lock. Overstays are checked out here. */
+  private Presence current(UUID memberId, LocalDateTime now) {
+    Presence p = presence.get(memberId);
+    if (p == null) {
+      return Presence.OUTSIDE;
+    }
+    if (p.inside() && p.lastMovementAt().plus(maxStay).isBefore(now)) {
+      decrement(p.gymId());
+      p = new Presence(p.gymId(), false, p.lastMovementAt());
+      presence.put(memberId, p);
+    }
+    return p;
+  }
+
+  private Presence apply(UUID gymId, UUID memberId, UUID credentialId, AccessDirection direction,
+                         LocalDateTime at) {
+    Presence before = presence.get(memberId);
+    if (before != null && before.inside()) {
+      decrement(before.gymId());
+    }
+    boolean inside = direction == AccessDirection.IN;
+    if (inside) {
+      headcount.computeIfAbsent(gymId, id -> new AtomicInteger()).incrementAndGet();
+      if (credentialId != null) {
+        lastEntryByCredential.put(credentialId, at);
+      }
+    }
+    Presence after = new Presence(gymId, inside, at);
+    presence.put(memberId, after);
+    return after;
+  }
+
+  private void undoOnRollback(UUID memberId, UUID credentialId, Presence before,
+                              LocalDateTime credentialLastEntry, Presence applied) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_ROLLED_BACK) {
+          return;
+        }
+        synchronized (lockFor(memberId)) {
+          // Only undo if nothing has moved the member since
+          if (!applied.equals(presence.get(memberId))) {
+            return;
+          }
+          if (applied.inside()) {
+            decrement(applied.gymId());
+          }
+          if (before == Presence.OUTSIDE) {
+            presence.remove(memberId);
+          } else {
+            presence.put(memberId, before);
+            if (before.inside()) {
+              headcount.computeIfAbsent(before.gymId(), id -> new AtomicInteger()).incrementAndGet();
+            }
+          }
+          if (credentialId != null && applied.inside()) {
+            if (credentialLastEntry == null) {
+              lastEntryByCredential.remove(credentialId);
+            } else {
+              lastEntryByCredential.put(credentialId, credentialLastEntry);
+            }
+          }
+        }
+      }
+    });
+  }
+
+  private void decrement(UUID gymId) {
+    AtomicInteger count = headcount.get(gymId);
+    if (count != null) {
+      count.updateAndGet(c -> Math.max(0, c - 1));
+    }
+  }
+
+  private Object lockFor(UUID memberId) {
+    return locks[Math.floorMod(Objects.hashCode(memberId), LOCK_STRIPES)];
+  }
+
+  /**
+   * Where a member was last seen. {@code lastMovementAt} is null when no movement is known.
+   */
+  public record Presence(UUID gymId, boolean inside, LocalDateTime lastMovementAt) {
+
+    static final Presence OUTSIDE = new Presence(null, false, null);
+
+    public boolean movedWithin(Duration window, LocalDateTime now) {
+      return lastMovementAt != null && lastMovementAt.plus(window).isAfter(now);
+    }
+  }
+
+  @FunctionalInterface
+  public interface MovementRule<T> {
+    T check(Presence presence, LocalDateTime credentialLastEntry);
+  }
+
+  private record Movement(UUID gymId, UUID memberId, UUID credentialId, AccessDirection direction,
+                          LocalDateTime at) {
+  }
+}
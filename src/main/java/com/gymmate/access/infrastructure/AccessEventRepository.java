@@ -6,6 +6,7 @@ import com.gymmate.access.domain.enums.AccessDirection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,4 +25,8 @@ public interface AccessEventRepository extends JpaRepository<AccessEvent, UUID>
   /** Most recent granted entry for a credential — used for the re-entry lockout. */
   Optional<AccessEvent> findTopByCredentialIdAndDecisionAndDirectionOrderByOccurredAtDesc(
       UUID credentialId, AccessDecision decision, AccessDirection direction);
+
+  /** Events since a point in time, oldest first — used to rebuild occupancy at startup. */
+  List<AccessEvent> findByDecisionAndOccurredAtAfterOrderByOccurredAtAsc(
+      AccessDecision decision, LocalDateTime since);
 }
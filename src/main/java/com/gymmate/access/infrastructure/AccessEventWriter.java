@@ -0,0 +1,354 @@
+package com.gymmate.access.infrastructure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmate.access.domain.AccessEvent;
+import com.gymmate.access.domain.AccessLog;
+import com.gymmate.shared.domain.GymScopedEntity;
+import com.gymmate.shared.multitenancy.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append pipeline for {@link AccessEvent} and {@link AccessLog} rows. Records are assigned
+ * their ID up front and returned immediately. A background thread then writes them as JDBC
+ * batch inserts, once {@code batch-size} records are queued or the oldest has waited
+ * {@code flush-interval-ms}.
+ *
+ * When the buffer is full, the caller waits up to {@code offer-timeout-ms} and then writes its
+ * record itself, so bursts slow scans down instead of dropping rows. Every write runs in its own
+ * transaction, so a write-through never joins (or is rejected by, or rolls back) the caller's. Batches that still fail
+ * after retrying, and anything left in the buffer at shutdown, are appended to
+ * {@code spill-file}. That file is replayed on the next start.
+ */
+@Slf4j
+@Component
+public class AccessEventWriter implements SmartLifecycle {
+
+  private static final int MAX_ATTEMPTS = 3;
+  private static final String TYPE_EVENT = "event";
+  private static final String TYPE_LOG = "log";
+
+  private static final String INSERT_EVENT = """
+      INSERT INTO access_events (id, organisation_id, gym_id, member_id, access_point_id, credential_id,
+          direction, decision, deny_reason, tailgating_suspected, occurred_at, valid_scan_count,
+          device_pass_count, captured_image_url, note, created_by, created_at, updated_at, is_active)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private static final String INSERT_LOG = """
+      INSERT INTO access_logs (id, organisation_id, gym_id, member_id, access_time, direction, status,
+          access_method, denial_reason, created_by, created_at, updated_at, is_active)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final BlockingQueue<Object> buffer;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final long offerTimeoutMs;
+  private final Path spillFile;
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  public AccessEventWriter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           @Value("${app.access.event-writer.capacity:10000}") int capacity,
+                           @Value("${app.access.event-writer.batch-size:200}") int batchSize,
+                           @Value("${app.access.event-writer.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${app.access.event-writer.offer-timeout-ms:50}") long offerTimeoutMs,
+                           @Value("${app.access.event-writer.spill-file:data/access-events.spill}") String spillFile) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.objectMapper = objectMapper;
+    this.buffer = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.flushIntervalMs = flushIntervalMs;
+    this.offerTimeoutMs = offerTimeoutMs;
+    this.spillFile = Path.of(spillFile);
+  }
+
+  public AccessEvent write(AccessEvent event) {
+    prepare(event);
+    enqueue(event);
+    return event;
+  }
+
+  public AccessLog write(AccessLog accessLog) {
+    prepare(accessLog);
+    enqueue(accessLog);
+    return accessLog;
+  }
+
+  /** Number of records waiting to be written. */
+  public int pending() {
+    return buffer.size();
+  }
+
+  // ------------------------------------------------------------------
+  // Lifecycle
+  // ------------------------------------------------------------------
+
+  @Override
+  public void start() {
+    replaySpill();
+    running = true;
+    flusher = new Thread(this::runFlusher, "access-event-writer");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (flusher != null) {
+      flusher.interrupt();
+      try {
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    List<Object> remaining = new ArrayList<>();
+    buffer.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      spill(remaining);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // ------------------------------------------------------------------
+  // Pipeline
+  // ------------------------------------------------------------------
+
+  private void enqueue(Object record) {
+    boolean queued = false;
+    if (running) {
+      try {
+        queued = buffer.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (!queued) {
+      // Not started, shutting down, or saturated: write through on the caller's thread
+      flush(List.of(record));
+    }
+  }
+
+  private void runFlusher() {
+    List<Object> batch = new ArrayList<>(batchSize);
+    while (running || !buffer.isEmpty()) {
+      try {
+        Object first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+          buffer.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          Object next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        // Interrupted by stop(): write what we have and drain the rest without waiting
+        buffer.drainTo(batch);
+      }
+      if (!batch.isEmpty()) {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<Object> batch) {
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      try {
+        insert(batch);
+        return;
+      } catch (Exception e) {
+        log.warn("Access event batch insert failed (attempt {}/{}): {}", attempt, MAX_ATTEMPTS, e.getMessage());
+      }
+    }
+    spill(batch);
+  }
+
+  private void insert(List<?> batch) {
+    List<AccessEvent> events = new ArrayList<>();
+    List<AccessLog> logs = new ArrayList<>();
+    for (Object record : batch) {
+      if (record instanceof AccessEvent event) {
+        events.add(event);
+      } else if (record instanceof AccessLog accessLog) {
+        logs.add(accessLog);
+      }
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      if (!events.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (ps, e) -> {
+          ps.setObject(1, e.getId());
+          ps.setObject(2, e.getOrganisationId());
+          ps.setObject(3, e.getGymId());
+          ps.setObject(4, e.getMemberId());
+          ps.setObject(5, e.getAccessPointId());
+          ps.setObject(6, e.getCredentialId());
+          ps.setString(7, e.getDirection().name());
+          ps.setString(8, e.getDecision().name());
+          ps.setString(9, e.getDenyReason() == null ? null : e.getDenyReason().name());
+          ps.setBoolean(10, e.isTailgatingSuspected());
+          ps.setTimestamp(11, Timestamp.valueOf(e.getOccurredAt()));
+          ps.setObject(12, e.getValidScanCount());
+          ps.setObject(13, e.getDevicePassCount());
+          ps.setString(14, e.getCapturedImageUrl());
+          ps.setString(15, e.getNote());
+          ps.setString(16, e.getCreatedBy());
+          ps.setTimestamp(17, Timestamp.valueOf(e.getCreatedAt()));
+          ps.setTimestamp(18, Timestamp.valueOf(e.getUpdatedAt()));
+          ps.setBoolean(19, e.isActive());
+        });
+      }
+      if (!logs.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_LOG, logs, logs.size(), (ps, l) -> {
+          ps.setObject(1, l.getId());
+          ps.setObject(2, l.getOrganisationId());
+          ps.setObject(3, l.getGymId());
+          ps.setObject(4, l.getMemberId());
+          ps.setTimestamp(5, Timestamp.valueOf(l.getAccessTime()));
+          ps.setString(6, l.getDirection().name());
+          ps.setString(7, l.getStatus().name());
+          ps.setString(8, l.getAccessMethod());
+          ps.setString(9, l.getDenialReason());
+          ps.setString(10, l.getCreatedBy());
+          ps.setTimestamp(11, Timestamp.valueOf(l.getCreatedAt()));
+          ps.setTimestamp(12, Timestamp.valueOf(l.getUpdatedAt()));
+          ps.setBoolean(13, l.isActive());
+        });
+      }
+    });
+  }
+
+  // ------------------------------------------------------------------
+  // Spill file
+  // ------------------------------------------------------------------
+
+  private synchronized void spill(List<Object> records) {
+    try {
+      if (spillFile.getParent() != null) {
+        Files.createDirectories(spillFile.getParent());
+      }
+      try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        for (Object record : records) {
+          String type = record instanceof AccessLog ? TYPE_LOG : TYPE_EVENT;
+          writer.write(objectMapper.writeValueAsString(new SpillEntry(type, objectMapper.valueToTree(record))));
+          writer.newLine();
+        }
+      }
+      log.warn("Spilled {} access records to {}", records.size(), spillFile);
+    } catch (IOException e) {
+      log.error("Failed to spill {} access records; they are lost", records.size(), e);
+    }
+  }
+
+  private synchronized void replaySpill() {
+    if (!Files.exists(spillFile)) {
+      return;
+    }
+    Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+    try {
+      Files.move(spillFile, replaying, StandardCopyOption.REPLACE_EXISTING);
+      List<Object> records = new ArrayList<>();
+      for (String line : Files.readAllLines(replaying, StandardCharsets.UTF_8)) {
+        if (line.isBlank()) {
+          continue;
+        }
+        SpillEntry entry = objectMapper.readValue(line, SpillEntry.class);
+        records.add(TYPE_LOG.equals(entry.type())
+            ? objectMapper.treeToValue(entry.payload(), AccessLog.class)
+            : objectMapper.treeToValue(entry.payload(), AccessEvent.class));
+      }
+      for (int from = 0; from < records.size(); from += batchSize) {
+        flush(records.subList(from, Math.min(records.size(), from + batchSize)));
+      }
+      Files.delete(replaying);
+      log.info("Replayed {} spilled access records", records.size());
+    } catch (IOException e) {
+      log.error("Failed to replay spilled access records from {}", replaying, e);
+    }
+  }
+
+  // ------------------------------------------------------------------
+  // Helpers
+  // ------------------------------------------------------------------
+
+  /** Fill in what JPA would on persist: ID, audit timestamps and tenant scope. */
+  private static void prepare(GymScopedEntity entity) {
+    LocalDateTime now = LocalDateTime.now();
+    if (entity.getId() == null) {
+      entity.setId(uuidV7());
+    }
+    if (entity.getCreatedAt() == null) {
+      entity.setCreatedAt(now);
+    }
+    if (entity.getUpdatedAt() == null) {
+      entity.setUpdatedAt(now);
+    }
+    if (entity.getOrganisationId() == null) {
+      entity.setOrganisationId(TenantContext.getCurrentTenantId());
+    }
+    if (entity.getGymId() == null) {
+      entity.setGymId(TenantContext.getCurrentGymId());
+    }
+  }
+
+  /** Time-ordered UUID matching the database's uuidv7() default. */
+  static UUID uuidV7() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+    long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(msb, lsb);
+  }
+
+  record SpillEntry(String type, JsonNode payload) {
+  }
+}
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,4 +16,6 @@ public interface AccessLogRepository extends JpaRepository<AccessLog, UUID> {
 
     @Query("SELECT a FROM AccessLog a WHERE a.memberId = :memberId ORDER BY a.accessTime DESC LIMIT 1")
     Optional<AccessLog> findTopByMemberIdOrderByAccessTimeDesc(@Param("memberId") UUID memberId);
+
+    List<AccessLog> findByStatusAndAccessTimeAfterOrderByAccessTimeAsc(AccessLog.AccessStatus status, LocalDateTime since);
 }
@@ -4,11 +4,14 @@ import com.gymmate.access.domain.DoorBenefit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface DoorBenefitRepository extends JpaRepository<DoorBenefit, UUID> {
 
+  List<DoorBenefit> findByAccessPointId(UUID accessPointId);
+
   boolean existsByAccessPointId(UUID accessPointId);
 
   boolean existsByAccessPointIdAndMembershipPlanId(UUID accessPointId, UUID membershipPlanId);
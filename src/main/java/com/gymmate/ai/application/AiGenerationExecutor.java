@@ -0,0 +1,128 @@
+package com.gymmate.ai.application;
+
+import com.gymmate.shared.multitenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs AI provider calls off the request thread, outside any transaction.
+ *
+ * Each generation gets its own virtual thread, and at most {@code max-concurrent} of them talk
+ * to the provider at once. Callers asking for the same key while a generation is in flight wait
+ * for that one instead of starting their own (single flight). The caller's tenant context is
+ * carried over to the generation thread.
+ *
+ * A generation may itself call {@link #execute} (e.g. to share a provider call between members
+ * with the same prompt); that nested run happens inline on the generation thread.
+ */
+@Slf4j
+@Component
+public class AiGenerationExecutor {
+
+    private static final String UNAVAILABLE = "AI service is temporarily unavailable. Please try again shortly.";
+
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-generation-", 0).factory());
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> generating = ThreadLocal.withInitial(() -> false);
+    private final Semaphore permits;
+    private final long timeoutSeconds;
+
+    public AiGenerationExecutor(@Value("${ai.plan.generation.max-concurrent:8}") int maxConcurrent,
+                                @Value("${ai.plan.generation.timeout-seconds:90}") long timeoutSeconds) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run {@code generation} for {@code key}, or join the run already in flight for it, and wait
+     * for the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> generation) {
+        CompletableFuture<T> started = new CompletableFuture<>();
+        CompletableFuture<T> flight = (CompletableFuture<T>) inFlight.putIfAbsent(key, started);
+        if (flight == null) {
+            flight = started;
+            if (generating.get()) {
+                // Already holding a provider slot
+                complete(key, started, generation);
+            } else {
+                UUID tenantId = TenantContext.getCurrentTenantId();
+                UUID gymId = TenantContext.getCurrentGymId();
+                executor.execute(() -> run(key, started, generation, tenantId, gymId));
+            }
+        } else {
+            log.debug("Joining in-flight AI generation for {}", key);
+        }
+        return await(flight);
+    }
+
+    private <T> void run(Object key, CompletableFuture<T> result, Supplier<T> generation,
+                         UUID tenantId, UUID gymId) {
+        TenantContext.setCurrentTenantId(tenantId);
+        TenantContext.setCurrentGymId(gymId);
+        generating.set(true);
+        try {
+            permits.acquire();
+            try {
+                complete(key, result, generation);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            inFlight.remove(key, result);
+        } finally {
+            generating.remove();
+            TenantContext.clear();
+        }
+    }
+
+    private <T> void complete(Object key, CompletableFuture<T> result, Supplier<T> generation) {
+        try {
+            result.complete(generation.get());
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(UNAVAILABLE, e.getCause());
+        } catch (TimeoutException e) {
+            // The generation carries on and is persisted; a retry will find it
+            throw new IllegalStateException(UNAVAILABLE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(UNAVAILABLE, e);
+        }
+    }
+}
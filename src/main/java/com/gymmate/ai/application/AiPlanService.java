@@ -3,10 +3,15 @@ package com.gymmate.ai.application;
 import com.gymmate.ai.api.dto.AiPlanRequest;
 import com.gymmate.ai.api.dto.AiPlanResponse;
 import com.gymmate.ai.domain.AiRecommendation;
+import com.gymmate.ai.infrastructure.AiPlanContentCache;
+import com.gymmate.ai.infrastructure.AiPlanContentCache.PlanContent;
 import com.gymmate.ai.infrastructure.AiRecommendationRepository;
 import com.gymmate.gym.domain.Gym;
 import com.gymmate.gym.infrastructure.GymRepository;
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
 import com.gymmate.shared.exception.ResourceNotFoundException;
+import com.gymmate.shared.exception.ServiceUnavailableException;
 import com.gymmate.user.application.MemberService;
 import com.gymmate.user.domain.Member;
 import lombok.RequiredArgsConstructor;
@@ -15,10 +20,13 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -40,6 +48,15 @@ import java.util.concurrent.TimeUnit;
  *   <li>Evict Redis cache.</li>
  *   <li>Call LLM, persist, cache, return.</li>
  * </ol>
+ *
+ * <p>LLM calls run on the {@link AiGenerationExecutor}, outside any transaction, so no database
+ * connection is held while the provider responds. Concurrent requests for the same member and
+ * inputs share one generation. The result is saved in its own short transaction.
+ *
+ * <p>Generated content is also cached by a fingerprint of the prompt ({@link AiPlanContentCache}),
+ * so members with the same experience level, location and goals reuse one LLM response.
+ * Regeneration skips that cache, since the member is asking for a new plan, and replaces the
+ * fingerprint's entry with the fresh response.
  */
 @Slf4j
 @Service
@@ -53,6 +70,10 @@ public class AiPlanService {
     private final MemberService memberService;
     private final GymRepository gymRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final AiGenerationExecutor generationExecutor;
+    private final AiPlanContentCache planContentCache;
+    private final TransactionTemplate transactionTemplate;
+    private final DownstreamLimiter downstreamLimiter;
 
     @Value("${ai.plan.cache.ttl-hours:24}")
     private long cacheTtlHours;
@@ -65,7 +86,6 @@ public class AiPlanService {
      * Returns the latest AI plan for the given member.
      * Serves from Redis cache when available; falls back to DB or generates on first call.
      */
-    @Transactional
     public AiPlanResponse getOrGeneratePlan(UUID memberId) {
         // 1. Cache hit?
         Optional<AiPlanResponse> cached = getFromCache(memberId);
@@ -85,17 +105,17 @@ public class AiPlanService {
 
         // 3. Nothing at all — generate a brand-new plan using stored goals
         log.info("No existing AI plan for member {} — generating first plan", memberId);
-        return generateAndPersist(memberId, null);
+        return generate(memberId, null, false);
     }
 
     /**
      * Generates (or regenerates) an AI plan, optionally updating the member's stored goals.
-     * Always evicts the cache, calls the LLM, persists, and re-caches the result.
+     * Always evicts the cache and calls the LLM, even when a plan for the same prompt is cached,
+     * then persists and re-caches the result.
      *
      * @param memberId member to generate the plan for
      * @param request  optional goal / experience-level overrides (may be null)
      */
-    @Transactional
     public AiPlanResponse regeneratePlan(UUID memberId, AiPlanRequest request) {
         // Optionally persist updated goals on the Member entity
         if (request != null) {
@@ -105,7 +125,7 @@ public class AiPlanService {
         // Evict stale cache entry
         evictCache(memberId);
 
-        return generateAndPersist(memberId, request);
+        return generate(memberId, request, true);
     }
 
     /**
@@ -123,7 +143,12 @@ public class AiPlanService {
     // Internal helpers
     // -------------------------------------------------------------------------
 
-    private AiPlanResponse generateAndPersist(UUID memberId, AiPlanRequest request) {
+    private AiPlanResponse generate(UUID memberId, AiPlanRequest request, boolean bypassContentCache) {
+        return generationExecutor.execute(new GenerationKey(memberId, request, bypassContentCache),
+            () -> generateAndPersist(memberId, request, bypassContentCache));
+    }
+
+    private AiPlanResponse generateAndPersist(UUID memberId, AiPlanRequest request, boolean bypassContentCache) {
         Member member = memberService.findById(memberId);
 
         Gym gym = gymRepository.findById(member.getGymId())
@@ -134,37 +159,75 @@ public class AiPlanService {
         String experienceLevel = resolveExperienceLevel(member, request);
         String location = buildLocation(gym);
 
-        String prompt = buildPrompt(goals, experienceLevel, location);
-
-        log.info("Calling AI for member {} with goals: {}", memberId, goals);
-        String aiResponse;
-        try {
-            aiResponse = chatClientBuilder.build().prompt().user(prompt).call().content();
-        } catch (Exception e) {
-            log.error("AI provider call failed for member {}", memberId, e);
-            throw new IllegalStateException("AI service is temporarily unavailable. Please try again shortly.", e);
+        // Equivalent inputs give the same prompt text, and so share one generated plan
+        String prompt = buildPrompt(normalizeGoals(goals), experienceLevel.trim().toLowerCase(Locale.ROOT),
+            location.trim().replaceAll("\\s+", " "));
+        String fingerprint = AiPlanContentCache.fingerprint(prompt);
+
+        PlanContent content;
+        if (bypassContentCache) {
+            // Concurrent regenerations of one prompt still share a call; it overwrites the cached entry
+            content = generationExecutor.execute(new PromptKey(fingerprint, true),
+                () -> callProvider(memberId, goals, prompt, fingerprint));
+        } else {
+            content = planContentCache.get(fingerprint)
+                .orElseGet(() -> generationExecutor.execute(new PromptKey(fingerprint, false), () -> planContentCache
+                    .get(fingerprint)
+                    .orElseGet(() -> callProvider(memberId, goals, prompt, fingerprint))));
         }
 
-        String workoutPlan = extractSection(aiResponse, "WORKOUT PLAN:", "MEAL PLAN:");
-        String mealPlan    = extractSection(aiResponse, "MEAL PLAN:", null);
-
         AiRecommendation recommendation = AiRecommendation.builder()
             .memberId(memberId)
-            .workoutPlan(workoutPlan.trim())
-            .mealPlan(mealPlan.trim())
+            .workoutPlan(content.workoutPlan())
+            .mealPlan(content.mealPlan())
             .goalsUsed(goals.toArray(String[]::new))
             .experienceLevel(experienceLevel)
             .build();
         recommendation.setGymId(member.getGymId());
         recommendation.setOrganisationId(member.getOrganisationId());
 
-        AiRecommendation saved = recommendationRepository.save(recommendation);
+        AiRecommendation saved = transactionTemplate.execute(status -> recommendationRepository.save(recommendation));
         AiPlanResponse response = AiPlanResponse.fromEntity(saved, false);
 
         putInCache(memberId, response);
         return response;
     }
 
+    private PlanContent callProvider(UUID memberId, List<String> goals, String prompt, String fingerprint) {
+        log.info("Calling AI for member {} with goals: {}", memberId, goals);
+        String aiResponse;
+        try {
+            aiResponse = downstreamLimiter.call(Downstream.LLM,
+                    () -> chatClientBuilder.build().prompt().user(prompt).call().content());
+        } catch (ServiceUnavailableException e) {
+            // Shed by the LLM concurrency limit; surfaces as a 503 with Retry-After
+            throw e;
+        } catch (Exception e) {
+            log.error("AI provider call failed for member {}", memberId, e);
+            throw new IllegalStateException("AI service is temporarily unavailable. Please try again shortly.", e);
+        }
+
+        String workoutPlan = extractSection(aiResponse, "WORKOUT PLAN:", "MEAL PLAN:");
+        String mealPlan    = extractSection(aiResponse, "MEAL PLAN:", null);
+
+        PlanContent content = new PlanContent(workoutPlan.trim(), mealPlan.trim());
+        planContentCache.put(fingerprint, content);
+        return content;
+    }
+
+    /**
+     * Requests for the same member with the same overrides share one generation. A regeneration
+     * never joins a plain lookup, which could answer from the content cache.
+     */
+    private record GenerationKey(UUID memberId, AiPlanRequest request, boolean bypassContentCache) {
+    }
+
+    /**
+     * Generations with the same prompt share one provider call.
+     */
+    private record PromptKey(String fingerprint, boolean bypassContentCache) {
+    }
+
     private void applyGoalUpdates(UUID memberId, AiPlanRequest request) {
         if (request.fitnessGoals() != null && !request.fitnessGoals().isEmpty()) {
             memberService.updateFitnessGoals(
@@ -187,6 +250,20 @@ public class AiPlanService {
         return List.of("General fitness and well-being");
     }
 
+    /**
+     * Goals trimmed, lower-cased, de-duplicated and sorted, so their order and casing do not
+     * change the prompt.
+     */
+    private List<String> normalizeGoals(List<String> goals) {
+        return goals.stream()
+            .filter(Objects::nonNull)
+            .map(goal -> goal.trim().toLowerCase(Locale.ROOT))
+            .filter(goal -> !goal.isEmpty())
+            .distinct()
+            .sorted()
+            .toList();
+    }
+
     private String resolveExperienceLevel(Member member, AiPlanRequest request) {
         if (request != null && request.experienceLevel() != null) {
             return request.experienceLevel();
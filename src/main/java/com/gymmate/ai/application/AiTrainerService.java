@@ -5,6 +5,8 @@ import com.gymmate.ai.infrastructure.AiNotificationIntegration;
 import com.gymmate.ai.infrastructure.AiRecommendationRepository;
 import com.gymmate.gym.domain.Gym;
 import com.gymmate.gym.infrastructure.GymRepository;
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
 import com.gymmate.user.domain.events.MemberOnboardedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +14,6 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
@@ -23,10 +24,11 @@ public class AiTrainerService {
     private final AiRecommendationRepository aiRecommendationRepository;
     private final GymRepository gymRepository;
     private final AiNotificationIntegration aiNotificationIntegration;
+    private final DownstreamLimiter downstreamLimiter;
 
+    // Not transactional: the provider call can take tens of seconds and the save commits on its own
     @Async
     @EventListener
-    @Transactional
     public void handleMemberOnboardedEvent(MemberOnboardedEvent event) {
         log.info("Generating AI plan for member {} at gym {}", event.getMemberId(), event.getGymId());
 
@@ -53,7 +55,7 @@ public class AiTrainerService {
 
         String response;
         try {
-            response = chatClient.prompt().user(prompt).call().content();
+            response = downstreamLimiter.call(Downstream.LLM, () -> chatClient.prompt().user(prompt).call().content());
         } catch (Exception e) {
             log.error("Failed to call AI provider", e);
             return;
@@ -0,0 +1,91 @@
+package com.gymmate.ai.infrastructure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated plan content addressed by a fingerprint of the prompt that produced it, so members
+ * whose inputs match share one LLM response.
+ *
+ * <p>Two tiers: a small in-process cache in front of Redis keys {@code ai:plan:content:{sha256}}.
+ * Redis entries expire after {@code ttl-hours}; under memory pressure Redis evicts them by its
+ * {@code maxmemory-policy} (volatile-lru evicts only keys with a TTL, such as these). Redis
+ * failures degrade to a miss.
+ */
+@Slf4j
+@Component
+public class AiPlanContentCache {
+
+    private static final String KEY_PREFIX = "ai:plan:content:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+    private final Cache<String, PlanContent> local;
+
+    public AiPlanContentCache(RedisTemplate<String, Object> redisTemplate,
+                              @Value("${ai.plan.content-cache.ttl-hours:24}") long ttlHours,
+                              @Value("${ai.plan.content-cache.local-max-size:500}") long localMaxSize,
+                              @Value("${ai.plan.content-cache.local-ttl-minutes:10}") long localTtlMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.local = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(Duration.ofMinutes(localTtlMinutes))
+            .build();
+    }
+
+    /**
+     * Content-address for a prompt: the hex SHA-256 of its text.
+     */
+    public static String fingerprint(String prompt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<PlanContent> get(String fingerprint) {
+        PlanContent content = local.getIfPresent(fingerprint);
+        if (content != null) {
+            return Optional.of(content);
+        }
+        try {
+            if (redisTemplate.opsForValue().get(KEY_PREFIX + fingerprint) instanceof PlanContent shared) {
+                local.put(fingerprint, shared);
+                return Optional.of(shared);
+            }
+        } catch (Exception e) {
+            log.warn("Redis read failed for plan content {}: {}", fingerprint, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    public void put(String fingerprint, PlanContent content) {
+        local.put(fingerprint, content);
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + fingerprint, content, ttl.toSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Redis write failed for plan content {}: {}", fingerprint, e.getMessage());
+        }
+    }
+
+    /**
+     * The parts of an LLM response that do not depend on who asked.
+     */
+    public record PlanContent(String workoutPlan, String mealPlan) {
+    }
+}
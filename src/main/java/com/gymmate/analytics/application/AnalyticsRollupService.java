@@ -0,0 +1,163 @@
+package com.gymmate.analytics.application;
+
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository;
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository.GymDay;
+import com.gymmate.shared.batch.BatchJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Keeps the daily analytics rollups in step with the source tables.
+ *
+ * Every {@code refresh-interval-ms} the gym-days touched by rows modified since the previous run
+ * are recomputed from scratch, so status changes (e.g. a booking becoming a no-show) need no
+ * delta bookkeeping. The lookback overlaps the previous run by {@code change-lag-seconds} to
+ * cover transactions that committed after their {@code updated_at} was stamped.
+ * A nightly reconciliation recomputes the trailing {@code reconcile-days} for every gym, which
+ * also picks up hard deletes and projected membership revenue that moved to another billing day.
+ *
+ * Both jobs take a lease in {@code batch_job_runs}, so only one node does the work. The refresh
+ * lease is held across runs and renewed by each one; another node takes over once it lapses,
+ * looking back at most a day. The reconciliation is claimed once per date.
+ */
+@Slf4j
+@Service
+public class AnalyticsRollupService {
+
+    static final String REFRESH_JOB = "analytics-rollup-refresh";
+    static final String RECONCILE_JOB = "analytics-rollup-reconcile";
+    // The refresh never completes; its single run is handed from node to node
+    static final String REFRESH_RUN_KEY = "continuous";
+    // Gym-days refreshed between lease renewals
+    private static final int RENEW_EVERY = 500;
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final BatchJobRepository batchJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration changeLag;
+    private final int reconcileDays;
+    private final Duration lease;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile boolean holdsRefreshLease;
+
+    public AnalyticsRollupService(AnalyticsRollupRepository rollupRepository,
+                                  BatchJobRepository batchJobRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.analytics.rollup.change-lag-seconds:300}") long changeLagSeconds,
+                                  @Value("${app.analytics.rollup.reconcile-days:35}") int reconcileDays,
+                                  @Value("${app.analytics.rollup.lease-minutes:5}") long leaseMinutes) {
+        this.rollupRepository = rollupRepository;
+        this.batchJobRepository = batchJobRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeLag = Duration.ofSeconds(changeLagSeconds);
+        this.reconcileDays = reconcileDays;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        // After a restart, pick up the last day's changes; older gaps are left to the reconciliation
+        this.lastRunStartedAt = LocalDateTime.now().minusDays(1);
+    }
+
+    /**
+     * Recompute the gym-days whose source rows changed since the previous run.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.refresh-interval-ms:60000}")
+    public void refreshChanged() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            if (!holdRefreshLease(startedAt)) {
+                return;
+            }
+            Collection<GymDay> changed = rollupRepository.findChangedGymDays(lastRunStartedAt.minus(changeLag));
+            int refreshed = refreshAll(changed, REFRESH_JOB, REFRESH_RUN_KEY);
+            lastRunStartedAt = startedAt;
+            if (refreshed > 0) {
+                log.debug("Refreshed {} analytics gym-days", refreshed);
+            }
+        } catch (Exception e) {
+            log.error("Error refreshing analytics rollups", e);
+        }
+    }
+
+    /**
+     * Recompute the trailing reconciliation window for every gym.
+     * Runs daily at 3:30 AM.
+     */
+    @Scheduled(cron = "${app.analytics.rollup.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        String runKey = LocalDate.now().toString();
+        try {
+            if (batchJobRepository.claim(RECONCILE_JOB, runKey, nodeId, lease).isEmpty()) {
+                log.debug("Analytics reconciliation [{}] is running elsewhere or already completed", runKey);
+                return;
+            }
+            log.info("Starting scheduled task: Reconcile analytics rollups");
+            LocalDate tomorrow = LocalDate.now().plusDays(1);
+            Collection<GymDay> gymDays = rollupRepository.findGymDays(tomorrow.minusDays(reconcileDays), tomorrow);
+            int refreshed = refreshAll(gymDays, RECONCILE_JOB, runKey);
+            batchJobRepository.complete(RECONCILE_JOB, runKey, nodeId);
+            log.info("Completed scheduled task: Reconcile analytics rollups (gym-days: {})", refreshed);
+        } catch (Exception e) {
+            log.error("Error reconciling analytics rollups", e);
+        }
+    }
+
+    /**
+     * Recompute one gym-day. Each gym-day is its own transaction.
+     */
+    public void refresh(UUID gymId, LocalDate day) {
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.refresh(gymId, day));
+    }
+
+    /**
+     * Renew the refresh lease, or take it over once the node holding it has stopped renewing.
+     *
+     * @return true if this node should run the refresh
+     */
+    private boolean holdRefreshLease(LocalDateTime now) {
+        if (holdsRefreshLease && batchJobRepository.renew(REFRESH_JOB, REFRESH_RUN_KEY, nodeId, lease)) {
+            return true;
+        }
+        holdsRefreshLease = batchJobRepository.claim(REFRESH_JOB, REFRESH_RUN_KEY, nodeId, lease).isPresent();
+        if (holdsRefreshLease) {
+            // This node's watermark is stale if another node ran the refresh in the meantime
+            LocalDateTime oldest = now.minusDays(1);
+            if (lastRunStartedAt.isBefore(oldest)) {
+                lastRunStartedAt = oldest;
+            }
+            log.info("Took over the analytics rollup refresh");
+        }
+        return holdsRefreshLease;
+    }
+
+    private int refreshAll(Collection<GymDay> gymDays, String jobName, String runKey) {
+        int refreshed = 0;
+        int attempted = 0;
+        for (GymDay gymDay : gymDays) {
+            if (++attempted % RENEW_EVERY == 0 && !batchJobRepository.renew(jobName, runKey, nodeId, lease)) {
+                log.warn("Analytics job {} [{}] lost its lease", jobName, runKey);
+                if (REFRESH_JOB.equals(jobName)) {
+                    holdsRefreshLease = false;
+                }
+                break;
+            }
+            try {
+                refresh(gymDay.gymId(), gymDay.day());
+                refreshed++;
+            } catch (Exception e) {
+                log.warn("Could not refresh analytics for gym {} on {}: {}",
+                        gymDay.gymId(), gymDay.day(), e.getMessage());
+            }
+        }
+        return refreshed;
+    }
+}
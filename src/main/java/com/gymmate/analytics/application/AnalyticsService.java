@@ -3,17 +3,16 @@ package com.gymmate.analytics.application;
 import com.gymmate.analytics.api.dto.*;
 import com.gymmate.analytics.domain.AnalyticsPeriod;
 import com.gymmate.analytics.domain.CategoryBreakdown;
+import com.gymmate.analytics.domain.ClassBookingFacts;
+import com.gymmate.analytics.domain.DailyFacts;
 import com.gymmate.analytics.domain.TimeSeriesDataPoint;
-import com.gymmate.shared.constants.BookingStatus;
-import com.gymmate.classes.infrastructure.ClassBookingJpaRepository;
-import com.gymmate.classes.infrastructure.ClassScheduleJpaRepository;
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository;
 import com.gymmate.classes.infrastructure.GymClassJpaRepository;
 import com.gymmate.inventory.infrastructure.InventoryItemJpaRepository;
 import com.gymmate.membership.domain.MembershipStatus;
 import com.gymmate.membership.infrastructure.MemberInvoiceRepository;
 import com.gymmate.membership.infrastructure.MemberMembershipJpaRepository;
 import com.gymmate.membership.infrastructure.MembershipPlanJpaRepository;
-import com.gymmate.pos.infrastructure.SaleJpaRepository;
 import com.gymmate.user.infrastructure.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,13 +20,21 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Application service for analytics and KPI dashboard generation.
+ *
+ * Period metrics (new members, revenue, sessions, bookings) are read from the daily rollups
+ * maintained by {@link AnalyticsRollupService}, so a request costs a handful of indexed reads
+ * regardless of how much history a gym has. Point-in-time figures (member counts, plans,
+ * expiring memberships, stock) are still counted live.
  */
 @Slf4j
 @Service
@@ -37,12 +44,10 @@ public class AnalyticsService {
     private final MemberRepository memberRepository;
     private final MemberMembershipJpaRepository membershipRepository;
     private final MembershipPlanJpaRepository membershipPlanRepository;
-    private final ClassBookingJpaRepository classBookingRepository;
-    private final ClassScheduleJpaRepository classScheduleRepository;
     private final GymClassJpaRepository gymClassRepository;
     private final InventoryItemJpaRepository inventoryItemRepository;
-    private final SaleJpaRepository saleRepository;
     private final MemberInvoiceRepository memberInvoiceRepository;
+    private final AnalyticsRollupRepository rollupRepository;
 
     // ===== MAIN DASHBOARD =====
 
@@ -56,42 +61,64 @@ public class AnalyticsService {
         log.info("Generating dashboard for gym: {} period: {} ({} to {})",
                 gymId, period, dateRange.start(), dateRange.end());
 
+        DailyFacts current = getFacts(gymId, dateRange);
+        DailyFacts previous = getFacts(gymId, previousRange);
+        List<DailyFacts> daily = getDailyFacts(gymId, dateRange);
+        long totalMembers = countTotalMembers(gymId);
+        long activeMembers = countActiveMembers(gymId);
+
         // Member KPIs
-        KpiCardResponse totalMembers = getTotalMembersKpi(gymId, dateRange, previousRange);
-        KpiCardResponse activeMembers = getActiveMembersKpi(gymId, dateRange, previousRange);
-        KpiCardResponse newMembersThisMonth = getNewMembersKpi(gymId, dateRange, previousRange);
-        KpiCardResponse memberRetentionRate = getRetentionRateKpi(gymId, dateRange, previousRange);
+        KpiCardResponse totalMembersKpi = KpiCardResponse.of("Total Members", totalMembers,
+                totalMembers - current.newMembers(), "users", "blue");
+        KpiCardResponse activeMembersKpi = KpiCardResponse.of("Active Members", activeMembers,
+                activeMembers, "user-check", "green");
+        KpiCardResponse newMembersThisMonth = KpiCardResponse.of("New Members", current.newMembers(),
+                previous.newMembers(), "user-plus", "purple");
+        BigDecimal retentionRate = calculateRetentionRate(activeMembers, activeMembers);
+        KpiCardResponse memberRetentionRate = KpiCardResponse.ofPercentage("Retention Rate", retentionRate,
+                retentionRate, "refresh", "teal");
 
         // Revenue KPIs
-        KpiCardResponse totalRevenue = getTotalRevenueKpi(gymId, dateRange, previousRange);
-        KpiCardResponse recurringRevenue = getRecurringRevenueKpi(gymId, dateRange, previousRange);
-        KpiCardResponse posRevenue = getPosRevenueKpi(gymId, dateRange, previousRange);
-        KpiCardResponse avgRevenuePerMember = getAvgRevenuePerMemberKpi(gymId, dateRange, previousRange);
+        KpiCardResponse totalRevenue = KpiCardResponse.ofMoney("Total Revenue", current.totalRevenue(),
+                previous.totalRevenue(), "dollar-sign", "green");
+        KpiCardResponse recurringRevenue = KpiCardResponse.ofMoney("Recurring Revenue", current.membershipRevenue(),
+                previous.membershipRevenue(), "repeat", "blue");
+        KpiCardResponse posRevenue = KpiCardResponse.ofMoney("POS Revenue", current.posRevenue(),
+                previous.posRevenue(), "shopping-cart", "orange");
+        KpiCardResponse avgRevenuePerMember = KpiCardResponse.ofMoney("Avg Revenue/Member",
+                perMember(current.totalRevenue(), activeMembers), perMember(previous.totalRevenue(), activeMembers),
+                "trending-up", "purple");
 
         // Class KPIs
-        KpiCardResponse classesToday = getClassesTodayKpi(gymId);
-        KpiCardResponse bookingsToday = getBookingsTodayKpi(gymId);
-        KpiCardResponse avgClassAttendance = getAvgClassAttendanceKpi(gymId, dateRange, previousRange);
-        KpiCardResponse classCapacityUtilization = getCapacityUtilizationKpi(gymId, dateRange, previousRange);
+        DailyFacts today = getFacts(gymId, getDateRange(AnalyticsPeriod.TODAY));
+        DailyFacts yesterday = getFacts(gymId, getDateRange(AnalyticsPeriod.YESTERDAY));
+        KpiCardResponse classesToday = KpiCardResponse.of("Classes Today", today.scheduledSessions(),
+                yesterday.scheduledSessions(), "calendar", "indigo");
+        KpiCardResponse bookingsToday = KpiCardResponse.of("Bookings Today", today.bookings(),
+                yesterday.bookings(), "check-circle", "cyan");
+        KpiCardResponse avgClassAttendance = KpiCardResponse.ofPercentage("Avg Attendance",
+                calculateAverageAttendance(current), calculateAverageAttendance(previous), "users", "teal");
+        KpiCardResponse classCapacityUtilization = KpiCardResponse.ofPercentage("Capacity Utilization",
+                calculateCapacityUtilization(current), calculateCapacityUtilization(previous), "pie-chart", "amber");
 
         // Charts
-        List<TimeSeriesDataPoint> revenueChart = getRevenueTimeSeries(gymId, dateRange);
-        List<TimeSeriesDataPoint> memberGrowthChart = getMemberGrowthTimeSeries(gymId, dateRange);
-        List<TimeSeriesDataPoint> bookingsTrendChart = getBookingsTimeSeries(gymId, dateRange);
+        List<TimeSeriesDataPoint> revenueChart = toTimeSeries(daily, DailyFacts::posRevenue);
+        List<TimeSeriesDataPoint> memberGrowthChart = getMemberGrowthTimeSeries(daily, totalMembers - current.newMembers());
+        List<TimeSeriesDataPoint> bookingsTrendChart = toTimeSeries(daily, f -> BigDecimal.valueOf(f.bookings()));
 
         // Breakdowns
-        List<CategoryBreakdown> revenueBySource = getRevenueBySourceBreakdown(gymId, dateRange);
+        List<CategoryBreakdown> revenueBySource = getRevenueBySourceBreakdown(current);
         List<CategoryBreakdown> membersByPlan = getMembersByPlanBreakdown(gymId);
-        List<CategoryBreakdown> bookingsByClass = getBookingsByClassBreakdown(gymId, dateRange);
+        List<CategoryBreakdown> bookingsByClass = getBookingsByClassBreakdown(getClassFacts(gymId, dateRange));
 
         // Additional metrics
-        BigDecimal churnRate = calculateChurnRate(gymId, dateRange);
+        BigDecimal churnRate = BigDecimal.valueOf(100).subtract(retentionRate);
         long expiringMemberships = countExpiringMemberships(gymId);
         long overduePayments = memberInvoiceRepository.countOverdueByGymId(gymId, LocalDateTime.now());
         long lowStockItems = countLowStockItems(gymId);
 
         return new DashboardResponse(
-                totalMembers, activeMembers, newMembersThisMonth, memberRetentionRate,
+                totalMembersKpi, activeMembersKpi, newMembersThisMonth, memberRetentionRate,
                 totalRevenue, recurringRevenue, posRevenue, avgRevenuePerMember,
                 classesToday, bookingsToday, avgClassAttendance, classCapacityUtilization,
                 revenueChart, memberGrowthChart, bookingsTrendChart,
@@ -108,32 +135,38 @@ public class AnalyticsService {
         DateRange dateRange = getDateRange(period);
         DateRange previousRange = getPreviousDateRange(period);
 
+        DailyFacts current = getFacts(gymId, dateRange);
+        DailyFacts previous = getFacts(gymId, previousRange);
+
         long totalMembers = countTotalMembers(gymId);
         long activeMembers = countActiveMembers(gymId);
         long inactiveMembers = totalMembers - activeMembers;
         long suspendedMembers = countSuspendedMembers(gymId);
 
-        long newMembers = countNewMembers(gymId, dateRange);
-        long cancelledMembers = countCancelledMembers(gymId, dateRange);
+        long newMembers = current.newMembers();
+        long cancelledMembers = current.cancelledMemberships();
         long netGrowth = newMembers - cancelledMembers;
 
-        long previousNewMembers = countNewMembers(gymId, previousRange);
+        long previousNewMembers = previous.newMembers();
         BigDecimal growthPercentage = previousNewMembers > 0
                 ? BigDecimal.valueOf(newMembers - previousNewMembers)
                         .divide(BigDecimal.valueOf(previousNewMembers), 4, RoundingMode.HALF_UP)
                         .multiply(BigDecimal.valueOf(100))
                 : BigDecimal.valueOf(100);
 
-        BigDecimal retentionRate = calculateRetentionRate(gymId, dateRange);
+        BigDecimal retentionRate = calculateRetentionRate(activeMembers, activeMembers);
         BigDecimal churnRate = BigDecimal.valueOf(100).subtract(retentionRate);
         BigDecimal avgTenure = calculateAverageMemberTenure(gymId);
 
         BigDecimal avgVisits = calculateAverageVisitsPerMember(gymId, dateRange);
-        BigDecimal avgClasses = calculateAverageClassesPerMember(gymId, dateRange);
+        BigDecimal avgClasses = activeMembers > 0
+                ? BigDecimal.valueOf(current.bookings()).divide(BigDecimal.valueOf(activeMembers), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
 
-        List<TimeSeriesDataPoint> memberGrowthTrend = getMemberGrowthTimeSeries(gymId, dateRange);
+        List<TimeSeriesDataPoint> memberGrowthTrend = getMemberGrowthTimeSeries(
+                getDailyFacts(gymId, dateRange), totalMembers - newMembers);
         List<CategoryBreakdown> membersByPlan = getMembersByPlanBreakdown(gymId);
-        List<CategoryBreakdown> membersByStatus = getMembersByStatusBreakdown(gymId);
+        List<CategoryBreakdown> membersByStatus = getMembersByStatusBreakdown(totalMembers, activeMembers);
         List<CategoryBreakdown> membersByJoinMonth = getMembersByJoinMonthBreakdown(gymId);
 
         long expiringThisMonth = countExpiringMemberships(gymId, 30);
@@ -157,20 +190,22 @@ public class AnalyticsService {
         DateRange dateRange = getDateRange(period);
         DateRange previousRange = getPreviousDateRange(period);
 
-        BigDecimal posRevenue = getPosRevenue(gymId, dateRange);
-        BigDecimal membershipRevenue = getMembershipRevenue(gymId, dateRange);
+        DailyFacts current = getFacts(gymId, dateRange);
+        List<DailyFacts> daily = getDailyFacts(gymId, dateRange);
+
+        BigDecimal posRevenue = current.posRevenue();
+        BigDecimal membershipRevenue = current.membershipRevenue();
         BigDecimal otherRevenue = BigDecimal.ZERO; // Future expansion
         BigDecimal refunds = getRefunds(gymId, dateRange);
         BigDecimal totalRevenue = posRevenue.add(membershipRevenue).add(otherRevenue);
         BigDecimal netRevenue = totalRevenue.subtract(refunds);
 
-        long transactionCount = getTransactionCount(gymId, dateRange);
+        long transactionCount = current.posTransactions();
         BigDecimal avgTransactionValue = transactionCount > 0
                 ? totalRevenue.divide(BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-        BigDecimal previousRevenue = getPosRevenue(gymId, previousRange)
-                .add(getMembershipRevenue(gymId, previousRange));
+        BigDecimal previousRevenue = getFacts(gymId, previousRange).totalRevenue();
         BigDecimal growthPercentage = previousRevenue.compareTo(BigDecimal.ZERO) > 0
                 ? totalRevenue.subtract(previousRevenue)
                         .divide(previousRevenue, 4, RoundingMode.HALF_UP)
@@ -182,13 +217,10 @@ public class AnalyticsService {
         BigDecimal dailyAverage = totalRevenue.divide(BigDecimal.valueOf(daysInPeriod), 2, RoundingMode.HALF_UP);
         BigDecimal projectedMonthly = dailyAverage.multiply(BigDecimal.valueOf(30));
 
-        long activeMembers = countActiveMembers(gymId);
-        BigDecimal avgRevenuePerMember = activeMembers > 0
-                ? totalRevenue.divide(BigDecimal.valueOf(activeMembers), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
+        BigDecimal avgRevenuePerMember = perMember(totalRevenue, countActiveMembers(gymId));
 
         Map<String, BigDecimal> revenueByPaymentType = getRevenueByPaymentType(gymId, dateRange);
-        Map<String, BigDecimal> revenueByDay = getRevenueByDay(gymId, dateRange);
+        Map<String, BigDecimal> revenueByDay = getRevenueByDay(daily);
 
         return new RevenueAnalyticsResponse(
                 totalRevenue, membershipRevenue, posRevenue, otherRevenue, refunds, netRevenue,
@@ -206,15 +238,19 @@ public class AnalyticsService {
     public ClassAnalyticsResponse getClassAnalytics(UUID gymId, AnalyticsPeriod period) {
         DateRange dateRange = getDateRange(period);
 
+        DailyFacts current = getFacts(gymId, dateRange);
+        List<DailyFacts> daily = getDailyFacts(gymId, dateRange);
+        List<ClassBookingFacts> classFacts = getClassFacts(gymId, dateRange);
+
         long totalClasses = countTotalClasses(gymId);
-        long totalScheduled = countScheduledSessions(gymId, dateRange);
-        long totalBookings = countTotalBookings(gymId, dateRange);
-        long completedBookings = countCompletedBookings(gymId, dateRange);
-        long cancelledBookings = countCancelledBookings(gymId, dateRange);
-        long noShows = countNoShows(gymId, dateRange);
-
-        BigDecimal avgAttendance = calculateAverageAttendance(gymId, dateRange);
-        BigDecimal capacityUtilization = calculateCapacityUtilization(gymId, dateRange);
+        long totalScheduled = current.scheduledSessions();
+        long totalBookings = current.bookings();
+        long completedBookings = current.completedBookings();
+        long cancelledBookings = current.cancelledBookings();
+        long noShows = current.noShows();
+
+        BigDecimal avgAttendance = calculateAverageAttendance(current);
+        BigDecimal capacityUtilization = calculateCapacityUtilization(current);
         BigDecimal cancellationRate = totalBookings > 0
                 ? BigDecimal.valueOf(cancelledBookings)
                         .divide(BigDecimal.valueOf(totalBookings), 4, RoundingMode.HALF_UP)
@@ -226,15 +262,17 @@ public class AnalyticsService {
                         .multiply(BigDecimal.valueOf(100))
                 : BigDecimal.ZERO;
 
-        List<TimeSeriesDataPoint> bookingsTrend = getBookingsTimeSeries(gymId, dateRange);
-        List<TimeSeriesDataPoint> attendanceTrend = getAttendanceTimeSeries(gymId, dateRange);
+        List<TimeSeriesDataPoint> bookingsTrend = toTimeSeries(daily, f -> BigDecimal.valueOf(f.bookings()));
+        List<TimeSeriesDataPoint> attendanceTrend = toTimeSeries(daily, f -> BigDecimal.valueOf(f.completedBookings()));
 
-        List<CategoryBreakdown> bookingsByClass = getBookingsByClassBreakdown(gymId, dateRange);
+        List<CategoryBreakdown> bookingsByClass = getBookingsByClassBreakdown(classFacts);
         List<CategoryBreakdown> bookingsByDay = getBookingsByDayOfWeekBreakdown(gymId, dateRange);
         List<CategoryBreakdown> bookingsByTimeSlot = getBookingsByTimeSlotBreakdown(gymId, dateRange);
 
-        List<ClassAnalyticsResponse.TopClassResponse> topByBookings = getTopClassesByBookings(gymId, dateRange);
-        List<ClassAnalyticsResponse.TopClassResponse> topByAttendance = getTopClassesByAttendance(gymId, dateRange);
+        List<ClassAnalyticsResponse.TopClassResponse> topByBookings = getTopClasses(classFacts,
+                Comparator.comparingLong(ClassBookingFacts::bookings).reversed());
+        List<ClassAnalyticsResponse.TopClassResponse> topByAttendance = getTopClasses(classFacts,
+                Comparator.comparingLong(ClassBookingFacts::completedBookings).reversed());
         List<ClassAnalyticsResponse.TopTrainerResponse> topTrainers = getTopTrainersByBookings(gymId, dateRange);
 
         return new ClassAnalyticsResponse(
@@ -273,94 +311,49 @@ public class AnalyticsService {
         return new DateRange(current.start().minusDays(days), current.start());
     }
 
-    // ===== HELPER METHODS - KPI CARDS =====
-
-    private KpiCardResponse getTotalMembersKpi(UUID gymId, DateRange current, DateRange previous) {
-        long currentCount = countTotalMembers(gymId);
-        long previousCount = countTotalMembersAsOf(gymId, previous.end());
-        return KpiCardResponse.of("Total Members", currentCount, previousCount, "users", "blue");
-    }
-
-    private KpiCardResponse getActiveMembersKpi(UUID gymId, DateRange current, DateRange previous) {
-        long currentCount = countActiveMembers(gymId);
-        long previousCount = countActiveMembersAsOf(gymId, previous.end());
-        return KpiCardResponse.of("Active Members", currentCount, previousCount, "user-check", "green");
-    }
-
-    private KpiCardResponse getNewMembersKpi(UUID gymId, DateRange current, DateRange previous) {
-        long currentCount = countNewMembers(gymId, current);
-        long previousCount = countNewMembers(gymId, previous);
-        return KpiCardResponse.of("New Members", currentCount, previousCount, "user-plus", "purple");
-    }
-
-    private KpiCardResponse getRetentionRateKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentRate = calculateRetentionRate(gymId, current);
-        BigDecimal previousRate = calculateRetentionRate(gymId, previous);
-        return KpiCardResponse.ofPercentage("Retention Rate", currentRate, previousRate, "refresh", "teal");
-    }
-
-    private KpiCardResponse getTotalRevenueKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentRevenue = getPosRevenue(gymId, current).add(getMembershipRevenue(gymId, current));
-        BigDecimal previousRevenue = getPosRevenue(gymId, previous).add(getMembershipRevenue(gymId, previous));
-        return KpiCardResponse.ofMoney("Total Revenue", currentRevenue, previousRevenue, "dollar-sign", "green");
-    }
-
-    private KpiCardResponse getRecurringRevenueKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentRevenue = getMembershipRevenue(gymId, current);
-        BigDecimal previousRevenue = getMembershipRevenue(gymId, previous);
-        return KpiCardResponse.ofMoney("Recurring Revenue", currentRevenue, previousRevenue, "repeat", "blue");
-    }
-
-    private KpiCardResponse getPosRevenueKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentRevenue = getPosRevenue(gymId, current);
-        BigDecimal previousRevenue = getPosRevenue(gymId, previous);
-        return KpiCardResponse.ofMoney("POS Revenue", currentRevenue, previousRevenue, "shopping-cart", "orange");
-    }
-
-    private KpiCardResponse getAvgRevenuePerMemberKpi(UUID gymId, DateRange current, DateRange previous) {
-        long activeMembers = countActiveMembers(gymId);
-        BigDecimal totalRevenue = getPosRevenue(gymId, current).add(getMembershipRevenue(gymId, current));
-        BigDecimal currentArpm = activeMembers > 0
-                ? totalRevenue.divide(BigDecimal.valueOf(activeMembers), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
+    // ===== HELPER METHODS - ROLLUP READS =====
 
-        long prevActiveMembers = countActiveMembersAsOf(gymId, previous.end());
-        BigDecimal prevTotalRevenue = getPosRevenue(gymId, previous).add(getMembershipRevenue(gymId, previous));
-        BigDecimal previousArpm = prevActiveMembers > 0
-                ? prevTotalRevenue.divide(BigDecimal.valueOf(prevActiveMembers), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
-        return KpiCardResponse.ofMoney("Avg Revenue/Member", currentArpm, previousArpm, "trending-up", "purple");
-    }
-
-    private KpiCardResponse getClassesTodayKpi(UUID gymId) {
-        long todayClasses = countScheduledSessions(gymId, getDateRange(AnalyticsPeriod.TODAY));
-        long yesterdayClasses = countScheduledSessions(gymId, getDateRange(AnalyticsPeriod.YESTERDAY));
-        return KpiCardResponse.of("Classes Today", todayClasses, yesterdayClasses, "calendar", "indigo");
+    private DailyFacts getFacts(UUID gymId, DateRange range) {
+        try {
+            return rollupRepository.sumDaily(gymId, range.fromDay(), range.toDay());
+        } catch (Exception e) {
+            log.warn("Could not read analytics rollup: {}", e.getMessage());
+            return DailyFacts.empty(range.fromDay());
+        }
     }
 
-    private KpiCardResponse getBookingsTodayKpi(UUID gymId) {
-        long todayBookings = countTotalBookings(gymId, getDateRange(AnalyticsPeriod.TODAY));
-        long yesterdayBookings = countTotalBookings(gymId, getDateRange(AnalyticsPeriod.YESTERDAY));
-        return KpiCardResponse.of("Bookings Today", todayBookings, yesterdayBookings, "check-circle", "cyan");
-    }
+    /**
+     * One entry per day from the start of the range through its end day, including days without activity.
+     */
+    private List<DailyFacts> getDailyFacts(UUID gymId, DateRange range) {
+        Map<LocalDate, DailyFacts> byDay = new HashMap<>();
+        try {
+            rollupRepository.findDaily(gymId, range.fromDay(), range.toDay())
+                    .forEach(f -> byDay.put(f.date(), f));
+        } catch (Exception e) {
+            log.warn("Could not read daily analytics rollup: {}", e.getMessage());
+        }
 
-    private KpiCardResponse getAvgClassAttendanceKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentAttendance = calculateAverageAttendance(gymId, current);
-        BigDecimal previousAttendance = calculateAverageAttendance(gymId, previous);
-        return KpiCardResponse.ofPercentage("Avg Attendance", currentAttendance, previousAttendance, "users", "teal");
+        List<DailyFacts> data = new ArrayList<>();
+        LocalDate current = range.fromDay();
+        LocalDate end = range.toDay();
+        while (!current.isAfter(end)) {
+            data.add(byDay.getOrDefault(current, DailyFacts.empty(current)));
+            current = current.plusDays(1);
+        }
+        return data;
     }
 
-    private KpiCardResponse getCapacityUtilizationKpi(UUID gymId, DateRange current, DateRange previous) {
-        BigDecimal currentUtil = calculateCapacityUtilization(gymId, current);
-        BigDecimal previousUtil = calculateCapacityUtilization(gymId, previous);
-        return KpiCardResponse.ofPercentage("Capacity Utilization", currentUtil, previousUtil, "pie-chart", "amber");
+    private List<ClassBookingFacts> getClassFacts(UUID gymId, DateRange range) {
+        try {
+            return rollupRepository.sumByClass(gymId, range.fromDay(), range.toDay());
+        } catch (Exception e) {
+            log.warn("Could not read class analytics rollup: {}", e.getMessage());
+            return List.of();
+        }
     }
 
     // ===== HELPER METHODS - DATA QUERIES =====
-    // NOTE: These methods contain placeholder implementations that should be
-    // replaced
-    // with actual repository queries when the complete schema is available
 
     private long countTotalMembers(UUID gymId) {
         try {
@@ -371,11 +364,6 @@ public class AnalyticsService {
         }
     }
 
-    private long countTotalMembersAsOf(UUID gymId, LocalDateTime asOf) {
-        // Simplified: In production, query members where createdAt <= asOf
-        return countTotalMembers(gymId);
-    }
-
     private long countActiveMembers(UUID gymId) {
         try {
             return membershipRepository.countActiveByGymId(gymId);
@@ -385,10 +373,6 @@ public class AnalyticsService {
         }
     }
 
-    private long countActiveMembersAsOf(UUID gymId, LocalDateTime asOf) {
-        return countActiveMembers(gymId);
-    }
-
     private long countSuspendedMembers(UUID gymId) {
         try {
             return membershipRepository.countByGymIdAndStatus(gymId, MembershipStatus.PAUSED);
@@ -398,27 +382,8 @@ public class AnalyticsService {
         }
     }
 
-    private long countNewMembers(UUID gymId, DateRange range) {
-        try {
-            return memberRepository.countByGymIdAndCreatedAtBetween(gymId, range.start(), range.end());
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
-    private long countCancelledMembers(UUID gymId, DateRange range) {
-        try {
-            return membershipRepository.countCancelledByGymIdAndDateRange(gymId, range.start(), range.end());
-        } catch (Exception e) {
-            log.warn("Could not count cancelled members: {}", e.getMessage());
-            return 0;
-        }
-    }
-
-    private BigDecimal calculateRetentionRate(UUID gymId, DateRange range) {
-        // Simplified retention calculation
-        long startMembers = countActiveMembersAsOf(gymId, range.start());
-        long endMembers = countActiveMembers(gymId);
+    private BigDecimal calculateRetentionRate(long startMembers, long endMembers) {
+        // Simplified retention calculation: active membership history is not tracked yet
         if (startMembers == 0)
             return BigDecimal.valueOf(100);
         return BigDecimal.valueOf(endMembers)
@@ -427,10 +392,6 @@ public class AnalyticsService {
                 .min(BigDecimal.valueOf(100));
     }
 
-    private BigDecimal calculateChurnRate(UUID gymId, DateRange range) {
-        return BigDecimal.valueOf(100).subtract(calculateRetentionRate(gymId, range));
-    }
-
     private BigDecimal calculateAverageMemberTenure(UUID gymId) {
         return BigDecimal.valueOf(180); // Placeholder: 6 months average
     }
@@ -439,12 +400,10 @@ public class AnalyticsService {
         return BigDecimal.valueOf(8); // Placeholder
     }
 
-    private BigDecimal calculateAverageClassesPerMember(UUID gymId, DateRange range) {
-        long totalBookings = countTotalBookings(gymId, range);
-        long activeMembers = countActiveMembers(gymId);
-        if (activeMembers == 0)
-            return BigDecimal.ZERO;
-        return BigDecimal.valueOf(totalBookings).divide(BigDecimal.valueOf(activeMembers), 2, RoundingMode.HALF_UP);
+    private BigDecimal perMember(BigDecimal revenue, long activeMembers) {
+        return activeMembers > 0
+                ? revenue.divide(BigDecimal.valueOf(activeMembers), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
     }
 
     private long countExpiringMemberships(UUID gymId) {
@@ -468,49 +427,18 @@ public class AnalyticsService {
         }
     }
 
-    private BigDecimal getPosRevenue(UUID gymId, DateRange range) {
-        try {
-            var sumTotal = saleRepository
-              .sumTotalByGymIdAndDateRange(gymId, range.start(), range.end());
-
-            if (sumTotal == null)
-              return BigDecimal.ZERO;
-
-            return sumTotal;
-        } catch (Exception e) {
-            return BigDecimal.ZERO;
-        }
-    }
-
-    private BigDecimal getMembershipRevenue(UUID gymId, DateRange range) {
-        try {
-            BigDecimal revenue = membershipRepository.sumProjectedRevenueByGymIdAndDateRange(
-                    gymId, range.start(), range.end());
-            return revenue != null ? revenue : BigDecimal.ZERO;
-        } catch (Exception e) {
-            log.warn("Could not calculate membership revenue: {}", e.getMessage());
-            return BigDecimal.ZERO;
-        }
-    }
-
     private BigDecimal getRefunds(UUID gymId, DateRange range) {
         return BigDecimal.ZERO; // Placeholder
     }
 
-    private long getTransactionCount(UUID gymId, DateRange range) {
-        try {
-            return saleRepository.findByGymIdAndDateRange(gymId, range.start(), range.end()).size();
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
     private Map<String, BigDecimal> getRevenueByPaymentType(UUID gymId, DateRange range) {
         return new HashMap<>(); // Placeholder
     }
 
-    private Map<String, BigDecimal> getRevenueByDay(UUID gymId, DateRange range) {
-        return new HashMap<>(); // Placeholder
+    private Map<String, BigDecimal> getRevenueByDay(List<DailyFacts> daily) {
+        Map<String, BigDecimal> revenueByDay = new LinkedHashMap<>();
+        daily.forEach(f -> revenueByDay.put(f.date().toString(), f.totalRevenue()));
+        return revenueByDay;
     }
 
     private long countTotalClasses(UUID gymId) {
@@ -521,141 +449,48 @@ public class AnalyticsService {
         }
     }
 
-    private long countScheduledSessions(UUID gymId, DateRange range) {
-        try {
-            return classScheduleRepository.countByGymIdAndStartTimeBetween(gymId, range.start(), range.end());
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
-    private long countTotalBookings(UUID gymId, DateRange range) {
-        try {
-            return classBookingRepository.countByGymIdAndDateRange(gymId, range.start(), range.end());
-        } catch (Exception e) {
-            log.warn("Could not count bookings: {}", e.getMessage());
-            return 0;
-        }
-    }
-
-    private long countCompletedBookings(UUID gymId, DateRange range) {
-        try {
-            return classBookingRepository.countByGymIdAndStatusAndDateRange(
-                    gymId, BookingStatus.COMPLETED, range.start(), range.end());
-        } catch (Exception e) {
-            log.warn("Could not count completed bookings: {}", e.getMessage());
-            return 0;
-        }
-    }
-
-    private long countCancelledBookings(UUID gymId, DateRange range) {
-        try {
-            return classBookingRepository.countByGymIdAndStatusAndDateRange(
-                    gymId, BookingStatus.CANCELLED, range.start(), range.end());
-        } catch (Exception e) {
-            log.warn("Could not count cancelled bookings: {}", e.getMessage());
-            return 0;
-        }
-    }
-
-    private long countNoShows(UUID gymId, DateRange range) {
-        try {
-            return classBookingRepository.countByGymIdAndStatusAndDateRange(
-                    gymId, BookingStatus.NO_SHOW, range.start(), range.end());
-        } catch (Exception e) {
-            log.warn("Could not count no-shows: {}", e.getMessage());
-            return 0;
-        }
-    }
-
-    private BigDecimal calculateAverageAttendance(UUID gymId, DateRange range) {
-        try {
-            long totalBookings = countTotalBookings(gymId, range);
-            long completedBookings = countCompletedBookings(gymId, range);
-            if (totalBookings == 0)
-                return BigDecimal.ZERO;
-            return BigDecimal.valueOf(completedBookings)
-                    .divide(BigDecimal.valueOf(totalBookings), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-        } catch (Exception e) {
-            log.warn("Could not calculate average attendance: {}", e.getMessage());
+    private BigDecimal calculateAverageAttendance(DailyFacts facts) {
+        if (facts.bookings() == 0)
             return BigDecimal.ZERO;
-        }
+        return BigDecimal.valueOf(facts.completedBookings())
+                .divide(BigDecimal.valueOf(facts.bookings()), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
     }
 
-    private BigDecimal calculateCapacityUtilization(UUID gymId, DateRange range) {
-        try {
-            long scheduledSessions = countScheduledSessions(gymId, range);
-            long totalBookings = countTotalBookings(gymId, range);
-            // Estimate average capacity of 15 per class
-            long totalCapacity = scheduledSessions * 15;
-            if (totalCapacity == 0)
-                return BigDecimal.ZERO;
-            return BigDecimal.valueOf(totalBookings)
-                    .divide(BigDecimal.valueOf(totalCapacity), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .min(BigDecimal.valueOf(100));
-        } catch (Exception e) {
-            log.warn("Could not calculate capacity utilization: {}", e.getMessage());
+    private BigDecimal calculateCapacityUtilization(DailyFacts facts) {
+        // Estimate average capacity of 15 per class
+        long totalCapacity = facts.scheduledSessions() * 15;
+        if (totalCapacity == 0)
             return BigDecimal.ZERO;
-        }
+        return BigDecimal.valueOf(facts.bookings())
+                .divide(BigDecimal.valueOf(totalCapacity), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .min(BigDecimal.valueOf(100));
     }
 
     // ===== TIME SERIES DATA =====
 
-    private List<TimeSeriesDataPoint> getRevenueTimeSeries(UUID gymId, DateRange range) {
-        List<TimeSeriesDataPoint> data = new ArrayList<>();
-        LocalDate current = range.start().toLocalDate();
-        LocalDate end = range.end().toLocalDate();
-
-        while (!current.isAfter(end)) {
-            DateRange dayRange = new DateRange(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
-            BigDecimal dayRevenue = getPosRevenue(gymId, dayRange);
-            data.add(new TimeSeriesDataPoint(current, dayRevenue, current.toString()));
-            current = current.plusDays(1);
-        }
-        return data;
+    private List<TimeSeriesDataPoint> toTimeSeries(List<DailyFacts> daily, Function<DailyFacts, BigDecimal> value) {
+        return daily.stream()
+                .map(f -> new TimeSeriesDataPoint(f.date(), value.apply(f), f.date().toString()))
+                .toList();
     }
 
-    private List<TimeSeriesDataPoint> getMemberGrowthTimeSeries(UUID gymId, DateRange range) {
+    private List<TimeSeriesDataPoint> getMemberGrowthTimeSeries(List<DailyFacts> daily, long membersAtStart) {
         List<TimeSeriesDataPoint> data = new ArrayList<>();
-        LocalDate current = range.start().toLocalDate();
-        LocalDate end = range.end().toLocalDate();
-        long runningTotal = countTotalMembersAsOf(gymId, range.start());
-
-        while (!current.isAfter(end)) {
-            DateRange dayRange = new DateRange(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
-            long newMembers = countNewMembers(gymId, dayRange);
-            runningTotal += newMembers;
-            data.add(new TimeSeriesDataPoint(current, BigDecimal.valueOf(runningTotal), current.toString()));
-            current = current.plusDays(1);
-        }
-        return data;
-    }
-
-    private List<TimeSeriesDataPoint> getBookingsTimeSeries(UUID gymId, DateRange range) {
-        List<TimeSeriesDataPoint> data = new ArrayList<>();
-        LocalDate current = range.start().toLocalDate();
-        LocalDate end = range.end().toLocalDate();
-
-        while (!current.isAfter(end)) {
-            DateRange dayRange = new DateRange(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
-            long bookings = countTotalBookings(gymId, dayRange);
-            data.add(new TimeSeriesDataPoint(current, BigDecimal.valueOf(bookings), current.toString()));
-            current = current.plusDays(1);
+        long runningTotal = membersAtStart;
+        for (DailyFacts day : daily) {
+            runningTotal += day.newMembers();
+            data.add(new TimeSeriesDataPoint(day.date(), BigDecimal.valueOf(runningTotal), day.date().toString()));
         }
         return data;
     }
 
-    private List<TimeSeriesDataPoint> getAttendanceTimeSeries(UUID gymId, DateRange range) {
-        return getBookingsTimeSeries(gymId, range); // Simplified
-    }
-
     // ===== CATEGORY BREAKDOWNS =====
 
-    private List<CategoryBreakdown> getRevenueBySourceBreakdown(UUID gymId, DateRange range) {
-        BigDecimal posRevenue = getPosRevenue(gymId, range);
-        BigDecimal membershipRevenue = getMembershipRevenue(gymId, range);
+    private List<CategoryBreakdown> getRevenueBySourceBreakdown(DailyFacts facts) {
+        BigDecimal posRevenue = facts.posRevenue();
+        BigDecimal membershipRevenue = facts.membershipRevenue();
         BigDecimal total = posRevenue.add(membershipRevenue);
 
         if (total.compareTo(BigDecimal.ZERO) == 0) {
@@ -697,9 +532,7 @@ public class AnalyticsService {
         }
     }
 
-    private List<CategoryBreakdown> getMembersByStatusBreakdown(UUID gymId) {
-        long active = countActiveMembers(gymId);
-        long total = countTotalMembers(gymId);
+    private List<CategoryBreakdown> getMembersByStatusBreakdown(long total, long active) {
         long inactive = total - active;
 
         if (total == 0)
@@ -716,61 +549,23 @@ public class AnalyticsService {
         return List.of(); // Placeholder
     }
 
-    private List<CategoryBreakdown> getBookingsByClassBreakdown(UUID gymId, DateRange range) {
-        try {
-            List<Object[]> classCounts = classBookingRepository.countBookingsByClassForGym(
-                    gymId, range.start(), range.end());
-            if (classCounts.isEmpty())
-                return List.of();
-
-            long total = classCounts.stream()
-                    .mapToLong(row -> ((Number) row[1]).longValue())
-                    .sum();
-
-            if (total == 0)
-                return List.of();
-
-            return classCounts.stream()
-                    .limit(10) // Top 10 classes
-                    .map(row -> {
-                        String className = (String) row[0];
-                        long count = ((Number) row[1]).longValue();
-                        BigDecimal percentage = BigDecimal.valueOf(count * 100.0 / total)
-                                .setScale(1, RoundingMode.HALF_UP);
-                        return new CategoryBreakdown(className, count, BigDecimal.ZERO, percentage);
-                    })
-                    .toList();
-        } catch (Exception e) {
-            log.warn("Could not get bookings by class breakdown: {}", e.getMessage());
+    private List<CategoryBreakdown> getBookingsByClassBreakdown(List<ClassBookingFacts> classFacts) {
+        long total = classFacts.stream().mapToLong(ClassBookingFacts::bookings).sum();
+        if (total == 0)
             return List.of();
-        }
+
+        return classFacts.stream()
+                .limit(10) // Top 10 classes
+                .map(c -> new CategoryBreakdown(c.className(), c.bookings(), BigDecimal.ZERO,
+                        BigDecimal.valueOf(c.bookings() * 100.0 / total).setScale(1, RoundingMode.HALF_UP)))
+                .toList();
     }
 
     private List<CategoryBreakdown> getBookingsByDayOfWeekBreakdown(UUID gymId, DateRange range) {
         try {
-            List<Object[]> dayCounts = classBookingRepository.countBookingsByDayOfWeek(
-                    gymId, range.start(), range.end());
-            if (dayCounts.isEmpty())
-                return List.of();
-
-            String[] dayNames = { "", "Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday" };
-            long total = dayCounts.stream()
-                    .mapToLong(row -> ((Number) row[1]).longValue())
-                    .sum();
-
-            if (total == 0)
-                return List.of();
-
-            return dayCounts.stream()
-                    .map(row -> {
-                        int dayOfWeek = ((Number) row[0]).intValue();
-                        String dayName = dayOfWeek > 0 && dayOfWeek < dayNames.length ? dayNames[dayOfWeek] : "Unknown";
-                        long count = ((Number) row[1]).longValue();
-                        BigDecimal percentage = BigDecimal.valueOf(count * 100.0 / total)
-                                .setScale(1, RoundingMode.HALF_UP);
-                        return new CategoryBreakdown(dayName, count, BigDecimal.ZERO, percentage);
-                    })
-                    .toList();
+            Map<Integer, Long> dayCounts = rollupRepository.sumByWeekday(gymId, range.fromDay(), range.toDay());
+            return toBreakdown(dayCounts,
+                    isoDay -> DayOfWeek.of(isoDay).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
         } catch (Exception e) {
             log.warn("Could not get bookings by day of week breakdown: {}", e.getMessage());
             return List.of();
@@ -779,62 +574,42 @@ public class AnalyticsService {
 
     private List<CategoryBreakdown> getBookingsByTimeSlotBreakdown(UUID gymId, DateRange range) {
         try {
-            List<Object[]> timeCounts = classBookingRepository.countBookingsByTimeSlot(
-                    gymId, range.start(), range.end());
-            if (timeCounts.isEmpty())
-                return List.of();
-
-            long total = timeCounts.stream()
-                    .mapToLong(row -> ((Number) row[1]).longValue())
-                    .sum();
-
-            if (total == 0)
-                return List.of();
-
-            return timeCounts.stream()
-                    .map(row -> {
-                        int hour = ((Number) row[0]).intValue();
-                        String timeSlot = String.format("%02d:00-%02d:00", hour, (hour + 1) % 24);
-                        long count = ((Number) row[1]).longValue();
-                        BigDecimal percentage = BigDecimal.valueOf(count * 100.0 / total)
-                                .setScale(1, RoundingMode.HALF_UP);
-                        return new CategoryBreakdown(timeSlot, count, BigDecimal.ZERO, percentage);
-                    })
-                    .toList();
+            Map<Integer, Long> hourCounts = rollupRepository.sumByHour(gymId, range.fromDay(), range.toDay());
+            return toBreakdown(hourCounts, hour -> String.format("%02d:00-%02d:00", hour, (hour + 1) % 24));
         } catch (Exception e) {
             log.warn("Could not get bookings by time slot breakdown: {}", e.getMessage());
             return List.of();
         }
     }
 
-    // ===== TOP PERFORMERS =====
-
-    private List<ClassAnalyticsResponse.TopClassResponse> getTopClassesByBookings(UUID gymId, DateRange range) {
-        try {
-            List<Object[]> classCounts = classBookingRepository.countBookingsByClassForGym(
-                    gymId, range.start(), range.end());
-            if (classCounts.isEmpty())
-                return List.of();
-
-            return classCounts.stream()
-                    .limit(5)
-                    .map(row -> new ClassAnalyticsResponse.TopClassResponse(
-                            (String) row[0], // className
-                            "N/A", // categoryName - not available in current query
-                            ((Number) row[1]).longValue(), // bookings
-                            BigDecimal.ZERO // attendanceRate - requires more data
-                    ))
-                    .toList();
-        } catch (Exception e) {
-            log.warn("Could not get top classes by bookings: {}", e.getMessage());
+    private List<CategoryBreakdown> toBreakdown(Map<Integer, Long> counts, Function<Integer, String> label) {
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0)
             return List.of();
-        }
+
+        return counts.entrySet().stream()
+                .map(entry -> new CategoryBreakdown(label.apply(entry.getKey()), entry.getValue(), BigDecimal.ZERO,
+                        BigDecimal.valueOf(entry.getValue() * 100.0 / total).setScale(1, RoundingMode.HALF_UP)))
+                .toList();
     }
 
-    private List<ClassAnalyticsResponse.TopClassResponse> getTopClassesByAttendance(UUID gymId, DateRange range) {
-        // For now, use the same as bookings since we track completed bookings as
-        // attendance
-        return getTopClassesByBookings(gymId, range);
+    // ===== TOP PERFORMERS =====
+
+    private List<ClassAnalyticsResponse.TopClassResponse> getTopClasses(List<ClassBookingFacts> classFacts,
+            Comparator<ClassBookingFacts> order) {
+        return classFacts.stream()
+                .sorted(order)
+                .limit(5)
+                .map(c -> new ClassAnalyticsResponse.TopClassResponse(
+                        c.className(),
+                        "N/A", // categoryName - not part of the rollup
+                        c.bookings(),
+                        c.bookings() > 0
+                                ? BigDecimal.valueOf(c.completedBookings())
+                                        .divide(BigDecimal.valueOf(c.bookings()), 4, RoundingMode.HALF_UP)
+                                        .multiply(BigDecimal.valueOf(100))
+                                : BigDecimal.ZERO))
+                .toList();
     }
 
     private List<ClassAnalyticsResponse.TopTrainerResponse> getTopTrainersByBookings(UUID gymId, DateRange range) {
@@ -846,5 +621,14 @@ public class AnalyticsService {
     // ===== INNER CLASSES =====
 
     private record DateRange(LocalDateTime start, LocalDateTime end) {
+
+        LocalDate fromDay() {
+            return start.toLocalDate();
+        }
+
+        /** Exclusive end day; every period boundary falls on midnight. */
+        LocalDate toDay() {
+            return end.toLocalDate();
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.gymmate.analytics.domain;
+
+import java.util.UUID;
+
+/**
+ * Bookings of one class summed over a range of days.
+ */
+public record ClassBookingFacts(
+        UUID classId,
+        String className,
+        long bookings,
+        long completedBookings) {
+}
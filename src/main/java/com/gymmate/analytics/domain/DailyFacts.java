@@ -0,0 +1,30 @@
+package com.gymmate.analytics.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated facts for one gym, either for a single day or summed over a range of days
+ * (in which case {@code date} is the first day of the range).
+ */
+public record DailyFacts(
+        LocalDate date,
+        long newMembers,
+        long cancelledMemberships,
+        BigDecimal membershipRevenue,
+        BigDecimal posRevenue,
+        long posTransactions,
+        long scheduledSessions,
+        long bookings,
+        long completedBookings,
+        long cancelledBookings,
+        long noShows) {
+
+    public static DailyFacts empty(LocalDate date) {
+        return new DailyFacts(date, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, 0, 0, 0, 0);
+    }
+
+    public BigDecimal totalRevenue() {
+        return posRevenue.add(membershipRevenue);
+    }
+}
@@ -0,0 +1,293 @@
+package com.gymmate.analytics.infrastructure;
+
+import com.gymmate.analytics.domain.ClassBookingFacts;
+import com.gymmate.analytics.domain.DailyFacts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads and maintains the daily analytics rollup tables (see V15 migration).
+ * Date ranges are half-open: {@code from} inclusive, {@code to} exclusive.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsRollupRepository {
+
+    // Every (gym, day) a source row contributes to; filtered by the caller's WHERE clauses.
+    // Bookings belong to their schedule's gym and memberships to their member's gym:
+    // class_bookings.gym_id and member_memberships.gym_id may be NULL on older rows.
+    private static final String GYM_DAYS_SQL = """
+            SELECT gym_id, fact_date FROM (
+                SELECT gym_id, CAST(created_at AS DATE) AS fact_date FROM members WHERE %1$s
+                UNION SELECT m.gym_id, CAST(mm.created_at AS DATE) FROM member_memberships mm
+                    JOIN members m ON m.id = mm.member_id WHERE %2$s
+                UNION SELECT m.gym_id, mm.next_billing_date FROM member_memberships mm
+                    JOIN members m ON m.id = mm.member_id WHERE %3$s
+                UNION SELECT gym_id, CAST(sale_date AS DATE) FROM pos_sales WHERE %4$s
+                UNION SELECT gym_id, CAST(start_time AS DATE) FROM class_schedules WHERE %5$s
+                UNION SELECT cs.gym_id, CAST(cb.booking_date AS DATE) FROM class_bookings cb
+                    JOIN class_schedules cs ON cs.id = cb.class_schedule_id WHERE %6$s
+                %7$s
+            ) d
+            WHERE gym_id IS NOT NULL AND fact_date IS NOT NULL
+            """;
+
+    private static final String CHANGED_GYM_DAYS_SQL = GYM_DAYS_SQL.formatted(
+            "updated_at >= :since", "mm.updated_at >= :since", "mm.updated_at >= :since",
+            "updated_at >= :since", "updated_at >= :since", "cb.updated_at >= :since", "");
+
+    private static final String GYM_DAYS_IN_RANGE_SQL = GYM_DAYS_SQL.formatted(
+            "created_at >= :start AND created_at < :end",
+            "mm.created_at >= :start AND mm.created_at < :end",
+            "mm.next_billing_date >= :from AND mm.next_billing_date < :to",
+            "sale_date >= :start AND sale_date < :end",
+            "start_time >= :start AND start_time < :end",
+            "cb.booking_date >= :start AND cb.booking_date < :end",
+            "UNION SELECT gym_id, fact_date FROM analytics_daily_gym WHERE fact_date >= :from AND fact_date < :to");
+
+    private static final String REFRESH_GYM_SQL = """
+            INSERT INTO analytics_daily_gym (gym_id, fact_date, new_members, cancelled_memberships,
+                membership_revenue, pos_revenue, pos_transactions, scheduled_sessions,
+                bookings, completed_bookings, cancelled_bookings, no_shows, refreshed_at)
+            SELECT CAST(:gymId AS UUID), CAST(:day AS DATE),
+                (SELECT COUNT(*) FROM members
+                    WHERE gym_id = :gymId AND created_at >= :start AND created_at < :end),
+                (SELECT COUNT(*) FROM member_memberships mm JOIN members m ON m.id = mm.member_id
+                    WHERE m.gym_id = :gymId AND mm.status = 'CANCELLED'
+                      AND mm.created_at >= :start AND mm.created_at < :end),
+                (SELECT COALESCE(SUM(mm.monthly_amount), 0) FROM member_memberships mm JOIN members m ON m.id = mm.member_id
+                    WHERE m.gym_id = :gymId AND mm.status = 'ACTIVE' AND mm.next_billing_date = :day),
+                s.pos_revenue, s.pos_transactions,
+                (SELECT COUNT(*) FROM class_schedules
+                    WHERE gym_id = :gymId AND start_time >= :start AND start_time < :end),
+                b.bookings, b.completed_bookings, b.cancelled_bookings, b.no_shows,
+                CURRENT_TIMESTAMP
+            FROM (SELECT COALESCE(SUM(total_amount) FILTER (WHERE status = 'COMPLETED'), 0) AS pos_revenue,
+                         COUNT(*) AS pos_transactions
+                  FROM pos_sales
+                  WHERE gym_id = :gymId AND sale_date >= :start AND sale_date < :end) s,
+                 (SELECT COUNT(*) AS bookings,
+                         COUNT(*) FILTER (WHERE cb.status = 'COMPLETED') AS completed_bookings,
+                         COUNT(*) FILTER (WHERE cb.status = 'CANCELLED') AS cancelled_bookings,
+                         COUNT(*) FILTER (WHERE cb.status = 'NO_SHOW') AS no_shows
+                  FROM class_bookings cb
+                  JOIN class_schedules cs ON cs.id = cb.class_schedule_id
+                  WHERE cs.gym_id = :gymId AND cb.booking_date >= :start AND cb.booking_date < :end) b
+            ON CONFLICT (gym_id, fact_date) DO UPDATE SET
+                new_members = EXCLUDED.new_members,
+                cancelled_memberships = EXCLUDED.cancelled_memberships,
+                membership_revenue = EXCLUDED.membership_revenue,
+                pos_revenue = EXCLUDED.pos_revenue,
+                pos_transactions = EXCLUDED.pos_transactions,
+                scheduled_sessions = EXCLUDED.scheduled_sessions,
+                bookings = EXCLUDED.bookings,
+                completed_bookings = EXCLUDED.completed_bookings,
+                cancelled_bookings = EXCLUDED.cancelled_bookings,
+                no_shows = EXCLUDED.no_shows,
+                refreshed_at = EXCLUDED.refreshed_at
+            """;
+
+    private static final String REFRESH_CLASS_SQL = """
+            INSERT INTO analytics_daily_class (gym_id, fact_date, class_id, class_name, bookings, completed_bookings)
+            SELECT CAST(:gymId AS UUID), CAST(:day AS DATE), c.id, c.name,
+                   COUNT(*), COUNT(*) FILTER (WHERE cb.status = 'COMPLETED')
+            FROM class_bookings cb
+            JOIN class_schedules cs ON cs.id = cb.class_schedule_id
+            JOIN classes c ON c.id = cs.class_id
+            WHERE cs.gym_id = :gymId AND cb.booking_date >= :start AND cb.booking_date < :end
+            GROUP BY c.id, c.name
+            """;
+
+    private static final String REFRESH_HOUR_SQL = """
+            INSERT INTO analytics_daily_hour (gym_id, fact_date, hour_of_day, bookings)
+            SELECT CAST(:gymId AS UUID), CAST(:day AS DATE), CAST(EXTRACT(HOUR FROM cs.start_time) AS SMALLINT), COUNT(*)
+            FROM class_bookings cb
+            JOIN class_schedules cs ON cs.id = cb.class_schedule_id
+            WHERE cs.gym_id = :gymId AND cb.booking_date >= :start AND cb.booking_date < :end
+            GROUP BY CAST(EXTRACT(HOUR FROM cs.start_time) AS SMALLINT)
+            """;
+
+    private static final String FACT_COLUMNS = """
+            new_members, cancelled_memberships, membership_revenue, pos_revenue, pos_transactions,
+            scheduled_sessions, bookings, completed_bookings, cancelled_bookings, no_shows
+            """;
+
+    private static final String SUM_FACT_COLUMNS = """
+            COALESCE(SUM(new_members), 0) AS new_members,
+            COALESCE(SUM(cancelled_memberships), 0) AS cancelled_memberships,
+            COALESCE(SUM(membership_revenue), 0) AS membership_revenue,
+            COALESCE(SUM(pos_revenue), 0) AS pos_revenue,
+            COALESCE(SUM(pos_transactions), 0) AS pos_transactions,
+            COALESCE(SUM(scheduled_sessions), 0) AS scheduled_sessions,
+            COALESCE(SUM(bookings), 0) AS bookings,
+            COALESCE(SUM(completed_bookings), 0) AS completed_bookings,
+            COALESCE(SUM(cancelled_bookings), 0) AS cancelled_bookings,
+            COALESCE(SUM(no_shows), 0) AS no_shows
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // ===== MAINTENANCE =====
+
+    /**
+     * Gym-days with at least one source row modified at or after {@code since}.
+     */
+    public Set<GymDay> findChangedGymDays(LocalDateTime since) {
+        return queryGymDays(CHANGED_GYM_DAYS_SQL, new MapSqlParameterSource("since", since));
+    }
+
+    /**
+     * Gym-days in the range that have source rows or an existing rollup row.
+     */
+    public Set<GymDay> findGymDays(LocalDate from, LocalDate to) {
+        return queryGymDays(GYM_DAYS_IN_RANGE_SQL, new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("start", from.atStartOfDay())
+                .addValue("end", to.atStartOfDay()));
+    }
+
+    /**
+     * Recompute every rollup row of one gym-day from the source tables.
+     * Callers run this inside a transaction so readers never see a partially rebuilt day.
+     */
+    public void refresh(UUID gymId, LocalDate day) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("gymId", gymId)
+                .addValue("day", day)
+                .addValue("start", day.atStartOfDay())
+                .addValue("end", day.plusDays(1).atStartOfDay());
+
+        jdbcTemplate.update(REFRESH_GYM_SQL, params);
+        jdbcTemplate.update("DELETE FROM analytics_daily_class WHERE gym_id = :gymId AND fact_date = :day", params);
+        jdbcTemplate.update(REFRESH_CLASS_SQL, params);
+        jdbcTemplate.update("DELETE FROM analytics_daily_hour WHERE gym_id = :gymId AND fact_date = :day", params);
+        jdbcTemplate.update(REFRESH_HOUR_SQL, params);
+    }
+
+    // ===== READS =====
+
+    /**
+     * Facts summed over the range; {@code date} of the result is {@code from}.
+     */
+    public DailyFacts sumDaily(UUID gymId, LocalDate from, LocalDate to) {
+        List<DailyFacts> rows = jdbcTemplate.query(
+                "SELECT CAST(:from AS DATE) AS fact_date, " + SUM_FACT_COLUMNS
+                        + " FROM analytics_daily_gym WHERE gym_id = :gymId AND fact_date >= :from AND fact_date < :to",
+                rangeParams(gymId, from, to), DAILY_FACTS_MAPPER);
+        return rows.isEmpty() ? DailyFacts.empty(from) : rows.get(0);
+    }
+
+    /**
+     * One row per day in the range that has facts, oldest first. Days without activity are absent.
+     */
+    public List<DailyFacts> findDaily(UUID gymId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT fact_date, " + FACT_COLUMNS
+                        + " FROM analytics_daily_gym WHERE gym_id = :gymId AND fact_date >= :from AND fact_date < :to"
+                        + " ORDER BY fact_date",
+                rangeParams(gymId, from, to), DAILY_FACTS_MAPPER);
+    }
+
+    /**
+     * Bookings per class over the range, most booked first.
+     */
+    public List<ClassBookingFacts> sumByClass(UUID gymId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                        SELECT class_id, MAX(class_name) AS class_name,
+                               SUM(bookings) AS bookings, SUM(completed_bookings) AS completed_bookings
+                        FROM analytics_daily_class
+                        WHERE gym_id = :gymId AND fact_date >= :from AND fact_date < :to
+                        GROUP BY class_id
+                        ORDER BY SUM(bookings) DESC, MAX(class_name)
+                        """,
+                rangeParams(gymId, from, to),
+                (rs, i) -> new ClassBookingFacts(rs.getObject("class_id", UUID.class), rs.getString("class_name"),
+                        rs.getLong("bookings"), rs.getLong("completed_bookings")));
+    }
+
+    /**
+     * Bookings per class start hour (0-23) over the range, in hour order.
+     */
+    public Map<Integer, Long> sumByHour(UUID gymId, LocalDate from, LocalDate to) {
+        return queryBuckets("""
+                SELECT hour_of_day AS bucket, SUM(bookings) AS bookings
+                FROM analytics_daily_hour
+                WHERE gym_id = :gymId AND fact_date >= :from AND fact_date < :to
+                GROUP BY hour_of_day
+                ORDER BY hour_of_day
+                """, rangeParams(gymId, from, to));
+    }
+
+    /**
+     * Bookings per ISO weekday of the booking date (1 = Monday .. 7 = Sunday) over the range.
+     */
+    public Map<Integer, Long> sumByWeekday(UUID gymId, LocalDate from, LocalDate to) {
+        return queryBuckets("""
+                SELECT CAST(EXTRACT(ISODOW FROM fact_date) AS INTEGER) AS bucket, SUM(bookings) AS bookings
+                FROM analytics_daily_gym
+                WHERE gym_id = :gymId AND fact_date >= :from AND fact_date < :to
+                GROUP BY 1
+                ORDER BY 1
+                """, rangeParams(gymId, from, to));
+    }
+
+    private Set<GymDay> queryGymDays(String sql, MapSqlParameterSource params) {
+        return new LinkedHashSet<>(jdbcTemplate.query(sql, params,
+                (rs, i) -> new GymDay(rs.getObject("gym_id", UUID.class), rs.getObject("fact_date", LocalDate.class))));
+    }
+
+    private Map<Integer, Long> queryBuckets(String sql, MapSqlParameterSource params) {
+        Map<Integer, Long> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            buckets.put(rs.getInt("bucket"), rs.getLong("bookings"));
+        });
+        return buckets;
+    }
+
+    private static MapSqlParameterSource rangeParams(UUID gymId, LocalDate from, LocalDate to) {
+        return new MapSqlParameterSource()
+                .addValue("gymId", gymId)
+                .addValue("from", from)
+                .addValue("to", to);
+    }
+
+    private static final RowMapper<DailyFacts> DAILY_FACTS_MAPPER = (rs, i) -> new DailyFacts(
+            rs.getObject("fact_date", LocalDate.class),
+            rs.getLong("new_members"),
+            rs.getLong("cancelled_memberships"),
+            money(rs, "membership_revenue"),
+            money(rs, "pos_revenue"),
+            rs.getLong("pos_transactions"),
+            rs.getLong("scheduled_sessions"),
+            rs.getLong("bookings"),
+            rs.getLong("completed_bookings"),
+            rs.getLong("cancelled_bookings"),
+            rs.getLong("no_shows"));
+
+    private static BigDecimal money(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * One gym on one calendar day; the unit a rollup refresh works on.
+     */
+    public record GymDay(UUID gymId, LocalDate day) {
+    }
+}
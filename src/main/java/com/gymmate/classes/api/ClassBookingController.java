@@ -5,6 +5,7 @@ import com.gymmate.classes.api.dto.CreateBookingRequest;
 import com.gymmate.classes.application.ClassBookingService;
 import com.gymmate.classes.domain.ClassBooking;
 import com.gymmate.shared.dto.ApiResponse;
+import com.gymmate.shared.exception.BadRequestException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -28,9 +29,16 @@ public class ClassBookingController {
 
   @PostMapping
   @PreAuthorize("hasAnyRole('OWNER', 'ADMIN', 'STAFF', 'TRAINER', 'MEMBER')")
-  @Operation(summary = "Create booking", description = "Book a class or join waitlist if full")
-  public ResponseEntity<ApiResponse<BookingResponse>> createBooking(@Valid @RequestBody CreateBookingRequest request) {
-    ClassBooking booking = bookingService.createBooking(request.gymId(), request.memberId(), request.scheduleId(), request.memberNotes());
+  @Operation(summary = "Create booking",
+      description = "Book a class or join waitlist if full. Retries sent with the same Idempotency-Key return the original booking")
+  public ResponseEntity<ApiResponse<BookingResponse>> createBooking(
+      @Valid @RequestBody CreateBookingRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+    if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+      throw new BadRequestException("Idempotency-Key must be 1-100 characters");
+    }
+    ClassBooking booking = bookingService.createBooking(request.gymId(), request.memberId(), request.scheduleId(),
+        request.memberNotes(), idempotencyKey);
     return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(BookingResponse.from(booking), "Booking created"));
   }
 
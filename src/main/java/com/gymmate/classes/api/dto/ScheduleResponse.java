@@ -17,6 +17,7 @@ public class ScheduleResponse {
   private LocalDateTime endTime;
   private Integer capacityOverride;
   private BigDecimal priceOverride;
+  private int bookedCount;
   private String status;
 
   // extra fields
@@ -34,6 +35,7 @@ public class ScheduleResponse {
     r.endTime = s.getEndTime();
     r.capacityOverride = s.getCapacityOverride();
     r.priceOverride = s.getPriceOverride();
+    r.bookedCount = s.getBookedCount();
     r.status = s.getStatus() == null ? null : s.getStatus().name();
     r.cancellationReason = s.getCancellationReason();
     r.instructorNotes = s.getInstructorNotes();
@@ -7,16 +7,20 @@ import com.gymmate.classes.infrastructure.GymClassJpaRepository;
 import com.gymmate.membership.infrastructure.MemberMembershipRepository;
 import com.gymmate.notification.events.WaitlistPromotedEvent;
 import com.gymmate.shared.constants.BookingStatus;
+import com.gymmate.shared.exception.ConflictException;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -31,10 +35,24 @@ public class ClassBookingService {
   private final MemberMembershipRepository membershipRepository;
   private final ApplicationEventPublisher eventPublisher;
 
+  public ClassBooking createBooking(UUID gymId, UUID memberId, UUID scheduleId, String memberNotes) {
+    return createBooking(gymId, memberId, scheduleId, memberNotes, null);
+  }
+
   /**
-   * Create a booking. If capacity reached, place on waitlist with position tracking.
+   * Create a booking. A seat is taken with a single conditional update of the schedule's
+   * seat counter; if none is left the member is waitlisted instead. Requests repeated with
+   * the same idempotency key return the booking created by the first one.
    */
-  public ClassBooking createBooking(UUID gymId, UUID memberId, UUID scheduleId, String memberNotes) {
+  public ClassBooking createBooking(UUID gymId, UUID memberId, UUID scheduleId, String memberNotes,
+                                    String idempotencyKey) {
+    if (idempotencyKey != null) {
+      Optional<ClassBooking> existing = bookingRepository.findByMemberIdAndIdempotencyKey(memberId, idempotencyKey);
+      if (existing.isPresent()) {
+        return existing.get();
+      }
+    }
+
     // validate schedule
     ClassSchedule schedule = scheduleRepository.findById(scheduleId)
       .orElseThrow(() -> new ResourceNotFoundException("ClassSchedule", scheduleId.toString()));
@@ -57,14 +75,24 @@ public class ClassBookingService {
       capacity = gymClass.getCapacity();
     }
 
-    long confirmedCount = bookingRepository.countConfirmedByScheduleId(scheduleId);
-    boolean hasSpace = confirmedCount < (capacity == null ? Integer.MAX_VALUE : capacity);
-
     ClassBooking booking = ClassBooking.builder()
       .memberId(memberId)
       .classScheduleId(scheduleId)
       .memberNotes(memberNotes)
+      .idempotencyKey(idempotencyKey)
       .build();
+    booking.setGymId(schedule.getGymId());
+
+    // Reserve the seat last: the update holds the schedule row lock until commit,
+    // so under a booking rush the lock is held for as short a time as possible.
+    int seats = capacity == null ? Integer.MAX_VALUE : capacity;
+    boolean hasSpace = scheduleRepository.tryReserveSeat(scheduleId, seats) == 1;
+    if (!hasSpace) {
+      // Full: lock the counter so waitlist placement is ordered against cancellations
+      // promoting from the waitlist, then retry in case a seat was freed meanwhile.
+      scheduleRepository.lockSeatCounter(scheduleId);
+      hasSpace = scheduleRepository.tryReserveSeat(scheduleId, seats) == 1;
+    }
 
     if (hasSpace) {
       booking.setStatus(BookingStatus.CONFIRMED);
@@ -81,59 +109,87 @@ public class ClassBookingService {
 
     } else {
       booking.setStatus(BookingStatus.WAITLISTED);
-      // Calculate waitlist position: count existing waitlisted bookings + 1
-      List<ClassBooking> existingWaitlist = bookingRepository.findWaitlistByScheduleId(scheduleId);
-      booking.setWaitlistPosition(existingWaitlist.size() + 1);
+      booking.setWaitlistSeq(bookingRepository.nextWaitlistSeq());
     }
 
     booking.setBookingDate(LocalDateTime.now());
-    ClassBooking saved = bookingRepository.save(booking);
+    ClassBooking saved;
+    try {
+      saved = bookingRepository.saveAndFlush(booking);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent request for the same member/schedule or idempotency key won the race;
+      // rolling back also returns the seat taken above.
+      throw new ConflictException("A booking for this member and schedule is already being processed");
+    }
+    withWaitlistPosition(saved);
     log.info("Created booking {} for schedule {} member {} status={} waitlistPos={}",
       saved.getId(), scheduleId, memberId, saved.getStatus(), saved.getWaitlistPosition());
     return saved;
   }
 
   public ClassBooking getBooking(UUID bookingId) {
-    return bookingRepository.findById(bookingId)
-      .orElseThrow(() -> new ResourceNotFoundException("ClassBooking", bookingId.toString()));
+    return withWaitlistPosition(findBooking(bookingId));
   }
 
   public List<ClassBooking> getBookingsByMember(UUID memberId) {
-    return bookingRepository.findByMemberId(memberId);
+    List<ClassBooking> bookings = bookingRepository.findByMemberId(memberId);
+    bookings.forEach(this::withWaitlistPosition);
+    return bookings;
   }
 
   public List<ClassBooking> getBookingsBySchedule(UUID scheduleId) {
-    return bookingRepository.findByClassScheduleId(scheduleId);
+    List<ClassBooking> bookings = bookingRepository.findByClassScheduleId(scheduleId);
+    // Whole schedule is loaded, so rank the waitlisted entries in memory
+    List<ClassBooking> waitlisted = bookings.stream()
+      .filter(b -> b.getStatus() == BookingStatus.WAITLISTED && b.getWaitlistSeq() != null)
+      .sorted(Comparator.comparing(ClassBooking::getWaitlistSeq))
+      .toList();
+    for (int i = 0; i < waitlisted.size(); i++) {
+      waitlisted.get(i).setWaitlistPosition(i + 1);
+    }
+    return bookings;
   }
 
   public List<ClassBooking> getWaitlist(UUID scheduleId) {
-    return bookingRepository.findWaitlistByScheduleId(scheduleId);
+    List<ClassBooking> waitlist = bookingRepository.findWaitlistByScheduleId(scheduleId);
+    for (int i = 0; i < waitlist.size(); i++) {
+      waitlist.get(i).setWaitlistPosition(i + 1);
+    }
+    return waitlist;
   }
 
   /**
-   * Cancel a booking. If a confirmed booking is cancelled, promote first waitlisted
-   * booking to confirmed and re-number remaining waitlist positions.
+   * Cancel a booking. If a confirmed booking is cancelled, promote the head of the
+   * waitlist to confirmed; with nobody waiting, the seat is released back to the
+   * schedule's counter. Waitlist positions are computed on read, so no other
+   * booking is rewritten.
    */
   public ClassBooking cancelBooking(UUID bookingId, String reason) {
-    ClassBooking booking = getBooking(bookingId);
+    ClassBooking booking = findBooking(bookingId);
 
     if (booking.getStatus() == BookingStatus.CANCELLED) {
       throw new DomainException("ALREADY_CANCELLED", "Booking already cancelled");
     }
 
     boolean wasConfirmed = booking.getStatus() == BookingStatus.CONFIRMED;
-    boolean wasWaitlisted = booking.getStatus() == BookingStatus.WAITLISTED;
+    if (wasConfirmed) {
+      // Serialise with bookings and other cancellations for this schedule
+      scheduleRepository.lockSeatCounter(booking.getClassScheduleId());
+    }
     booking.cancel(reason);
-    booking.setWaitlistPosition(null); // Clear waitlist position on cancel
+    booking.setWaitlistSeq(null);
     bookingRepository.save(booking);
 
     if (wasConfirmed) {
-      // promote first waitlisted
-      List<ClassBooking> waitlist = bookingRepository.findWaitlistByScheduleId(booking.getClassScheduleId());
-      if (!waitlist.isEmpty()) {
-        ClassBooking first = waitlist.get(0);
+      // promote first waitlisted; the freed seat passes straight to them
+      Optional<ClassBooking> head = bookingRepository.findFirstByClassScheduleIdAndStatusOrderByWaitlistSeqAsc(
+        booking.getClassScheduleId(), BookingStatus.WAITLISTED);
+      if (head.isEmpty()) {
+        scheduleRepository.releaseSeat(booking.getClassScheduleId());
+      } else {
+        ClassBooking first = head.get();
         first.setStatus(BookingStatus.CONFIRMED);
-        first.setWaitlistPosition(null); // No longer on waitlist
+        first.setWaitlistSeq(null); // No longer on waitlist
         // consume membership credit if any
         membershipRepository.findActiveMembershipByMemberId(first.getMemberId()).ifPresent(membership -> {
           Integer credits = membership.getClassCreditsRemaining();
@@ -158,33 +214,30 @@ public class ClassBookingService {
         } catch (Exception e) {
           log.warn("Failed to publish WaitlistPromotedEvent for booking {}: {}", first.getId(), e.getMessage());
         }
-
-        // Re-number remaining waitlist positions
-        renumberWaitlist(booking.getClassScheduleId());
       }
-    } else if (wasWaitlisted) {
-      // Re-number waitlist after a waitlisted booking is removed
-      renumberWaitlist(booking.getClassScheduleId());
     }
 
     return booking;
   }
 
+  private ClassBooking findBooking(UUID bookingId) {
+    return bookingRepository.findById(bookingId)
+      .orElseThrow(() -> new ResourceNotFoundException("ClassBooking", bookingId.toString()));
+  }
+
   /**
-   * Re-number waitlist positions sequentially starting from 1.
+   * Fill in the 1-based waitlist rank of a waitlisted booking from its sequence number.
    */
-  private void renumberWaitlist(UUID scheduleId) {
-    List<ClassBooking> waitlist = bookingRepository.findWaitlistByScheduleId(scheduleId);
-    for (int i = 0; i < waitlist.size(); i++) {
-      ClassBooking wb = waitlist.get(i);
-      wb.setWaitlistPosition(i + 1);
-      bookingRepository.save(wb);
+  private ClassBooking withWaitlistPosition(ClassBooking booking) {
+    if (booking.getStatus() == BookingStatus.WAITLISTED && booking.getWaitlistSeq() != null) {
+      long ahead = bookingRepository.countWaitlistAhead(booking.getClassScheduleId(), booking.getWaitlistSeq());
+      booking.setWaitlistPosition((int) ahead + 1);
     }
-    log.debug("Re-numbered {} waitlist entries for schedule {}", waitlist.size(), scheduleId);
+    return booking;
   }
 
   public ClassBooking checkIn(UUID bookingId) {
-    ClassBooking booking = getBooking(bookingId);
+    ClassBooking booking = findBooking(bookingId);
     if (!booking.isConfirmed()) {
       throw new DomainException("NOT_CONFIRMED", "Only confirmed bookings can be checked in");
     }
@@ -193,7 +246,7 @@ public class ClassBookingService {
   }
 
   public ClassBooking checkOut(UUID bookingId) {
-    ClassBooking booking = getBooking(bookingId);
+    ClassBooking booking = findBooking(bookingId);
     if (!booking.isCheckedIn()) {
       throw new DomainException("NOT_CHECKED_IN", "Member has not checked in");
     }
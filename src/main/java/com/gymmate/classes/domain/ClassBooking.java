@@ -66,8 +66,16 @@ public class ClassBooking extends GymScopedEntity {
   @Column(name = "member_notes", columnDefinition = "TEXT")
   private String memberNotes;
 
-  // Waitlist tracking
-  @Column(name = "waitlist_position")
+  // Client-supplied key identifying the booking request, for safe retries
+  @Column(name = "idempotency_key", length = 100)
+  private String idempotencyKey;
+
+  // Waitlist ordering; lower sequence numbers are further ahead
+  @Column(name = "waitlist_seq")
+  private Long waitlistSeq;
+
+  // 1-based waitlist rank, computed on read by ClassBookingService
+  @Transient
   private Integer waitlistPosition;
 
   public void checkIn() {
@@ -47,6 +47,11 @@ public class ClassSchedule extends GymScopedEntity {
   @Column(name = "price_override", precision = 10, scale = 2)
   private BigDecimal priceOverride;
 
+  // Seats taken; maintained only by the conditional updates in ClassScheduleJpaRepository
+  @Column(name = "booked_count", insertable = false, updatable = false)
+  @Builder.Default
+  private int bookedCount = 0;
+
   // Status
   @Enumerated(EnumType.STRING)
   @Column(length = 20)
@@ -31,15 +31,26 @@ public interface ClassBookingJpaRepository extends JpaRepository<ClassBooking, U
   @Query("SELECT COUNT(cb) FROM ClassBooking cb WHERE cb.classScheduleId = :scheduleId AND cb.status = 'CONFIRMED'")
   long countConfirmedByScheduleId(@Param("scheduleId") UUID scheduleId);
 
-  @Query("SELECT cb FROM ClassBooking cb WHERE cb.classScheduleId = :scheduleId AND cb.status = 'WAITLISTED' ORDER BY cb.bookingDate")
+  @Query("SELECT cb FROM ClassBooking cb WHERE cb.classScheduleId = :scheduleId AND cb.status = 'WAITLISTED' ORDER BY cb.waitlistSeq")
   List<ClassBooking> findWaitlistByScheduleId(@Param("scheduleId") UUID scheduleId);
 
+  /** Head of the waitlist. */
+  Optional<ClassBooking> findFirstByClassScheduleIdAndStatusOrderByWaitlistSeqAsc(UUID classScheduleId, BookingStatus status);
+
+  @Query("SELECT COUNT(cb) FROM ClassBooking cb WHERE cb.classScheduleId = :scheduleId AND cb.status = 'WAITLISTED' AND cb.waitlistSeq < :waitlistSeq")
+  long countWaitlistAhead(@Param("scheduleId") UUID scheduleId, @Param("waitlistSeq") long waitlistSeq);
+
+  @Query(value = "SELECT nextval('class_booking_waitlist_seq')", nativeQuery = true)
+  long nextWaitlistSeq();
+
   @Query("SELECT cb FROM ClassBooking cb JOIN ClassSchedule cs ON cb.classScheduleId = cs.id WHERE cb.memberId = :memberId AND cs.startTime >= :fromDate AND cb.status IN ('CONFIRMED', 'WAITLISTED') ORDER BY cs.startTime")
   List<ClassBooking> findUpcomingByMemberId(@Param("memberId") UUID memberId,
       @Param("fromDate") LocalDateTime fromDate);
 
   boolean existsByClassScheduleIdAndMemberId(UUID classScheduleId, UUID memberId);
 
+  Optional<ClassBooking> findByMemberIdAndIdempotencyKey(UUID memberId, String idempotencyKey);
+
   // ===== Analytics Queries =====
 
   @Query("SELECT COUNT(cb) FROM ClassBooking cb JOIN Member m ON cb.memberId = m.userId WHERE m.gymId = :gymId AND cb.bookingDate BETWEEN :startDate AND :endDate")
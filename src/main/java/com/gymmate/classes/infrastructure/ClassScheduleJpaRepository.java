@@ -3,6 +3,7 @@ package com.gymmate.classes.infrastructure;
 import com.gymmate.classes.domain.ClassSchedule;
 import com.gymmate.shared.constants.ClassScheduleStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +20,19 @@ public interface ClassScheduleJpaRepository extends JpaRepository<ClassSchedule,
 
   List<ClassSchedule> findByClassId(UUID classId);
 
+  /** Take a seat if one is left. Returns 1 when reserved, 0 when the schedule is full. */
+  @Modifying
+  @Query(value = "UPDATE class_schedules SET booked_count = booked_count + 1 WHERE id = :id AND booked_count < :capacity", nativeQuery = true)
+  int tryReserveSeat(@Param("id") UUID id, @Param("capacity") int capacity);
+
+  /** Lock the schedule's seat counter row for the rest of the transaction. */
+  @Query(value = "SELECT booked_count FROM class_schedules WHERE id = :id FOR UPDATE", nativeQuery = true)
+  Integer lockSeatCounter(@Param("id") UUID id);
+
+  @Modifying
+  @Query(value = "UPDATE class_schedules SET booked_count = booked_count - 1 WHERE id = :id AND booked_count > 0", nativeQuery = true)
+  int releaseSeat(@Param("id") UUID id);
+
   List<ClassSchedule> findByTrainerId(UUID trainerId);
 
   @Query("SELECT cs FROM ClassSchedule cs JOIN GymClass gc ON cs.classId = gc.id JOIN ClassCategory cc ON gc.categoryId = cc.id WHERE cc.gymId = :gymId AND cs.startTime >= :start AND cs.endTime <= :end ORDER BY cs.startTime")
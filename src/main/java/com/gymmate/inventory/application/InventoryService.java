@@ -3,7 +3,11 @@ package com.gymmate.inventory.application;
 import com.gymmate.inventory.domain.InventoryItem;
 import com.gymmate.inventory.domain.MovementType;
 import com.gymmate.inventory.domain.StockMovement;
+import com.gymmate.inventory.domain.StockSaleLine;
 import com.gymmate.inventory.infrastructure.InventoryItemRepository;
+import com.gymmate.inventory.infrastructure.StockCheckoutRepository;
+import com.gymmate.inventory.infrastructure.StockCheckoutRepository.DecrementedItem;
+import com.gymmate.inventory.infrastructure.StockCheckoutRepository.SaleMovement;
 import com.gymmate.inventory.infrastructure.StockMovementRepository;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.exception.ResourceNotFoundException;
@@ -14,8 +18,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Application service for inventory and stock management use cases.
@@ -28,6 +38,7 @@ public class InventoryService {
 
   private final InventoryItemRepository inventoryItemRepository;
   private final StockMovementRepository stockMovementRepository;
+  private final StockCheckoutRepository stockCheckoutRepository;
 
   // ===== Inventory Item Operations =====
 
@@ -242,6 +253,55 @@ public class InventoryService {
     return stockMovementRepository.save(movement);
   }
 
+  /**
+   * Take a checkout basket out of stock: one conditional decrement for all lines and one batch
+   * of SALE movements. Throws if any item is short, so the caller's transaction rolls the whole
+   * basket back.
+   */
+  @Transactional
+  public void recordSales(List<StockSaleLine> lines, UUID customerId, String referenceNumber, String notes) {
+    if (lines.isEmpty()) {
+      return;
+    }
+
+    // Lines for the same item are taken together
+    Map<UUID, Integer> quantities = new TreeMap<>();
+    for (StockSaleLine line : lines) {
+      quantities.merge(line.inventoryItemId(), line.quantity(), Integer::sum);
+    }
+
+    Map<UUID, DecrementedItem> decremented = stockCheckoutRepository.decrement(quantities).stream()
+      .collect(Collectors.toMap(DecrementedItem::id, Function.identity()));
+    if (decremented.size() < quantities.size()) {
+      throw insufficientStock(quantities, decremented);
+    }
+
+    // One movement per line, each starting where the previous line for the item left off
+    Map<UUID, Integer> stockLevels = new HashMap<>();
+    List<SaleMovement> movements = new ArrayList<>(lines.size());
+    for (StockSaleLine line : lines) {
+      DecrementedItem item = decremented.get(line.inventoryItemId());
+      int stockBefore = stockLevels.getOrDefault(item.id(), item.stockBefore());
+      movements.add(new SaleMovement(item.organisationId(), item.gymId(), item.id(), line.quantity(),
+        line.unitPrice(), stockBefore, customerId, referenceNumber, notes));
+      stockLevels.put(item.id(), stockBefore - line.quantity());
+    }
+    stockCheckoutRepository.insertSaleMovements(movements);
+
+    log.info("Recorded sale {}: {} lines across {} items", referenceNumber, lines.size(), quantities.size());
+  }
+
+  private DomainException insufficientStock(Map<UUID, Integer> quantities, Map<UUID, DecrementedItem> decremented) {
+    String shortItems = quantities.entrySet().stream()
+      .filter(entry -> !decremented.containsKey(entry.getKey()))
+      .map(entry -> {
+        InventoryItem item = getInventoryItemById(entry.getKey());
+        return item.getName() + " (Available: " + item.getCurrentStock() + ", Requested: " + entry.getValue() + ")";
+      })
+      .collect(Collectors.joining(", "));
+    return new DomainException("INSUFFICIENT_STOCK", "Insufficient stock for items: " + shortItems);
+  }
+
   /**
    * Record stock adjustment.
    */
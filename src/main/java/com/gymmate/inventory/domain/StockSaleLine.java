@@ -0,0 +1,10 @@
+package com.gymmate.inventory.domain;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One basket line to take out of stock at checkout.
+ */
+public record StockSaleLine(UUID inventoryItemId, int quantity, BigDecimal unitPrice) {
+}
@@ -0,0 +1,109 @@
+package com.gymmate.inventory.infrastructure;
+
+import com.gymmate.inventory.domain.MovementType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC stock updates for POS checkout: one conditional decrement for the whole basket and
+ * one batch of SALE movements.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockCheckoutRepository {
+
+  // Rows are locked in id order first, so concurrent baskets sharing items cannot deadlock.
+  // Only items with enough stock are decremented and returned.
+  private static final String DECREMENT_SQL = """
+      WITH locked AS MATERIALIZED (
+          SELECT id FROM inventory_items
+          WHERE id = ANY(CAST(:itemIds AS UUID[]))
+          ORDER BY id
+          FOR UPDATE
+      ),
+      basket AS (
+          SELECT * FROM unnest(CAST(:itemIds AS UUID[]), CAST(:quantities AS INTEGER[])) AS b(item_id, quantity)
+      )
+      UPDATE inventory_items i
+      SET current_stock = i.current_stock - b.quantity, updated_at = :now
+      FROM locked l JOIN basket b ON b.item_id = l.id
+      WHERE i.id = l.id AND i.current_stock >= b.quantity
+      RETURNING i.id, i.organisation_id, i.gym_id, i.current_stock + b.quantity AS stock_before
+      """;
+
+  private static final String INSERT_MOVEMENT_SQL = """
+      INSERT INTO stock_movements (organisation_id, gym_id, inventory_item_id, movement_type, quantity,
+          unit_cost, total_cost, stock_before, stock_after, movement_date, reference_number, customer_id,
+          notes, created_at, is_active)
+      VALUES (:organisationId, :gymId, :itemId, :movementType, :quantity,
+          :unitCost, :totalCost, :stockBefore, :stockAfter, :now, :referenceNumber, :customerId,
+          :notes, :now, TRUE)
+      """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Take {@code quantities.get(id)} off each item's stock where there is enough of it.
+   *
+   * @return the items that were decremented; any item missing from the result was left untouched
+   */
+  public List<DecrementedItem> decrement(Map<UUID, Integer> quantities) {
+    UUID[] itemIds = quantities.keySet().toArray(UUID[]::new);
+    Integer[] amounts = new Integer[itemIds.length];
+    for (int i = 0; i < itemIds.length; i++) {
+      amounts[i] = quantities.get(itemIds[i]);
+    }
+    return jdbcTemplate.query(DECREMENT_SQL, new MapSqlParameterSource()
+        .addValue("itemIds", itemIds)
+        .addValue("quantities", amounts)
+        .addValue("now", Timestamp.valueOf(LocalDateTime.now())),
+      (rs, rowNum) -> new DecrementedItem(
+        rs.getObject("id", UUID.class),
+        rs.getObject("organisation_id", UUID.class),
+        rs.getObject("gym_id", UUID.class),
+        rs.getInt("stock_before")));
+  }
+
+  /**
+   * Insert SALE movements in one JDBC batch.
+   */
+  public void insertSaleMovements(List<SaleMovement> movements) {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    SqlParameterSource[] batch = movements.stream()
+      .map(movement -> new MapSqlParameterSource()
+        .addValue("organisationId", movement.organisationId())
+        .addValue("gymId", movement.gymId())
+        .addValue("itemId", movement.inventoryItemId())
+        .addValue("movementType", MovementType.SALE.name())
+        .addValue("quantity", movement.quantity())
+        .addValue("unitCost", movement.unitPrice())
+        .addValue("totalCost", movement.unitPrice() != null
+          ? movement.unitPrice().multiply(BigDecimal.valueOf(movement.quantity())) : null)
+        .addValue("stockBefore", movement.stockBefore())
+        .addValue("stockAfter", movement.stockBefore() - movement.quantity())
+        .addValue("referenceNumber", movement.referenceNumber())
+        .addValue("customerId", movement.customerId())
+        .addValue("notes", movement.notes())
+        .addValue("now", now))
+      .toArray(SqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, batch);
+  }
+
+  public record DecrementedItem(UUID id, UUID organisationId, UUID gymId, int stockBefore) {
+  }
+
+  public record SaleMovement(UUID organisationId, UUID gymId, UUID inventoryItemId, int quantity,
+                             BigDecimal unitPrice, int stockBefore, UUID customerId,
+                             String referenceNumber, String notes) {
+  }
+}
@@ -0,0 +1,41 @@
+package com.gymmate.membership.application;
+
+import com.gymmate.membership.infrastructure.MembershipBatchRepository;
+import com.gymmate.shared.batch.BatchJob;
+import com.gymmate.shared.batch.BatchRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nightly batch job: unfreeze memberships whose freeze end date has passed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpiredFreezesJob implements BatchJob {
+
+  private final MembershipBatchRepository batchRepository;
+  private final MembershipService membershipService;
+
+  @Override
+  public String name() {
+    return "membership-unfreeze";
+  }
+
+  @Override
+  public List<UUID> partitions(BatchRun run) {
+    return batchRepository.findFreezeEndedPartitions(run.startedAt().toLocalDate());
+  }
+
+  @Override
+  public List<UUID> nextChunk(BatchRun run, UUID partitionId, UUID afterId, int limit) {
+    return batchRepository.findFreezeEndedIds(partitionId, run.startedAt().toLocalDate(), afterId, limit);
+  }
+
+  @Override
+  public void process(BatchRun run, UUID membershipId) {
+    membershipService.unfreezeEndedFreeze(membershipId);
+  }
+}
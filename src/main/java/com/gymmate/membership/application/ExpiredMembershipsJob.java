@@ -0,0 +1,41 @@
+package com.gymmate.membership.application;
+
+import com.gymmate.membership.infrastructure.MembershipBatchRepository;
+import com.gymmate.shared.batch.BatchJob;
+import com.gymmate.shared.batch.BatchRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nightly batch job: expire active memberships past their end date that are not set to auto-renew.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpiredMembershipsJob implements BatchJob {
+
+  private final MembershipBatchRepository batchRepository;
+  private final MembershipService membershipService;
+
+  @Override
+  public String name() {
+    return "membership-expiry";
+  }
+
+  @Override
+  public List<UUID> partitions(BatchRun run) {
+    return batchRepository.findLapsedPartitions(run.startedAt().toLocalDate(), false);
+  }
+
+  @Override
+  public List<UUID> nextChunk(BatchRun run, UUID partitionId, UUID afterId, int limit) {
+    return batchRepository.findLapsedIds(partitionId, run.startedAt().toLocalDate(), false, afterId, limit);
+  }
+
+  @Override
+  public void process(BatchRun run, UUID membershipId) {
+    membershipService.expireLapsedMembership(membershipId);
+  }
+}
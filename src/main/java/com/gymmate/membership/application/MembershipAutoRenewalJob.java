@@ -0,0 +1,47 @@
+package com.gymmate.membership.application;
+
+import com.gymmate.membership.infrastructure.MembershipBatchRepository;
+import com.gymmate.shared.batch.BatchJob;
+import com.gymmate.shared.batch.BatchRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nightly batch job: renew active, auto-renewing memberships past their end date. A membership
+ * whose renewal fails is expired instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class MembershipAutoRenewalJob implements BatchJob {
+
+  private final MembershipBatchRepository batchRepository;
+  private final MembershipService membershipService;
+
+  @Override
+  public String name() {
+    return "membership-auto-renewal";
+  }
+
+  @Override
+  public List<UUID> partitions(BatchRun run) {
+    return batchRepository.findLapsedPartitions(run.startedAt().toLocalDate(), true);
+  }
+
+  @Override
+  public List<UUID> nextChunk(BatchRun run, UUID partitionId, UUID afterId, int limit) {
+    return batchRepository.findLapsedIds(partitionId, run.startedAt().toLocalDate(), true, afterId, limit);
+  }
+
+  @Override
+  public void process(BatchRun run, UUID membershipId) {
+    membershipService.autoRenewLapsedMembership(membershipId, run.startedAt().toLocalDate());
+  }
+
+  @Override
+  public void onItemFailure(BatchRun run, UUID membershipId, Exception failure) {
+    membershipService.expireAfterFailedRenewal(membershipId);
+  }
+}
@@ -1,35 +1,37 @@
 package com.gymmate.membership.application;
 
+import com.gymmate.shared.batch.BatchJob;
+import com.gymmate.shared.batch.BatchJobRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
 
 /**
  * Scheduled tasks for membership management.
+ *
+ * Every node fires these crons; the batch run lock lets one node execute each day's run, in
+ * per-gym partitions and per-chunk transactions (see {@link BatchJobRunner}).
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MembershipScheduledTasks {
 
-  private final MembershipService membershipService;
+  private final BatchJobRunner batchJobRunner;
+  private final ExpiredMembershipsJob expiredMembershipsJob;
+  private final MembershipAutoRenewalJob autoRenewalJob;
+  private final ExpiredFreezesJob expiredFreezesJob;
 
   /**
    * Expire memberships that have passed their end date and are not set to auto-renew.
    * Runs daily at midnight.
    */
   @Scheduled(cron = "0 0 0 * * *") // Daily at midnight
-  @Transactional
   public void processExpiredMemberships() {
-    log.info("Starting scheduled task: Process expired memberships");
-    try {
-      int expiredCount = membershipService.processExpiredMemberships();
-      log.info("Completed scheduled task: Process expired memberships (expired: {})", expiredCount);
-    } catch (Exception e) {
-      log.error("Error processing expired memberships", e);
-    }
+    runDaily(expiredMembershipsJob);
   }
 
   /**
@@ -37,15 +39,8 @@ public class MembershipScheduledTasks {
    * Runs daily at 6 AM (after expiry check, before business hours).
    */
   @Scheduled(cron = "0 0 6 * * *") // Daily at 6 AM
-  @Transactional
   public void processAutoRenewals() {
-    log.info("Starting scheduled task: Process auto-renewals");
-    try {
-      int renewedCount = membershipService.processAutoRenewals();
-      log.info("Completed scheduled task: Process auto-renewals (renewed: {})", renewedCount);
-    } catch (Exception e) {
-      log.error("Error processing auto-renewals", e);
-    }
+    runDaily(autoRenewalJob);
   }
 
   /**
@@ -53,14 +48,18 @@ public class MembershipScheduledTasks {
    * Runs daily at 1 AM.
    */
   @Scheduled(cron = "0 0 1 * * *") // Daily at 1 AM
-  @Transactional
   public void processExpiredFreezes() {
-    log.info("Starting scheduled task: Process expired membership freezes");
+    runDaily(expiredFreezesJob);
+  }
+
+  private void runDaily(BatchJob job) {
+    log.info("Starting scheduled task: {}", job.name());
     try {
-      int unfrozenCount = membershipService.processExpiredFreezes();
-      log.info("Completed scheduled task: Process expired freezes (unfrozen: {})", unfrozenCount);
+      batchJobRunner.run(job, LocalDate.now().toString())
+        .ifPresent(report -> log.info("Completed scheduled task: {} (processed: {}, failed: {})",
+          job.name(), report.processed(), report.failed()));
     } catch (Exception e) {
-      log.error("Error processing expired freezes", e);
+      log.error("Error running scheduled task {}", job.name(), e);
     }
   }
 }
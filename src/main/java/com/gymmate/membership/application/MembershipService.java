@@ -7,6 +7,7 @@ import com.gymmate.membership.infrastructure.MembershipPlanRepository;
 import com.gymmate.notification.events.MembershipExpiredEvent;
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import com.gymmate.shared.exception.DomainException;
+import com.gymmate.user.domain.events.MemberEntitlementChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -78,8 +79,12 @@ public class MembershipService {
       .autoRenew(true)
       .frozen(false)
       .build();
+    // Set explicitly: the gym claim is absent from some callers' tokens, so prePersist cannot rely on it
+    membership.setGymId(gymId);
 
-    return membershipRepository.save(membership);
+    MemberMembership saved = membershipRepository.save(membership);
+    publishEntitlementChanged(memberId);
+    return saved;
   }
 
   /**
@@ -186,6 +191,7 @@ public class MembershipService {
 
     membership.freeze(freezeUntil, reason);
     MemberMembership savedMembership = membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
 
     // Pause Stripe subscription if exists
     try {
@@ -229,6 +235,7 @@ public class MembershipService {
 
     membership.unfreeze();
     MemberMembership savedMembership = membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
 
     // Resume Stripe subscription if exists
     try {
@@ -275,7 +282,9 @@ public class MembershipService {
     membership.setTrainerSessionsRemaining(plan.getTrainerSessions());
 
     log.info("Renewed membership {} until {}", membershipId, newEndDate);
-    return membershipRepository.save(membership);
+    MemberMembership saved = membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
+    return saved;
   }
 
   /**
@@ -299,7 +308,9 @@ public class MembershipService {
     }
 
     log.info("Cancelled membership {}, immediate: {}", membershipId, immediate);
-    return membershipRepository.save(membership);
+    MemberMembership saved = membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
+    return saved;
   }
 
   /**
@@ -329,108 +340,96 @@ public class MembershipService {
   }
 
   /**
-   * Process expired freezes - automatically unfreeze memberships past their freeze end date.
-   * Called by scheduled task.
+   * Unfreeze a membership whose freeze has ended. Called per item by the nightly batch job;
+   * memberships no longer frozen are skipped, so a resumed run can safely see them again.
+   *
+   * @return true if the membership was unfrozen
    */
-  public int processExpiredFreezes() {
-    LocalDate today = LocalDate.now();
-    List<MemberMembership> frozenMemberships = membershipRepository.findFrozenMembershipsToUnfreeze(today);
-
-    int unfrozenCount = 0;
-    for (MemberMembership membership : frozenMemberships) {
-      try {
-        membership.unfreeze();
-        membershipRepository.save(membership);
-
-        // Resume Stripe subscription if exists
-        try {
-          memberPaymentService.resumeMemberSubscription(membership.getId());
-        } catch (Exception e) {
-          log.error("Failed to resume Stripe subscription for auto-unfrozen membership {}: {}",
-            membership.getId(), e.getMessage());
-        }
-
-        log.info("Auto-unfroze membership {} (frozen until: {})", membership.getId(), membership.getFrozenUntil());
-        unfrozenCount++;
-      } catch (Exception e) {
-        log.error("Error auto-unfreezing membership {}: {}", membership.getId(), e.getMessage());
-      }
+  public boolean unfreezeEndedFreeze(UUID membershipId) {
+    MemberMembership membership = getMembershipById(membershipId);
+    if (!membership.isFrozen()) {
+      return false;
     }
 
-    if (unfrozenCount > 0) {
-      log.info("Auto-unfroze {} memberships", unfrozenCount);
+    LocalDate frozenUntil = membership.getFrozenUntil();
+    membership.unfreeze();
+    membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
+
+    // Resume Stripe subscription if exists
+    try {
+      memberPaymentService.resumeMemberSubscription(membershipId);
+    } catch (Exception e) {
+      log.error("Failed to resume Stripe subscription for auto-unfrozen membership {}: {}",
+        membershipId, e.getMessage());
     }
 
-    return unfrozenCount;
+    log.info("Auto-unfroze membership {} (frozen until: {})", membershipId, frozenUntil);
+    return true;
   }
 
   /**
-   * Process expired memberships — mark active memberships past their end date as EXPIRED.
-   * Called by scheduled task daily.
+   * Mark an active membership past its end date as EXPIRED. Called per item by the nightly
+   * batch job; memberships no longer active are skipped.
+   *
+   * @return true if the membership was expired
    */
-  public int processExpiredMemberships() {
-    LocalDateTime now = LocalDateTime.now();
-    List<MemberMembership> expired = membershipRepository.findExpiredActiveMemberships(now);
-
-    int expiredCount = 0;
-    for (MemberMembership membership : expired) {
-      try {
-        membership.expire();
-        membershipRepository.save(membership);
-
-        // Publish event for notification
-        eventPublisher.publishEvent(MembershipExpiredEvent.builder()
-                .organisationId(membership.getOrganisationId())
-                .gymId(membership.getGymId())
-                .memberId(membership.getMemberId())
-                .membershipId(membership.getId())
-                .expiredOn(membership.getEndDate())
-                .build());
-
-        log.info("Expired membership {} (end date: {})", membership.getId(), membership.getEndDate());
-        expiredCount++;
-      } catch (Exception e) {
-        log.error("Error expiring membership {}: {}", membership.getId(), e.getMessage());
-      }
+  public boolean expireLapsedMembership(UUID membershipId) {
+    MemberMembership membership = getMembershipById(membershipId);
+    if (membership.getStatus() != MembershipStatus.ACTIVE) {
+      return false;
     }
 
-    if (expiredCount > 0) {
-      log.info("Expired {} memberships", expiredCount);
-    }
-    return expiredCount;
+    membership.expire();
+    membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
+
+    // Publish event for notification
+    eventPublisher.publishEvent(MembershipExpiredEvent.builder()
+            .organisationId(membership.getOrganisationId())
+            .gymId(membership.getGymId())
+            .memberId(membership.getMemberId())
+            .membershipId(membership.getId())
+            .expiredOn(membership.getEndDate())
+            .build());
+
+    log.info("Expired membership {} (end date: {})", membership.getId(), membership.getEndDate());
+    return true;
   }
 
   /**
-   * Process auto-renewals — attempt to renew active memberships past their end date
-   * that have auto-renew enabled. Called by scheduled task daily.
+   * Renew an active, auto-renewing membership past its end date. Called per item by the
+   * nightly batch job; memberships already renewed or no longer active are skipped.
+   *
+   * @return true if the membership was renewed
    */
-  public int processAutoRenewals() {
-    LocalDateTime now = LocalDateTime.now();
-    List<MemberMembership> toRenew = membershipRepository.findAutoRenewExpiredMemberships(now);
-
-    int renewedCount = 0;
-    for (MemberMembership membership : toRenew) {
-      try {
-        renewMembership(membership.getId());
-        log.info("Auto-renewed membership {}", membership.getId());
-        renewedCount++;
-      } catch (Exception e) {
-        log.error("Failed to auto-renew membership {}: {}", membership.getId(), e.getMessage());
-        // If renewal fails, expire the membership
-        try {
-          membership.expire();
-          membershipRepository.save(membership);
-          log.warn("Marked membership {} as expired after failed auto-renewal", membership.getId());
-        } catch (Exception ex) {
-          log.error("Error expiring membership {} after failed renewal: {}", membership.getId(), ex.getMessage());
-        }
-      }
+  public boolean autoRenewLapsedMembership(UUID membershipId, LocalDate today) {
+    MemberMembership membership = getMembershipById(membershipId);
+    if (membership.getStatus() != MembershipStatus.ACTIVE || !membership.getEndDate().isBefore(today)) {
+      return false;
     }
 
-    if (renewedCount > 0) {
-      log.info("Auto-renewed {} memberships", renewedCount);
-    }
-    return renewedCount;
+    renewMembership(membershipId);
+    log.info("Auto-renewed membership {}", membershipId);
+    return true;
+  }
+
+  /**
+   * Expire a membership whose auto-renewal failed.
+   */
+  public void expireAfterFailedRenewal(UUID membershipId) {
+    MemberMembership membership = getMembershipById(membershipId);
+    membership.expire();
+    membershipRepository.save(membership);
+    publishEntitlementChanged(membership.getMemberId());
+    log.warn("Marked membership {} as expired after failed auto-renewal", membershipId);
+  }
+
+  /**
+   * Helper: Let entitlement caches (e.g. door access) drop state for the member.
+   */
+  private void publishEntitlementChanged(UUID memberId) {
+    eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, memberId));
   }
 
   /**
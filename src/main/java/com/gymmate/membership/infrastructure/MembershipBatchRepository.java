@@ -0,0 +1,75 @@
+package com.gymmate.membership.infrastructure;
+
+import com.gymmate.shared.batch.BatchJobRunner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Id-only reads for the nightly membership batch jobs: the gyms with work, then keyset pages of
+ * membership ids per gym. Memberships without a gym fall in {@link BatchJobRunner#UNSCOPED_PARTITION}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MembershipBatchRepository {
+
+  // Active memberships past their end date, split by their auto-renew flag
+  private static final String LAPSED = "status = 'ACTIVE' AND end_date < :today AND auto_renew = :autoRenew";
+
+  private static final String FREEZE_ENDED = "is_frozen = TRUE AND frozen_until < :today";
+
+  private static final String PARTITIONS_SQL = """
+      SELECT DISTINCT COALESCE(gym_id, CAST(:unscoped AS UUID)) FROM member_memberships WHERE %s
+      """;
+
+  private static final String CHUNK_SQL = """
+      SELECT id FROM member_memberships
+      WHERE %s AND %s AND id > :afterId
+      ORDER BY id
+      LIMIT :limit
+      """;
+
+  // Sorts before every uuid, so the first page starts at the beginning
+  private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public List<UUID> findLapsedPartitions(LocalDate today, boolean autoRenew) {
+    return partitions(LAPSED, params(today).addValue("autoRenew", autoRenew));
+  }
+
+  public List<UUID> findLapsedIds(UUID gymId, LocalDate today, boolean autoRenew, UUID afterId, int limit) {
+    return chunk(LAPSED, gymId, params(today).addValue("autoRenew", autoRenew), afterId, limit);
+  }
+
+  public List<UUID> findFreezeEndedPartitions(LocalDate today) {
+    return partitions(FREEZE_ENDED, params(today));
+  }
+
+  public List<UUID> findFreezeEndedIds(UUID gymId, LocalDate today, UUID afterId, int limit) {
+    return chunk(FREEZE_ENDED, gymId, params(today), afterId, limit);
+  }
+
+  private List<UUID> partitions(String criteria, MapSqlParameterSource params) {
+    return jdbcTemplate.queryForList(PARTITIONS_SQL.formatted(criteria),
+        params.addValue("unscoped", BatchJobRunner.UNSCOPED_PARTITION), UUID.class);
+  }
+
+  private List<UUID> chunk(String criteria, UUID gymId, MapSqlParameterSource params, UUID afterId, int limit) {
+    boolean unscoped = BatchJobRunner.UNSCOPED_PARTITION.equals(gymId);
+    String gymCriteria = unscoped ? "gym_id IS NULL" : "gym_id = :gymId";
+    return jdbcTemplate.queryForList(CHUNK_SQL.formatted(criteria, gymCriteria), params
+        .addValue("gymId", gymId)
+        .addValue("afterId", afterId != null ? afterId : FIRST_ID)
+        .addValue("limit", limit), UUID.class);
+  }
+
+  private static MapSqlParameterSource params(LocalDate today) {
+    return new MapSqlParameterSource("today", today);
+  }
+}
@@ -2,15 +2,10 @@ package com.gymmate.notification.application;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.gymmate.classes.infrastructure.ClassBookingJpaRepository;
-import com.gymmate.membership.infrastructure.MemberMembershipJpaRepository;
 import com.gymmate.notification.api.dto.AudiencePreviewResponse;
 import com.gymmate.notification.domain.AudienceType;
-import com.gymmate.user.domain.Member;
-import com.gymmate.shared.constants.MemberStatus;
-import com.gymmate.user.domain.User;
-import com.gymmate.user.infrastructure.MemberRepository;
-import com.gymmate.user.infrastructure.UserRepository;
+import com.gymmate.notification.infrastructure.AudienceQuery;
+import com.gymmate.notification.infrastructure.AudienceQueryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,21 +13,22 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import com.gymmate.membership.domain.MembershipStatus;
 
 /**
  * Service for resolving target audience based on audience type and filters.
+ * The audience type and its JSON filter are compiled into a single {@link AudienceQuery}
+ * that selects recipients straight from the database.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class AudienceResolver {
 
-    private final MemberRepository memberRepository;
-    private final UserRepository userRepository;
-    private final ClassBookingJpaRepository classBookingRepository;
-    private final MemberMembershipJpaRepository memberMembershipRepository;
+    private static final int PREVIEW_SAMPLE_SIZE = 10;
+
+    private final AudienceQueryRepository audienceQueryRepository;
     private final ObjectMapper objectMapper;
 
     /**
@@ -51,103 +47,53 @@ public class AudienceResolver {
      */
     @Transactional(readOnly = true)
     public List<MemberRecipient> resolveAudience(UUID gymId, AudienceType audienceType, String audienceFilter) {
-        log.debug("Resolving audience for gym: {}, type: {}", gymId, audienceType);
-
-        List<Member> members = switch (audienceType) {
-            case ALL_MEMBERS -> resolveAllMembers(gymId);
-            case CLASS_SUBSCRIBERS -> resolveClassSubscribers(gymId, audienceFilter);
-            case BOOKING_PARTICIPANTS -> resolveBookingParticipants(gymId, audienceFilter);
-            case MEMBERSHIP_PLAN -> resolveMembershipPlan(gymId, audienceFilter);
-            case CUSTOM -> resolveCustom(gymId, audienceFilter);
-        };
-
-        return enrichMembersWithUserData(members);
+        List<MemberRecipient> recipients = new ArrayList<>();
+        streamAudience(gymId, audienceType, audienceFilter, recipients::add);
+        return recipients;
     }
 
     /**
-     * Enrich members with user data (email, names).
+     * Feed each recipient of the audience to {@code consumer} without materialising the audience.
      */
-    private List<MemberRecipient> enrichMembersWithUserData(List<Member> members) {
-        if (members.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        // Get all user IDs
-        Set<UUID> userIds = members.stream()
-                .map(Member::getUserId)
-                .collect(Collectors.toSet());
-
-        // Fetch users in batch
-        List<User> users = userRepository.findAllById(userIds);
-        Map<UUID, User> userMap = users.stream()
-                .collect(Collectors.toMap(User::getId, u -> u));
-
-        // Build recipient list
-        return members.stream()
-                .map(member -> {
-                    User user = userMap.get(member.getUserId());
-                    if (user == null) {
-                        log.warn("User not found for member: {}", member.getId());
-                        return null;
-                    }
-                    return new MemberRecipient(
-                            member.getId(),
-                            user.getId(),
-                            user.getFirstName(),
-                            user.getLastName(),
-                            user.getEmail());
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAudience(UUID gymId, AudienceType audienceType, String audienceFilter,
+                               Consumer<MemberRecipient> consumer) {
+        audienceQueryRepository.stream(compile(gymId, audienceType, audienceFilter), consumer);
     }
 
     /**
-     * Get all active members for a gym.
+     * Compile the audience type and filter into a query over the gym's members.
      */
-    private List<Member> resolveAllMembers(UUID gymId) {
-        List<Member> members = memberRepository.findByGymId(gymId);
-        return members.stream()
-                .filter(m -> m.getStatus() == MemberStatus.ACTIVE)
-                .collect(Collectors.toList());
+    public AudienceQuery compile(UUID gymId, AudienceType audienceType, String audienceFilter) {
+        log.debug("Resolving audience for gym: {}, type: {}", gymId, audienceType);
+
+        return switch (audienceType) {
+            case ALL_MEMBERS -> audienceQueryRepository.activeMembers(gymId);
+            case CLASS_SUBSCRIBERS -> compileClassSubscribers(gymId, audienceFilter);
+            case BOOKING_PARTICIPANTS -> compileBookingParticipants(gymId, audienceFilter);
+            case MEMBERSHIP_PLAN -> compileMembershipPlan(gymId, audienceFilter);
+            case CUSTOM -> compileCustom(gymId, audienceFilter);
+        };
     }
 
     /**
-     * Get members subscribed to specific classes.
+     * Members subscribed to specific classes.
      * Filter format: {"classIds": ["uuid1", "uuid2"]}
      */
-    private List<Member> resolveClassSubscribers(UUID gymId, String audienceFilter) {
-        try {
-            Set<UUID> classScheduleIds = parseUuidListFromFilter(audienceFilter, "classIds");
-            if (classScheduleIds.isEmpty()) {
-                log.warn("No classIds provided in audience filter, returning all members");
-                return resolveAllMembers(gymId);
-            }
-
-            // Get all bookings for this gym and filter by matching class schedule IDs
-            Set<UUID> memberIds = classBookingRepository.findByGymId(gymId).stream()
-                    .filter(booking -> classScheduleIds.contains(booking.getClassScheduleId()))
-                    .map(booking -> booking.getMemberId())
-                    .collect(Collectors.toSet());
-
-            if (memberIds.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            return memberRepository.findAllById(memberIds).stream()
-                    .filter(m -> m.getGymId().equals(gymId))
-                    .filter(m -> m.getStatus() == MemberStatus.ACTIVE)
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Failed to resolve class subscribers: {}", e.getMessage());
-            return resolveAllMembers(gymId);
+    private AudienceQuery compileClassSubscribers(UUID gymId, String audienceFilter) {
+        Set<UUID> classScheduleIds = parseUuidListFromFilter(audienceFilter, "classIds");
+        if (classScheduleIds.isEmpty()) {
+            log.warn("No classIds provided in audience filter, returning all members");
+            return audienceQueryRepository.activeMembers(gymId);
         }
+        return audienceQueryRepository.classSubscribers(gymId, classScheduleIds);
     }
 
     /**
-     * Get members with active/upcoming bookings.
+     * Members with active/upcoming bookings.
      * Filter format: {"dateFrom": "2026-01-01", "dateTo": "2026-12-31"}
      */
-    private List<Member> resolveBookingParticipants(UUID gymId, String audienceFilter) {
+    private AudienceQuery compileBookingParticipants(UUID gymId, String audienceFilter) {
         try {
             LocalDateTime dateFrom = LocalDateTime.now().minusMonths(1);
             LocalDateTime dateTo = LocalDateTime.now().plusMonths(1);
@@ -162,80 +108,37 @@ public class AudienceResolver {
                 }
             }
 
-            // Find distinct members with bookings in the date range for this gym
-            final LocalDateTime from = dateFrom;
-            final LocalDateTime to = dateTo;
-            Set<UUID> memberIds = classBookingRepository.findByGymId(gymId).stream()
-                    .filter(booking -> booking.getBookingDate() != null
-                            && !booking.getBookingDate().isBefore(from)
-                            && !booking.getBookingDate().isAfter(to))
-                    .map(booking -> booking.getMemberId())
-                    .collect(Collectors.toSet());
-
-            if (memberIds.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            return memberRepository.findAllById(memberIds).stream()
-                    .filter(m -> m.getGymId().equals(gymId))
-                    .collect(Collectors.toList());
+            return audienceQueryRepository.bookingParticipants(gymId, dateFrom, dateTo);
         } catch (Exception e) {
             log.error("Failed to resolve booking participants: {}", e.getMessage());
-            return resolveAllMembers(gymId);
+            return audienceQueryRepository.activeMembers(gymId);
         }
     }
 
     /**
-     * Get members on specific membership plans.
+     * Members on specific membership plans.
      * Filter format: {"planIds": ["uuid1", "uuid2"]}
      */
-    private List<Member> resolveMembershipPlan(UUID gymId, String audienceFilter) {
-        try {
-            Set<UUID> planIds = parseUuidListFromFilter(audienceFilter, "planIds");
-            if (planIds.isEmpty()) {
-                log.warn("No planIds provided in audience filter, returning all members");
-                return resolveAllMembers(gymId);
-            }
-
-            // Get all memberships for this gym and filter by plan
-            Set<UUID> memberIds = memberMembershipRepository.findByGymId(gymId).stream()
-                    .filter(mm -> mm.getMembershipPlanId() != null && planIds.contains(mm.getMembershipPlanId()))
-                    .filter(mm -> mm.getStatus() == com.gymmate.membership.domain.MembershipStatus.ACTIVE)
-                    .map(mm -> mm.getMemberId())
-                    .collect(Collectors.toSet());
-
-            if (memberIds.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            return memberRepository.findAllById(memberIds).stream()
-                    .filter(m -> m.getGymId().equals(gymId))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Failed to resolve membership plan audience: {}", e.getMessage());
-            return resolveAllMembers(gymId);
+    private AudienceQuery compileMembershipPlan(UUID gymId, String audienceFilter) {
+        Set<UUID> planIds = parseUuidListFromFilter(audienceFilter, "planIds");
+        if (planIds.isEmpty()) {
+            log.warn("No planIds provided in audience filter, returning all members");
+            return audienceQueryRepository.activeMembers(gymId);
         }
+        return audienceQueryRepository.membershipPlans(gymId, planIds);
     }
 
     /**
      * Custom member selection.
      * Filter format: {"memberIds": ["uuid1", "uuid2"]}
      */
-    private List<Member> resolveCustom(UUID gymId, String audienceFilter) {
-        try {
-            Set<UUID> memberIds = parseUuidListFromFilter(audienceFilter, "memberIds");
-            if (memberIds.isEmpty()) {
-                log.warn("No memberIds provided in custom audience filter, returning empty list");
-                return Collections.emptyList();
-            }
-
-            return memberRepository.findAllById(memberIds).stream()
-                    .filter(m -> m.getGymId().equals(gymId))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Failed to resolve custom audience: {}", e.getMessage());
-            return Collections.emptyList();
+    private AudienceQuery compileCustom(UUID gymId, String audienceFilter) {
+        Set<UUID> memberIds = parseUuidListFromFilter(audienceFilter, "memberIds");
+        if (memberIds.isEmpty()) {
+            log.warn("No memberIds provided in custom audience filter, returning empty list");
+            return audienceQueryRepository.none(gymId);
         }
+        return audienceQueryRepository.members(gymId, memberIds);
     }
 
     /**
@@ -268,20 +171,20 @@ public class AudienceResolver {
      */
     @Transactional(readOnly = true)
     public AudiencePreviewResponse getAudiencePreview(UUID gymId, AudienceType audienceType, String audienceFilter) {
-        List<MemberRecipient> recipients = resolveAudience(gymId, audienceType, audienceFilter);
-
-        List<AudiencePreviewResponse.RecipientPreview> sampleRecipients = recipients.stream()
-                .limit(10)
-                .map(r -> AudiencePreviewResponse.RecipientPreview.builder()
-                        .memberId(r.memberId())
-                        .firstName(r.firstName())
-                        .lastName(r.lastName())
-                        .email(r.email())
-                        .build())
-                .collect(Collectors.toList());
+        AudienceQuery audience = compile(gymId, audienceType, audienceFilter);
+
+        List<AudiencePreviewResponse.RecipientPreview> sampleRecipients =
+                audienceQueryRepository.find(audience, PREVIEW_SAMPLE_SIZE).stream()
+                        .map(r -> AudiencePreviewResponse.RecipientPreview.builder()
+                                .memberId(r.memberId())
+                                .firstName(r.firstName())
+                                .lastName(r.lastName())
+                                .email(r.email())
+                                .build())
+                        .collect(Collectors.toList());
 
         return AudiencePreviewResponse.builder()
-                .totalCount(recipients.size())
+                .totalCount(audienceQueryRepository.count(audience))
                 .sampleRecipients(sampleRecipients)
                 .build();
     }
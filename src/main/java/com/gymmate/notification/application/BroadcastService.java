@@ -32,7 +32,7 @@ public class BroadcastService {
     private final List<ChannelSender> channelSenders;
     private final ObjectMapper objectMapper;
 
-    private Map<NotificationChannel, ChannelSender> senderMap;
+    private volatile Map<NotificationChannel, ChannelSender> senderMap;
 
     /**
      * Result of a broadcast attempt.
@@ -57,14 +57,53 @@ public class BroadcastService {
      *         needed
      */
     public BroadcastResult send(String recipient, String email, String subject, String body) {
-        UUID organisationId = TenantContext.getCurrentTenantId();
-        NotificationSettings settings = getNotificationSettings(organisationId);
+        return send(prepare(TenantContext.getCurrentTenantId()), recipient, email, subject, body);
+    }
+
+    /**
+     * An organisation's channel settings, resolved once for a batch of sends.
+     */
+    public record Route(NotificationSettings settings) {
+
+        /**
+         * The channel sends are attempted on first.
+         */
+        public NotificationChannel primaryChannel() {
+            NotificationChannel preferred = settings.getPreferredChannel();
+            return settings.isChannelEnabled(preferred) ? preferred : NotificationChannel.EMAIL;
+        }
+    }
+
+    /**
+     * Resolve the organisation's notification settings for repeated sends,
+     * e.g. every recipient of a campaign.
+     */
+    public Route prepare(UUID organisationId) {
+        return new Route(getNotificationSettings(organisationId));
+    }
+
+    /**
+     * Send using previously resolved settings. Safe to call from any thread.
+     */
+    public BroadcastResult send(Route route, String recipient, String email, String subject, String body) {
+        return send(route, recipient, email, subject, body, null);
+    }
+
+    /**
+     * Send a campaign message. An email is queued, so {@code campaignRecipientId} is where its
+     * final outcome is recorded; a success here only means the email was accepted for delivery.
+     */
+    public BroadcastResult send(Route route, String recipient, String email, String subject, String body,
+                                UUID campaignRecipientId) {
+        NotificationSettings settings = route.settings();
         NotificationChannel preferredChannel = settings.getPreferredChannel();
 
         // Initialize sender map lazily
+        Map<NotificationChannel, ChannelSender> senderMap = this.senderMap;
         if (senderMap == null) {
             senderMap = channelSenders.stream()
                     .collect(Collectors.toMap(ChannelSender::getChannel, Function.identity()));
+            this.senderMap = senderMap;
         }
 
         // Determine recipient for the channel
@@ -89,7 +128,7 @@ public class BroadcastService {
         ChannelSender emailSender = senderMap.get(NotificationChannel.EMAIL);
         if (emailSender != null) {
             try {
-                emailSender.send(email, subject, body);
+                emailSender.send(email, subject, body, campaignRecipientId);
                 boolean wasFallback = preferredChannel != NotificationChannel.EMAIL;
                 log.info("Sent notification via EMAIL to {} (fallback: {})", email, wasFallback);
                 return new BroadcastResult(true, NotificationChannel.EMAIL, wasFallback, null);
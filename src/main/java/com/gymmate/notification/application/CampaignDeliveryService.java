@@ -0,0 +1,286 @@
+package com.gymmate.notification.application;
+
+import com.gymmate.notification.domain.NewsletterCampaign;
+import com.gymmate.notification.domain.NotificationChannel;
+import com.gymmate.notification.domain.RecipientStatus;
+import com.gymmate.notification.infrastructure.AudienceQuery;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.DeliveryCounts;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.DeliveryResult;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.PendingRecipient;
+import com.gymmate.notification.infrastructure.NewsletterCampaignRepository;
+import com.gymmate.shared.multitenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers newsletter campaigns in the background.
+ *
+ * The audience is first snapshotted into {@code campaign_recipients} as PENDING rows. Delivery
+ * then pages through the pending rows by id in chunks of {@code chunk-size}. Each chunk is sent
+ * on a bounded worker pool for the organisation's channel, and its results are written back as
+ * one JDBC batch that also advances the campaign's running counts. No database connection is
+ * held while messages are being sent.
+ *
+ * A run holds a lease on the campaign that each chunk renews. If the node dies mid-campaign the
+ * lease lapses and the next {@code resume-interval-ms} sweep on any node carries on from the
+ * remaining PENDING rows. Only the chunk in flight at the crash can be sent twice.
+ *
+ * An email recipient is recorded as SENT once its email is queued. The outbound queue carries the
+ * recipient's id, and an email that finally fails moves the recipient to FAILED and adjusts the
+ * campaign's counts, including after the campaign has completed.
+ */
+@Slf4j
+@Service
+public class CampaignDeliveryService {
+
+    private final NewsletterCampaignRepository campaignRepository;
+    private final CampaignDeliveryRepository deliveryRepository;
+    private final AudienceResolver audienceResolver;
+    private final NewsletterTemplateService templateService;
+    private final BroadcastService broadcastService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int workersPerChannel;
+    private final Duration lease;
+
+    private final ExecutorService runner;
+    // Campaigns waiting for a runner thread, so a slow queue is not topped up by every sweep
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+    private final Map<NotificationChannel, ExecutorService> channelWorkers = new ConcurrentHashMap<>();
+
+    public CampaignDeliveryService(NewsletterCampaignRepository campaignRepository,
+                                   CampaignDeliveryRepository deliveryRepository,
+                                   AudienceResolver audienceResolver,
+                                   NewsletterTemplateService templateService,
+                                   BroadcastService broadcastService,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.notification.campaign.chunk-size:500}") int chunkSize,
+                                   @Value("${app.notification.campaign.workers-per-channel:8}") int workersPerChannel,
+                                   @Value("${app.notification.campaign.max-concurrent-campaigns:2}") int maxConcurrentCampaigns,
+                                   @Value("${app.notification.campaign.lease-minutes:10}") long leaseMinutes) {
+        this.campaignRepository = campaignRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.audienceResolver = audienceResolver;
+        this.templateService = templateService;
+        this.broadcastService = broadcastService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.workersPerChannel = workersPerChannel;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.runner = Executors.newFixedThreadPool(maxConcurrentCampaigns, threadFactory("campaign-runner-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished campaigns are resumed from their PENDING rows once the lease lapses
+        runner.shutdownNow();
+        channelWorkers.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Start delivering a campaign once the current transaction (which marked it SENDING)
+     * commits, or right away when there is no transaction.
+     */
+    public void deliverAfterCommit(UUID campaignId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(campaignId);
+                }
+            });
+        } else {
+            enqueue(campaignId);
+        }
+    }
+
+    /**
+     * Pick up campaigns whose delivery run died.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.campaign.resume-interval-ms:60000}")
+    public void resumeInterrupted() {
+        try {
+            for (UUID campaignId : deliveryRepository.findInterrupted()) {
+                if (enqueue(campaignId)) {
+                    log.info("Resuming interrupted delivery of campaign {}", campaignId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error looking for interrupted campaigns", e);
+        }
+    }
+
+    /**
+     * Queue a delivery run unless one is already waiting for this campaign.
+     *
+     * @return true if a run was queued
+     */
+    private boolean enqueue(UUID campaignId) {
+        if (!queued.add(campaignId)) {
+            return false;
+        }
+        try {
+            runner.execute(() -> {
+                queued.remove(campaignId);
+                deliver(campaignId);
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(campaignId);
+            throw e;
+        }
+    }
+
+    /**
+     * Deliver a SENDING campaign to its remaining recipients, unless another run holds it.
+     */
+    public void deliver(UUID campaignId) {
+        if (!deliveryRepository.claim(campaignId, lease)) {
+            log.debug("Campaign {} is not sendable or already being delivered", campaignId);
+            return;
+        }
+
+        try {
+            NewsletterCampaign campaign = campaignRepository.findById(campaignId).orElseThrow();
+            TenantContext.setCurrentTenantId(campaign.getOrganisationId());
+            TenantContext.setCurrentGymId(campaign.getGymId());
+
+            log.info("Starting delivery of campaign {}", campaignId);
+            snapshotAudience(campaign);
+
+            BroadcastService.Route route = broadcastService.prepare(campaign.getOrganisationId());
+            ExecutorService workers = channelWorkers.computeIfAbsent(route.primaryChannel(),
+                    channel -> Executors.newFixedThreadPool(workersPerChannel,
+                            threadFactory("campaign-" + channel.name().toLowerCase() + "-")));
+            CompiledTemplate subject = templateService.compiledSubject(campaign);
+            CompiledTemplate body = templateService.compiledBody(campaign);
+
+            UUID afterId = null;
+            List<PendingRecipient> chunk;
+            while (!(chunk = deliveryRepository.findPending(campaignId, afterId, chunkSize)).isEmpty()) {
+                List<DeliveryResult> results = sendChunk(subject, body, route, workers, chunk);
+                transactionTemplate.executeWithoutResult(
+                        status -> deliveryRepository.recordResults(campaignId, results, lease));
+                afterId = chunk.get(chunk.size() - 1).id();
+            }
+
+            complete(campaignId);
+        } catch (Exception e) {
+            // The lease is left to lapse so a later sweep retries
+            log.error("Delivery of campaign {} stopped: {}", campaignId, e.getMessage(), e);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * Write the audience as PENDING rows, once per campaign, without it passing through memory.
+     */
+    private void snapshotAudience(NewsletterCampaign campaign) {
+        if (deliveryRepository.hasRecipients(campaign.getId())) {
+            return;
+        }
+        AudienceQuery audience = audienceResolver.compile(
+                campaign.getGymId(),
+                campaign.getAudienceType(),
+                campaign.getAudienceFilter());
+        String createdBy = campaign.getSentByUserId() != null ? campaign.getSentByUserId().toString() : null;
+        Integer total = transactionTemplate.execute(
+                status -> deliveryRepository.insertRecipients(campaign.getId(), audience, createdBy));
+        log.info("Campaign {} audience: {} recipients", campaign.getId(), total);
+    }
+
+    private List<DeliveryResult> sendChunk(CompiledTemplate subject, CompiledTemplate body,
+                                           BroadcastService.Route route, ExecutorService workers,
+                                           List<PendingRecipient> chunk) {
+        List<CompletableFuture<DeliveryResult>> futures = chunk.stream()
+                .map(recipient -> CompletableFuture.supplyAsync(
+                        () -> sendOne(subject, body, route, recipient), workers))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private DeliveryResult sendOne(CompiledTemplate subjectTemplate, CompiledTemplate bodyTemplate,
+                                   BroadcastService.Route route, PendingRecipient recipient) {
+        try {
+            // Render personalized content
+            Map<String, Object> variables = buildRecipientVariables(recipient);
+            String subject = subjectTemplate.render(variables);
+            String body = bodyTemplate.render(variables);
+
+            // Send via preferred channel with email fallback
+            BroadcastService.BroadcastResult result = broadcastService.send(
+                    route,
+                    recipient.email(), // phone number would go here when available
+                    recipient.email(),
+                    subject,
+                    body,
+                    recipient.id());
+
+            return result.success()
+                    ? new DeliveryResult(recipient.id(), RecipientStatus.SENT, result.channelUsed(),
+                            result.fallbackUsed(), null)
+                    : new DeliveryResult(recipient.id(), RecipientStatus.FAILED, result.channelUsed(),
+                            result.fallbackUsed(), result.errorMessage());
+        } catch (Exception e) {
+            log.error("Failed to send to {}: {}", recipient.email(), e.getMessage());
+            return new DeliveryResult(recipient.id(), RecipientStatus.FAILED, null, false, e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the campaign SENT (or FAILED) from its recipient outcomes and release the lease.
+     */
+    private void complete(UUID campaignId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            DeliveryCounts counts = deliveryRepository.countResults(campaignId);
+            NewsletterCampaign campaign = campaignRepository.findById(campaignId).orElseThrow();
+            campaign.completeSending(counts.total(), counts.delivered(), counts.failed());
+            campaignRepository.save(campaign);
+            deliveryRepository.release(campaignId);
+
+            log.info("Completed campaign: {} - Total: {}, Delivered: {}, Failed: {}",
+                    campaignId, counts.total(), counts.delivered(), counts.failed());
+        });
+    }
+
+    /**
+     * Build template variables for a recipient.
+     */
+    private Map<String, Object> buildRecipientVariables(PendingRecipient recipient) {
+        Map<String, Object> variables = new HashMap<>();
+        String firstName = recipient.firstName() != null ? recipient.firstName() : "";
+        String lastName = recipient.lastName() != null ? recipient.lastName() : "";
+        variables.put("member_name", (firstName + " " + lastName).trim());
+        variables.put("first_name", firstName);
+        variables.put("last_name", lastName);
+        variables.put("email", recipient.email());
+        return variables;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.gymmate.notification.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A newsletter subject or body parsed once into alternating literal and {@code {{placeholder}}}
+ * segments. Rendering is a single pass into a builder sized for the template, so personalising
+ * a large body for every recipient costs no regex work. Immutable and safe to share between
+ * threads.
+ */
+public final class CompiledTemplate {
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{(\\w+)}}");
+
+    // literals.length == keys.length + 1; the output is literals[0] keys[0] literals[1] ...
+    private final String[] literals;
+    private final String[] keys;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] keys, int literalLength) {
+        this.literals = literals;
+        this.keys = keys;
+        this.literalLength = literalLength;
+    }
+
+    public static CompiledTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
+        int literalStart = 0;
+        while (matcher.find()) {
+            literals.add(text.substring(literalStart, matcher.start()));
+            keys.add(matcher.group(1));
+            literalStart = matcher.end();
+        }
+        literals.add(text.substring(literalStart));
+        int literalLength = literals.stream().mapToInt(String::length).sum();
+        return new CompiledTemplate(literals.toArray(String[]::new), keys.toArray(String[]::new), literalLength);
+    }
+
+    /**
+     * Substitute the variables. Placeholders without a value are left as they are.
+     */
+    public String render(Map<String, ?> variables) {
+        if (keys.length == 0) {
+            return literals[0];
+        }
+        // Leave some headroom for the substituted values
+        StringBuilder out = new StringBuilder(literalLength + keys.length * 16);
+        for (int i = 0; i < keys.length; i++) {
+            out.append(literals[i]);
+            Object value = variables != null ? variables.get(keys[i]) : null;
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("{{").append(keys[i]).append("}}");
+            }
+        }
+        return out.append(literals[keys.length]).toString();
+    }
+}
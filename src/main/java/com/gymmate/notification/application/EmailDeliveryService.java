@@ -0,0 +1,313 @@
+package com.gymmate.notification.application;
+
+import com.gymmate.notification.infrastructure.OutboundEmailRepository;
+import com.gymmate.notification.infrastructure.OutboundEmailRepository.QueuedEmail;
+import com.gymmate.notification.infrastructure.SmtpTransportPool;
+import com.gymmate.notification.infrastructure.SseEmitterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers emails from the durable outbound queue (see V20 migration).
+ *
+ * {@link #enqueue} only writes a row, inside the caller's transaction when there is one, and
+ * wakes the workers once it commits. Each worker claims up to {@code batch-size} due emails and
+ * sends them over one pooled SMTP connection, then keeps claiming until the queue is drained. A
+ * {@code poll-interval-ms} sweep picks up retries that have come due, emails queued on other
+ * nodes and batches whose worker died.
+ *
+ * A failed attempt is retried after an exponential backoff with jitter, up to
+ * {@code max-attempts}; rejected recipient addresses fail at once. Emails queued with a status
+ * user report their progress on that user's email-status stream.
+ */
+@Slf4j
+@Service
+public class EmailDeliveryService {
+
+    private final OutboundEmailRepository repository;
+    private final SmtpTransportPool transportPool;
+    private final JavaMailSender mailSender;
+    private final SseEmitterRegistry sseEmitterRegistry;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final int retentionDays;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    private final ExecutorService workers;
+    // One permit per worker that is not already draining the queue
+    private final Semaphore idleWorkers;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public EmailDeliveryService(OutboundEmailRepository repository,
+                                SmtpTransportPool transportPool,
+                                JavaMailSender mailSender,
+                                SseEmitterRegistry sseEmitterRegistry,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.mail.from:noreply@gymmatehub.com}") String fromEmail,
+                                @Value("${app.notification.email.workers:4}") int workerCount,
+                                @Value("${app.notification.email.batch-size:20}") int batchSize,
+                                @Value("${app.notification.email.max-attempts:6}") int maxAttempts,
+                                @Value("${app.notification.email.base-backoff-ms:5000}") long baseBackoffMs,
+                                @Value("${app.notification.email.max-backoff-ms:900000}") long maxBackoffMs,
+                                @Value("${app.notification.email.lease-minutes:5}") long leaseMinutes,
+                                @Value("${app.notification.email.retention-days:7}") int retentionDays) {
+        this.repository = repository;
+        this.transportPool = transportPool;
+        this.mailSender = mailSender;
+        this.sseEmitterRegistry = sseEmitterRegistry;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.retentionDays = retentionDays;
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.idleWorkers = new Semaphore(workerCount);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("email.delivery")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Claimed emails go back to the queue once their lease lapses
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queue an email. It is sent once the current transaction commits, or right away when there
+     * is no transaction.
+     *
+     * @param statusUserId user whose email-status stream reports delivery, or null
+     * @return the queued email's id
+     */
+    public UUID enqueue(String to, String subject, String htmlBody, String statusUserId) {
+        return enqueue(to, subject, htmlBody, statusUserId, null);
+    }
+
+    /**
+     * Queue an email whose final outcome is also written to a campaign recipient.
+     *
+     * @param campaignRecipientId campaign recipient marked SENT or FAILED with this email, or null
+     */
+    public UUID enqueue(String to, String subject, String htmlBody, String statusUserId,
+                        UUID campaignRecipientId) {
+        UUID id = repository.enqueue(to, subject, htmlBody, statusUserId, campaignRecipientId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch();
+                }
+            });
+        } else {
+            dispatch();
+        }
+        return id;
+    }
+
+    /**
+     * Pick up retries that have come due, emails queued on other nodes and abandoned batches.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.email.poll-interval-ms:1000}")
+    public void poll() {
+        dispatch();
+    }
+
+    /**
+     * Drop delivered emails older than {@code retention-days}; failed ones are kept for inspection.
+     */
+    @Scheduled(cron = "${app.notification.email.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        try {
+            int purged = repository.purgeSent(LocalDateTime.now().minusDays(retentionDays));
+            log.info("Purged {} delivered emails from the outbound queue", purged);
+        } catch (Exception e) {
+            log.error("Error purging the outbound email queue", e);
+        }
+    }
+
+    /**
+     * Start a worker draining the queue, unless every worker is already busy.
+     */
+    private void dispatch() {
+        if (!idleWorkers.tryAcquire()) {
+            return;
+        }
+        try {
+            workers.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            idleWorkers.release();
+        }
+    }
+
+    private void drain() {
+        try {
+            // A full batch means more is waiting: bring in another worker and carry on
+            while (deliverDue() >= batchSize) {
+                dispatch();
+            }
+        } catch (Exception e) {
+            log.error("Email worker stopped: {}", e.getMessage(), e);
+        } finally {
+            idleWorkers.release();
+        }
+    }
+
+    /**
+     * Claim one batch of due emails and send it over a single SMTP connection.
+     *
+     * @return the number of emails claimed; 0 when nothing was due
+     */
+    public int deliverDue() {
+        List<QueuedEmail> batch = repository.claim(nodeId, batchSize, lease);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<QueuedEmail> sendable = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (QueuedEmail email : batch) {
+            try {
+                messages.add(toMimeMessage(email));
+                sendable.add(email);
+            } catch (MessagingException e) {
+                // A malformed address or header will not get better on retry
+                fail(email, e);
+            }
+        }
+
+        Map<Integer, Exception> failures;
+        try {
+            failures = messages.isEmpty() ? Map.of() : transportPool.send(messages);
+        } catch (Exception e) {
+            log.warn("SMTP batch of {} emails failed: {}", messages.size(), e.getMessage());
+            failures = new HashMap<>();
+            for (int i = 0; i < sendable.size(); i++) {
+                failures.put(i, e);
+            }
+        }
+
+        List<QueuedEmail> delivered = new ArrayList<>(sendable.size());
+        for (int i = 0; i < sendable.size(); i++) {
+            QueuedEmail email = sendable.get(i);
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                delivered.add(email);
+            } else if (isPermanent(failure) || email.attempts() >= maxAttempts) {
+                fail(email, failure);
+            } else {
+                retry(email, failure);
+            }
+        }
+
+        repository.markSent(delivered.stream().map(QueuedEmail::id).toList(), nodeId);
+        sent.increment(delivered.size());
+        for (QueuedEmail email : delivered) {
+            log.info("Email sent to: {} with subject: {}", email.to(), email.subject());
+            reportStatus(email, "SENT", "Verification email sent successfully");
+        }
+        return batch.size();
+    }
+
+    private MimeMessage toMimeMessage(QueuedEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.to());
+        helper.setSubject(email.subject());
+        helper.setText(email.htmlBody(), true);
+        return message;
+    }
+
+    private void retry(QueuedEmail email, Exception failure) {
+        Duration delay = backoff(email.attempts());
+        log.warn("Email to {} failed on attempt {}, retrying in {}s: {}",
+                email.to(), email.attempts(), delay.toSeconds(), failure.getMessage());
+        repository.reschedule(email.id(), nodeId, LocalDateTime.now().plus(delay), failure.getMessage());
+        retried.increment();
+        reportStatus(email, "SENDING", "Still trying to send your verification email...");
+    }
+
+    private void fail(QueuedEmail email, Exception failure) {
+        log.error("Giving up on email to {} after {} attempt(s): {}",
+                email.to(), email.attempts(), failure.getMessage());
+        repository.markFailed(email.id(), nodeId, failure.getMessage());
+        failed.increment();
+        reportStatus(email, "FAILED", "Failed to send verification email. Please try resending.");
+    }
+
+    /**
+     * Exponential backoff from {@code base-backoff-ms}, capped at {@code max-backoff-ms}, with
+     * the upper half randomised so emails that failed together do not all retry together.
+     */
+    private Duration backoff(int attempts) {
+        long capMillis = maxBackoff.toMillis();
+        long exponential = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long delay = Math.min(capMillis, exponential > 0 ? exponential : capMillis);
+        long half = delay / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    /**
+     * The server rejected every recipient, so resending the same message cannot succeed.
+     */
+    private static boolean isPermanent(Exception failure) {
+        if (!(failure instanceof SendFailedException sendFailed)) {
+            return false;
+        }
+        return sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0
+                && (sendFailed.getValidUnsentAddresses() == null || sendFailed.getValidUnsentAddresses().length == 0);
+    }
+
+    private void reportStatus(QueuedEmail email, String status, String message) {
+        if (email.statusUserId() != null) {
+            sseEmitterRegistry.sendEmailStatus(email.statusUserId(), status, message);
+        }
+    }
+}
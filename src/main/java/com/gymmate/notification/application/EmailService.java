@@ -2,14 +2,8 @@ package com.gymmate.notification.application;
 
 import com.gymmate.notification.infrastructure.SseEmitterRegistry;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
@@ -17,20 +11,24 @@ import org.thymeleaf.context.Context;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-
+import java.util.UUID;
+
+/**
+ * Renders transactional emails and queues them for delivery.
+ *
+ * Nothing here talks to the SMTP server: each method writes the rendered email to the durable
+ * outbound queue, in the caller's transaction when there is one, and {@link EmailDeliveryService}
+ * sends it in batches with retries.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender emailSender;
     private final TemplateEngine templateEngine;
     private final SseEmitterRegistry sseEmitterRegistry;
+    private final EmailDeliveryService emailDeliveryService;
 
-    @Value("${spring.mail.from:noreply@gymmatehub.com}")
-    private String fromEmail;
-
-    @Async
     public void sendPasswordResetEmail(String to, String name, String resetLink) {
         try {
             Context context = new Context();
@@ -38,30 +36,20 @@ public class EmailService {
             context.setVariable("resetLink", resetLink);
 
             String emailContent = templateEngine.process("password-reset", context);
-
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Reset Your Password");
-            helper.setText(emailContent, true);
-
-            emailSender.send(message);
-            log.info("Password reset email sent to: {}", to);
-        } catch (MessagingException e) {
-            log.error("Failed to send password reset email to: {}", to, e);
-            throw new RuntimeException("Failed to send password reset email", e);
+            emailDeliveryService.enqueue(to, "Reset Your Password", emailContent, null);
+            log.info("Password reset email queued for: {}", to);
+        } catch (Exception e) {
+            // Not rethrown: the reset request must look the same whether or not the email went out
+            log.error("Failed to queue password reset email for: {}", to, e);
         }
     }
 
-    @Async
     public void sendOtpEmail(String to, String firstName, String otp, int validityMinutes, String userId) {
         // Notify client that email is being sent
         sseEmitterRegistry.sendEmailStatus(userId, "SENDING", "Sending verification email...");
 
         try {
-            log.info("Attempting to send OTP email to: {} with OTP: {}", to, otp);
+            log.info("Queueing OTP email for: {}", to);
 
             Context context = new Context();
             context.setVariable("firstName", firstName);
@@ -70,22 +58,10 @@ public class EmailService {
 
             String emailContent = templateEngine.process("registration-otp", context);
 
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Your GymMateHub Verification Code");
-            helper.setText(emailContent, true);
-
-            emailSender.send(message);
-            log.info("OTP email sent successfully to: {}", to);
-
-            // Notify client of success
-            sseEmitterRegistry.sendEmailStatus(userId, "SENT", "Verification email sent successfully");
-
+            // The delivery workers report SENT or FAILED on the same stream
+            emailDeliveryService.enqueue(to, "Your GymMateHub Verification Code", emailContent, userId);
         } catch (Exception e) {
-            log.error("Failed to send OTP email to: {}", to, e);
+            log.error("Failed to queue OTP email for: {}", to, e);
 
             // Notify client of failure — don't throw, the OTP is already stored
             sseEmitterRegistry.sendEmailStatus(userId, "FAILED",
@@ -93,26 +69,16 @@ public class EmailService {
         }
     }
 
-    @Async
     public void sendWelcomeEmail(String to, String firstName) {
         try {
             Context context = new Context();
             context.setVariable("firstName", firstName);
 
             String emailContent = templateEngine.process("welcome", context);
-
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Welcome to GymMate!");
-            helper.setText(emailContent, true);
-
-            emailSender.send(message);
-            log.info("Welcome email sent to: {}", to);
-        } catch (MessagingException e) {
-            log.error("Failed to send welcome email to: {}", to, e);
+            emailDeliveryService.enqueue(to, "Welcome to GymMate!", emailContent, null);
+            log.info("Welcome email queued for: {}", to);
+        } catch (Exception e) {
+            log.error("Failed to queue welcome email for: {}", to, e);
             // Don't throw exception for welcome email - it's not critical
             log.warn("Continuing despite welcome email failure");
         }
@@ -126,21 +92,21 @@ public class EmailService {
      * @param subject  email subject line
      * @param htmlBody HTML content for the email body
      */
-    @Async
     public void sendHtmlEmail(String to, String subject, String htmlBody) {
+        sendHtmlEmail(to, subject, htmlBody, null);
+    }
+
+    /**
+     * Send a generic HTML email whose final outcome is recorded on a campaign recipient.
+     *
+     * @param campaignRecipientId campaign recipient to update once the email is sent or fails, or null
+     */
+    public void sendHtmlEmail(String to, String subject, String htmlBody, UUID campaignRecipientId) {
         try {
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-
-            emailSender.send(message);
-            log.info("HTML email sent to: {} with subject: {}", to, subject);
-        } catch (MessagingException e) {
-            log.error("Failed to send HTML email to: {}", to, e);
+            emailDeliveryService.enqueue(to, subject, htmlBody, null, campaignRecipientId);
+            log.info("HTML email queued for: {} with subject: {}", to, subject);
+        } catch (Exception e) {
+            log.error("Failed to queue HTML email for: {}", to, e);
             throw new RuntimeException("Failed to send HTML email", e);
         }
     }
@@ -148,7 +114,6 @@ public class EmailService {
     /**
      * Send subscription renewal reminder email.
      */
-    @Async
     public void sendSubscriptionRenewalEmail(String to, String organisationName, String planName,
             LocalDate renewalDate, BigDecimal amount) {
         try {
@@ -159,17 +124,16 @@ public class EmailService {
             context.setVariable("amount", amount);
 
             String emailContent = templateEngine.process("subscription-renewal", context);
-            sendEmailInternal(to, "Subscription Renewal Notice", emailContent);
-            log.info("Subscription renewal email sent to: {}", to);
+            emailDeliveryService.enqueue(to, "Subscription Renewal Notice", emailContent, null);
+            log.info("Subscription renewal email queued for: {}", to);
         } catch (Exception e) {
-            log.error("Failed to send subscription renewal email to: {}", to, e);
+            log.error("Failed to queue subscription renewal email for: {}", to, e);
         }
     }
 
     /**
      * Send trial ending soon email.
      */
-    @Async
     public void sendTrialEndingEmail(String to, String organisationName, LocalDate trialEndDate) {
         try {
             Context context = new Context();
@@ -177,17 +141,16 @@ public class EmailService {
             context.setVariable("trialEndDate", trialEndDate.format(DateTimeFormatter.ofPattern("MMMM d, yyyy")));
 
             String emailContent = templateEngine.process("subscription-trial-ending", context);
-            sendEmailInternal(to, "Your Trial is Ending Soon", emailContent);
-            log.info("Trial ending email sent to: {}", to);
+            emailDeliveryService.enqueue(to, "Your Trial is Ending Soon", emailContent, null);
+            log.info("Trial ending email queued for: {}", to);
         } catch (Exception e) {
-            log.error("Failed to send trial ending email to: {}", to, e);
+            log.error("Failed to queue trial ending email for: {}", to, e);
         }
     }
 
     /**
      * Send subscription expired email.
      */
-    @Async
     public void sendSubscriptionExpiredEmail(String to, String organisationName, LocalDate expiryDate) {
         try {
             Context context = new Context();
@@ -195,22 +158,10 @@ public class EmailService {
             context.setVariable("expiryDate", expiryDate.format(DateTimeFormatter.ofPattern("MMMM d, yyyy")));
 
             String emailContent = templateEngine.process("subscription-expired", context);
-            sendEmailInternal(to, "Subscription Expired", emailContent);
-            log.info("Subscription expired email sent to: {}", to);
+            emailDeliveryService.enqueue(to, "Subscription Expired", emailContent, null);
+            log.info("Subscription expired email queued for: {}", to);
         } catch (Exception e) {
-            log.error("Failed to send subscription expired email to: {}", to, e);
+            log.error("Failed to queue subscription expired email for: {}", to, e);
         }
     }
-
-    private void sendEmailInternal(String to, String subject, String content) throws MessagingException {
-        MimeMessage message = emailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(content, true);
-
-        emailSender.send(message);
-    }
 }
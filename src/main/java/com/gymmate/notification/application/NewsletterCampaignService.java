@@ -3,26 +3,23 @@ package com.gymmate.notification.application;
 import com.gymmate.notification.api.dto.AudiencePreviewResponse;
 import com.gymmate.notification.api.dto.CreateCampaignRequest;
 import com.gymmate.notification.domain.*;
-import com.gymmate.notification.infrastructure.CampaignRecipientRepository;
 import com.gymmate.notification.infrastructure.NewsletterCampaignRepository;
 import com.gymmate.notification.infrastructure.NewsletterTemplateRepository;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.multitenancy.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 /**
  * Service for managing newsletter campaigns.
- * Sends via organisation's preferred channel with email fallback.
+ * Delivery runs in the background via {@link CampaignDeliveryService}, using the
+ * organisation's preferred channel with email fallback.
  */
 @Service
 @Slf4j
@@ -31,10 +28,8 @@ public class NewsletterCampaignService {
 
     private final NewsletterCampaignRepository campaignRepository;
     private final NewsletterTemplateRepository templateRepository;
-    private final CampaignRecipientRepository recipientRepository;
     private final AudienceResolver audienceResolver;
-    private final NewsletterTemplateService templateService;
-    private final BroadcastService broadcastService;
+    private final CampaignDeliveryService campaignDeliveryService;
 
     /**
      * Create a new campaign.
@@ -150,85 +145,12 @@ public class NewsletterCampaignService {
         campaign.setSentByUserId(sentByUserId);
         campaignRepository.save(campaign);
 
-        // Resolve audience and send asynchronously
-        sendCampaignAsync(campaign);
+        // Resolve audience and send in the background once SENDING is committed
+        campaignDeliveryService.deliverAfterCommit(campaign.getId());
 
         return campaign;
     }
 
-    /**
-     * Asynchronously send messages to all recipients via preferred channel.
-     */
-    @Async
-    public void sendCampaignAsync(NewsletterCampaign campaign) {
-        log.info("Starting async send for campaign: {}", campaign.getId());
-
-        List<AudienceResolver.MemberRecipient> recipients = audienceResolver.resolveAudience(
-                campaign.getGymId(),
-                campaign.getAudienceType(),
-                campaign.getAudienceFilter());
-
-        int deliveredCount = 0;
-        int failedCount = 0;
-
-        for (AudienceResolver.MemberRecipient recipient : recipients) {
-            CampaignRecipient campaignRecipient = CampaignRecipient.builder()
-                    .campaignId(campaign.getId())
-                    .memberId(recipient.memberId())
-                    .email(recipient.email())
-                    .build();
-
-            try {
-                // Render personalized content
-                Map<String, Object> variables = buildRecipientVariables(recipient);
-                String subject = templateService.renderSubject(campaign.getSubject(), variables);
-                String body = templateService.renderTemplate(campaign.getBody(), variables);
-
-                // Send via preferred channel with email fallback
-                BroadcastService.BroadcastResult result = broadcastService.send(
-                        recipient.email(), // phone number would go here when available
-                        recipient.email(),
-                        subject,
-                        body);
-
-                if (result.success()) {
-                    campaignRecipient.markSent(result.channelUsed(), result.fallbackUsed());
-                    deliveredCount++;
-                } else {
-                    campaignRecipient.markFailed(result.errorMessage());
-                    failedCount++;
-                }
-            } catch (Exception e) {
-                log.error("Failed to send to {}: {}", recipient.email(), e.getMessage());
-                campaignRecipient.markFailed(e.getMessage());
-                failedCount++;
-            }
-
-            recipientRepository.save(campaignRecipient);
-        }
-
-        // Update campaign stats
-        campaign.completeSending(recipients.size(), deliveredCount, failedCount);
-        campaignRepository.save(campaign);
-
-        log.info("Completed campaign: {} - Total: {}, Delivered: {}, Failed: {}",
-                campaign.getId(), recipients.size(), deliveredCount, failedCount);
-    }
-
-    /**
-     * Build template variables for a recipient.
-     */
-    private Map<String, Object> buildRecipientVariables(AudienceResolver.MemberRecipient recipient) {
-        Map<String, Object> variables = new HashMap<>();
-        String firstName = recipient.firstName() != null ? recipient.firstName() : "";
-        String lastName = recipient.lastName() != null ? recipient.lastName() : "";
-        variables.put("member_name", (firstName + " " + lastName).trim());
-        variables.put("first_name", firstName);
-        variables.put("last_name", lastName);
-        variables.put("email", recipient.email());
-        return variables;
-    }
-
     /**
      * Delete a campaign (soft delete).
      */
@@ -1,7 +1,10 @@
 package com.gymmate.notification.application;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.gymmate.notification.api.dto.CreateTemplateRequest;
 import com.gymmate.notification.api.dto.UpdateTemplateRequest;
+import com.gymmate.notification.domain.NewsletterCampaign;
 import com.gymmate.notification.domain.NewsletterTemplate;
 import com.gymmate.notification.infrastructure.NewsletterTemplateRepository;
 import com.gymmate.shared.exception.DomainException;
@@ -11,11 +14,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Service for managing newsletter templates.
@@ -27,7 +29,18 @@ public class NewsletterTemplateService {
 
     private final NewsletterTemplateRepository templateRepository;
 
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{(\\w+)}}");
+    private static final int COMPILED_TEMPLATE_CACHE_SIZE = 500;
+
+    // Parsed subjects and bodies, shared by every run over the same content
+    private final Cache<CompiledTemplateKey, CompiledTemplate> compiledTemplates = Caffeine.newBuilder()
+            .maximumSize(COMPILED_TEMPLATE_CACHE_SIZE)
+            .build();
+
+    /**
+     * Identifies one version of a subject or body: the owning entity, its last update and the field.
+     */
+    private record CompiledTemplateKey(UUID sourceId, LocalDateTime version, String field) {
+    }
 
     /**
      * Create a new newsletter template.
@@ -126,21 +139,7 @@ public class NewsletterTemplateService {
         if (variables == null || variables.isEmpty()) {
             return body;
         }
-
-        String result = body;
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(body);
-
-        while (matcher.find()) {
-            String placeholder = matcher.group(0);
-            String key = matcher.group(1);
-
-            Object value = variables.get(key);
-            if (value != null) {
-                result = result.replace(placeholder, value.toString());
-            }
-        }
-
-        return result;
+        return CompiledTemplate.compile(body).render(variables);
     }
 
     /**
@@ -149,4 +148,26 @@ public class NewsletterTemplateService {
     public String renderSubject(String subject, Map<String, Object> variables) {
         return renderTemplate(subject, variables);
     }
+
+    /**
+     * The campaign's subject, parsed once per campaign version.
+     */
+    public CompiledTemplate compiledSubject(NewsletterCampaign campaign) {
+        return compiled(campaign.getId(), campaign.getUpdatedAt(), "subject", campaign.getSubject());
+    }
+
+    /**
+     * The campaign's body, parsed once per campaign version.
+     */
+    public CompiledTemplate compiledBody(NewsletterCampaign campaign) {
+        return compiled(campaign.getId(), campaign.getUpdatedAt(), "body", campaign.getBody());
+    }
+
+    private CompiledTemplate compiled(UUID sourceId, LocalDateTime version, String field, String text) {
+        if (sourceId == null) {
+            return CompiledTemplate.compile(text);
+        }
+        return compiledTemplates.get(new CompiledTemplateKey(sourceId, version, field),
+                key -> CompiledTemplate.compile(text));
+    }
 }
@@ -30,10 +30,10 @@ public class NotificationDispatcher {
         boolean sseDelivered = sseEmitterRegistry.sendToOrganisation(organisationId, notification);
 
         if (sseDelivered) {
-            log.info("Notification {} delivered via SSE to organisation {}",
+            log.info("Notification {} queued for SSE delivery to organisation {}",
                     notification.getId(), organisationId);
         } else {
-            log.debug("No SSE connections active for organisation {} - notification persisted for later retrieval",
+            log.debug("No SSE connections on this node for organisation {} - published to other nodes and persisted",
                     organisationId);
         }
     }
@@ -48,9 +48,9 @@ public class NotificationDispatcher {
         boolean delivered = sseEmitterRegistry.sendToUser(organisationId, userId, notification);
 
         if (delivered) {
-            log.info("Notification {} delivered via SSE to user {}", notification.getId(), userId);
+            log.info("Notification {} queued for SSE delivery to user {}", notification.getId(), userId);
         } else {
-            log.debug("User {} not connected via SSE - notification persisted for later retrieval", userId);
+            log.debug("User {} not connected to this node via SSE - published to other nodes and persisted", userId);
         }
     }
 }
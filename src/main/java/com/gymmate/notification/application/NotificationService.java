@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.beans.BeanProperty;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -59,11 +60,53 @@ public class NotificationService {
                 NotificationScope.GYM, RecipientRole.STAFF);
     }
 
-    @SneakyThrows
+    /**
+     * Create the same notification for many organisations, saved in one batch and then
+     * broadcast to each organisation.
+     *
+     * @param metadataByOrganisation metadata of each recipient organisation's notification
+     */
+    @Transactional
+    public List<Notification> createAndBroadcastAll(String title, String message, NotificationPriority priority,
+            String eventType, Map<UUID, Map<String, Object>> metadataByOrganisation) {
+        List<Notification> notifications = new ArrayList<>(metadataByOrganisation.size());
+        metadataByOrganisation.forEach((organisationId, metadata) -> notifications.add(buildNotification(
+                title, message, organisationId, null, priority, eventType, metadata,
+                NotificationScope.ORGANISATION, RecipientRole.ADMIN)));
+
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+
+        // Broadcast via SSE
+        saved.forEach(notification -> sseEmitterRegistry.sendToOrganisation(notification.getOrganisationId(),
+                notification));
+
+        log.info("Created and broadcasted {} notifications (type: {})", saved.size(), eventType);
+        return saved;
+    }
+
     private Notification createAndBroadcastInternal(String title, String message, UUID organisationId, UUID gymId,
             NotificationPriority priority, String eventType,
             Map<String, Object> metadata, NotificationScope scope, RecipientRole role) {
 
+        Notification notification = buildNotification(title, message, organisationId, gymId, priority, eventType,
+                metadata, scope, role);
+
+        Notification saved = notificationRepository.save(notification);
+
+        // Broadcast via SSE
+        sseEmitterRegistry.sendToOrganisation(organisationId, saved);
+
+        log.info("Created and broadcasted notification {} (type: {}) to organisation {}",
+                saved.getId(), eventType, organisationId);
+
+        return saved;
+    }
+
+    @SneakyThrows
+    private Notification buildNotification(String title, String message, UUID organisationId, UUID gymId,
+            NotificationPriority priority, String eventType,
+            Map<String, Object> metadata, NotificationScope scope, RecipientRole role) {
+
         String metadataJson = metadata != null ? objectMapper.writeValueAsString(metadata) : "{}";
 
         Notification notification = Notification.builder()
@@ -80,16 +123,7 @@ public class NotificationService {
                 .build();
 
         notification.setOrganisationId(organisationId);
-
-        Notification saved = notificationRepository.save(notification);
-
-        // Broadcast via SSE
-        sseEmitterRegistry.sendToOrganisation(organisationId, saved);
-
-        log.info("Created and broadcasted notification {} (type: {}) to organisation {}",
-                saved.getId(), eventType, organisationId);
-
-        return saved;
+        return notification;
     }
 
     /**
@@ -144,33 +178,26 @@ public class NotificationService {
     }
 
     /**
-     * Mark all notifications as read for an organisation.
+     * Mark all notifications as read for an organisation, in a single update.
+     *
+     * @return the number of notifications marked
      */
     @Transactional
-    public void markAllAsRead(UUID organisationId) {
-        Page<Notification> unread = notificationRepository.findUnreadByOrganisationId(
-                organisationId,
-                Pageable.unpaged());
-
-        unread.forEach(notification -> {
-            notification.markAsRead();
-            notificationRepository.save(notification);
-        });
-
-        log.info("Marked {} notifications as read for organisation {}", unread.getTotalElements(), organisationId);
+    public int markAllAsRead(UUID organisationId) {
+        int marked = notificationRepository.markAllReadByOrganisationId(organisationId, LocalDateTime.now());
+        log.info("Marked {} notifications as read for organisation {}", marked, organisationId);
+        return marked;
     }
 
     /**
-     * Delete old notifications (cleanup).
+     * Delete notifications older than {@code daysOld} days (cleanup), in a single delete.
      */
     @Transactional
-    public void deleteOldNotifications(UUID organisationId, int daysOld) {
+    public int deleteOldNotifications(UUID organisationId, int daysOld) {
         LocalDateTime cutoff = LocalDateTime.now().minusDays(daysOld);
-        List<Notification> oldNotifications = notificationRepository
-                .findRecentByOrganisationId(organisationId, cutoff);
-
-        oldNotifications.forEach(notificationRepository::delete);
-        log.info("Deleted {} old notifications for organisation {}", oldNotifications.size(), organisationId);
+        int deleted = notificationRepository.deleteByOrganisationIdCreatedBefore(organisationId, cutoff);
+        log.info("Deleted {} old notifications for organisation {}", deleted, organisationId);
+        return deleted;
     }
 
     // ============= Gym-Level Notification Methods (NEW) =============
@@ -207,33 +234,26 @@ public class NotificationService {
     }
 
     /**
-     * Mark all notifications as read for a gym.
+     * Mark all notifications as read for a gym, in a single update.
+     *
+     * @return the number of notifications marked
      */
     @Transactional
-    public void markAllGymNotificationsAsRead(UUID gymId) {
-        Page<Notification> unread = notificationRepository.findUnreadByGymId(
-                gymId,
-                Pageable.unpaged());
-
-        unread.forEach(notification -> {
-            notification.markAsRead();
-            notificationRepository.save(notification);
-        });
-
-        log.info("Marked {} notifications as read for gym {}", unread.getTotalElements(), gymId);
+    public int markAllGymNotificationsAsRead(UUID gymId) {
+        int marked = notificationRepository.markAllReadByGymId(gymId, LocalDateTime.now());
+        log.info("Marked {} notifications as read for gym {}", marked, gymId);
+        return marked;
     }
 
     /**
-     * Delete old notifications for a gym (cleanup).
+     * Delete gym notifications older than {@code daysOld} days (cleanup), in a single delete.
      */
     @Transactional
-    public void deleteOldGymNotifications(UUID gymId, int daysOld) {
+    public int deleteOldGymNotifications(UUID gymId, int daysOld) {
         LocalDateTime cutoff = LocalDateTime.now().minusDays(daysOld);
-        List<Notification> oldNotifications = notificationRepository
-                .findRecentByGymId(gymId, cutoff);
-
-        oldNotifications.forEach(notificationRepository::delete);
-        log.info("Deleted {} old notifications for gym {}", oldNotifications.size(), gymId);
+        int deleted = notificationRepository.deleteByGymIdCreatedBefore(gymId, cutoff);
+        log.info("Deleted {} old notifications for gym {}", deleted, gymId);
+        return deleted;
     }
 
     /**
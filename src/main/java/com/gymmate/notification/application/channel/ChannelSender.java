@@ -2,6 +2,8 @@ package com.gymmate.notification.application.channel;
 
 import com.gymmate.notification.domain.NotificationChannel;
 
+import java.util.UUID;
+
 /**
  * Interface for channel-specific notification senders.
  */
@@ -21,4 +23,13 @@ public interface ChannelSender {
      * @throws ChannelException if sending fails
      */
     void send(String recipient, String subject, String body) throws ChannelException;
+
+    /**
+     * Send a campaign message. Channels that only queue the message report its final outcome
+     * against {@code campaignRecipientId}; the others send as usual.
+     */
+    default void send(String recipient, String subject, String body, UUID campaignRecipientId)
+            throws ChannelException {
+        send(recipient, subject, body);
+    }
 }
@@ -7,6 +7,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 /**
  * Email channel sender using EmailService.
  */
@@ -24,9 +26,15 @@ public class EmailChannelSender implements ChannelSender {
 
     @Override
     public void send(String recipient, String subject, String body) throws ChannelException {
+        send(recipient, subject, body, null);
+    }
+
+    @Override
+    public void send(String recipient, String subject, String body, UUID campaignRecipientId)
+            throws ChannelException {
         try {
             log.debug("Sending email to: {} with subject: {}", recipient, subject);
-            emailService.sendHtmlEmail(recipient, subject, body);
+            emailService.sendHtmlEmail(recipient, subject, body, campaignRecipientId);
         } catch (Exception e) {
             log.error("Failed to send email to {}: {}", recipient, e.getMessage());
             throw new ChannelException(NotificationChannel.EMAIL, "Failed to send email: " + e.getMessage(), e);
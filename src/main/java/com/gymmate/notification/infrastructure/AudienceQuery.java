@@ -0,0 +1,31 @@
+package com.gymmate.notification.infrastructure;
+
+import java.util.Map;
+
+/**
+ * A campaign audience compiled to SQL: a condition over {@code members m} (joined to
+ * {@code users u}) within one gym, plus its named parameters. Built by
+ * {@link AudienceQueryRepository} and rendered as a select, a count or an insert-select.
+ */
+public record AudienceQuery(String criteria, Map<String, Object> params) {
+
+    static final String RECIPIENT_COLUMNS =
+            "m.id AS member_id, u.id AS user_id, u.first_name, u.last_name, u.email";
+
+    private static final String FROM = """
+            FROM members m
+            JOIN users u ON u.id = m.user_id
+            WHERE m.gym_id = :gymId AND u.email IS NOT NULL AND (%s)
+            """;
+
+    public AudienceQuery {
+        params = Map.copyOf(params);
+    }
+
+    /**
+     * {@code SELECT <columns> FROM ... WHERE ...} over the audience.
+     */
+    public String select(String columns) {
+        return "SELECT " + columns + " " + FROM.formatted(criteria);
+    }
+}
@@ -0,0 +1,121 @@
+package com.gymmate.notification.infrastructure;
+
+import com.gymmate.notification.application.AudienceResolver.MemberRecipient;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Builds and runs campaign audience queries. Each audience type is one SQL condition over the
+ * gym's members, so resolving an audience reads only the recipient columns and never loads
+ * bookings or memberships into memory.
+ */
+@Repository
+public class AudienceQueryRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final RowMapper<MemberRecipient> RECIPIENT_MAPPER = (rs, rowNum) -> new MemberRecipient(
+            rs.getObject("member_id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AudienceQueryRepository(DataSource dataSource) {
+        // Own template so the fetch size doesn't leak into other repositories
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Active members of the gym.
+     */
+    public AudienceQuery activeMembers(UUID gymId) {
+        return new AudienceQuery("m.status = 'ACTIVE'", Map.of("gymId", gymId));
+    }
+
+    /**
+     * Active members with a booking on any of the given class schedules.
+     */
+    public AudienceQuery classSubscribers(UUID gymId, Collection<UUID> classScheduleIds) {
+        return new AudienceQuery("""
+                m.status = 'ACTIVE' AND EXISTS (
+                    SELECT 1 FROM class_bookings cb
+                    WHERE cb.member_id = m.id AND cb.gym_id = :gymId AND cb.class_schedule_id IN (:classScheduleIds))
+                """, Map.of("gymId", gymId, "classScheduleIds", classScheduleIds));
+    }
+
+    /**
+     * Members with a booking made within the given window.
+     */
+    public AudienceQuery bookingParticipants(UUID gymId, LocalDateTime from, LocalDateTime to) {
+        return new AudienceQuery("""
+                EXISTS (
+                    SELECT 1 FROM class_bookings cb
+                    WHERE cb.member_id = m.id AND cb.gym_id = :gymId AND cb.booking_date BETWEEN :from AND :to)
+                """, Map.of("gymId", gymId, "from", Timestamp.valueOf(from), "to", Timestamp.valueOf(to)));
+    }
+
+    /**
+     * Members with an active membership on any of the given plans.
+     */
+    public AudienceQuery membershipPlans(UUID gymId, Collection<UUID> planIds) {
+        return new AudienceQuery("""
+                EXISTS (
+                    SELECT 1 FROM member_memberships mm
+                    WHERE mm.member_id = m.id AND mm.gym_id = :gymId AND mm.status = 'ACTIVE'
+                      AND mm.membership_plan_id IN (:planIds))
+                """, Map.of("gymId", gymId, "planIds", planIds));
+    }
+
+    /**
+     * The given members, restricted to the gym.
+     */
+    public AudienceQuery members(UUID gymId, Collection<UUID> memberIds) {
+        return new AudienceQuery("m.id IN (:memberIds)", Map.of("gymId", gymId, "memberIds", memberIds));
+    }
+
+    /**
+     * Nobody.
+     */
+    public AudienceQuery none(UUID gymId) {
+        return new AudienceQuery("FALSE", Map.of("gymId", gymId));
+    }
+
+    /**
+     * Feed each recipient to {@code consumer} as rows arrive, in member id order. Rows are fetched
+     * through a cursor when called inside a transaction.
+     */
+    public void stream(AudienceQuery audience, Consumer<MemberRecipient> consumer) {
+        jdbcTemplate.query(audience.select(AudienceQuery.RECIPIENT_COLUMNS) + " ORDER BY m.id", audience.params(),
+                (RowCallbackHandler) rs -> consumer.accept(RECIPIENT_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    public List<MemberRecipient> find(AudienceQuery audience, int limit) {
+        Map<String, Object> params = new HashMap<>(audience.params());
+        params.put("limit", limit);
+        return jdbcTemplate.query(audience.select(AudienceQuery.RECIPIENT_COLUMNS) + " ORDER BY m.id LIMIT :limit",
+                params, RECIPIENT_MAPPER);
+    }
+
+    public int count(AudienceQuery audience) {
+        Integer count = jdbcTemplate.queryForObject(audience.select("COUNT(*)"), audience.params(), Integer.class);
+        return count != null ? count : 0;
+    }
+}
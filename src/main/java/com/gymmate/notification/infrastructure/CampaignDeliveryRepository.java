@@ -0,0 +1,202 @@
+package com.gymmate.notification.infrastructure;
+
+import com.gymmate.notification.domain.NotificationChannel;
+import com.gymmate.notification.domain.RecipientStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access for campaign delivery (see V16 migration): the audience snapshot, keyset reads
+ * over pending recipients, batched result writes and the per-campaign delivery lease.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CampaignDeliveryRepository {
+
+    private static final String CLAIM_SQL = """
+            UPDATE newsletter_campaigns SET delivery_lease_until = :until
+            WHERE id = :campaignId AND status = 'SENDING'
+              AND (delivery_lease_until IS NULL OR delivery_lease_until < :now)
+            """;
+
+    private static final String INSERT_RECIPIENTS_SQL = """
+            INSERT INTO campaign_recipients (campaign_id, member_id, email, status, created_by, created_at, is_active)
+            %s
+            ON CONFLICT (campaign_id, member_id) DO NOTHING
+            """;
+
+    private static final String FIND_PENDING_SQL = """
+            SELECT cr.id, cr.member_id, cr.email, u.first_name, u.last_name
+            FROM campaign_recipients cr
+            LEFT JOIN members m ON m.id = cr.member_id
+            LEFT JOIN users u ON u.id = m.user_id
+            WHERE cr.campaign_id = :campaignId AND cr.status = 'PENDING' AND cr.id > :afterId
+            ORDER BY cr.id
+            LIMIT :limit
+            """;
+
+    private static final String RECORD_RESULT_SQL = """
+            UPDATE campaign_recipients
+            SET status = :status, sent_at = :sentAt, channel_used = :channel, fallback_used = :fallbackUsed,
+                error_message = :errorMessage, updated_at = :now
+            WHERE id = :id AND status = 'PENDING'
+            """;
+
+    private static final String RECORD_PROGRESS_SQL = """
+            UPDATE newsletter_campaigns
+            SET delivered_count = delivered_count + :delivered, failed_count = failed_count + :failed,
+                delivery_lease_until = :until, updated_at = :now
+            WHERE id = :campaignId
+            """;
+
+    // Sorts before every uuidv7, so the first page starts at the beginning
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Take the delivery lease on a campaign that is SENDING and not held by a live run.
+     *
+     * @return true if this caller now owns the delivery
+     */
+    public boolean claim(UUID campaignId, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(CLAIM_SQL, new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("until", Timestamp.valueOf(now.plus(lease)))
+                .addValue("now", Timestamp.valueOf(now))) == 1;
+    }
+
+    public void release(UUID campaignId) {
+        jdbcTemplate.update("UPDATE newsletter_campaigns SET delivery_lease_until = NULL WHERE id = :campaignId",
+                new MapSqlParameterSource("campaignId", campaignId));
+    }
+
+    /**
+     * Campaigns left SENDING whose lease has lapsed, i.e. the run delivering them died.
+     */
+    public List<UUID> findInterrupted() {
+        return jdbcTemplate.queryForList("""
+                SELECT id FROM newsletter_campaigns
+                WHERE status = 'SENDING' AND is_active = TRUE
+                  AND (delivery_lease_until IS NULL OR delivery_lease_until < :now)
+                """, new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())), UUID.class);
+    }
+
+    public boolean hasRecipients(UUID campaignId) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM campaign_recipients WHERE campaign_id = :campaignId)",
+                new MapSqlParameterSource("campaignId", campaignId), Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Snapshot the audience as PENDING recipient rows in a single insert-select, and record
+     * its size on the campaign.
+     *
+     * @return the number of recipients
+     */
+    public int insertRecipients(UUID campaignId, AudienceQuery audience, String createdBy) {
+        MapSqlParameterSource params = new MapSqlParameterSource(audience.params())
+                .addValue("campaignId", campaignId)
+                .addValue("createdBy", createdBy)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String select = audience.select(
+                "CAST(:campaignId AS UUID), m.id, u.email, 'PENDING', CAST(:createdBy AS VARCHAR), "
+                        + "CAST(:now AS TIMESTAMP), TRUE");
+        jdbcTemplate.update(INSERT_RECIPIENTS_SQL.formatted(select), params);
+
+        Integer total = jdbcTemplate.queryForObject("""
+                UPDATE newsletter_campaigns
+                SET total_recipients = (SELECT COUNT(*) FROM campaign_recipients WHERE campaign_id = :campaignId)
+                WHERE id = :campaignId
+                RETURNING total_recipients
+                """, params, Integer.class);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Next page of pending recipients after {@code afterId} (null for the first page), in id order.
+     */
+    public List<PendingRecipient> findPending(UUID campaignId, UUID afterId, int limit) {
+        return jdbcTemplate.query(FIND_PENDING_SQL, new MapSqlParameterSource()
+                        .addValue("campaignId", campaignId)
+                        .addValue("afterId", afterId != null ? afterId : FIRST_ID)
+                        .addValue("limit", limit),
+                (rs, rowNum) -> new PendingRecipient(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("member_id", UUID.class),
+                        rs.getString("email"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")));
+    }
+
+    /**
+     * Write a chunk's outcomes and fold them into the campaign's running counts,
+     * extending the delivery lease. Only rows still PENDING are written and counted: a queued
+     * email can already have failed and marked its recipient FAILED (see OutboundEmailRepository).
+     */
+    public void recordResults(UUID campaignId, List<DeliveryResult> results, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        SqlParameterSource[] batch = results.stream()
+                .map(result -> new MapSqlParameterSource()
+                        .addValue("id", result.recipientId())
+                        .addValue("status", result.status().name())
+                        .addValue("sentAt", result.status() == RecipientStatus.SENT ? nowTs : null)
+                        .addValue("channel", result.channel() != null ? result.channel().name() : null)
+                        .addValue("fallbackUsed", result.fallbackUsed())
+                        .addValue("errorMessage", result.errorMessage())
+                        .addValue("now", nowTs))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate(RECORD_RESULT_SQL, batch);
+
+        int delivered = 0;
+        int failed = 0;
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                continue;
+            }
+            if (results.get(i).status() == RecipientStatus.SENT) {
+                delivered++;
+            } else {
+                failed++;
+            }
+        }
+        jdbcTemplate.update(RECORD_PROGRESS_SQL, new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("delivered", delivered)
+                .addValue("failed", failed)
+                .addValue("until", Timestamp.valueOf(now.plus(lease)))
+                .addValue("now", nowTs));
+    }
+
+    public DeliveryCounts countResults(UUID campaignId) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) AS total,
+                       COUNT(*) FILTER (WHERE status IN ('SENT', 'DELIVERED')) AS delivered,
+                       COUNT(*) FILTER (WHERE status = 'FAILED') AS failed
+                FROM campaign_recipients WHERE campaign_id = :campaignId
+                """, new MapSqlParameterSource("campaignId", campaignId),
+                (rs, rowNum) -> new DeliveryCounts(rs.getInt("total"), rs.getInt("delivered"), rs.getInt("failed")));
+    }
+
+    public record PendingRecipient(UUID id, UUID memberId, String email, String firstName, String lastName) {
+    }
+
+    public record DeliveryResult(UUID recipientId, RecipientStatus status, NotificationChannel channel,
+                                 boolean fallbackUsed, String errorMessage) {
+    }
+
+    public record DeliveryCounts(int total, int delivered, int failed) {
+    }
+}
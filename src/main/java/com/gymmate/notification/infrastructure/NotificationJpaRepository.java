@@ -5,6 +5,7 @@ import com.gymmate.shared.constants.NotificationPriority;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -57,6 +58,20 @@ public interface NotificationJpaRepository extends JpaRepository<Notification, U
      */
     List<Notification> findByOrganisationIdAndRelatedEntityIdOrderByCreatedAtDesc(UUID organisationId, UUID relatedEntityId);
 
+    /**
+     * Mark every unread notification of an organisation as read in one statement.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readAt = :readAt, n.updatedAt = :readAt WHERE n.organisationId = :organisationId AND n.readAt IS NULL")
+    int markAllReadByOrganisationId(@Param("organisationId") UUID organisationId, @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * Delete an organisation's notifications created before the cutoff in one statement.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.organisationId = :organisationId AND n.createdAt < :cutoff")
+    int deleteByOrganisationIdCreatedBefore(@Param("organisationId") UUID organisationId, @Param("cutoff") LocalDateTime cutoff);
+
     // ============= Gym-Level Notification Queries (NEW) =============
 
     /**
@@ -96,4 +111,18 @@ public interface NotificationJpaRepository extends JpaRepository<Notification, U
      * Find notifications by related entity for a gym.
      */
     List<Notification> findByGymIdAndRelatedEntityIdOrderByCreatedAtDesc(UUID gymId, UUID relatedEntityId);
+
+    /**
+     * Mark every unread notification of a gym as read in one statement.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readAt = :readAt, n.updatedAt = :readAt WHERE n.gymId = :gymId AND n.readAt IS NULL")
+    int markAllReadByGymId(@Param("gymId") UUID gymId, @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * Delete a gym's notifications created before the cutoff in one statement.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.gymId = :gymId AND n.createdAt < :cutoff")
+    int deleteByGymIdCreatedBefore(@Param("gymId") UUID gymId, @Param("cutoff") LocalDateTime cutoff);
 }
@@ -17,6 +17,8 @@ public interface NotificationRepository {
 
     Notification save(Notification notification);
 
+    List<Notification> saveAll(List<Notification> notifications);
+
     Optional<Notification> findById(UUID id);
 
     Page<Notification> findByOrganisationId(UUID organisationId, Pageable pageable);
@@ -31,6 +33,20 @@ public interface NotificationRepository {
 
     void delete(Notification notification);
 
+    /**
+     * Mark all unread notifications of an organisation read in one statement.
+     *
+     * @return the number of notifications marked
+     */
+    int markAllReadByOrganisationId(UUID organisationId, LocalDateTime readAt);
+
+    /**
+     * Delete notifications of an organisation created before the cutoff in one statement.
+     *
+     * @return the number of notifications deleted
+     */
+    int deleteByOrganisationIdCreatedBefore(UUID organisationId, LocalDateTime cutoff);
+
     // ============= Gym-Level Notification Methods (NEW) =============
 
     Page<Notification> findByGymId(UUID gymId, Pageable pageable);
@@ -42,4 +58,8 @@ public interface NotificationRepository {
     List<Notification> findRecentByGymId(UUID gymId, LocalDateTime since);
 
     List<Notification> findByGymIdAndEventType(UUID gymId, String eventType);
+
+    int markAllReadByGymId(UUID gymId, LocalDateTime readAt);
+
+    int deleteByGymIdCreatedBefore(UUID gymId, LocalDateTime cutoff);
 }
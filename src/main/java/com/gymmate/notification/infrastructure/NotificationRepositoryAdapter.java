@@ -26,6 +26,11 @@ public class NotificationRepositoryAdapter implements NotificationRepository {
         return jpaRepository.save(notification);
     }
 
+    @Override
+    public List<Notification> saveAll(List<Notification> notifications) {
+        return jpaRepository.saveAll(notifications);
+    }
+
     @Override
     public Optional<Notification> findById(UUID id) {
         return jpaRepository.findById(id);
@@ -61,6 +66,16 @@ public class NotificationRepositoryAdapter implements NotificationRepository {
         jpaRepository.delete(notification);
     }
 
+    @Override
+    public int markAllReadByOrganisationId(UUID organisationId, LocalDateTime readAt) {
+        return jpaRepository.markAllReadByOrganisationId(organisationId, readAt);
+    }
+
+    @Override
+    public int deleteByOrganisationIdCreatedBefore(UUID organisationId, LocalDateTime cutoff) {
+        return jpaRepository.deleteByOrganisationIdCreatedBefore(organisationId, cutoff);
+    }
+
     // ============= Gym-Level Notification Methods (NEW) =============
 
     @Override
@@ -87,4 +102,14 @@ public class NotificationRepositoryAdapter implements NotificationRepository {
     public List<Notification> findByGymIdAndEventType(UUID gymId, String eventType) {
         return jpaRepository.findByGymIdAndEventTypeOrderByCreatedAtDesc(gymId, eventType);
     }
+
+    @Override
+    public int markAllReadByGymId(UUID gymId, LocalDateTime readAt) {
+        return jpaRepository.markAllReadByGymId(gymId, readAt);
+    }
+
+    @Override
+    public int deleteByGymIdCreatedBefore(UUID gymId, LocalDateTime cutoff) {
+        return jpaRepository.deleteByGymIdCreatedBefore(gymId, cutoff);
+    }
 }
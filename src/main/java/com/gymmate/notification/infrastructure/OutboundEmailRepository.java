@@ -0,0 +1,185 @@
+package com.gymmate.notification.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access for the outbound email queue (see V20 migration): enqueueing, batch claims by
+ * delivery workers, and recording each attempt's outcome.
+ *
+ * A campaign email carries its campaign recipient (V24). The final outcome is written to that
+ * recipient and to the campaign's counts in the same statement as the queue row, so a campaign
+ * reflects what the SMTP server actually accepted rather than what was queued.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboundEmailRepository {
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO outbound_emails (to_address, subject, html_body, status_user_id, campaign_recipient_id,
+                                         status, next_attempt_at, created_at, updated_at)
+            VALUES (:to, :subject, :htmlBody, :statusUserId, :campaignRecipientId, 'PENDING', :now, :now, :now)
+            RETURNING id
+            """;
+
+    /*
+     * Due PENDING rows, plus SENDING rows whose worker died before recording an outcome.
+     * SKIP LOCKED lets every node claim concurrently without waiting on each other's rows.
+     */
+    private static final String CLAIM_SQL = """
+            UPDATE outbound_emails e
+            SET status = 'SENDING', locked_by = :owner, lock_until = :until,
+                attempts = e.attempts + 1, updated_at = :now
+            FROM (SELECT id FROM outbound_emails
+                  WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+                     OR (status = 'SENDING' AND lock_until < :now)
+                  ORDER BY next_attempt_at
+                  LIMIT :limit
+                  FOR UPDATE SKIP LOCKED) due
+            WHERE e.id = due.id
+            RETURNING e.id, e.to_address, e.subject, e.html_body, e.status_user_id, e.attempts
+            """;
+
+    private static final String MARK_SENT_SQL = """
+            WITH sent AS (
+                UPDATE outbound_emails
+                SET status = 'SENT', sent_at = :now, locked_by = NULL, lock_until = NULL, last_error = NULL,
+                    updated_at = :now
+                WHERE id IN (:ids) AND locked_by = :owner
+                RETURNING campaign_recipient_id
+            )
+            UPDATE campaign_recipients cr
+            SET sent_at = :now, updated_at = :now
+            FROM sent s
+            WHERE cr.id = s.campaign_recipient_id AND cr.status = 'SENT'
+            """;
+
+    private static final String RESCHEDULE_SQL = """
+            UPDATE outbound_emails
+            SET status = 'PENDING', next_attempt_at = :nextAttemptAt, locked_by = NULL, lock_until = NULL,
+                last_error = :error, updated_at = :now
+            WHERE id = :id AND locked_by = :owner
+            """;
+
+    /*
+     * The recipient may still be PENDING if the email failed before the campaign recorded its
+     * chunk; it was only counted as delivered if it had already been marked SENT.
+     */
+    private static final String MARK_FAILED_SQL = """
+            WITH failed AS (
+                UPDATE outbound_emails
+                SET status = 'FAILED', locked_by = NULL, lock_until = NULL, last_error = :error, updated_at = :now
+                WHERE id = :id AND locked_by = :owner
+                RETURNING campaign_recipient_id
+            ),
+            previous AS (
+                SELECT cr.id, cr.status FROM campaign_recipients cr
+                JOIN failed f ON f.campaign_recipient_id = cr.id
+                WHERE cr.status IN ('PENDING', 'SENT')
+                FOR UPDATE OF cr
+            ),
+            recipient AS (
+                UPDATE campaign_recipients cr
+                SET status = 'FAILED', sent_at = NULL, error_message = :error, updated_at = :now
+                FROM previous p
+                WHERE cr.id = p.id
+                RETURNING cr.campaign_id, p.status AS previous_status
+            )
+            UPDATE newsletter_campaigns c
+            SET delivered_count = c.delivered_count - CASE WHEN r.previous_status = 'SENT' THEN 1 ELSE 0 END,
+                failed_count = c.failed_count + 1, updated_at = :now
+            FROM recipient r
+            WHERE c.id = r.campaign_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Queue an email for delivery as soon as a worker is free.
+     *
+     * @param campaignRecipientId campaign recipient to update with the final outcome, or null
+     * @return the queued email's id
+     */
+    public UUID enqueue(String to, String subject, String htmlBody, String statusUserId,
+                        UUID campaignRecipientId) {
+        return jdbcTemplate.queryForObject(ENQUEUE_SQL, new MapSqlParameterSource()
+                .addValue("to", to)
+                .addValue("subject", subject)
+                .addValue("htmlBody", htmlBody)
+                .addValue("statusUserId", statusUserId)
+                .addValue("campaignRecipientId", campaignRecipientId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())), UUID.class);
+    }
+
+    /**
+     * Lock up to {@code limit} due emails for {@code owner}, counting this as an attempt.
+     */
+    public List<QueuedEmail> claim(String owner, int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource()
+                        .addValue("owner", owner)
+                        .addValue("limit", limit)
+                        .addValue("until", Timestamp.valueOf(now.plus(lease)))
+                        .addValue("now", Timestamp.valueOf(now)),
+                (rs, rowNum) -> new QueuedEmail(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("to_address"),
+                        rs.getString("subject"),
+                        rs.getString("html_body"),
+                        rs.getString("status_user_id"),
+                        rs.getInt("attempts")));
+    }
+
+    public void markSent(List<UUID> ids, String owner) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MARK_SENT_SQL, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("owner", owner)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Put a failed email back in the queue for another attempt at {@code nextAttemptAt}.
+     */
+    public void reschedule(UUID id, String owner, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(RESCHEDULE_SQL, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("owner", owner)
+                .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                .addValue("error", error)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    public void markFailed(UUID id, String owner, String error) {
+        jdbcTemplate.update(MARK_FAILED_SQL, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("owner", owner)
+                .addValue("error", error)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Delete delivered emails sent before {@code cutoff}.
+     *
+     * @return the number of rows deleted
+     */
+    public int purgeSent(LocalDateTime cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbound_emails WHERE status = 'SENT' AND sent_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+    }
+
+    public record QueuedEmail(UUID id, String to, String subject, String htmlBody, String statusUserId,
+                              int attempts) {
+    }
+}
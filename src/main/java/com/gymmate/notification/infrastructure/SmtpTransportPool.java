@@ -0,0 +1,222 @@
+package com.gymmate.notification.infrastructure;
+
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Keeps SMTP connections open between batches so a batch of emails is sent over one session
+ * instead of one handshake (and STARTTLS negotiation) per message.
+ *
+ * A batch borrows the most recently used idle connection, or opens one, and holds one
+ * {@link Downstream#SMTP} permit while it sends, so that limit also caps open connections in
+ * use. A connection is retired after {@code messages-per-connection} messages, since many
+ * servers cap messages per session, and closed once it has sat idle for {@code max-idle-ms}.
+ * Only a connection taken from the idle pool is probed for liveness; one in use is trusted
+ * until a send on it fails.
+ */
+@Slf4j
+@Component
+public class SmtpTransportPool {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final JavaMailSender mailSender;
+    private final DownstreamLimiter downstreamLimiter;
+    private final long maxIdleMillis;
+    private final int messagesPerConnection;
+
+    // Most recently returned first, so the idle tail is what ages out
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    public SmtpTransportPool(JavaMailSender mailSender,
+                             DownstreamLimiter downstreamLimiter,
+                             @Value("${app.notification.email.max-idle-ms:30000}") long maxIdleMillis,
+                             @Value("${app.notification.email.messages-per-connection:100}") int messagesPerConnection) {
+        this.mailSender = mailSender;
+        this.downstreamLimiter = downstreamLimiter;
+        this.maxIdleMillis = maxIdleMillis;
+        this.messagesPerConnection = messagesPerConnection;
+    }
+
+    /**
+     * Send the messages in order over one pooled connection.
+     *
+     * @return the failure for each message that was not accepted, by its index in {@code messages}
+     */
+    public Map<Integer, Exception> send(List<MimeMessage> messages) {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            return downstreamLimiter.call(Downstream.SMTP, () -> sendOneByOne(messages));
+        }
+        return downstreamLimiter.call(Downstream.SMTP, () -> sendPooled(sender, messages));
+    }
+
+    /**
+     * Liveness is only checked when an idle connection is borrowed. A message that fails for any
+     * reason other than rejected recipients may have left the session in an unknown state, so the
+     * connection is closed and the next message opens a new one. Failures never escape, so the
+     * caller always learns which messages were already accepted.
+     */
+    private Map<Integer, Exception> sendPooled(JavaMailSenderImpl sender, List<MimeMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        PooledTransport pooled = null;
+        try {
+            for (int i = 0; i < messages.size(); i++) {
+                if (pooled != null && pooled.sent >= messagesPerConnection) {
+                    close(pooled);
+                    pooled = null;
+                }
+                if (pooled == null) {
+                    try {
+                        pooled = borrow(sender);
+                    } catch (MessagingException | RuntimeException e) {
+                        // Could not connect at all; the rest would fail the same way
+                        for (int rest = i; rest < messages.size(); rest++) {
+                            failures.put(rest, e);
+                        }
+                        break;
+                    }
+                }
+                try {
+                    sendMessage(pooled.transport, messages.get(i));
+                    pooled.sent++;
+                } catch (SendFailedException e) {
+                    // Recipients were rejected; the session itself is still usable
+                    failures.put(i, e);
+                } catch (MessagingException | RuntimeException e) {
+                    failures.put(i, e);
+                    close(pooled);
+                    pooled = null;
+                }
+            }
+        } finally {
+            release(pooled);
+        }
+        return failures;
+    }
+
+    private Map<Integer, Exception> sendOneByOne(List<MimeMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                mailSender.send(messages.get(i));
+            } catch (Exception e) {
+                failures.put(i, e);
+            }
+        }
+        return failures;
+    }
+
+    private PooledTransport borrow(JavaMailSenderImpl sender) throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.transport.isConnected()) {
+                return pooled;
+            }
+            close(pooled);
+        }
+
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport transport = sender.getSession().getTransport(protocol);
+        String username = sender.getUsername();
+        String password = sender.getPassword();
+        transport.connect(sender.getHost(), sender.getPort(),
+                username == null || username.isEmpty() ? null : username,
+                password == null || password.isEmpty() ? null : password);
+        log.debug("Opened SMTP connection to {}:{}", sender.getHost(), sender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    /**
+     * Same preparation as {@link JavaMailSenderImpl#send(MimeMessage...)}, on a connection we keep.
+     */
+    private static void sendMessage(Transport transport, MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            // saveChanges() assigns a new id; keep one the caller set
+            message.setHeader(HEADER_MESSAGE_ID, messageId);
+        }
+        Address[] addresses = message.getAllRecipients();
+        transport.sendMessage(message, addresses != null ? addresses : new Address[0]);
+    }
+
+    private void release(PooledTransport pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (pooled.sent >= messagesPerConnection) {
+            close(pooled);
+            return;
+        }
+        pooled.idleSince = System.currentTimeMillis();
+        idle.offerFirst(pooled);
+    }
+
+    /**
+     * Close connections that have been idle for longer than {@code max-idle-ms}.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.email.max-idle-ms:30000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - maxIdleMillis;
+        Iterator<PooledTransport> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledTransport pooled = it.next();
+            if (pooled.idleSince < cutoff && idle.remove(pooled)) {
+                close(pooled);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private static void close(PooledTransport pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private int sent;
+        private long idleSince;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -2,30 +2,71 @@ package com.gymmate.notification.infrastructure;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gymmate.notification.domain.Notification;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Registry for managing SSE (Server-Sent Events) connections.
  * Maintains active connections per organisation and user for real-time
  * notifications.
+ *
+ * Notifications are delivered to this node's connections and published on a Redis channel;
+ * every other node delivers them to its own connections, so a user receives a notification
+ * whichever node holds their stream. Email status events without a local listener are relayed
+ * the same way, since the node sending an email is rarely the one holding the client's stream.
+ *
+ * Each connection has a bounded send queue drained on a small sender pool, so callers only
+ * enqueue and a slow client never holds up the publisher or other clients. A heartbeat is
+ * skipped while other frames are pending, and a queue that overflows is collapsed into a single
+ * {@code resync} event telling the client to reload its notifications over REST.
+ *
+ * A notification is encoded into its SSE wire bytes once and the same frame is queued for every
+ * recipient. Heartbeats run on a time wheel: each connection is assigned one of
+ * {@code heartbeat-interval-ms / heartbeat-tick-ms} slots and every tick visits a single slot,
+ * so the work of a full heartbeat round is spread evenly across the interval.
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
-public class SseEmitterRegistry {
+public class SseEmitterRegistry implements MessageListener {
+
+    static final String CHANNEL = "notification:sse";
 
     private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int sendQueueCapacity;
+    private final ExecutorService sender;
+    private final long heartbeatIntervalMs;
+
+    // Heartbeat time wheel: slot -> connections visited on that tick
+    private final List<Set<ConnectionInfo>> heartbeatWheel;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicInteger tick = new AtomicInteger();
+
+    // Identifies this node's own messages on the channel
+    private final String nodeId = UUID.randomUUID().toString();
 
-    // Map: organisationId -> (userId -> SseEmitter) — for authenticated
+    // Map: organisationId -> (userId -> connection) — for authenticated
     // notification streams
     private final Map<UUID, Map<UUID, ConnectionInfo>> connections = new ConcurrentHashMap<>();
 
@@ -34,6 +75,42 @@ public class SseEmitterRegistry {
     private final Map<String, SseEmitter> emailStatusEmitters = new ConcurrentHashMap<>();
 
     private static final long EMAIL_STATUS_TIMEOUT = 60_000L; // 60 seconds
+    private static final long STALE_AFTER_MS = 5 * 60_000L; // 5 minutes without a successful send
+
+    public SseEmitterRegistry(ObjectMapper objectMapper,
+                              StringRedisTemplate stringRedisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${app.notification.sse.send-queue-capacity:64}") int sendQueueCapacity,
+                              @Value("${app.notification.sse.sender-threads:4}") int senderThreads,
+                              @Value("${app.notification.sse.heartbeat-interval-ms:30000}") long heartbeatIntervalMs,
+                              @Value("${app.notification.sse.heartbeat-tick-ms:1000}") long heartbeatTickMs) {
+        this.objectMapper = objectMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.sendQueueCapacity = sendQueueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        int slots = (int) Math.max(1, heartbeatIntervalMs / heartbeatTickMs);
+        this.heartbeatWheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            heartbeatWheel.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
 
     /**
      * Register a new SSE connection for a user.
@@ -44,108 +121,141 @@ public class SseEmitterRegistry {
      * @return configured SseEmitter
      */
     public SseEmitter registerConnection(UUID organisationId, UUID userId, long timeout) {
-        SseEmitter emitter = new SseEmitter(timeout);
+        return register(organisationId, userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter register(UUID organisationId, UUID userId, SseEmitter emitter) {
+        int slot = Math.floorMod(nextSlot.getAndIncrement(), heartbeatWheel.size());
+        ConnectionInfo info = new ConnectionInfo(organisationId, userId, emitter, slot);
 
         // Handle completion and timeout
-        emitter.onCompletion(() -> removeConnection(organisationId, userId));
+        emitter.onCompletion(() -> removeConnection(info));
         emitter.onTimeout(() -> {
             log.debug("SSE connection timed out for user {} in organisation {}", userId, organisationId);
-            removeConnection(organisationId, userId);
+            removeConnection(info);
         });
         emitter.onError(throwable -> {
             log.error("SSE error for user {} in organisation {}: {}", userId, organisationId, throwable.getMessage());
-            removeConnection(organisationId, userId);
+            removeConnection(info);
         });
 
         // Store connection
         connections.computeIfAbsent(organisationId, k -> new ConcurrentHashMap<>())
-                .put(userId, new ConnectionInfo(emitter, LocalDateTime.now()));
+                .put(userId, info);
+        heartbeatWheel.get(slot).add(info);
 
         log.info("Registered SSE connection for user {} in organisation {}", userId, organisationId);
 
         // Send initial heartbeat
-        sendHeartbeat(emitter, userId);
+        info.offer(Frame.HEARTBEAT);
 
         return emitter;
     }
 
     /**
-     * Remove a connection.
+     * Remove a connection, unless the user has since opened a newer one.
      */
-    private void removeConnection(UUID organisationId, UUID userId) {
-        Map<UUID, ConnectionInfo> orgConnections = connections.get(organisationId);
-        if (orgConnections != null) {
-            orgConnections.remove(userId);
+    private void removeConnection(ConnectionInfo info) {
+        heartbeatWheel.get(info.slot).remove(info);
+        Map<UUID, ConnectionInfo> orgConnections = connections.get(info.organisationId);
+        if (orgConnections != null && orgConnections.remove(info.userId, info)) {
             if (orgConnections.isEmpty()) {
-                connections.remove(organisationId);
+                connections.remove(info.organisationId, orgConnections);
             }
+            log.info("Removed SSE connection for user {} in organisation {}", info.userId, info.organisationId);
         }
-        log.info("Removed SSE connection for user {} in organisation {}", userId, organisationId);
     }
 
     /**
-     * Send notification to all connected users in an organisation.
+     * Send notification to all connected users in an organisation, on every node.
      *
-     * @return true if at least one user received the notification
+     * @return true if the notification was queued for a connection on this node; other nodes
+     *         deliver to their own connections, which is not reflected here
      */
     public boolean sendToOrganisation(UUID organisationId, Notification notification) {
-        Map<UUID, ConnectionInfo> orgConnections = connections.get(organisationId);
-        if (orgConnections == null || orgConnections.isEmpty()) {
+        String data = encode(notification);
+        if (data == null) {
             return false;
         }
+        publish(new ClusterMessage(nodeId, organisationId, null, data, null));
+        return deliverLocal(organisationId, null, Frame.notification(data));
+    }
 
-        boolean sentToAny = false;
-        for (Map.Entry<UUID, ConnectionInfo> entry : orgConnections.entrySet()) {
-            UUID userId = entry.getKey();
-            ConnectionInfo info = entry.getValue();
-
-            try {
-                sendNotification(info.emitter, notification);
-                info.updateLastActivity();
-                sentToAny = true;
-                log.debug("Sent notification {} to user {} in organisation {}",
-                        notification.getId(), userId, organisationId);
-            } catch (Exception e) {
-                log.warn("Failed to send notification to user {}: {}", userId, e.getMessage());
-                removeConnection(organisationId, userId);
-            }
+    /**
+     * Send notification to a specific user, on whichever node holds their connection.
+     *
+     * @return true if the notification was queued for the user on this node; a connection
+     *         held by another node is not reflected here
+     */
+    public boolean sendToUser(UUID organisationId, UUID userId, Notification notification) {
+        String data = encode(notification);
+        if (data == null) {
+            return false;
         }
+        publish(new ClusterMessage(nodeId, organisationId, userId, data, null));
+        return deliverLocal(organisationId, userId, Frame.notification(data));
+    }
 
-        return sentToAny;
+    /**
+     * Notifications and email status events published by other nodes.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ClusterMessage clusterMessage = objectMapper.readValue(message.getBody(), ClusterMessage.class);
+            if (nodeId.equals(clusterMessage.origin())) {
+                return;
+            }
+            EmailStatus emailStatus = clusterMessage.emailStatus();
+            if (emailStatus != null) {
+                deliverEmailStatusLocal(emailStatus.userId(), emailStatus.status(), emailStatus.message());
+            } else {
+                deliverLocal(clusterMessage.organisationId(), clusterMessage.userId(),
+                        Frame.notification(clusterMessage.data()));
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring malformed SSE cluster message: {}", e.getMessage());
+        }
     }
 
     /**
-     * Send notification to a specific user.
-     *
-     * @return true if the notification was sent
+     * Queue a notification frame for this node's connections in the organisation, or only the
+     * given user's when {@code userId} is set.
      */
-    public boolean sendToUser(UUID organisationId, UUID userId, Notification notification) {
+    private boolean deliverLocal(UUID organisationId, UUID userId, Frame frame) {
         Map<UUID, ConnectionInfo> orgConnections = connections.get(organisationId);
-        if (orgConnections == null) {
+        if (orgConnections == null || orgConnections.isEmpty()) {
             return false;
         }
 
-        ConnectionInfo info = orgConnections.get(userId);
-        if (info == null) {
-            return false;
+        if (userId != null) {
+            ConnectionInfo info = orgConnections.get(userId);
+            return info != null && info.offer(frame);
+        }
+
+        boolean queuedForAny = false;
+        for (ConnectionInfo info : orgConnections.values()) {
+            queuedForAny |= info.offer(frame);
         }
+        return queuedForAny;
+    }
 
+    /**
+     * Hand the message to the other nodes. A Redis subscriber count says nothing about whether
+     * any of them holds a matching connection, so it is not reported as delivery.
+     */
+    private void publish(ClusterMessage clusterMessage) {
         try {
-            sendNotification(info.emitter, notification);
-            info.updateLastActivity();
-            log.debug("Sent notification {} to user {}", notification.getId(), userId);
-            return true;
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(clusterMessage));
         } catch (Exception e) {
-            log.warn("Failed to send notification to user {}: {}", userId, e.getMessage());
-            removeConnection(organisationId, userId);
-            return false;
+            log.warn("Failed to publish notification to other nodes: {}", e.getMessage());
         }
     }
 
     /**
-     * Send notification data via SSE.
+     * Encode the notification as the SSE event payload.
      */
-    private void sendNotification(SseEmitter emitter, Notification notification) throws IOException {
+    private String encode(Notification notification) {
         Map<String, Object> eventData = new HashMap<>();
         eventData.put("id", notification.getId());
         eventData.put("title", notification.getTitle());
@@ -155,61 +265,39 @@ public class SseEmitterRegistry {
         eventData.put("metadata", notification.getMetadata());
         eventData.put("createdAt", notification.getCreatedAt());
 
-        emitter.send(SseEmitter.event()
-                .name("notification")
-                .data(objectMapper.writeValueAsString(eventData)));
-    }
-
-    /**
-     * Send heartbeat to keep connection alive.
-     */
-    private void sendHeartbeat(SseEmitter emitter, UUID userId) {
         try {
-            emitter.send(SseEmitter.event()
-                    .name("heartbeat")
-                    .data("ping"));
-            log.trace("Sent heartbeat to user {}", userId);
+            return objectMapper.writeValueAsString(eventData);
         } catch (IOException e) {
-            log.debug("Failed to send heartbeat to user {}: {}", userId, e.getMessage());
+            log.error("Failed to encode notification {}: {}", notification.getId(), e.getMessage());
+            return null;
         }
     }
 
     /**
      * Scheduled task to send heartbeats and clean up stale connections.
-     * Runs every 30 seconds.
+     * Each tick visits one slot of the heartbeat wheel, so every connection is
+     * visited once per heartbeat interval.
      */
-    @Scheduled(fixedRate = 30000)
+    @Scheduled(fixedRateString = "${app.notification.sse.heartbeat-tick-ms:1000}")
     public void sendHeartbeats() {
-        LocalDateTime staleThreshold = LocalDateTime.now().minusMinutes(5);
-        List<ConnectionToRemove> staleConnections = new ArrayList<>();
-
-        for (Map.Entry<UUID, Map<UUID, ConnectionInfo>> orgEntry : connections.entrySet()) {
-            UUID organisationId = orgEntry.getKey();
-            Map<UUID, ConnectionInfo> orgConnections = orgEntry.getValue();
-
-            for (Map.Entry<UUID, ConnectionInfo> userEntry : orgConnections.entrySet()) {
-                UUID userId = userEntry.getKey();
-                ConnectionInfo info = userEntry.getValue();
-
-                // Check if connection is stale
-                if (info.lastActivity.isBefore(staleThreshold)) {
-                    log.info("Marking stale connection for removal: user {} in org {}", userId, organisationId);
-                    staleConnections.add(new ConnectionToRemove(organisationId, userId));
-                    continue;
-                }
-
-                // Send heartbeat
-                sendHeartbeat(info.emitter, userId);
+        int slot = Math.floorMod(tick.getAndIncrement(), heartbeatWheel.size());
+        long now = System.currentTimeMillis();
+
+        for (ConnectionInfo info : heartbeatWheel.get(slot)) {
+            long idleMs = now - info.lastActivity;
+            if (idleMs > STALE_AFTER_MS) {
+                log.info("Removing stale connection: user {} in org {}", info.userId, info.organisationId);
+                removeConnection(info);
+                info.emitter.complete();
+            } else if (idleMs >= heartbeatIntervalMs / 2) {
+                // Connections that received a notification recently are already kept alive
+                info.offer(Frame.HEARTBEAT);
             }
         }
 
-        // Remove stale connections
-        staleConnections.forEach(conn -> removeConnection(conn.organisationId, conn.userId));
-
-        if (!connections.isEmpty()) {
+        if (slot == 0 && !connections.isEmpty()) {
             log.debug("Active SSE connections: {} organisations, {} total users",
-                    connections.size(),
-                    connections.values().stream().mapToInt(Map::size).sum());
+                    connections.size(), getTotalConnectionCount());
         }
     }
 
@@ -238,14 +326,16 @@ public class SseEmitterRegistry {
      * @return configured SseEmitter
      */
     public SseEmitter createEmailStatusEmitter(String userId) {
+        return registerEmailStatus(userId, new SseEmitter(EMAIL_STATUS_TIMEOUT));
+    }
+
+    SseEmitter registerEmailStatus(String userId, SseEmitter emitter) {
         // Complete any existing emitter for this user
         SseEmitter existing = emailStatusEmitters.remove(userId);
         if (existing != null) {
             existing.complete();
         }
 
-        SseEmitter emitter = new SseEmitter(EMAIL_STATUS_TIMEOUT);
-
         emitter.onCompletion(() -> {
             log.debug("Email status SSE completed for userId: {}", userId);
             emailStatusEmitters.remove(userId);
@@ -266,17 +356,27 @@ public class SseEmitterRegistry {
     }
 
     /**
-     * Send an email delivery status event to a client.
+     * Send an email delivery status event to a client, on whichever node holds its stream.
+     * The event is published to the other nodes only when no stream for the user is open here.
      *
      * @param userId  the user to notify
      * @param status  "SENDING", "SENT", or "FAILED"
      * @param message a human-readable message
      */
     public void sendEmailStatus(String userId, String status, String message) {
+        if (!deliverEmailStatusLocal(userId, status, message)) {
+            publish(new ClusterMessage(nodeId, null, null, null, new EmailStatus(userId, status, message)));
+        }
+    }
+
+    /**
+     * @return false if no email status stream for the user is open on this node
+     */
+    private boolean deliverEmailStatusLocal(String userId, String status, String message) {
         SseEmitter emitter = emailStatusEmitters.get(userId);
         if (emitter == null) {
-            log.debug("No email status SSE emitter for userId: {} — client may not be listening", userId);
-            return;
+            log.debug("No email status SSE emitter for userId: {} on this node", userId);
+            return false;
         }
 
         try {
@@ -297,28 +397,122 @@ public class SseEmitterRegistry {
             log.warn("Failed to send email status SSE to userId: {} — client likely disconnected", userId);
             emailStatusEmitters.remove(userId);
         }
+        return true;
     }
 
     /**
-     * Internal class to track connection info.
+     * A connection and its send queue. At most one drain task per connection runs at a time,
+     * so frames reach the client in the order they were queued. Most connections sit idle, so
+     * the queue is only allocated while frames are pending.
      */
-    private static class ConnectionInfo {
+    private final class ConnectionInfo {
+        final UUID organisationId;
+        final UUID userId;
         final SseEmitter emitter;
-        LocalDateTime lastActivity;
+        final int slot;
+        // Epoch millis of the last successful send
+        volatile long lastActivity = System.currentTimeMillis();
+
+        // Guarded by this
+        private ArrayDeque<Frame> queue;
+        private boolean draining;
 
-        ConnectionInfo(SseEmitter emitter, LocalDateTime lastActivity) {
+        ConnectionInfo(UUID organisationId, UUID userId, SseEmitter emitter, int slot) {
+            this.organisationId = organisationId;
+            this.userId = userId;
             this.emitter = emitter;
-            this.lastActivity = lastActivity;
+            this.slot = slot;
         }
 
-        void updateLastActivity() {
-            this.lastActivity = LocalDateTime.now();
+        /**
+         * Queue a frame without blocking.
+         *
+         * @return false if the frame was dropped as redundant
+         */
+        boolean offer(Frame frame) {
+            synchronized (this) {
+                if (frame == Frame.HEARTBEAT && draining) {
+                    // Anything already on its way keeps the connection alive
+                    return false;
+                }
+                if (queue == null) {
+                    queue = new ArrayDeque<>(4);
+                }
+                if (queue.peekFirst() == Frame.RESYNC) {
+                    // The client reloads everything once the pending resync reaches it
+                    return true;
+                }
+                if (queue.size() >= sendQueueCapacity) {
+                    log.warn("SSE send queue full for user {} in organisation {}, asking client to resync",
+                            userId, organisationId);
+                    queue.clear();
+                    queue.add(Frame.RESYNC);
+                } else {
+                    queue.add(frame);
+                }
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            sender.execute(this::drain);
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                Frame frame;
+                synchronized (this) {
+                    frame = queue.poll();
+                    if (frame == null) {
+                        queue = null;
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(frame.items());
+                    lastActivity = System.currentTimeMillis();
+                } catch (Exception e) {
+                    log.debug("Failed to send SSE frame to user {}: {}", userId, e.getMessage());
+                    synchronized (this) {
+                        queue = null;
+                        draining = false;
+                    }
+                    removeConnection(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued SSE event, encoded once into its wire bytes and shared by every recipient.
+     */
+    private record Frame(Set<DataWithMediaType> items) {
+
+        static final Frame HEARTBEAT = of("heartbeat", "ping");
+        static final Frame RESYNC = of("resync", "{}");
+
+        static Frame notification(String data) {
+            return of("notification", data);
+        }
+
+        private static Frame of(String name, String data) {
+            String event = "event:" + name + "\ndata:" + data.replace("\n", "\ndata:") + "\n\n";
+            byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+            return new Frame(Set.of(new DataWithMediaType(bytes, MediaType.TEXT_PLAIN)));
         }
     }
 
     /**
-     * Helper record for tracking connections to remove.
+     * Event relayed between nodes: a notification, or an email status when {@code emailStatus}
+     * is set. {@code userId} is null for organisation-wide notifications.
      */
-    private record ConnectionToRemove(UUID organisationId, UUID userId) {
+    record ClusterMessage(String origin, UUID organisationId, UUID userId, String data, EmailStatus emailStatus) {
+    }
+
+    record EmailStatus(String userId, String status, String message) {
     }
 }
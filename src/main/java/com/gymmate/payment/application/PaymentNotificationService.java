@@ -2,19 +2,16 @@ package com.gymmate.payment.application;
 
 import com.gymmate.gym.domain.Gym;
 import com.gymmate.gym.infrastructure.GymRepository;
+import com.gymmate.notification.application.EmailService;
 import com.gymmate.organisation.domain.Organisation;
 import com.gymmate.organisation.infrastructure.OrganisationRepository;
 import com.gymmate.payment.domain.GymInvoice;
 import com.gymmate.subscription.domain.Subscription;
 import com.gymmate.user.domain.User;
 import com.gymmate.user.infrastructure.UserRepository;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -33,14 +30,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PaymentNotificationService {
 
-    private final JavaMailSender emailSender;
+    private final EmailService emailService;
     private final GymRepository gymRepository;
     private final OrganisationRepository organisationRepository;
     private final UserRepository userRepository;
 
-    @Value("${spring.mail.from:no-reply@gymmatehub.com}")
-    private String fromEmail;
-
     @Value("${app.frontend-url:http://localhost:3000}")
     private String frontendUrl;
 
@@ -197,16 +191,8 @@ public class PaymentNotificationService {
 
     private void sendEmail(String to, String subject, String htmlContent) {
         try {
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            emailSender.send(message);
-        } catch (MessagingException e) {
+            emailService.sendHtmlEmail(to, subject, htmlContent);
+        } catch (Exception e) {
             log.error("Failed to send email to {}: {}", to, e.getMessage());
         }
     }
@@ -2,6 +2,7 @@ package com.gymmate.pos.application;
 
 import com.gymmate.inventory.application.InventoryService;
 import com.gymmate.inventory.domain.InventoryItem;
+import com.gymmate.inventory.domain.StockSaleLine;
 import com.gymmate.pos.api.dto.CreateSaleRequest;
 import com.gymmate.pos.api.dto.SaleItemRequest;
 import com.gymmate.pos.domain.*;
@@ -17,11 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Application service for POS (Point of Sale) operations.
@@ -35,8 +34,7 @@ public class PosService {
     private final SaleItemJpaRepository saleItemRepository;
     private final CashDrawerJpaRepository cashDrawerRepository;
     private final InventoryService inventoryService;
-
-    private static final AtomicLong saleCounter = new AtomicLong(System.currentTimeMillis());
+    private final SaleNumberAllocator saleNumberAllocator;
 
     // ===== SALE OPERATIONS =====
 
@@ -48,7 +46,7 @@ public class PosService {
         log.info("Creating new sale for gym: {}", request.gymId());
 
         Sale sale = Sale.builder()
-                .saleNumber(generateSaleNumber())
+                .saleNumber(saleNumberAllocator.nextSaleNumber(request.gymId()))
                 .memberId(request.memberId())
                 .customerName(request.customerName())
                 .staffId(staffId)
@@ -105,22 +103,16 @@ public class PosService {
 
         sale.complete(paymentType, amountPaid);
 
-        // Update inventory for each sold item
-        for (SaleItem item : sale.getItems()) {
-            if (item.getInventoryItemId() != null) {
-                try {
-                    inventoryService.recordSale(
-                            item.getInventoryItemId(),
-                            item.getQuantity(),
-                            item.getUnitPrice(),
-                            sale.getMemberId(),
-                            sale.getSaleNumber(),
-                            "POS Sale: " + sale.getSaleNumber());
-                } catch (Exception e) {
-                    log.warn("Failed to update inventory for item {}: {}", item.getInventoryItemId(), e.getMessage());
-                }
-            }
-        }
+        // Take the whole basket out of stock; a short item fails the sale
+        List<StockSaleLine> stockLines = sale.getItems().stream()
+                .filter(item -> item.getInventoryItemId() != null)
+                .map(item -> new StockSaleLine(item.getInventoryItemId(), item.getQuantity(), item.getUnitPrice()))
+                .toList();
+        inventoryService.recordSales(
+                stockLines,
+                sale.getMemberId(),
+                sale.getSaleNumber(),
+                "POS Sale: " + sale.getSaleNumber());
 
         // Update cash drawer if it's a cash sale
         if (paymentType == PaymentType.CASH) {
@@ -231,8 +223,8 @@ public class PosService {
                 .orElseThrow(() -> new ResourceNotFoundException("Sale", id.toString()));
     }
 
-    public Optional<Sale> getSaleBySaleNumber(String saleNumber) {
-        return saleRepository.findBySaleNumber(saleNumber);
+    public Optional<Sale> getSaleBySaleNumber(UUID gymId, String saleNumber) {
+        return saleRepository.findByGymIdAndSaleNumber(gymId, saleNumber);
     }
 
     public List<Sale> getSalesByGym(UUID gymId) {
@@ -329,41 +321,39 @@ public class PosService {
      * Get sales summary for a gym and date range.
      */
     public PosSalesSummary getSalesSummary(UUID gymId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Sale> sales = saleRepository.findByGymIdAndDateRange(gymId, startDate, endDate);
-
         BigDecimal totalRevenue = BigDecimal.ZERO;
         BigDecimal totalRefunds = BigDecimal.ZERO;
         BigDecimal totalDiscounts = BigDecimal.ZERO;
         BigDecimal totalTax = BigDecimal.ZERO;
+        int totalSales = 0;
         int completedCount = 0;
         int refundedCount = 0;
         int cancelledCount = 0;
         int totalItemsSold = 0;
 
-        for (Sale sale : sales) {
-            if (sale.getStatus() == SaleStatus.COMPLETED) {
-                completedCount++;
-                totalRevenue = totalRevenue.add(sale.getTotalAmount());
-                totalItemsSold += sale.getTotalItemCount();
-            } else if (sale.getStatus() == SaleStatus.REFUNDED || sale.getStatus() == SaleStatus.PARTIALLY_REFUNDED) {
-                refundedCount++;
-                if (sale.getRefundedAmount() != null) {
-                    totalRefunds = totalRefunds.add(sale.getRefundedAmount());
-                }
-            } else if (sale.getStatus() == SaleStatus.CANCELLED) {
-                cancelledCount++;
+        // One row per status, aggregated in the database
+        for (Object[] row : saleRepository.summarizeByStatusAndDateRange(gymId, startDate, endDate)) {
+            SaleStatus status = SaleStatus.valueOf((String) row[0]);
+            int count = ((Number) row[1]).intValue();
+            totalSales += count;
+
+            if (status == SaleStatus.COMPLETED) {
+                completedCount += count;
+                totalRevenue = totalRevenue.add(toBigDecimal(row[2]));
+                totalItemsSold += ((Number) row[6]).intValue();
+            } else if (status == SaleStatus.REFUNDED || status == SaleStatus.PARTIALLY_REFUNDED) {
+                refundedCount += count;
+                totalRefunds = totalRefunds.add(toBigDecimal(row[3]));
+            } else if (status == SaleStatus.CANCELLED) {
+                cancelledCount += count;
             }
 
-            if (sale.getDiscountAmount() != null) {
-                totalDiscounts = totalDiscounts.add(sale.getDiscountAmount());
-            }
-            if (sale.getTaxAmount() != null) {
-                totalTax = totalTax.add(sale.getTaxAmount());
-            }
+            totalDiscounts = totalDiscounts.add(toBigDecimal(row[4]));
+            totalTax = totalTax.add(toBigDecimal(row[5]));
         }
 
         return new PosSalesSummary(
-                sales.size(),
+                totalSales,
                 completedCount,
                 refundedCount,
                 cancelledCount,
@@ -384,12 +374,6 @@ public class PosService {
 
     // ===== HELPER METHODS =====
 
-    private String generateSaleNumber() {
-        String datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long counter = saleCounter.incrementAndGet();
-        return "POS_SALE-" + datePrefix + "-" + String.format("%06d", counter % 1000000);
-    }
-
     private SaleItem createSaleItem(SaleItemRequest request, Sale sale) {
         SaleItem item = SaleItem.builder()
                 .inventoryItemId(request.inventoryItemId())
@@ -429,18 +413,18 @@ public class PosService {
     }
 
     private void updateCashDrawerForSale(UUID gymId, BigDecimal amount, boolean isRefund) {
-        Optional<CashDrawer> openDrawer = cashDrawerRepository.findOpenDrawerByGymId(gymId);
-        if (openDrawer.isPresent()) {
-            CashDrawer drawer = openDrawer.get();
-            if (isRefund) {
-                drawer.addRefund(amount);
-            } else {
-                drawer.addCashSale(amount);
-            }
-            cashDrawerRepository.save(drawer);
+        // Closing a drawer reads these running totals, so it never has to revisit the day's sales
+        if (isRefund) {
+            cashDrawerRepository.addRefundToOpenDrawer(gymId, amount);
+        } else {
+            cashDrawerRepository.addCashSaleToOpenDrawer(gymId, amount);
         }
     }
 
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
     // Summary record
     public record PosSalesSummary(
             int totalSales,
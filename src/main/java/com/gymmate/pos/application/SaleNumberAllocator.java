@@ -0,0 +1,116 @@
+package com.gymmate.pos.application;
+
+import com.gymmate.pos.infrastructure.SaleNumberBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out POS sale numbers, sequential per gym and day, hi/lo style.
+ *
+ * Each node leases a block of {@code block-size} numbers for a gym and day from the database
+ * and serves them from memory, so a sale only touches the database once per block. Blocks are
+ * leased in their own transaction: a rolled-back sale never returns its block, so no number is
+ * ever issued twice. Numbers left unused in a block (on restart, or from another node's block)
+ * show up as gaps.
+ */
+@Slf4j
+@Component
+public class SaleNumberAllocator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final SaleNumberBlockRepository blockRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final int blockSize;
+
+    private final Map<SequenceKey, Block> blocks = new ConcurrentHashMap<>();
+    // A lock rather than a monitor: the lease is a database round trip, and a virtual thread
+    // blocked inside synchronized would pin its carrier thread for the duration
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public SaleNumberAllocator(SaleNumberBlockRepository blockRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.pos.sale-number.block-size:50}") int blockSize) {
+        this.blockRepository = blockRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Next sale number for the gym, e.g. {@code POS_SALE-20250114-000042}.
+     */
+    public String nextSaleNumber(UUID gymId) {
+        LocalDate today = LocalDate.now();
+        return "POS_SALE-" + today.format(DATE_FORMAT) + "-" + String.format("%06d", nextValue(gymId, today));
+    }
+
+    long nextValue(UUID gymId, LocalDate day) {
+        SequenceKey key = new SequenceKey(gymId, day);
+        Block block = blocks.get(key);
+        long value;
+        while (block == null || (value = block.take()) < 0) {
+            block = refill(key, block);
+        }
+        return value;
+    }
+
+    /**
+     * Replace an exhausted (or missing) block, unless another thread already has.
+     */
+    private Block refill(SequenceKey key, Block exhausted) {
+        refillLock.lock();
+        try {
+            Block current = blocks.get(key);
+            if (current != null && current != exhausted) {
+                return current;
+            }
+
+            Long first = leaseTransaction.execute(
+                    status -> blockRepository.reserve(key.gymId(), key.day(), blockSize));
+            Block fresh = new Block(first, first + blockSize);
+            blocks.put(key, fresh);
+            // Blocks for earlier days are never drawn from again
+            blocks.keySet().removeIf(other -> other.day().isBefore(key.day()));
+
+            log.debug("Leased sale numbers {}-{} for gym {} on {}", first, fresh.end - 1, key.gymId(), key.day());
+            return fresh;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private record SequenceKey(UUID gymId, LocalDate day) {
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+
+        /**
+         * @return the next number in the block, or -1 once it is used up
+         */
+        long take() {
+            long value = next.getAndIncrement();
+            return value < end ? value : -1;
+        }
+    }
+}
@@ -20,13 +20,15 @@ import java.util.UUID;
 @Entity
 @EqualsAndHashCode(callSuper = true)
 @Builder
-@Table(name = "pos_sales")
+@Table(name = "pos_sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_pos_sales_gym_sale_number", columnNames = {"gym_id", "sale_number"})
+})
 public class Sale extends GymScopedEntity {
 
     // Note: gymId is inherited from GymScopedEntity
     // Note: organisationId is inherited from TenantEntity (via GymScopedEntity)
 
-    @Column(name = "sale_number", nullable = false, unique = true, length = 50)
+    @Column(name = "sale_number", nullable = false, length = 50)
     private String saleNumber;
 
     @Column(name = "member_id")
@@ -2,10 +2,12 @@ package com.gymmate.pos.infrastructure;
 
 import com.gymmate.pos.domain.CashDrawer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -32,4 +34,16 @@ public interface CashDrawerJpaRepository extends JpaRepository<CashDrawer, UUID>
 
     @Query("SELECT cd FROM CashDrawer cd WHERE cd.gymId = :gymId AND cd.openedBy = :staffId AND cd.open = true")
     Optional<CashDrawer> findOpenDrawerByGymIdAndStaffId(@Param("gymId") UUID gymId, @Param("staffId") UUID staffId);
+
+    // Running totals are incremented in place so concurrent sales on one drawer are not lost
+
+    @Modifying
+    @Query("UPDATE CashDrawer cd SET cd.totalCashSales = COALESCE(cd.totalCashSales, 0) + :amount, " +
+            "cd.transactionCount = COALESCE(cd.transactionCount, 0) + 1 WHERE cd.gymId = :gymId AND cd.open = true")
+    int addCashSaleToOpenDrawer(@Param("gymId") UUID gymId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE CashDrawer cd SET cd.totalRefunds = COALESCE(cd.totalRefunds, 0) + :amount " +
+            "WHERE cd.gymId = :gymId AND cd.open = true")
+    int addRefundToOpenDrawer(@Param("gymId") UUID gymId, @Param("amount") BigDecimal amount);
 }
@@ -19,7 +19,7 @@ import java.util.UUID;
 @Repository
 public interface SaleJpaRepository extends JpaRepository<Sale, UUID> {
 
-    Optional<Sale> findBySaleNumber(String saleNumber);
+    Optional<Sale> findByGymIdAndSaleNumber(UUID gymId, String saleNumber);
 
     List<Sale> findByGymId(UUID gymId);
 
@@ -55,4 +55,25 @@ public interface SaleJpaRepository extends JpaRepository<Sale, UUID> {
     List<Object[]> sumTotalByPaymentTypeAndDateRange(@Param("gymId") UUID gymId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * One row per sale status: status, sale count, total amount, refunded amount,
+     * discount amount, tax amount and items sold.
+     */
+    @Query(value = """
+            SELECT s.status,
+                   COUNT(*),
+                   COALESCE(SUM(s.total_amount), 0),
+                   COALESCE(SUM(s.refunded_amount), 0),
+                   COALESCE(SUM(s.discount_amount), 0),
+                   COALESCE(SUM(s.tax_amount), 0),
+                   COALESCE(SUM(i.quantity), 0)
+            FROM pos_sales s
+            LEFT JOIN LATERAL (SELECT SUM(quantity) AS quantity FROM pos_sale_items WHERE sale_id = s.id) i ON TRUE
+            WHERE s.gym_id = :gymId AND s.sale_date BETWEEN :startDate AND :endDate
+            GROUP BY s.status
+            """, nativeQuery = true)
+    List<Object[]> summarizeByStatusAndDateRange(@Param("gymId") UUID gymId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
 }
@@ -0,0 +1,44 @@
+package com.gymmate.pos.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Leases blocks of POS sale numbers per gym and day (see V18 migration).
+ */
+@Repository
+@RequiredArgsConstructor
+public class SaleNumberBlockRepository {
+
+    // Returns the first number of the block; the row is locked until the caller commits
+    private static final String RESERVE_SQL = """
+            INSERT INTO pos_sale_number_blocks (gym_id, sale_day, next_value)
+            VALUES (:gymId, :saleDay, 1 + :size)
+            ON CONFLICT (gym_id, sale_day)
+            DO UPDATE SET next_value = pos_sale_number_blocks.next_value + :size
+            RETURNING next_value - :size
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve {@code size} consecutive sale numbers for a gym and day.
+     *
+     * @return the first reserved number
+     */
+    public long reserve(UUID gymId, LocalDate saleDay, int size) {
+        Long first = jdbcTemplate.queryForObject(RESERVE_SQL, new MapSqlParameterSource()
+                .addValue("gymId", gymId)
+                .addValue("saleDay", saleDay)
+                .addValue("size", size), Long.class);
+        if (first == null) {
+            throw new IllegalStateException("No sale number block returned for gym " + gymId);
+        }
+        return first;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gymmate.shared.batch;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A nightly job run by {@link BatchJobRunner}: work is split into partitions (typically gyms),
+ * and each partition is read in keyset-ordered chunks of item ids.
+ *
+ * Items must drop out of {@link #nextChunk} once processed, or at least never sort before
+ * {@code afterId}, so that a resumed run does not see them again.
+ */
+public interface BatchJob {
+
+    /**
+     * Unique, stable job name; used as the lock and checkpoint key.
+     */
+    String name();
+
+    /**
+     * Partitions with work for this run.
+     */
+    List<UUID> partitions(BatchRun run);
+
+    /**
+     * Up to {@code limit} item ids of the partition, in id order, after {@code afterId}
+     * (null for the start).
+     */
+    List<UUID> nextChunk(BatchRun run, UUID partitionId, UUID afterId, int limit);
+
+    /**
+     * Process one item. Runs inside the chunk's transaction; throwing rolls the chunk back,
+     * after which its items are retried one transaction each.
+     */
+    void process(BatchRun run, UUID itemId);
+
+    /**
+     * Called in a fresh transaction when an item failed on its own.
+     */
+    default void onItemFailure(BatchRun run, UUID itemId, Exception failure) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.gymmate.shared.batch;
+
+import java.time.Duration;
+
+/**
+ * Outcome of the part of a run executed by this node.
+ */
+public record BatchJobReport(String jobName, String runKey, int partitions, long processed, long failed,
+                             Duration elapsed) {
+
+    public double itemsPerSecond() {
+        long millis = Math.max(elapsed.toMillis(), 1);
+        return (processed + failed) * 1000.0 / millis;
+    }
+}
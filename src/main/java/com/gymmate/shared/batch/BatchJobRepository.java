@@ -0,0 +1,161 @@
+package com.gymmate.shared.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC access for batch job runs (see V19 migration): the cluster-wide run lease and the
+ * per-partition chunk checkpoints.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BatchJobRepository {
+
+    /*
+     * Inserts a new run, or takes over one that is still RUNNING but whose lease has lapsed.
+     * A live or COMPLETED run makes the upsert a no-op, which returns no row.
+     */
+    private static final String CLAIM_SQL = """
+            INSERT INTO batch_job_runs (job_name, run_key, status, locked_by, lock_until, started_at, updated_at)
+            VALUES (:jobName, :runKey, 'RUNNING', :owner, :until, :now, :now)
+            ON CONFLICT (job_name, run_key) DO UPDATE
+            SET locked_by = EXCLUDED.locked_by, lock_until = EXCLUDED.lock_until, updated_at = EXCLUDED.updated_at
+            WHERE batch_job_runs.status = 'RUNNING' AND batch_job_runs.lock_until < :now
+            RETURNING started_at
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE batch_job_runs SET lock_until = :until, updated_at = :now
+            WHERE job_name = :jobName AND run_key = :runKey AND locked_by = :owner AND status = 'RUNNING'
+            """;
+
+    private static final String SAVE_CHECKPOINT_SQL = """
+            INSERT INTO batch_job_checkpoints
+                (job_name, run_key, partition_id, last_item_id, items_processed, items_failed, completed, updated_at)
+            VALUES (:jobName, :runKey, :partitionId, :lastItemId, :processed, :failed, :completed, :now)
+            ON CONFLICT (job_name, run_key, partition_id) DO UPDATE
+            SET last_item_id = COALESCE(EXCLUDED.last_item_id, batch_job_checkpoints.last_item_id),
+                items_processed = batch_job_checkpoints.items_processed + EXCLUDED.items_processed,
+                items_failed = batch_job_checkpoints.items_failed + EXCLUDED.items_failed,
+                completed = EXCLUDED.completed,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE batch_job_runs r
+            SET status = 'COMPLETED', locked_by = NULL, lock_until = NULL, finished_at = :now, updated_at = :now,
+                items_processed = COALESCE(c.processed, 0), items_failed = COALESCE(c.failed, 0)
+            FROM (SELECT SUM(items_processed) AS processed, SUM(items_failed) AS failed
+                  FROM batch_job_checkpoints WHERE job_name = :jobName AND run_key = :runKey) c
+            WHERE r.job_name = :jobName AND r.run_key = :runKey AND r.locked_by = :owner
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Take the lease on a run, creating it on first use.
+     *
+     * @return the run's original start time, or empty if another node holds it or it is done
+     */
+    public Optional<LocalDateTime> claim(String jobName, String runKey, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> startedAt = jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource()
+                        .addValue("jobName", jobName)
+                        .addValue("runKey", runKey)
+                        .addValue("owner", owner)
+                        .addValue("until", Timestamp.valueOf(now.plus(lease)))
+                        .addValue("now", Timestamp.valueOf(now)),
+                (rs, rowNum) -> rs.getTimestamp("started_at").toLocalDateTime());
+        return startedAt.stream().findFirst();
+    }
+
+    /**
+     * Extend the lease.
+     *
+     * @return false if the lease was lost to another node
+     */
+    public boolean renew(String jobName, String runKey, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(RENEW_SQL, new MapSqlParameterSource()
+                .addValue("jobName", jobName)
+                .addValue("runKey", runKey)
+                .addValue("owner", owner)
+                .addValue("until", Timestamp.valueOf(now.plus(lease)))
+                .addValue("now", Timestamp.valueOf(now))) == 1;
+    }
+
+    /**
+     * Checkpoints of the run's partitions, keyed by partition id.
+     */
+    public Map<UUID, Checkpoint> findCheckpoints(String jobName, String runKey) {
+        return jdbcTemplate.query("""
+                        SELECT partition_id, last_item_id, completed FROM batch_job_checkpoints
+                        WHERE job_name = :jobName AND run_key = :runKey
+                        """, new MapSqlParameterSource()
+                        .addValue("jobName", jobName)
+                        .addValue("runKey", runKey),
+                (rs, rowNum) -> new Checkpoint(
+                        rs.getObject("partition_id", UUID.class),
+                        rs.getObject("last_item_id", UUID.class),
+                        rs.getBoolean("completed")))
+                .stream()
+                .collect(Collectors.toMap(Checkpoint::partitionId, checkpoint -> checkpoint));
+    }
+
+    /**
+     * Record a committed chunk: advance the partition's position and add the chunk's counts.
+     * Called inside the chunk's transaction, so the checkpoint commits together with the work.
+     */
+    public void saveCheckpoint(BatchRun run, UUID partitionId, UUID lastItemId, int processed, int failed,
+                               boolean completed) {
+        jdbcTemplate.update(SAVE_CHECKPOINT_SQL, new MapSqlParameterSource()
+                .addValue("jobName", run.jobName())
+                .addValue("runKey", run.runKey())
+                .addValue("partitionId", partitionId)
+                .addValue("lastItemId", lastItemId)
+                .addValue("processed", processed)
+                .addValue("failed", failed)
+                .addValue("completed", completed)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Mark the run COMPLETED with its totals and release the lease.
+     */
+    public void complete(String jobName, String runKey, String owner) {
+        jdbcTemplate.update(COMPLETE_SQL, new MapSqlParameterSource()
+                .addValue("jobName", jobName)
+                .addValue("runKey", runKey)
+                .addValue("owner", owner)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Runs left RUNNING whose lease has lapsed, i.e. the node executing them died.
+     */
+    public List<RunKey> findInterrupted() {
+        return jdbcTemplate.query("""
+                        SELECT job_name, run_key FROM batch_job_runs
+                        WHERE status = 'RUNNING' AND lock_until < :now
+                        ORDER BY started_at
+                        """, new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())),
+                (rs, rowNum) -> new RunKey(rs.getString("job_name"), rs.getString("run_key")));
+    }
+
+    public record Checkpoint(UUID partitionId, UUID lastItemId, boolean completed) {
+    }
+
+    public record RunKey(String jobName, String runKey) {
+    }
+}
@@ -0,0 +1,270 @@
+package com.gymmate.shared.batch;
+
+import com.gymmate.shared.batch.BatchJobRepository.Checkpoint;
+import com.gymmate.shared.multitenancy.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link BatchJob}s in partitions and chunks.
+ *
+ * A run is identified by job name and run key (e.g. the date) and is leased in
+ * {@code batch_job_runs}, so when every node fires the same cron only the node that claims the
+ * run executes it. Partitions run in parallel on a pool of {@code partition-threads}. Each
+ * partition is read in keyset chunks of {@code chunk-size} ids, and every chunk is processed in
+ * its own transaction that also writes the partition's checkpoint. If a chunk fails it is
+ * retried one item per transaction, so one bad row only costs itself.
+ *
+ * Each chunk renews the run's lease. If the node dies, the lease lapses and the
+ * {@code resume-interval-ms} sweep on any node carries on from the last checkpoints. Items of
+ * the chunk in flight at the crash are processed again, so jobs must skip items that are
+ * already done.
+ */
+@Slf4j
+@Component
+public class BatchJobRunner {
+
+    // Partition with a null key, e.g. rows not scoped to a gym
+    public static final UUID UNSCOPED_PARTITION = new UUID(0L, 0L);
+
+    private final BatchJobRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<BatchJob> jobs;
+    private final int chunkSize;
+    private final Duration lease;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ExecutorService workers;
+
+    public BatchJobRunner(BatchJobRepository repository,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry,
+                          ObjectProvider<BatchJob> jobs,
+                          @Value("${app.batch.chunk-size:200}") int chunkSize,
+                          @Value("${app.batch.partition-threads:4}") int partitionThreads,
+                          @Value("${app.batch.lease-minutes:15}") long leaseMinutes) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.jobs = jobs;
+        this.chunkSize = chunkSize;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(partitionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished runs are resumed from their checkpoints once the lease lapses
+        workers.shutdownNow();
+    }
+
+    /**
+     * Run (or resume) a job for the given run key, unless another node holds it or it has
+     * already completed.
+     *
+     * @return what this node processed, or empty if it did not run the job
+     */
+    public Optional<BatchJobReport> run(BatchJob job, String runKey) {
+        Optional<LocalDateTime> startedAt = repository.claim(job.name(), runKey, nodeId, lease);
+        if (startedAt.isEmpty()) {
+            log.debug("Batch job {} [{}] is running elsewhere or already completed", job.name(), runKey);
+            return Optional.empty();
+        }
+
+        BatchRun run = new BatchRun(job.name(), runKey, startedAt.get());
+        long started = System.nanoTime();
+        Map<UUID, Checkpoint> checkpoints = repository.findCheckpoints(job.name(), runKey);
+        List<UUID> partitions = job.partitions(run).stream()
+                .filter(partitionId -> {
+                    Checkpoint checkpoint = checkpoints.get(partitionId);
+                    return checkpoint == null || !checkpoint.completed();
+                })
+                .toList();
+        log.info("Batch job {} [{}]: {} partitions to process{}", job.name(), runKey, partitions.size(),
+                checkpoints.isEmpty() ? "" : " (resumed)");
+
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        for (UUID partitionId : partitions) {
+            Checkpoint checkpoint = checkpoints.get(partitionId);
+            UUID afterId = checkpoint != null ? checkpoint.lastItemId() : null;
+            futures.add(workers.submit(() -> runPartition(job, run, partitionId, afterId, leaseLost)));
+        }
+
+        long processed = 0;
+        long failed = 0;
+        boolean finished = true;
+        for (Future<PartitionResult> future : futures) {
+            try {
+                PartitionResult result = future.get();
+                processed += result.processed();
+                failed += result.failed();
+                finished &= result.finished();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = false;
+            } catch (ExecutionException e) {
+                log.error("Batch job {} [{}] partition failed: {}", job.name(), runKey, e.getCause().getMessage(),
+                        e.getCause());
+                finished = false;
+            }
+        }
+
+        if (finished && !leaseLost.get()) {
+            repository.complete(job.name(), runKey, nodeId);
+        } else {
+            // The lease is left to lapse so the resume sweep picks up from the checkpoints
+            log.warn("Batch job {} [{}] stopped before finishing; it will resume from its checkpoints",
+                    job.name(), runKey);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        Timer.builder("batch.job.run")
+                .tag("job", job.name())
+                .tag("outcome", finished && !leaseLost.get() ? "completed" : "interrupted")
+                .register(meterRegistry)
+                .record(elapsed);
+        BatchJobReport report = new BatchJobReport(job.name(), runKey, partitions.size(), processed, failed, elapsed);
+        log.info("Batch job {} [{}]: {} processed, {} failed in {} ms ({} items/s)", job.name(), runKey,
+                processed, failed, elapsed.toMillis(), String.format("%.1f", report.itemsPerSecond()));
+        return Optional.of(report);
+    }
+
+    /**
+     * Pick up runs whose node died.
+     */
+    @Scheduled(fixedDelayString = "${app.batch.resume-interval-ms:300000}")
+    public void resumeInterrupted() {
+        try {
+            for (BatchJobRepository.RunKey interrupted : repository.findInterrupted()) {
+                jobs.orderedStream()
+                        .filter(job -> job.name().equals(interrupted.jobName()))
+                        .findFirst()
+                        .ifPresent(job -> {
+                            log.info("Resuming interrupted batch job {} [{}]", job.name(), interrupted.runKey());
+                            run(job, interrupted.runKey());
+                        });
+            }
+        } catch (Exception e) {
+            log.error("Error looking for interrupted batch jobs", e);
+        }
+    }
+
+    private PartitionResult runPartition(BatchJob job, BatchRun run, UUID partitionId, UUID afterId,
+                                         AtomicBoolean leaseLost) {
+        TenantContext.setCurrentGymId(UNSCOPED_PARTITION.equals(partitionId) ? null : partitionId);
+        try {
+            int processed = 0;
+            int failed = 0;
+            List<UUID> chunk;
+            while (!(chunk = job.nextChunk(run, partitionId, afterId, chunkSize)).isEmpty()) {
+                if (leaseLost.get() || Thread.currentThread().isInterrupted()) {
+                    return new PartitionResult(processed, failed, false);
+                }
+                ChunkResult result = processChunk(job, run, partitionId, chunk);
+                processed += result.processed();
+                failed += result.failed();
+                afterId = chunk.get(chunk.size() - 1);
+
+                if (!repository.renew(run.jobName(), run.runKey(), nodeId, lease)) {
+                    log.warn("Batch job {} [{}] lost its lease", run.jobName(), run.runKey());
+                    leaseLost.set(true);
+                }
+            }
+            transactionTemplate.executeWithoutResult(
+                    status -> repository.saveCheckpoint(run, partitionId, null, 0, 0, true));
+            return new PartitionResult(processed, failed, true);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private ChunkResult processChunk(BatchJob job, BatchRun run, UUID partitionId, List<UUID> chunk) {
+        UUID lastId = chunk.get(chunk.size() - 1);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ChunkResult result;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (UUID itemId : chunk) {
+                    job.process(run, itemId);
+                }
+                repository.saveCheckpoint(run, partitionId, lastId, chunk.size(), 0, false);
+            });
+            result = new ChunkResult(chunk.size(), 0);
+        } catch (RuntimeException e) {
+            log.warn("Batch job {} chunk ending {} failed ({}); retrying its items one by one",
+                    run.jobName(), lastId, e.getMessage());
+            result = processItems(job, run, partitionId, chunk);
+        }
+        sample.stop(Timer.builder("batch.job.chunk").tag("job", run.jobName()).register(meterRegistry));
+        itemCounter(run.jobName(), "processed").increment(result.processed());
+        itemCounter(run.jobName(), "failed").increment(result.failed());
+        return result;
+    }
+
+    private ChunkResult processItems(BatchJob job, BatchRun run, UUID partitionId, List<UUID> chunk) {
+        int processed = 0;
+        int failed = 0;
+        for (UUID itemId : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> job.process(run, itemId));
+                processed++;
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("Batch job {} failed on item {}: {}", run.jobName(), itemId, e.getMessage());
+                try {
+                    transactionTemplate.executeWithoutResult(status -> job.onItemFailure(run, itemId, e));
+                } catch (RuntimeException ex) {
+                    log.error("Batch job {} failure handling for item {} failed: {}", run.jobName(), itemId,
+                            ex.getMessage());
+                }
+            }
+        }
+        int processedCount = processed;
+        int failedCount = failed;
+        transactionTemplate.executeWithoutResult(status -> repository.saveCheckpoint(
+                run, partitionId, chunk.get(chunk.size() - 1), processedCount, failedCount, false));
+        return new ChunkResult(processed, failed);
+    }
+
+    private Counter itemCounter(String jobName, String outcome) {
+        return Counter.builder("batch.job.items")
+                .tag("job", jobName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ChunkResult(int processed, int failed) {
+    }
+
+    private record PartitionResult(long processed, long failed, boolean finished) {
+    }
+}
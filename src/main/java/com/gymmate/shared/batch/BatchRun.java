@@ -0,0 +1,10 @@
+package com.gymmate.shared.batch;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a job. {@code startedAt} is fixed when the run is first claimed and kept
+ * when it is resumed, so jobs should use it as their "now".
+ */
+public record BatchRun(String jobName, String runKey, LocalDateTime startedAt) {
+}
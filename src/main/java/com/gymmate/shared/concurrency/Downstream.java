@@ -0,0 +1,11 @@
+package com.gymmate.shared.concurrency;
+
+/**
+ * External systems whose concurrent use is capped by {@link DownstreamLimiter}.
+ */
+public enum Downstream {
+    SMTP,
+    STRIPE,
+    LLM,
+    REDIS
+}
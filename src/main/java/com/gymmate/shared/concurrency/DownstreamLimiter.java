@@ -0,0 +1,115 @@
+package com.gymmate.shared.concurrency;
+
+import com.gymmate.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many threads use each {@link Downstream} at once.
+ *
+ * With virtual threads the number of concurrent requests and {@code @Async} tasks is no longer
+ * bounded by a thread pool, so the limit moves to the resources they share: each downstream has
+ * a semaphore, and a caller that cannot get a permit within {@code acquire-timeout-ms} is shed
+ * with a {@link ServiceUnavailableException}. Permits are re-entrant per thread, so a call that
+ * nests another call to the same downstream does not wait on itself.
+ */
+@Slf4j
+@Component
+public class DownstreamLimiter {
+
+    /**
+     * A call that may throw a checked exception of its own, e.g. {@code StripeException}.
+     */
+    @FunctionalInterface
+    public interface LimitedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface LimitedRun<E extends Exception> {
+        void run() throws E;
+    }
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final Map<Downstream, Semaphore> permits = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Counter> rejected = new EnumMap<>(Downstream.class);
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[Downstream.values().length]);
+    private final long acquireTimeoutMillis;
+
+    public DownstreamLimiter(MeterRegistry meterRegistry,
+                             @Value("${app.downstream.smtp.max-concurrent:16}") int smtp,
+                             @Value("${app.downstream.stripe.max-concurrent:32}") int stripe,
+                             @Value("${app.downstream.llm.max-concurrent:16}") int llm,
+                             @Value("${app.downstream.redis.max-concurrent:256}") int redis,
+                             @Value("${app.downstream.acquire-timeout-ms:10000}") long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        register(meterRegistry, Downstream.SMTP, smtp);
+        register(meterRegistry, Downstream.STRIPE, stripe);
+        register(meterRegistry, Downstream.LLM, llm);
+        register(meterRegistry, Downstream.REDIS, redis);
+    }
+
+    private void register(MeterRegistry meterRegistry, Downstream downstream, int maxConcurrent) {
+        Semaphore semaphore = new Semaphore(maxConcurrent, true);
+        permits.put(downstream, semaphore);
+        String name = downstream.name().toLowerCase();
+        Gauge.builder("downstream.in_use", semaphore, s -> maxConcurrent - s.availablePermits())
+                .tag("downstream", name)
+                .register(meterRegistry);
+        Gauge.builder("downstream.waiting", semaphore, Semaphore::getQueueLength)
+                .tag("downstream", name)
+                .register(meterRegistry);
+        rejected.put(downstream, Counter.builder("downstream.rejected")
+                .tag("downstream", name)
+                .register(meterRegistry));
+    }
+
+    public <T, E extends Exception> T call(Downstream downstream, LimitedCall<T, E> call) throws E {
+        int[] depth = held.get();
+        if (depth[downstream.ordinal()] > 0) {
+            return call.call();
+        }
+
+        Semaphore semaphore = permits.get(downstream);
+        acquire(downstream, semaphore);
+        depth[downstream.ordinal()]++;
+        try {
+            return call.call();
+        } finally {
+            depth[downstream.ordinal()]--;
+            semaphore.release();
+        }
+    }
+
+    public <E extends Exception> void run(Downstream downstream, LimitedRun<E> run) throws E {
+        this.<Void, E>call(downstream, () -> {
+            run.run();
+            return null;
+        });
+    }
+
+    private void acquire(Downstream downstream, Semaphore semaphore) {
+        try {
+            if (semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.get(downstream).increment();
+        log.warn("No {} capacity within {} ms; shedding call", downstream, acquireTimeoutMillis);
+        throw new ServiceUnavailableException(
+                "The " + downstream.name().toLowerCase() + " service is busy, please retry shortly",
+                RETRY_AFTER_SECONDS);
+    }
+}
@@ -1,25 +1,57 @@
 package com.gymmate.shared.config;
 
+import com.gymmate.shared.multitenancy.TenantContextTaskDecorator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * Executor for {@code @Async} work (emails, AI onboarding, audit writes).
+ *
+ * With {@code spring.threads.virtual.enabled} every task gets its own virtual thread, and
+ * servlet requests run on virtual threads too. Blocking calls are then bounded per downstream by
+ * {@link com.gymmate.shared.concurrency.DownstreamLimiter} instead of by pool size. Otherwise a
+ * bounded platform-thread pool is used. Either way tasks see the caller's tenant context.
+ */
 @Configuration
 @EnableAsync
 @Slf4j
 public class AsyncConfig implements AsyncConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.async.core-pool-size:5}")
+    private int corePoolSize;
+
+    @Value("${app.async.max-pool-size:10}")
+    private int maxPoolSize;
+
+    @Value("${app.async.queue-capacity:100}")
+    private int queueCapacity;
+
     @Override
     public Executor getAsyncExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-task-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(new TenantContextTaskDecorator());
+            log.info("Async executor configured on virtual threads");
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("async-task-");
+        executor.setTaskDecorator(new TenantContextTaskDecorator());
         executor.initialize();
         log.info("Async executor configured for background tasks");
         return executor;
@@ -1,12 +1,17 @@
 package com.gymmate.shared.config;
 
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -36,8 +41,16 @@ public class RedisConfig {
   }
 
   @Bean
-  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
-    RedisTemplate<String, Object> template = new RedisTemplate<>();
+  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                     DownstreamLimiter downstreamLimiter) {
+    // Every template operation funnels through execute(callback, expose, pipeline), so this one
+    // override puts all Redis commands under the REDIS concurrency limit
+    RedisTemplate<String, Object> template = new RedisTemplate<>() {
+      @Override
+      public <T> T execute(RedisCallback<T> action, boolean exposeConnection, boolean pipeline) {
+        return downstreamLimiter.call(Downstream.REDIS, () -> super.execute(action, exposeConnection, pipeline));
+      }
+    };
     template.setConnectionFactory(connectionFactory);
 
     // Use String serializer for keys
@@ -51,5 +64,24 @@ public class RedisConfig {
     template.afterPropertiesSet();
     return template;
   }
+
+  @Bean
+  public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                 DownstreamLimiter downstreamLimiter) {
+    // Rate limiting scripts and SSE pub/sub go through this template; same REDIS limit as above
+    return new StringRedisTemplate(connectionFactory) {
+      @Override
+      public <T> T execute(RedisCallback<T> action, boolean exposeConnection, boolean pipeline) {
+        return downstreamLimiter.call(Downstream.REDIS, () -> super.execute(action, exposeConnection, pipeline));
+      }
+    };
+  }
+
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    return container;
+  }
 }
 
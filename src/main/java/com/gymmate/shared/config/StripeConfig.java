@@ -1,14 +1,25 @@
 package com.gymmate.shared.config;
 
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
 import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpURLConnectionClient;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import com.stripe.net.StripeResponseStream;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Stripe configuration for payment processing.
- * Initializes the Stripe SDK with API keys from environment variables.
+ * Initializes the Stripe SDK with API keys from environment variables, and routes every
+ * Stripe HTTP request through the {@link Downstream#STRIPE} concurrency limit.
  */
 @Configuration
 @Getter
@@ -26,11 +37,30 @@ public class StripeConfig {
     @Value("${stripe.application-fee-percent:1.0}")
     private Double applicationFeePercent;
 
+    @Getter(AccessLevel.NONE)
+    private final DownstreamLimiter downstreamLimiter;
+
+    public StripeConfig(DownstreamLimiter downstreamLimiter) {
+        this.downstreamLimiter = downstreamLimiter;
+    }
+
     @PostConstruct
     public void init() {
         if (apiKey != null && !apiKey.isBlank()) {
             Stripe.apiKey = apiKey;
         }
+        // Each attempt (including the SDK's own retries) takes a permit only while it is on the wire
+        ApiResource.setGlobalResponseGetter(new LiveStripeResponseGetter(new HttpURLConnectionClient() {
+            @Override
+            public StripeResponse request(StripeRequest request) throws ApiConnectionException {
+                return downstreamLimiter.call(Downstream.STRIPE, () -> super.request(request));
+            }
+
+            @Override
+            public StripeResponseStream requestStream(StripeRequest request) throws ApiConnectionException {
+                return downstreamLimiter.call(Downstream.STRIPE, () -> super.requestStream(request));
+            }
+        }));
     }
 
     /**
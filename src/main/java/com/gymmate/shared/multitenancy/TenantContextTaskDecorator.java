@@ -0,0 +1,39 @@
+package com.gymmate.shared.multitenancy;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.UUID;
+
+/**
+ * Carries the submitting thread's {@link TenantContext} into {@code @Async} tasks, and restores
+ * the worker thread's own context afterwards so nothing leaks into the next task a pooled
+ * thread runs.
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        UUID tenantId = TenantContext.getCurrentTenantId();
+        UUID gymId = TenantContext.getCurrentGymId();
+        return () -> {
+            UUID previousTenantId = TenantContext.getCurrentTenantId();
+            UUID previousGymId = TenantContext.getCurrentGymId();
+            apply(tenantId, gymId);
+            try {
+                runnable.run();
+            } finally {
+                apply(previousTenantId, previousGymId);
+            }
+        };
+    }
+
+    private static void apply(UUID tenantId, UUID gymId) {
+        TenantContext.clear();
+        if (tenantId != null) {
+            TenantContext.setCurrentTenantId(tenantId);
+        }
+        if (gymId != null) {
+            TenantContext.setCurrentGymId(gymId);
+        }
+    }
+}
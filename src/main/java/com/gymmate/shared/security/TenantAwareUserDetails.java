@@ -46,6 +46,14 @@ public class TenantAwareUserDetails implements UserDetails {
         this.active = active;
     }
 
+    /**
+     * Credential-free copy of the user, safe to keep in the principal cache.
+     */
+    public static TenantAwareUserDetails snapshotOf(User user) {
+        return new TenantAwareUserDetails(user.getId(), user.getOrganisationId(), user.getEmail(), null,
+            user.getRole().name(), user.isActive(), user.isEmailVerified());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
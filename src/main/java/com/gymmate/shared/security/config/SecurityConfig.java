@@ -4,6 +4,8 @@ import com.gymmate.shared.security.CustomUserDetailsService;
 import com.gymmate.shared.security.filter.JwtAuthenticationFilter;
 import com.gymmate.shared.multitenancy.TenantFilter;
 import com.gymmate.shared.security.filter.SecurityHeadersFilter;
+import com.gymmate.shared.security.service.PasswordHashingService;
+import com.gymmate.shared.security.service.PooledPasswordEncoder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -17,7 +19,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.channel.ChannelProcessingFilter;
@@ -39,6 +40,7 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final TenantFilter tenantFilter;
     private final SecurityHeadersFilter securityHeadersFilter;
+    private final PasswordHashingService passwordHashingService;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -92,9 +94,12 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt on the bounded hashing pool, so logins never hash on request threads.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new PooledPasswordEncoder(passwordHashingService);
     }
 
     /**
@@ -3,7 +3,7 @@ package com.gymmate.shared.security.filter;
 import com.gymmate.shared.multitenancy.TenantContext;
 import com.gymmate.shared.security.TenantAwareUserDetails;
 import com.gymmate.shared.security.service.JwtService;
-import com.gymmate.user.domain.User;
+import com.gymmate.shared.security.service.PrincipalCache;
 import com.gymmate.user.infrastructure.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -32,6 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -56,23 +57,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private void authenticateUser(String jwt) {
         UUID userId = jwtService.extractUserId(jwt);
-        User user = userRepository.findById(userId)
+        TenantAwareUserDetails userDetails = principalCache.get(userId, userRepository::findById)
                 .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
 
-        if (!user.isActive()) {
+        if (!userDetails.isActive()) {
             log.warn("Inactive user attempted to authenticate: {}", userId);
             SecurityContextHolder.clearContext();
             return;
         }
 
-        TenantAwareUserDetails userDetails = new TenantAwareUserDetails(user);
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
                 userDetails.getAuthorities());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        if (user.getOrganisationId() != null) {
-            TenantContext.setCurrentTenantId(user.getOrganisationId());
+        if (userDetails.getOrganisationId() != null) {
+            TenantContext.setCurrentTenantId(userDetails.getOrganisationId());
         }
     }
 
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gymmate.shared.dto.ApiResponse;
 import com.gymmate.shared.security.service.JwtService;
 import com.gymmate.shared.security.service.RateLimitingService;
+import com.gymmate.shared.security.service.RateLimitingService.RateLimitResult;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -38,16 +39,19 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     String clientIp = getClientIpAddress(request);
     String identifier = getIdentifier(request);
 
-    if (!rateLimitingService.isAllowed(identifier, endpoint, clientIp)) {
+    RateLimitResult result = rateLimitingService.check(identifier, endpoint, clientIp);
+
+    // Add rate limit headers
+    response.setHeader("X-RateLimit-Limit", String.valueOf(result.limit()));
+    response.setHeader("X-RateLimit-Remaining", String.valueOf(result.remaining()));
+    response.setHeader("X-RateLimit-Reset", String.valueOf(result.resetSeconds()));
+
+    if (!result.allowed()) {
+      response.setHeader("Retry-After", String.valueOf(result.retryAfterSeconds()));
       handleRateLimitExceeded(response, endpoint, identifier, clientIp);
       return;
     }
 
-    // Add rate limit headers
-    long remaining = rateLimitingService.getRemainingRequests(identifier, endpoint, clientIp);
-    response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
-    response.setHeader("X-RateLimit-Limit", "100");
-
     filterChain.doFilter(request, response);
   }
 
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,6 +25,9 @@ public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist,
     @Query("DELETE FROM TokenBlacklist t WHERE t.expiresAt < :now")
     void deleteExpiredTokens(Date now);
 
+    @Query("SELECT t.token FROM TokenBlacklist t WHERE t.expiresAt >= :now")
+    List<String> findActiveTokens(Date now);
+
     @Query("SELECT COUNT(t) FROM TokenBlacklist t WHERE t.expiresAt < :now")
     long countExpiredTokens(Date now);
 }
@@ -23,6 +23,7 @@ import com.gymmate.user.api.dto.OwnerRegistrationRequest;
 import com.gymmate.user.application.InviteService;
 import com.gymmate.user.application.UserService;
 import com.gymmate.user.domain.User;
+import com.gymmate.user.domain.events.UserAccessChangedEvent;
 import com.gymmate.shared.constants.UserRole;
 import com.gymmate.shared.constants.UserStatus;
 import com.gymmate.user.api.dto.ValidateInviteResponse;
@@ -30,6 +31,7 @@ import com.gymmate.user.infrastructure.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -57,6 +59,7 @@ public class AuthenticationService {
     private final EmailService emailService;
     private final AuthenticationManager authenticationManager;
     private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenBlacklistIndex tokenBlacklistIndex;
     private final TotpService totpService;
     private final OrganisationService organisationService;
     private final GymService gymService;
@@ -64,6 +67,7 @@ public class AuthenticationService {
 
     private final LoginAttemptService loginAttemptService;
     private final PasswordPolicyService passwordPolicyService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int OTP_VALIDITY_MINUTES = 5;
 
@@ -176,6 +180,8 @@ public class AuthenticationService {
 
             TokenBlacklist blacklistedToken = TokenBlacklist.create(token, userId, expiresAt, "User logout");
             tokenBlacklistRepository.save(blacklistedToken);
+            tokenBlacklistIndex.add(token);
+            eventPublisher.publishEvent(new UserAccessChangedEvent(this, userId, UserAccessChangedEvent.Reason.LOGOUT));
 
             log.info("Token blacklisted successfully for user: {}", userId);
         } catch (Exception e) {
@@ -28,6 +28,7 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class JwtService {
     private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenBlacklistIndex tokenBlacklistIndex;
     @Value("${jwt.secret}")
     private String jwtSecret;
     @Value("${jwt.expiration}") // 15 minutes default
@@ -107,9 +108,13 @@ public class JwtService {
     }
 
     /**
-     * Check if a token is blacklisted.
+     * Check if a token is blacklisted. The database is only consulted when the
+     * in-memory index reports a possible hit.
      */
     public boolean isTokenBlacklisted(String token) {
+        if (!tokenBlacklistIndex.mightContain(token)) {
+            return false;
+        }
         return tokenBlacklistRepository.existsByToken(token);
     }
 
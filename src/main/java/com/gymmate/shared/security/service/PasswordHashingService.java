@@ -0,0 +1,169 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated pool sized to the CPU cores, so a burst
+ * of logins (e.g. credential stuffing) queues here instead of occupying request threads.
+ *
+ * The queue is bounded: when it is full, or a hash waits longer than {@code timeout-ms}, the
+ * request is shed with a {@link ServiceUnavailableException} (503) instead of piling up.
+ * Publishes {@code security.password.hash} (latency per operation), the queue depth and active
+ * workers, and a count of rejected requests.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${app.security.password-hashing.threads:0}") int threads,
+                                  @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.password-hashing.timeout-ms:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+
+        this.encodeTimer = Timer.builder("security.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("security.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("security.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("security.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> encoder.encode(rawPassword))));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> matchTimer.record(() -> encoder.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * Check a password against several hashes in parallel, returning as soon as one matches.
+     * Checks still queued at that point are cancelled.
+     */
+    public boolean matchesAny(CharSequence rawPassword, List<String> encodedPasswords) {
+        if (encodedPasswords.isEmpty()) {
+            return false;
+        }
+        if (encodedPasswords.size() == 1) {
+            return matches(rawPassword, encodedPasswords.get(0));
+        }
+
+        ExecutorCompletionService<Boolean> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> futures = new ArrayList<>(encodedPasswords.size());
+        try {
+            for (String encodedPassword : encodedPasswords) {
+                futures.add(completion.submit(
+                        () -> matchTimer.record(() -> encoder.matches(rawPassword, encodedPassword))));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw shed();
+        }
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Boolean> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw shed();
+                }
+                if (Boolean.TRUE.equals(done.get())) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw shed();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw shed();
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(false);
+            throw shed();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw shed();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private ServiceUnavailableException shed() {
+        rejected.increment();
+        return new ServiceUnavailableException("Server is busy, please retry shortly", RETRY_AFTER_SECONDS);
+    }
+}
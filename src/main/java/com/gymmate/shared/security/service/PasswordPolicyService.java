@@ -3,8 +3,6 @@ package com.gymmate.shared.security.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -20,6 +18,7 @@ import java.util.UUID;
 public class PasswordPolicyService {
 
   private final RedisTemplate<String, Object> redisTemplate;
+  private final PasswordHashingService passwordHashingService;
   private static final String PASSWORD_HISTORY_PREFIX = "password_history:";
   private static final int PASSWORD_HISTORY_SIZE = 12;
   private static final int MIN_PASSWORD_LENGTH = 12;
@@ -85,13 +84,13 @@ public class PasswordPolicyService {
     String key = PASSWORD_HISTORY_PREFIX + userId;
     List<Object> history = redisTemplate.opsForList().range(key, 0, -1);
 
-    if (history != null) {
-      PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-      return history.stream()
-        .anyMatch(oldHash -> passwordEncoder.matches(password, (String) oldHash));
+    if (history == null || history.isEmpty()) {
+      return false;
     }
 
-    return false;
+    // Checked in parallel on the hashing pool, stopping at the first match
+    List<String> hashes = history.stream().map(String.class::cast).toList();
+    return passwordHashingService.matchesAny(password, hashes);
   }
 
   private boolean isCommonPassword(String password) {
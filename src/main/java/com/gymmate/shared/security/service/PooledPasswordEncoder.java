@@ -0,0 +1,24 @@
+package com.gymmate.shared.security.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} that runs BCrypt on the {@link PasswordHashingService} pool rather than
+ * on the calling thread.
+ */
+@RequiredArgsConstructor
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordHashingService hashingService;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingService.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingService.matches(rawPassword, encodedPassword);
+    }
+}
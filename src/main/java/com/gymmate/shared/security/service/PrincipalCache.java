@@ -0,0 +1,77 @@
+package com.gymmate.shared.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gymmate.shared.security.TenantAwareUserDetails;
+import com.gymmate.user.domain.User;
+import com.gymmate.user.domain.events.UserAccessChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicted cache of authenticated principals keyed by user ID.
+ * Lets JwtAuthenticationFilter skip the users table on every request.
+ *
+ * Only active users are cached, so activation flows never have to evict.
+ * Deactivation, role changes and logout evict through {@link UserAccessChangedEvent};
+ * on other nodes the TTL bounds how long a stale principal can survive.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final Cache<UUID, TenantAwareUserDetails> cache;
+
+    public PrincipalCache(
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Return the cached principal, loading and snapshotting the user on a miss.
+     * Empty when the user does not exist.
+     */
+    public Optional<TenantAwareUserDetails> get(UUID userId, Function<UUID, Optional<User>> loader) {
+        TenantAwareUserDetails cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<TenantAwareUserDetails> loaded = loader.apply(userId).map(TenantAwareUserDetails::snapshotOf);
+        loaded.filter(TenantAwareUserDetails::isActive)
+                .ifPresent(details -> cache.put(userId, details));
+        return loaded;
+    }
+
+    public void evict(UUID userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        log.debug("Evicting cached principal for user {} ({})", event.getUserId(), event.getReason());
+        evict(event.getUserId());
+    }
+}
@@ -4,11 +4,11 @@ import com.gymmate.subscription.config.RateLimitConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -20,92 +20,125 @@ public class RateLimitingService {
 
   private static final String RATE_LIMIT_PREFIX = "rate_limit:";
   private static final String IP_RATE_LIMIT_PREFIX = "ip_rate_limit:";
+  private static final String DEFAULT_CONFIG = "default";
+  private static final String UPLOAD_CONFIG = "upload";
 
-  // Rate limit configurations
+  // Rate limit configurations, keyed by config name. Each config keeps its own GCRA state,
+  // so a slow-refilling login quota never eats into the default quota of the same user or IP.
   private static final Map<String, RateLimitConfig> RATE_LIMITS = Map.of(
     "/api/auth/login", new RateLimitConfig(5, Duration.ofMinutes(15)), // 5 attempts per 15 min
     "/api/auth/register", new RateLimitConfig(3, Duration.ofMinutes(60)), // 3 registrations per hour
     "/api/auth/forgot-password", new RateLimitConfig(3, Duration.ofMinutes(60)), // 3 password resets per hour
     "/api/auth/verify-otp", new RateLimitConfig(10, Duration.ofMinutes(5)), // 10 OTP attempts per 5 min
     "/api/auth/resend-otp", new RateLimitConfig(3, Duration.ofMinutes(5)), // 3 resends per 5 min
-    "default", new RateLimitConfig(100, Duration.ofMinutes(1)), // 100 requests per minute
-    "upload", new RateLimitConfig(10, Duration.ofMinutes(5)) // 10 uploads per 5 minutes
+    DEFAULT_CONFIG, new RateLimitConfig(100, Duration.ofMinutes(1)), // 100 requests per minute
+    UPLOAD_CONFIG, new RateLimitConfig(10, Duration.ofMinutes(5)) // 10 uploads per 5 minutes
   );
 
-  public boolean isAllowed(String identifier, String endpoint, String clientIp) {
-    RateLimitConfig config = getRateLimitConfig(endpoint);
+  /**
+   * GCRA over every key in KEYS. The request is allowed only if all keys allow it, and
+   * the theoretical arrival times are only advanced when it is. Replies with
+   * {allowed, remaining, resetMillis, retryAfterMillis}, using the tightest key for each value.
+   */
+  @SuppressWarnings("unchecked")
+  private static final RedisScript<List<Long>> GCRA_SCRIPT = (RedisScript<List<Long>>) (RedisScript<?>) RedisScript.of("""
+      redis.replicate_commands()
+      local time = redis.call('TIME')
+      local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+      local interval = tonumber(ARGV[1])
+      local window = tonumber(ARGV[2])
+
+      local allowed = 1
+      local retry_after = 0
+      local tats = {}
+
+      for i, key in ipairs(KEYS) do
+          local tat = tonumber(redis.call('GET', key)) or now
+          if tat < now then tat = now end
+          local allow_at = tat + interval - window
+          if now < allow_at then
+              allowed = 0
+              retry_after = math.max(retry_after, allow_at - now)
+          end
+          tats[i] = tat
+      end
+
+      local remaining = -1
+      local reset = 0
+      for i, key in ipairs(KEYS) do
+          local tat = tats[i]
+          if allowed == 1 then
+              tat = tat + interval
+              redis.call('SET', key, tat, 'PX', math.max(1, tat - now))
+          end
+          local key_remaining = math.floor((window - (tat - now)) / interval)
+          if remaining < 0 or key_remaining < remaining then remaining = key_remaining end
+          reset = math.max(reset, tat - now)
+      end
+
+      return {allowed, math.max(0, remaining), reset, retry_after}
+      """, List.class);
+
+  /**
+   * Check and count a request against both the user and the client IP limits in a single
+   * Redis round trip. Both keys are scoped to the endpoint's config, e.g.
+   * {@code rate_limit:<config>:<id>}. The result carries everything needed for the
+   * X-RateLimit-* headers.
+   */
+  public RateLimitResult check(String identifier, String endpoint, String clientIp) {
+    String configName = resolveConfigName(endpoint);
+    RateLimitConfig config = RATE_LIMITS.get(configName);
+    long windowMillis = config.window().toMillis();
+    long intervalMillis = Math.max(1, windowMillis / config.limit());
+
+    String userKey = RATE_LIMIT_PREFIX + configName + ":" + identifier;
+    String ipKey = IP_RATE_LIMIT_PREFIX + configName + ":" + clientIp;
 
-    // Check both user-specific and IP-based limits
-    boolean userAllowed = checkRateLimit(RATE_LIMIT_PREFIX + identifier, config);
-    boolean ipAllowed = checkRateLimit(IP_RATE_LIMIT_PREFIX + clientIp, config);
-
-    return userAllowed && ipAllowed;
-  }
-
-  private boolean checkRateLimit(String key, RateLimitConfig config) {
     try {
-      String luaScript = """
-                local key = KEYS[1]
-                local limit = tonumber(ARGV[1])
-                local window = tonumber(ARGV[2])
-                local current_time = tonumber(ARGV[3])
-
-                local bucket_key = key .. ':' .. math.floor(current_time / window)
-                local current = redis.call('GET', bucket_key)
-
-                if current == false then
-                    redis.call('SET', bucket_key, 1)
-                    redis.call('EXPIRE', bucket_key, window)
-                    return 1
-                end
-
-                if tonumber(current) < limit then
-                    redis.call('INCR', bucket_key)
-                    return 1
-                end
-
-                return 0
-                """;
-
-      DefaultRedisScript<Long> script = new DefaultRedisScript<>(luaScript, Long.class);
-      Long result = stringRedisTemplate.execute(script,
-        Collections.singletonList(key),
-        String.valueOf(config.limit()),
-        String.valueOf(config.window().toSeconds()),
-        String.valueOf(System.currentTimeMillis() / 1000));
-
-      return result != null && result == 1;
+      List<Long> reply = stringRedisTemplate.execute(GCRA_SCRIPT, List.of(userKey, ipKey),
+        String.valueOf(intervalMillis),
+        String.valueOf(windowMillis));
+
+      if (reply == null || reply.size() < 4) {
+        return RateLimitResult.unlimited(config);
+      }
+      return new RateLimitResult(
+        reply.get(0) == 1L,
+        config.limit(),
+        reply.get(1),
+        toSeconds(reply.get(2)),
+        toSeconds(reply.get(3)));
     } catch (Exception e) {
-      log.error("Rate limiting check failed for key: {}", key, e);
-      return true; // Allow on failure
+      log.error("Rate limiting check failed for identifier: {}, IP: {}", identifier, clientIp, e);
+      return RateLimitResult.unlimited(config); // Allow on failure
     }
   }
 
-  private RateLimitConfig getRateLimitConfig(String endpoint) {
+  private String resolveConfigName(String endpoint) {
     // Check for exact match first
-    RateLimitConfig config = RATE_LIMITS.get(endpoint);
-    if (config != null) return config;
+    if (RATE_LIMITS.containsKey(endpoint)) return endpoint;
 
     // Check for pattern matches
-    if (endpoint.contains("/upload")) return RATE_LIMITS.get("upload");
+    if (endpoint.contains("/upload")) return UPLOAD_CONFIG;
 
     // Return default
-    return RATE_LIMITS.get("default");
+    return DEFAULT_CONFIG;
   }
 
-  public long getRemainingRequests(String identifier, String endpoint, String clientIp) {
-    RateLimitConfig config = getRateLimitConfig(endpoint);
-    String key = RATE_LIMIT_PREFIX + identifier;
-
-    try {
-      String current = stringRedisTemplate.opsForValue().get(key);
-      if (current == null) return config.limit();
-      return Math.max(0, config.limit() - Long.parseLong(current));
-    } catch (Exception e) {
-      log.error("Failed to get remaining requests for key: {}", key, e);
-      return 0;
-    }
+  private static long toSeconds(long millis) {
+    return (millis + 999) / 1000;
   }
 
   public record RateLimitConfig(int limit, Duration window) {}
+
+  /**
+   * Outcome of a rate limit check. Reset is the number of seconds until the quota is fully
+   * restored; retryAfter is only non-zero for rejected requests.
+   */
+  public record RateLimitResult(boolean allowed, int limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+
+    static RateLimitResult unlimited(RateLimitConfig config) {
+      return new RateLimitResult(true, config.limit(), config.limit(), 0, 0);
+    }
+  }
 }
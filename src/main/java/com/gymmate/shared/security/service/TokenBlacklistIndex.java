@@ -0,0 +1,192 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.security.repository.TokenBlacklistRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process Bloom filter over SHA-256 hashes of blacklisted tokens.
+ * JwtService only queries the token_blacklist table when the filter reports a possible hit,
+ * so the common case (token never blacklisted) costs no database round trip.
+ *
+ * The filter is rebuilt from the repository on startup and rolled over to a fresh generation
+ * after each blacklist cleanup, which drops expired tokens from it. New entries are broadcast
+ * on a Redis channel so every node sees logouts performed elsewhere.
+ * Until the first generation is loaded every lookup is treated as a possible hit.
+ */
+@Slf4j
+@Component
+public class TokenBlacklistIndex implements MessageListener {
+
+    static final String CHANNEL = "auth:token-blacklist";
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private BloomFilter next;
+
+    public TokenBlacklistIndex(TokenBlacklistRepository tokenBlacklistRepository,
+                               StringRedisTemplate stringRedisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Value("${app.security.token-blacklist.expected-insertions:100000}") int expectedInsertions,
+                               @Value("${app.security.token-blacklist.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * False means the token is definitely not blacklisted; true means the database must be checked.
+     */
+    public boolean mightContain(String token) {
+        BloomFilter filter = current;
+        return filter == null || filter.mightContain(hash(token));
+    }
+
+    /**
+     * Record a newly blacklisted token locally and broadcast it to the other nodes.
+     */
+    public void add(String token) {
+        byte[] hash = hash(token);
+        addLocal(hash);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, HexFormat.of().formatHex(hash));
+        } catch (Exception e) {
+            log.warn("Failed to broadcast blacklisted token to other nodes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start a new generation from the tokens currently in the repository and swap it in.
+     * Entries added while the generation is loading are written to both filters.
+     */
+    public void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedInsertions, falsePositiveRate);
+        synchronized (this) {
+            next = fresh;
+        }
+        try {
+            List<String> tokens = tokenBlacklistRepository.findActiveTokens(new Date());
+            tokens.forEach(token -> fresh.put(hash(token)));
+            synchronized (this) {
+                current = fresh;
+            }
+            log.info("Token blacklist index rebuilt with {} entries", tokens.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild token blacklist index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                next = null;
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            addLocal(HexFormat.of().parseHex(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed token blacklist message");
+        }
+    }
+
+    private synchronized void addLocal(byte[] hash) {
+        if (current != null) {
+            current.put(hash);
+        }
+        if (next != null) {
+            next.put(hash);
+        }
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter using double hashing over the first 16 bytes of a SHA-256 digest.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashFunctions;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+
+        void put(byte[] digest) {
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            long h1 = buffer.getLong();
+            long h2 = buffer.getLong();
+            for (int i = 0; i < hashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << (index & 63);
+                int word = (int) (index >>> 6);
+                long old;
+                do {
+                    old = bits.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        boolean mightContain(byte[] digest) {
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            long h1 = buffer.getLong();
+            long h2 = buffer.getLong();
+            for (int i = 0; i < hashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
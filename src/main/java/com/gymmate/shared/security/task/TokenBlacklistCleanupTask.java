@@ -1,17 +1,21 @@
 package com.gymmate.shared.security.task;
 
 import com.gymmate.shared.security.repository.TokenBlacklistRepository;
+import com.gymmate.shared.security.service.TokenBlacklistIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Date;
 
 /**
  * Scheduled task to clean up expired tokens from the blacklist.
- * Runs daily at 2 AM.
+ * Runs daily at 2 AM, then rolls the in-memory blacklist index over to a new
+ * generation so the expired entries are pruned from it as well.
  */
 @Slf4j
 @Component
@@ -19,6 +23,7 @@ import java.util.Date;
 public class TokenBlacklistCleanupTask {
 
     private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenBlacklistIndex tokenBlacklistIndex;
 
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional
@@ -32,6 +37,12 @@ public class TokenBlacklistCleanupTask {
                 log.info("Found {} expired tokens to clean up", expiredCount);
                 tokenBlacklistRepository.deleteExpiredTokens(now);
                 log.info("Successfully deleted {} expired tokens from blacklist", expiredCount);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        tokenBlacklistIndex.rebuild();
+                    }
+                });
             } else {
                 log.debug("No expired tokens found in blacklist");
             }
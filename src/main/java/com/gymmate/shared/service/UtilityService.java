@@ -3,7 +3,6 @@ package com.gymmate.shared.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.bcrypt.BCrypt;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -48,7 +47,7 @@ public class UtilityService {
   private final PasswordEncoder passwordEncoder;
 
   public UtilityService(PasswordEncoder passwordEncoder) {
-    this.passwordEncoder = new BCryptPasswordEncoder();
+    this.passwordEncoder = passwordEncoder;
   }
   // ==================== Date/Time Formatting ====================
 
@@ -37,13 +37,10 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         String endpoint = path;
         String ipAddress = getClientIp(request);
 
-        // Check both hourly and burst limits
-        boolean hourlyAllowed = rateLimitService.checkRateLimit(gymId, "hourly", endpoint, ipAddress);
-        boolean burstAllowed = rateLimitService.checkRateLimit(gymId, "burst", endpoint, ipAddress);
-
-        if (!hourlyAllowed || !burstAllowed) {
-            RateLimitStatus status = rateLimitService.getRateLimitStatus(gymId);
+        // Check both hourly and burst limits; the returned status already reflects this request
+        RateLimitStatus status = rateLimitService.acquire(gymId, endpoint, ipAddress);
 
+        if (Boolean.TRUE.equals(status.getIsBlocked())) {
             response.setStatus(429); // Too Many Requests
             response.setContentType("application/json");
 
@@ -69,7 +66,6 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
 
         // Add rate limit info to response headers
-        RateLimitStatus status = rateLimitService.getRateLimitStatus(gymId);
         response.setHeader("X-RateLimit-Limit-Hourly", status.getHourlyLimit().toString());
         response.setHeader("X-RateLimit-Remaining-Hourly", status.getHourlyRemaining().toString());
         response.setHeader("X-RateLimit-Limit-Burst", status.getBurstLimit().toString());
@@ -2,113 +2,173 @@ package com.gymmate.subscription.application;
 
 import com.gymmate.subscription.domain.*;
 import com.gymmate.subscription.infrastructure.*;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Subscription-tier API rate limiting.
+ * Decisions are made against Redis counters in {@link TierRateLimiter}; tier limits are cached
+ * per organisation, so the request path does not touch the database. Usage is written to
+ * ApiRateLimit and SubscriptionUsage asynchronously by {@link #flushPendingUsage()}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class RateLimitService {
 
     private final ApiRateLimitRepository rateLimitRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final SubscriptionUsageRepository usageRepository;
+    private final RateLimitUsageRepository rateLimitUsageRepository;
+    private final TierRateLimiter tierRateLimiter;
+    private final Cache<UUID, TierLimits> tierLimitsCache;
+
+    public RateLimitService(ApiRateLimitRepository rateLimitRepository,
+                            SubscriptionRepository subscriptionRepository,
+                            SubscriptionUsageRepository usageRepository,
+                            RateLimitUsageRepository rateLimitUsageRepository,
+                            TierRateLimiter tierRateLimiter,
+                            @Value("${app.rate-limit.tier-cache-ttl-seconds:30}") long tierCacheTtlSeconds) {
+        this.rateLimitRepository = rateLimitRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.usageRepository = usageRepository;
+        this.rateLimitUsageRepository = rateLimitUsageRepository;
+        this.tierRateLimiter = tierRateLimiter;
+        this.tierLimitsCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(tierCacheTtlSeconds))
+            .build();
+    }
 
     /**
-     * Check if an organisation can make an API request based on their rate limits
-     * @return true if allowed, false if rate limited
+     * Count a request against the organisation's hourly and burst limits.
+     * The returned status reflects the counters after this request; {@code isBlocked} is true
+     * when the request must be rejected.
      */
-    public boolean checkRateLimit(UUID organisationId, String windowType, String endpoint, String ipAddress) {
-        Subscription subscription = subscriptionRepository.findByOrganisationId(organisationId)
-            .orElseThrow(() -> new IllegalArgumentException("No subscription found for organisation: " + organisationId));
-
-        if (!subscription.canAccess()) {
-            log.warn("Organisation {} subscription is not active, blocking request", organisationId);
-            return false;
-        }
-
+    public RateLimitStatus acquire(UUID organisationId, String endpoint, String ipAddress) {
+        TierLimits limits = getTierLimits(organisationId);
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime windowStart = calculateWindowStart(now, windowType);
-        LocalDateTime windowEnd = calculateWindowEnd(windowStart, windowType);
-
-        ApiRateLimit rateLimit = rateLimitRepository
-            .findCurrentWindow(organisationId, now, windowType)
-            .orElseGet(() -> createNewWindow(organisationId, windowStart, windowEnd, windowType, subscription.getTier()));
 
-        // Check if currently blocked
-        if (rateLimit.isCurrentlyBlocked()) {
-            log.warn("Organisation {} is currently rate limited until {}", organisationId, rateLimit.getBlockedUntil());
-            return false;
+        if (!limits.canAccess()) {
+            log.warn("Organisation {} subscription is not active, blocking request", organisationId);
+            return toStatus(organisationId, limits, tierRateLimiter.current(organisationId, now), true);
         }
 
-        // Check if window has expired, create new one
-        if (rateLimit.isExpired()) {
-            rateLimit = createNewWindow(organisationId, windowStart, windowEnd, windowType, subscription.getTier());
-        }
+        TierRateLimiter.WindowCounts counts = tierRateLimiter.increment(organisationId, now);
+        boolean blocked = counts.hourly() > limits.hourlyLimit() || counts.burst() > limits.burstLimit();
 
-        // Increment request count
-        rateLimit.incrementRequest();
-        rateLimit.setEndpointPath(endpoint);
-        rateLimit.setIpAddress(ipAddress);
-        rateLimitRepository.save(rateLimit);
-
-        // Update usage tracking
-        updateUsageTracking(subscription.getId());
-
-        // If blocked, record the hit
-        if (rateLimit.isCurrentlyBlocked()) {
-            recordRateLimitHit(subscription.getId());
-            log.warn("Organisation {} has been rate limited. Requests: {}/{}",
-                organisationId, rateLimit.getRequestCount(), rateLimit.getLimitThreshold());
-            return false;
+        if (blocked) {
+            tierRateLimiter.recordRejected(organisationId);
+            log.warn("Organisation {} has been rate limited on {} from {}. Hourly: {}/{}, burst: {}/{}",
+                organisationId, endpoint, ipAddress, counts.hourly(), limits.hourlyLimit(),
+                counts.burst(), limits.burstLimit());
+        } else {
+            tierRateLimiter.recordAllowed(organisationId);
         }
 
-        return true;
+        return toStatus(organisationId, limits, counts, blocked);
     }
 
     /**
      * Get current rate limit status for an organisation
      */
     public RateLimitStatus getRateLimitStatus(UUID organisationId) {
-        Subscription subscription = subscriptionRepository.findByOrganisationId(organisationId)
-            .orElseThrow(() -> new IllegalArgumentException("No subscription found for organisation: " + organisationId));
+        TierLimits limits = getTierLimits(organisationId);
+        TierRateLimiter.WindowCounts counts = tierRateLimiter.current(organisationId, LocalDateTime.now());
+        return toStatus(organisationId, limits, counts, counts.hourly() >= limits.hourlyLimit());
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Drop the cached tier limits so the next request sees tier or status changes immediately.
+     */
+    public void evictTierLimits(UUID organisationId) {
+        tierLimitsCache.invalidate(organisationId);
+    }
 
-        ApiRateLimit hourlyLimit = rateLimitRepository
-            .findCurrentWindow(organisationId, now, "hourly")
-            .orElse(null);
+    /**
+     * Write the usage accumulated in memory to ApiRateLimit and SubscriptionUsage in one batch.
+     * Tier limits are loaded with a single query; windows and usage rows are incremented in SQL,
+     * so flushes from several nodes add up rather than overwrite each other. If the write
+     * rolls back, the drained usage is put back to be retried on the next flush.
+     */
+    @Transactional
+    public void flushPendingUsage() {
+        Map<UUID, TierRateLimiter.UsageDelta> drained = tierRateLimiter.drainPending();
+        if (drained.isEmpty()) {
+            return;
+        }
 
-        ApiRateLimit burstLimit = rateLimitRepository
-            .findCurrentWindow(organisationId, now, "burst")
-            .orElse(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        tierRateLimiter.restorePending(drained);
+                    }
+                }
+            });
+            writeUsage(drained);
+        } else {
+            try {
+                writeUsage(drained);
+            } catch (RuntimeException e) {
+                tierRateLimiter.restorePending(drained);
+                throw e;
+            }
+        }
+    }
 
-        return RateLimitStatus.builder()
-            .gymId(organisationId) // Note: field name in DTO might need updating
-            .tierName(subscription.getTier().getName())
-            .hourlyLimit(subscription.getTier().getApiRequestsPerHour())
-            .hourlyRemaining(hourlyLimit != null ? hourlyLimit.getRemainingRequests() : subscription.getTier().getApiRequestsPerHour())
-            .hourlyUsed(hourlyLimit != null ? hourlyLimit.getRequestCount() : 0)
-            .burstLimit(subscription.getTier().getApiBurstLimit())
-            .burstRemaining(burstLimit != null ? burstLimit.getRemainingRequests() : subscription.getTier().getApiBurstLimit())
-            .burstUsed(burstLimit != null ? burstLimit.getRequestCount() : 0)
-            .isBlocked(hourlyLimit != null && hourlyLimit.isCurrentlyBlocked())
-            .blockedUntil(hourlyLimit != null ? hourlyLimit.getBlockedUntil() : null)
-            .build();
+    private void writeUsage(Map<UUID, TierRateLimiter.UsageDelta> drained) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.truncatedTo(ChronoUnit.HOURS);
+        Map<UUID, TierLimits> limitsByOrganisation = getTierLimits(drained.keySet());
+
+        List<RateLimitUsageRepository.WindowIncrement> windows = new ArrayList<>(drained.size());
+        List<RateLimitUsageRepository.UsageIncrement> usages = new ArrayList<>(drained.size());
+
+        drained.forEach((organisationId, delta) -> {
+            TierLimits limits = limitsByOrganisation.get(organisationId);
+            if (limits == null) {
+                log.warn("No subscription found for organisation {}, dropping its usage", organisationId);
+                return;
+            }
+            int total = (int) (delta.requests() + delta.rateLimitHits());
+            windows.add(new RateLimitUsageRepository.WindowIncrement(organisationId, total, limits.hourlyLimit()));
+            usages.add(new RateLimitUsageRepository.UsageIncrement(limits.subscriptionId(),
+                (int) delta.requests(), (int) delta.rateLimitHits()));
+        });
+
+        rateLimitUsageRepository.addWindowRequests(windows, "hourly", windowStart, windowStart.plusHours(1));
+        Set<UUID> recorded = rateLimitUsageRepository.addUsage(usages, now);
+        usages.stream()
+            .filter(usage -> !recorded.contains(usage.subscriptionId()))
+            .forEach(usage -> log.warn("No current usage record for subscription {}, dropping {} requests",
+                usage.subscriptionId(), usage.requests() + usage.rateLimitHits()));
+        log.debug("Flushed rate limit usage for {} organisations", drained.size());
     }
 
     /**
      * Manually unblock an organisation (admin action)
      */
+    @Transactional
     public void unblockOrganisation(UUID organisationId) {
         LocalDateTime now = LocalDateTime.now();
+        tierRateLimiter.reset(organisationId, now);
         var activeBlocks = rateLimitRepository.findActiveBlocks(organisationId, now);
 
         for (ApiRateLimit block : activeBlocks) {
@@ -122,6 +182,7 @@ public class RateLimitService {
     /**
      * Get rate limit statistics for an organisation
      */
+    @Transactional(readOnly = true)
     public RateLimitStatistics getStatistics(UUID organisationId, LocalDateTime since) {
         Long blockCount = rateLimitRepository.countBlocksSince(organisationId, since);
 
@@ -151,59 +212,53 @@ public class RateLimitService {
         log.info("Cleaned up rate limit records older than {}", cutoffDate);
     }
 
-    private ApiRateLimit createNewWindow(UUID organisationId, LocalDateTime windowStart,
-                                        LocalDateTime windowEnd, String windowType,
-                                        SubscriptionTier tier) {
-        Integer threshold = "burst".equals(windowType)
-            ? tier.getApiBurstLimit()
-            : tier.getApiRequestsPerHour();
-
-        ApiRateLimit rateLimit = ApiRateLimit.builder()
-            .organisationId(organisationId)
-            .windowStart(windowStart)
-            .windowEnd(windowEnd)
-            .windowType(windowType)
-            .limitThreshold(threshold)
-            .requestCount(0)
-            .build();
-
-        return rateLimitRepository.save(rateLimit);
+    private TierLimits getTierLimits(UUID organisationId) {
+        return tierLimitsCache.get(organisationId, id -> {
+            Subscription subscription = subscriptionRepository.findByOrganisationId(id)
+                .orElseThrow(() -> new IllegalArgumentException("No subscription found for organisation: " + id));
+            return toTierLimits(subscription);
+        });
     }
 
-    private LocalDateTime calculateWindowStart(LocalDateTime now, String windowType) {
-        return switch (windowType) {
-            case "hourly" -> now.truncatedTo(ChronoUnit.HOURS);
-            case "burst" -> now.truncatedTo(ChronoUnit.MINUTES);
-            case "daily" -> now.truncatedTo(ChronoUnit.DAYS);
-            default -> now.truncatedTo(ChronoUnit.HOURS);
-        };
+    private static TierLimits toTierLimits(Subscription subscription) {
+        SubscriptionTier tier = subscription.getTier();
+        return new TierLimits(subscription.getId(), tier.getName(), tier.getApiRequestsPerHour(),
+            tier.getApiBurstLimit(), subscription.canAccess());
     }
 
-    private LocalDateTime calculateWindowEnd(LocalDateTime windowStart, String windowType) {
-        return switch (windowType) {
-            case "hourly" -> windowStart.plusHours(1);
-            case "burst" -> windowStart.plusMinutes(1);
-            case "daily" -> windowStart.plusDays(1);
-            default -> windowStart.plusHours(1);
-        };
+    /**
+     * Tier limits for several organisations; those not cached are loaded in one query.
+     * Organisations without a subscription are absent from the result.
+     */
+    private Map<UUID, TierLimits> getTierLimits(Set<UUID> organisationIds) {
+        return tierLimitsCache.getAll(organisationIds, missing -> {
+            Map<UUID, TierLimits> loaded = new HashMap<>();
+            subscriptionRepository.findByOrganisationIdIn(Set.copyOf(missing))
+                .forEach(subscription -> loaded.put(subscription.getOrganisationId(), toTierLimits(subscription)));
+            return loaded;
+        });
     }
 
-    private void updateUsageTracking(UUID subscriptionId) {
-        SubscriptionUsage usage = usageRepository
-            .findBySubscriptionAndPeriod(subscriptionId, LocalDateTime.now())
-            .orElseThrow(() -> new IllegalStateException("No current usage record found"));
-
-        usage.incrementApiRequest();
-        usageRepository.save(usage);
+    private RateLimitStatus toStatus(UUID organisationId, TierLimits limits,
+                                     TierRateLimiter.WindowCounts counts, boolean blocked) {
+        boolean hourlyExhausted = counts.hourly() >= limits.hourlyLimit();
+        return RateLimitStatus.builder()
+            .gymId(organisationId) // Note: field name in DTO might need updating
+            .tierName(limits.tierName())
+            .hourlyLimit(limits.hourlyLimit())
+            .hourlyRemaining(Math.max(0, limits.hourlyLimit() - counts.hourly()))
+            .hourlyUsed(counts.hourly())
+            .burstLimit(limits.burstLimit())
+            .burstRemaining(Math.max(0, limits.burstLimit() - counts.burst()))
+            .burstUsed(counts.burst())
+            .isBlocked(blocked)
+            .blockedUntil(blocked
+                ? (hourlyExhausted ? counts.windows().hourEnd() : counts.windows().minuteEnd())
+                : null)
+            .build();
     }
 
-    private void recordRateLimitHit(UUID subscriptionId) {
-        SubscriptionUsage usage = usageRepository
-            .findBySubscriptionAndPeriod(subscriptionId, LocalDateTime.now())
-            .orElseThrow(() -> new IllegalStateException("No current usage record found"));
-
-        usage.recordRateLimitHit();
-        usageRepository.save(usage);
+    private record TierLimits(UUID subscriptionId, String tierName, Integer hourlyLimit, Integer burstLimit,
+                              boolean canAccess) {
     }
 }
-
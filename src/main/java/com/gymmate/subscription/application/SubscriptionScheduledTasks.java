@@ -59,6 +59,18 @@ public class SubscriptionScheduledTasks {
         }
     }
 
+    /**
+     * Flush API usage counted in memory to the rate limit and usage tables
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.flush-interval-ms:10000}")
+    public void flushRateLimitUsage() {
+        try {
+            rateLimitService.flushPendingUsage();
+        } catch (Exception e) {
+            log.error("Error flushing rate limit usage", e);
+        }
+    }
+
     /**
      * Clean up old rate limit records daily at 2 AM
      */
@@ -4,6 +4,7 @@ import com.gymmate.payment.application.StripePaymentService;
 import com.gymmate.shared.constants.SubscriptionStatus;
 import com.gymmate.subscription.domain.*;
 import com.gymmate.subscription.infrastructure.*;
+import com.gymmate.subscription.infrastructure.SubscriptionTransitionRepository.ExpiredSubscription;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.gymmate.notification.application.EmailService;
@@ -13,10 +14,13 @@ import com.gymmate.organisation.domain.Organisation;
 import com.gymmate.organisation.infrastructure.OrganisationRepository;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -27,6 +31,8 @@ import java.util.UUID;
 @Transactional
 public class SubscriptionService {
 
+    private static final int EXPIRY_FAN_OUT_BATCH_SIZE = 100;
+
     private final SubscriptionRepository SubscriptionRepository;
     private final SubscriptionTierRepository tierRepository;
     private final SubscriptionUsageRepository usageRepository;
@@ -34,6 +40,8 @@ public class SubscriptionService {
     private final EmailService emailService;
     private final NotificationService notificationService;
     private final OrganisationRepository organisationRepository;
+    private final RateLimitService rateLimitService;
+    private final SubscriptionTransitionRepository transitionRepository;
 
     public Subscription createSubscription(UUID organisationId, String tierName, boolean startTrial) {
         return createSubscription(organisationId, tierName, startTrial, null, true);
@@ -125,6 +133,7 @@ public class SubscriptionService {
 
         subscription.upgradeTier(newTier);
         SubscriptionRepository.save(subscription);
+        rateLimitService.evictTierLimits(organisationId);
 
         log.info("Upgraded subscription for organisation {} to tier {}", organisationId, newTierName);
         return subscription;
@@ -148,6 +157,7 @@ public class SubscriptionService {
 
         subscription.upgradeTier(newTier);
         SubscriptionRepository.save(subscription);
+        rateLimitService.evictTierLimits(organisationId);
 
         log.info("Downgraded subscription for organisation {} to tier {}", organisationId, newTierName);
         return subscription;
@@ -164,6 +174,7 @@ public class SubscriptionService {
         }
 
         SubscriptionRepository.save(subscription);
+        rateLimitService.evictTierLimits(organisationId);
 
         log.info("Cancelled subscription for organisation {} (immediate: {})", organisationId, immediate);
         return subscription;
@@ -180,6 +191,7 @@ public class SubscriptionService {
         subscription.reactivate();
         subscription.activate();
         SubscriptionRepository.save(subscription);
+        rateLimitService.evictTierLimits(organisationId);
 
         log.info("Reactivated subscription for organisation {}", organisationId);
         return subscription;
@@ -284,45 +296,50 @@ public class SubscriptionService {
     }
 
     // Background job methods
+
+    /**
+     * Expire every lapsed ACTIVE subscription in one statement, then notify the affected
+     * organisations in batches of {@value #EXPIRY_FAN_OUT_BATCH_SIZE}. Runs outside a
+     * transaction so the status change commits before any notification goes out.
+     */
     @Async
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processExpiredSubscriptions() {
-        List<Subscription> expiredSubscriptions = SubscriptionRepository
-                .findExpiredSubscriptions(LocalDateTime.now(), SubscriptionStatus.ACTIVE);
+        List<ExpiredSubscription> expired = transitionRepository.expireLapsed(LocalDateTime.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+        log.info("Marked {} subscriptions as expired", expired.size());
 
-        for (Subscription subscription : expiredSubscriptions) {
+        LocalDate expiredOn = LocalDate.now();
+        for (int from = 0; from < expired.size(); from += EXPIRY_FAN_OUT_BATCH_SIZE) {
+            List<ExpiredSubscription> batch = expired.subList(from,
+                    Math.min(from + EXPIRY_FAN_OUT_BATCH_SIZE, expired.size()));
             try {
-                subscription.markExpired();
-                SubscriptionRepository.save(subscription);
-
-                UUID orgId = subscription.getOrganisationId();
-                String orgName = organisationRepository.findById(orgId)
-                        .map(Organisation::getName)
-                        .orElse("Your Gym");
+                batch.forEach(subscription -> rateLimitService.evictTierLimits(subscription.organisationId()));
 
                 // Notify via SSE
-                notificationService.createAndBroadcast(
+                Map<UUID, Map<String, Object>> metadataByOrganisation = new LinkedHashMap<>();
+                batch.forEach(subscription -> metadataByOrganisation.put(subscription.organisationId(),
+                        Map.of("subscriptionId", subscription.subscriptionId())));
+                notificationService.createAndBroadcastAll(
                         "Subscription Expired",
                         "Your subscription has expired. Please renew to continue using GymMate.",
-                        orgId,
                         NotificationPriority.HIGH,
                         "SUBSCRIPTION_EXPIRED",
-                        Map.of("subscriptionId", subscription.getId()));
-
-                // Notify via Email
-                // Assuming contact email is same as owner email or stored in Organisation
-                // For now, we'll need to fetch the owner's email or organisation contact email
-                Organisation org = organisationRepository.findById(orgId).orElse(null);
-                if (org != null && org.getContactEmail() != null) {
-                    emailService.sendSubscriptionExpiredEmail(
-                            org.getContactEmail(),
-                            orgName,
-                            java.time.LocalDate.now());
+                        metadataByOrganisation);
+
+                // Notify via Email (sent asynchronously)
+                for (ExpiredSubscription subscription : batch) {
+                    if (subscription.contactEmail() != null) {
+                        emailService.sendSubscriptionExpiredEmail(
+                                subscription.contactEmail(),
+                                subscription.organisationName() != null ? subscription.organisationName() : "Your Gym",
+                                expiredOn);
+                    }
                 }
-
-                log.info("Marked subscription as expired for organisation {}", orgId);
             } catch (Exception e) {
-                log.error("Error processing expired subscription for organisation {}",
-                        subscription.getOrganisationId(), e);
+                log.error("Error notifying {} organisations of expired subscriptions", batch.size(), e);
             }
         }
     }
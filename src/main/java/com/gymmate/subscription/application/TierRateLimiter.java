@@ -0,0 +1,174 @@
+package com.gymmate.subscription.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis-backed counters for the subscription-tier API limits.
+ * Both the hourly and burst (per-minute) windows are incremented in a single script call,
+ * and the windows line up with the ApiRateLimit rows so status reporting is unchanged.
+ *
+ * Usage that has to reach the database is pre-aggregated per organisation in
+ * {@link LongAdder}s and drained by {@link RateLimitService#flushPendingUsage()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TierRateLimiter {
+
+    private static final String KEY_PREFIX = "tier_rate_limit:";
+
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> INCREMENT_SCRIPT = (RedisScript<List<Long>>) (RedisScript<?>) RedisScript.of("""
+            local hourly = redis.call('INCR', KEYS[1])
+            if hourly == 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end
+            local burst = redis.call('INCR', KEYS[2])
+            if burst == 1 then redis.call('EXPIRE', KEYS[2], ARGV[2]) end
+            return {hourly, burst}
+            """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<UUID, PendingUsage> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Count one request against both windows and return the post-increment totals.
+     * Fails open (zero counts) when Redis is unavailable.
+     */
+    public WindowCounts increment(UUID organisationId, LocalDateTime now) {
+        Windows windows = Windows.of(now);
+        try {
+            List<Long> result = stringRedisTemplate.execute(INCREMENT_SCRIPT,
+                    List.of(hourlyKey(organisationId, windows), burstKey(organisationId, windows)),
+                    // Keys outlive their window slightly so late readers still see the final count
+                    String.valueOf(ChronoUnit.SECONDS.between(now, windows.hourEnd()) + 60),
+                    String.valueOf(ChronoUnit.SECONDS.between(now, windows.minuteEnd()) + 60));
+            if (result == null || result.size() < 2) {
+                return WindowCounts.empty(windows);
+            }
+            return new WindowCounts(result.get(0).intValue(), result.get(1).intValue(), windows);
+        } catch (Exception e) {
+            log.error("Tier rate limit increment failed for organisation {}", organisationId, e);
+            return WindowCounts.empty(windows);
+        }
+    }
+
+    /**
+     * Read the current window totals without counting a request.
+     */
+    public WindowCounts current(UUID organisationId, LocalDateTime now) {
+        Windows windows = Windows.of(now);
+        try {
+            List<String> values = stringRedisTemplate.opsForValue()
+                    .multiGet(List.of(hourlyKey(organisationId, windows), burstKey(organisationId, windows)));
+            if (values == null || values.size() < 2) {
+                return WindowCounts.empty(windows);
+            }
+            return new WindowCounts(toInt(values.get(0)), toInt(values.get(1)), windows);
+        } catch (Exception e) {
+            log.error("Failed to read tier rate limit counters for organisation {}", organisationId, e);
+            return WindowCounts.empty(windows);
+        }
+    }
+
+    /**
+     * Clear the current window counters for an organisation.
+     */
+    public void reset(UUID organisationId, LocalDateTime now) {
+        Windows windows = Windows.of(now);
+        stringRedisTemplate.delete(List.of(hourlyKey(organisationId, windows), burstKey(organisationId, windows)));
+    }
+
+    public void recordAllowed(UUID organisationId) {
+        pending.computeIfAbsent(organisationId, id -> new PendingUsage()).requests.increment();
+    }
+
+    public void recordRejected(UUID organisationId) {
+        pending.computeIfAbsent(organisationId, id -> new PendingUsage()).rateLimitHits.increment();
+    }
+
+    /**
+     * Take and reset the usage accumulated since the last drain. Organisations with no
+     * activity are omitted.
+     */
+    public Map<UUID, UsageDelta> drainPending() {
+        Map<UUID, UsageDelta> drained = new HashMap<>();
+        pending.forEach((organisationId, usage) -> {
+            long requests = usage.requests.sumThenReset();
+            long hits = usage.rateLimitHits.sumThenReset();
+            if (requests > 0 || hits > 0) {
+                drained.put(organisationId, new UsageDelta(requests, hits));
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Add usage taken by {@link #drainPending()} back, e.g. when writing it to the database failed.
+     */
+    public void restorePending(Map<UUID, UsageDelta> drained) {
+        drained.forEach((organisationId, delta) -> {
+            PendingUsage usage = pending.computeIfAbsent(organisationId, id -> new PendingUsage());
+            usage.requests.add(delta.requests());
+            usage.rateLimitHits.add(delta.rateLimitHits());
+        });
+    }
+
+    private static String hourlyKey(UUID organisationId, Windows windows) {
+        return KEY_PREFIX + organisationId + ":hourly:" + epochSeconds(windows.hourStart());
+    }
+
+    private static String burstKey(UUID organisationId, Windows windows) {
+        return KEY_PREFIX + organisationId + ":burst:" + epochSeconds(windows.minuteStart());
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static int toInt(String value) {
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static final class PendingUsage {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rateLimitHits = new LongAdder();
+    }
+
+    public record UsageDelta(long requests, long rateLimitHits) {
+    }
+
+    public record Windows(LocalDateTime hourStart, LocalDateTime minuteStart) {
+
+        static Windows of(LocalDateTime now) {
+            return new Windows(now.truncatedTo(ChronoUnit.HOURS), now.truncatedTo(ChronoUnit.MINUTES));
+        }
+
+        public LocalDateTime hourEnd() {
+            return hourStart.plusHours(1);
+        }
+
+        public LocalDateTime minuteEnd() {
+            return minuteStart.plusMinutes(1);
+        }
+    }
+
+    public record WindowCounts(int hourly, int burst, Windows windows) {
+
+        static WindowCounts empty(Windows windows) {
+            return new WindowCounts(0, 0, windows);
+        }
+    }
+}
@@ -62,6 +62,11 @@ public class ApiRateLimit extends BaseAuditEntity {
         checkThreshold();
     }
 
+    public void recordRequests(int count) {
+        this.requestCount += count;
+        checkThreshold();
+    }
+
     private void checkThreshold() {
         if (requestCount >= limitThreshold && !isBlocked) {
             block();
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +17,9 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
 
     Optional<Subscription> findByOrganisationId(UUID organisationId);
 
+    @Query("SELECT os FROM Subscription os JOIN FETCH os.tier WHERE os.organisationId IN :organisationIds")
+    List<Subscription> findByOrganisationIdIn(@Param("organisationIds") Collection<UUID> organisationIds);
+
     Optional<Subscription> findByStripeSubscriptionId(String stripeSubscriptionId);
 
     Optional<Subscription> findByStripeCustomerId(String stripeCustomerId);
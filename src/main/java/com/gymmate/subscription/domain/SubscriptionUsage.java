@@ -112,6 +112,14 @@ public class SubscriptionUsage extends BaseAuditEntity {
         this.apiRateLimitHits++;
     }
 
+    public void incrementApiRequests(int count) {
+        this.apiRequests += count;
+    }
+
+    public void recordRateLimitHits(int count) {
+        this.apiRateLimitHits += count;
+    }
+
     public void updateMemberCount(Integer count) {
         this.memberCount = count;
         calculateMemberOverage();
@@ -0,0 +1,134 @@
+package com.gymmate.subscription.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Atomic usage increments for the rate limit flush. Counts are added in SQL rather than
+ * read, changed and saved, so flushes running on several nodes cannot lose each other's
+ * increments or insert a second row for the same window.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitUsageRepository {
+
+    // Relies on uq_api_rate_limits_window (V22). Rows are written in organisation order so
+    // concurrent flushes lock them in the same order. Blocking mirrors ApiRateLimit.recordRequests:
+    // a window is blocked until its end the first time its count reaches the threshold.
+    private static final String ADD_WINDOW_REQUESTS_SQL = """
+            INSERT INTO api_rate_limits AS arl (organisation_id, window_start, window_end, window_type,
+                request_count, limit_threshold, is_blocked, blocked_until, created_at, updated_at, is_active)
+            SELECT d.organisation_id, :windowStart, :windowEnd, :windowType,
+                d.requests, d.threshold, d.requests >= d.threshold,
+                CASE WHEN d.requests >= d.threshold THEN CAST(:windowEnd AS TIMESTAMP) END,
+                :now, :now, TRUE
+            FROM unnest(CAST(:organisationIds AS UUID[]), CAST(:requests AS INTEGER[]),
+                CAST(:thresholds AS INTEGER[])) AS d(organisation_id, requests, threshold)
+            ORDER BY d.organisation_id
+            ON CONFLICT (organisation_id, window_start, window_type) DO UPDATE
+            SET request_count = COALESCE(arl.request_count, 0) + EXCLUDED.request_count,
+                is_blocked = COALESCE(arl.is_blocked, FALSE)
+                    OR COALESCE(arl.request_count, 0) + EXCLUDED.request_count >= arl.limit_threshold,
+                blocked_until = CASE
+                    WHEN NOT COALESCE(arl.is_blocked, FALSE)
+                        AND COALESCE(arl.request_count, 0) + EXCLUDED.request_count >= arl.limit_threshold
+                    THEN arl.window_end
+                    ELSE arl.blocked_until
+                END,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Usage rows are locked in id order first, as in StockCheckoutRepository, so concurrent
+    // flushes cannot deadlock.
+    private static final String ADD_USAGE_SQL = """
+            WITH deltas AS (
+                SELECT * FROM unnest(CAST(:subscriptionIds AS UUID[]), CAST(:requests AS INTEGER[]),
+                    CAST(:hits AS INTEGER[])) AS d(subscription_id, requests, hits)
+            ),
+            locked AS MATERIALIZED (
+                SELECT su.id FROM subscription_usage su
+                JOIN deltas d ON d.subscription_id = su.subscription_id
+                WHERE su.billing_period_start <= :now AND su.billing_period_end > :now
+                ORDER BY su.id
+                FOR UPDATE OF su
+            )
+            UPDATE subscription_usage su
+            SET api_requests = COALESCE(su.api_requests, 0) + d.requests,
+                api_rate_limit_hits = COALESCE(su.api_rate_limit_hits, 0) + d.hits,
+                updated_at = :now
+            FROM locked l, deltas d
+            WHERE su.id = l.id AND d.subscription_id = su.subscription_id
+            RETURNING su.subscription_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Add requests to each organisation's window starting at {@code windowStart}, creating the
+     * window where it does not exist yet.
+     */
+    public void addWindowRequests(List<WindowIncrement> increments, String windowType,
+                                  LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        UUID[] organisationIds = new UUID[increments.size()];
+        Integer[] requests = new Integer[increments.size()];
+        Integer[] thresholds = new Integer[increments.size()];
+        for (int i = 0; i < increments.size(); i++) {
+            WindowIncrement increment = increments.get(i);
+            organisationIds[i] = increment.organisationId();
+            requests[i] = increment.requests();
+            thresholds[i] = increment.threshold();
+        }
+        jdbcTemplate.update(ADD_WINDOW_REQUESTS_SQL, new MapSqlParameterSource()
+            .addValue("organisationIds", organisationIds)
+            .addValue("requests", requests)
+            .addValue("thresholds", thresholds)
+            .addValue("windowType", windowType)
+            .addValue("windowStart", Timestamp.valueOf(windowStart))
+            .addValue("windowEnd", Timestamp.valueOf(windowEnd))
+            .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Add API requests and rate limit hits to each subscription's usage row for the period
+     * containing {@code now}.
+     *
+     * @return the subscriptions that had a usage row; increments for any other are dropped
+     */
+    public Set<UUID> addUsage(List<UsageIncrement> increments, LocalDateTime now) {
+        if (increments.isEmpty()) {
+            return Set.of();
+        }
+        UUID[] subscriptionIds = new UUID[increments.size()];
+        Integer[] requests = new Integer[increments.size()];
+        Integer[] hits = new Integer[increments.size()];
+        for (int i = 0; i < increments.size(); i++) {
+            UsageIncrement increment = increments.get(i);
+            subscriptionIds[i] = increment.subscriptionId();
+            requests[i] = increment.requests();
+            hits[i] = increment.rateLimitHits();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(ADD_USAGE_SQL, new MapSqlParameterSource()
+            .addValue("subscriptionIds", subscriptionIds)
+            .addValue("requests", requests)
+            .addValue("hits", hits)
+            .addValue("now", Timestamp.valueOf(now)), UUID.class));
+    }
+
+    public record WindowIncrement(UUID organisationId, int requests, int threshold) {
+    }
+
+    public record UsageIncrement(UUID subscriptionId, int requests, int rateLimitHits) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.gymmate.subscription.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based subscription status transitions. Each transition is a single
+ * {@code UPDATE ... RETURNING} that hands back what follow-up notifications need.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionTransitionRepository {
+
+    private static final String EXPIRE_LAPSED_SQL = """
+            WITH expired AS (
+                UPDATE subscriptions SET status = 'EXPIRED', updated_at = :now
+                WHERE status = 'ACTIVE' AND current_period_end < :now
+                RETURNING id, organisation_id
+            )
+            SELECT e.id, e.organisation_id, o.name, o.contact_email
+            FROM expired e
+            LEFT JOIN organisations o ON o.id = e.organisation_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Mark every ACTIVE subscription whose period ended before {@code now} as EXPIRED.
+     *
+     * @return the subscriptions expired, with their organisation's name and contact email
+     */
+    public List<ExpiredSubscription> expireLapsed(LocalDateTime now) {
+        return jdbcTemplate.query(EXPIRE_LAPSED_SQL, new MapSqlParameterSource("now", Timestamp.valueOf(now)),
+                (rs, rowNum) -> new ExpiredSubscription(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("organisation_id", UUID.class),
+                        rs.getString("name"),
+                        rs.getString("contact_email")));
+    }
+
+    public record ExpiredSubscription(UUID subscriptionId, UUID organisationId, String organisationName,
+                                      String contactEmail) {
+    }
+}
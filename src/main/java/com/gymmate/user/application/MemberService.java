@@ -3,6 +3,7 @@ package com.gymmate.user.application;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import com.gymmate.user.domain.Member;
+import com.gymmate.user.domain.events.MemberEntitlementChangedEvent;
 import com.gymmate.shared.constants.MemberStatus;
 import com.gymmate.user.domain.User;
 import com.gymmate.user.infrastructure.MemberRepository;
@@ -86,7 +87,9 @@ public class MemberService {
     public Member signWaiver(UUID memberId) {
         Member member = findById(memberId);
         member.signWaiver();
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, memberId));
+        return saved;
     }
 
     /**
@@ -127,7 +130,9 @@ public class MemberService {
     public Member activate(UUID memberId) {
         Member member = findById(memberId);
         member.activate();
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, memberId));
+        return saved;
     }
 
     /**
@@ -137,7 +142,9 @@ public class MemberService {
     public Member suspend(UUID memberId) {
         Member member = findById(memberId);
         member.suspend();
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, memberId));
+        return saved;
     }
 
     /**
@@ -147,7 +154,9 @@ public class MemberService {
     public Member cancel(UUID memberId) {
         Member member = findById(memberId);
         member.cancel();
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberEntitlementChangedEvent(this, memberId));
+        return saved;
     }
 
   /**
@@ -2,10 +2,12 @@ package com.gymmate.user.application;
 
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import com.gymmate.user.domain.User;
+import com.gymmate.user.domain.events.UserAccessChangedEvent;
 import com.gymmate.user.infrastructure.UserRepository;
 import com.gymmate.shared.constants.UserRole;
 import com.gymmate.shared.constants.UserStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ import org.springframework.scheduling.annotation.Async;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Find a user by ID.
@@ -67,7 +70,9 @@ public class UserService {
     public User deactivateUser(UUID userId) {
         User user = findById(userId);
         user.deactivate();
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccessChangedEvent(this, userId, UserAccessChangedEvent.Reason.DEACTIVATED));
+        return saved;
     }
 
     /**
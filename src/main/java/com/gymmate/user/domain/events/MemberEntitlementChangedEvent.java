@@ -0,0 +1,23 @@
+package com.gymmate.user.domain.events;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.UUID;
+
+/**
+ * Published when anything that decides whether a member may enter changes:
+ * member status, waiver, or the state of their memberships.
+ */
+public class MemberEntitlementChangedEvent extends ApplicationEvent {
+
+    private final UUID memberId;
+
+    public MemberEntitlementChangedEvent(Object source, UUID memberId) {
+        super(source);
+        this.memberId = memberId;
+    }
+
+    public UUID getMemberId() {
+        return memberId;
+    }
+}
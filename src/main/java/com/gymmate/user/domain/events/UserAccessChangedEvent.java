@@ -0,0 +1,35 @@
+package com.gymmate.user.domain.events;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.UUID;
+
+/**
+ * Published whenever something that affects how a user authenticates changes
+ * (status, role, logout). Listeners holding per-user security state must drop it.
+ */
+public class UserAccessChangedEvent extends ApplicationEvent {
+
+    public enum Reason {
+        DEACTIVATED,
+        ROLE_CHANGED,
+        LOGOUT
+    }
+
+    private final UUID userId;
+    private final Reason reason;
+
+    public UserAccessChangedEvent(Object source, UUID userId, Reason reason) {
+        super(source);
+        this.userId = userId;
+        this.reason = reason;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,28 @@
+-- ============================================================
+-- V13: per-schedule seat counter and booking idempotency
+--
+-- class_schedules.booked_count holds the number of bookings occupying a seat
+-- (CONFIRMED, COMPLETED, NO_SHOW). Bookings reserve a seat with a conditional
+-- UPDATE ... WHERE booked_count < capacity, so concurrent requests for the last
+-- spot cannot both be confirmed.
+-- ============================================================
+ALTER TABLE class_schedules ADD COLUMN IF NOT EXISTS booked_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE class_schedules cs
+SET booked_count = (
+    SELECT COUNT(*) FROM class_bookings cb
+    WHERE cb.class_schedule_id = cs.id
+      AND cb.status IN ('CONFIRMED', 'COMPLETED', 'NO_SHOW')
+);
+
+-- Client-supplied key so retried booking requests return the original booking
+ALTER TABLE class_bookings ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(100);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_class_bookings_idempotency
+  ON class_bookings(member_id, idempotency_key)
+  WHERE idempotency_key IS NOT NULL;
+
+-- One live booking per member per schedule, enforced under concurrency
+CREATE UNIQUE INDEX IF NOT EXISTS uq_class_bookings_schedule_member
+  ON class_bookings(class_schedule_id, member_id)
+  WHERE status <> 'CANCELLED';
@@ -0,0 +1,30 @@
+-- ============================================================
+-- V14: waitlist ordering by sequence number
+--
+-- Waitlisted bookings are ordered by a monotonically increasing waitlist_seq.
+-- A member's position is computed on read (waitlisted rows with a lower seq
+-- for the same schedule + 1), so cancellations and promotions write a single
+-- row instead of renumbering the whole waitlist.
+-- ============================================================
+CREATE SEQUENCE IF NOT EXISTS class_booking_waitlist_seq;
+
+ALTER TABLE class_bookings ADD COLUMN IF NOT EXISTS waitlist_seq BIGINT;
+
+-- Carry over the existing order
+UPDATE class_bookings cb
+SET waitlist_seq = ordered.rn
+FROM (
+    SELECT id, row_number() OVER (ORDER BY waitlist_position NULLS LAST, booking_date) AS rn
+    FROM class_bookings
+    WHERE status = 'WAITLISTED'
+) ordered
+WHERE cb.id = ordered.id;
+
+SELECT setval('class_booking_waitlist_seq', COALESCE((SELECT MAX(waitlist_seq) FROM class_bookings), 0) + 1, false);
+
+DROP INDEX IF EXISTS idx_class_bookings_waitlist;
+ALTER TABLE class_bookings DROP COLUMN IF EXISTS waitlist_position;
+
+CREATE INDEX IF NOT EXISTS idx_class_bookings_waitlist_seq
+  ON class_bookings(class_schedule_id, waitlist_seq)
+  WHERE status = 'WAITLISTED';
@@ -0,0 +1,114 @@
+-- ============================================================
+-- V15: daily analytics rollups per gym
+--
+-- Dashboard metrics are read from these tables instead of scanning bookings,
+-- sales and memberships on every request. Each row holds the facts of one gym
+-- for one calendar day and is recomputed as a whole by AnalyticsRollupService
+-- whenever a source row for that day changes, plus a nightly reconciliation
+-- over a trailing window.
+-- ============================================================
+CREATE TABLE IF NOT EXISTS analytics_daily_gym (
+    gym_id UUID NOT NULL,
+    fact_date DATE NOT NULL,
+    new_members INTEGER NOT NULL DEFAULT 0,
+    cancelled_memberships INTEGER NOT NULL DEFAULT 0,
+    membership_revenue DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    pos_revenue DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    pos_transactions INTEGER NOT NULL DEFAULT 0,
+    scheduled_sessions INTEGER NOT NULL DEFAULT 0,
+    bookings INTEGER NOT NULL DEFAULT 0,
+    completed_bookings INTEGER NOT NULL DEFAULT 0,
+    cancelled_bookings INTEGER NOT NULL DEFAULT 0,
+    no_shows INTEGER NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (gym_id, fact_date)
+);
+
+-- Bookings per class, keyed by booking date
+CREATE TABLE IF NOT EXISTS analytics_daily_class (
+    gym_id UUID NOT NULL,
+    fact_date DATE NOT NULL,
+    class_id UUID NOT NULL,
+    class_name VARCHAR(255) NOT NULL,
+    bookings INTEGER NOT NULL DEFAULT 0,
+    completed_bookings INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (gym_id, fact_date, class_id)
+);
+
+-- Bookings per class start hour, keyed by booking date (weekday is derived from fact_date)
+CREATE TABLE IF NOT EXISTS analytics_daily_hour (
+    gym_id UUID NOT NULL,
+    fact_date DATE NOT NULL,
+    hour_of_day SMALLINT NOT NULL,
+    bookings INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (gym_id, fact_date, hour_of_day)
+);
+
+-- Change capture: the refresher looks for rows modified since its last run
+CREATE INDEX IF NOT EXISTS idx_members_updated_at ON members(updated_at);
+CREATE INDEX IF NOT EXISTS idx_member_memberships_updated_at ON member_memberships(updated_at);
+CREATE INDEX IF NOT EXISTS idx_pos_sales_updated_at ON pos_sales(updated_at);
+CREATE INDEX IF NOT EXISTS idx_class_schedules_updated_at ON class_schedules(updated_at);
+CREATE INDEX IF NOT EXISTS idx_class_bookings_updated_at ON class_bookings(updated_at);
+
+-- Recomputing one gym-day touches only that day's source rows
+CREATE INDEX IF NOT EXISTS idx_members_gym_created ON members(gym_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_member_memberships_gym_created ON member_memberships(gym_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_member_memberships_gym_billing ON member_memberships(gym_id, next_billing_date);
+CREATE INDEX IF NOT EXISTS idx_class_schedules_gym_start ON class_schedules(gym_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_class_bookings_gym_booking_date ON class_bookings(gym_id, booking_date);
+
+-- Backfill from existing history
+INSERT INTO analytics_daily_gym (gym_id, fact_date, new_members, cancelled_memberships, membership_revenue,
+    pos_revenue, pos_transactions, scheduled_sessions, bookings, completed_bookings, cancelled_bookings, no_shows)
+SELECT gym_id, fact_date,
+       SUM(new_members), SUM(cancelled_memberships), SUM(membership_revenue),
+       SUM(pos_revenue), SUM(pos_transactions), SUM(scheduled_sessions),
+       SUM(bookings), SUM(completed_bookings), SUM(cancelled_bookings), SUM(no_shows)
+FROM (
+    SELECT gym_id, CAST(created_at AS DATE) AS fact_date,
+           1 AS new_members, 0 AS cancelled_memberships, 0 AS membership_revenue,
+           0 AS pos_revenue, 0 AS pos_transactions, 0 AS scheduled_sessions,
+           0 AS bookings, 0 AS completed_bookings, 0 AS cancelled_bookings, 0 AS no_shows
+    FROM members
+    UNION ALL
+    SELECT gym_id, CAST(created_at AS DATE), 0, 1, 0, 0, 0, 0, 0, 0, 0, 0
+    FROM member_memberships WHERE status = 'CANCELLED'
+    UNION ALL
+    SELECT gym_id, next_billing_date, 0, 0, monthly_amount, 0, 0, 0, 0, 0, 0, 0
+    FROM member_memberships WHERE status = 'ACTIVE'
+    UNION ALL
+    SELECT gym_id, CAST(sale_date AS DATE), 0, 0, 0,
+           CASE WHEN status = 'COMPLETED' THEN total_amount ELSE 0 END, 1, 0, 0, 0, 0, 0
+    FROM pos_sales
+    UNION ALL
+    SELECT gym_id, CAST(start_time AS DATE), 0, 0, 0, 0, 0, 1, 0, 0, 0, 0
+    FROM class_schedules
+    UNION ALL
+    SELECT gym_id, CAST(booking_date AS DATE), 0, 0, 0, 0, 0, 0, 1,
+           CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END,
+           CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END,
+           CASE WHEN status = 'NO_SHOW' THEN 1 ELSE 0 END
+    FROM class_bookings
+) facts
+WHERE gym_id IS NOT NULL AND fact_date IS NOT NULL
+GROUP BY gym_id, fact_date
+ON CONFLICT (gym_id, fact_date) DO NOTHING;
+
+INSERT INTO analytics_daily_class (gym_id, fact_date, class_id, class_name, bookings, completed_bookings)
+SELECT cb.gym_id, CAST(cb.booking_date AS DATE), c.id, c.name,
+       COUNT(*), COUNT(*) FILTER (WHERE cb.status = 'COMPLETED')
+FROM class_bookings cb
+JOIN class_schedules cs ON cs.id = cb.class_schedule_id
+JOIN classes c ON c.id = cs.class_id
+WHERE cb.gym_id IS NOT NULL AND cb.booking_date IS NOT NULL
+GROUP BY cb.gym_id, CAST(cb.booking_date AS DATE), c.id, c.name
+ON CONFLICT (gym_id, fact_date, class_id) DO NOTHING;
+
+INSERT INTO analytics_daily_hour (gym_id, fact_date, hour_of_day, bookings)
+SELECT cb.gym_id, CAST(cb.booking_date AS DATE), CAST(EXTRACT(HOUR FROM cs.start_time) AS SMALLINT), COUNT(*)
+FROM class_bookings cb
+JOIN class_schedules cs ON cs.id = cb.class_schedule_id
+WHERE cb.gym_id IS NOT NULL AND cb.booking_date IS NOT NULL
+GROUP BY cb.gym_id, CAST(cb.booking_date AS DATE), CAST(EXTRACT(HOUR FROM cs.start_time) AS SMALLINT)
+ON CONFLICT (gym_id, fact_date, hour_of_day) DO NOTHING;
@@ -0,0 +1,27 @@
+-- ============================================================
+-- V16: resumable newsletter campaign delivery
+--
+-- A campaign's audience is snapshotted into campaign_recipients as PENDING
+-- rows before anything is sent; delivery then walks the PENDING rows in id
+-- order and records each chunk's results, so the recipient rows double as
+-- the progress checkpoint. The lease column stops two nodes from delivering
+-- the same campaign and lets another node pick it up after a crash.
+-- ============================================================
+ALTER TABLE newsletter_campaigns ADD COLUMN IF NOT EXISTS delivery_lease_until TIMESTAMP;
+
+-- One recipient row per member per campaign
+DELETE FROM campaign_recipients a
+USING campaign_recipients b
+WHERE a.campaign_id = b.campaign_id
+  AND a.member_id = b.member_id
+  AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_campaign_recipients_campaign_member
+    ON campaign_recipients(campaign_id, member_id);
+
+-- Keyset pagination over pending recipients
+CREATE INDEX IF NOT EXISTS idx_campaign_recipients_campaign_status_id
+    ON campaign_recipients(campaign_id, status, id);
+
+CREATE INDEX IF NOT EXISTS idx_newsletter_campaigns_sending
+    ON newsletter_campaigns(status) WHERE status = 'SENDING';
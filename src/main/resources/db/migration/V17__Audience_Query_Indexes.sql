@@ -0,0 +1,10 @@
+-- ============================================================
+-- V17: indexes for SQL audience resolution
+--
+-- Campaign audiences are selected with one query over a gym's members,
+-- filtered by member status or by EXISTS over bookings / memberships.
+-- ============================================================
+CREATE INDEX IF NOT EXISTS idx_members_gym_status ON members(gym_id, status);
+CREATE INDEX IF NOT EXISTS idx_class_bookings_member_schedule ON class_bookings(member_id, class_schedule_id);
+CREATE INDEX IF NOT EXISTS idx_member_memberships_member_plan ON member_memberships(member_id, membership_plan_id)
+    WHERE status = 'ACTIVE';
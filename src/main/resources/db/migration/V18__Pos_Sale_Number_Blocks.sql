@@ -0,0 +1,27 @@
+-- ============================================================
+-- V18: per-gym, per-day POS sale number blocks
+--
+-- Each node leases a block of sale numbers for a gym and day by
+-- advancing next_value, then hands numbers out from memory until the
+-- block runs out. Numbers are unique within a gym; sale_number is
+-- therefore unique per gym rather than across all gyms.
+-- ============================================================
+CREATE TABLE IF NOT EXISTS pos_sale_number_blocks (
+    gym_id UUID NOT NULL,
+    sale_day DATE NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (gym_id, sale_day)
+);
+
+-- Continue after numbers already handed out in the old POS_SALE-yyyyMMdd-NNNNNN format
+INSERT INTO pos_sale_number_blocks (gym_id, sale_day, next_value)
+SELECT gym_id, to_date(split_part(sale_number, '-', 2), 'YYYYMMDD'),
+       MAX(CAST(split_part(sale_number, '-', 3) AS BIGINT)) + 1
+FROM pos_sales
+WHERE sale_number ~ '^POS_SALE-[0-9]{8}-[0-9]+$'
+GROUP BY gym_id, split_part(sale_number, '-', 2)
+ON CONFLICT (gym_id, sale_day) DO NOTHING;
+
+ALTER TABLE pos_sales DROP CONSTRAINT IF EXISTS pos_sales_sale_number_key;
+DROP INDEX IF EXISTS idx_pos_sales_sale_number;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_pos_sales_gym_sale_number ON pos_sales(gym_id, sale_number);
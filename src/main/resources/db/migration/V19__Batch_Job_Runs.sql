@@ -0,0 +1,45 @@
+-- ============================================================
+-- V19: nightly batch job runs and per-partition checkpoints
+--
+-- A run is claimed by one node through its lease (locked_by / lock_until),
+-- so the same cron firing on every node executes the job once. Each
+-- partition (a gym) records the last item id of every committed chunk,
+-- so a run whose node died resumes after its last checkpoint.
+-- ============================================================
+CREATE TABLE IF NOT EXISTS batch_job_runs (
+    job_name VARCHAR(100) NOT NULL,
+    run_key VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    locked_by VARCHAR(100),
+    lock_until TIMESTAMP,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    items_processed BIGINT NOT NULL DEFAULT 0,
+    items_failed BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (job_name, run_key),
+    CONSTRAINT chk_batch_job_runs_status CHECK (status IN ('RUNNING', 'COMPLETED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_batch_job_runs_running ON batch_job_runs(lock_until)
+    WHERE status = 'RUNNING';
+
+CREATE TABLE IF NOT EXISTS batch_job_checkpoints (
+    job_name VARCHAR(100) NOT NULL,
+    run_key VARCHAR(50) NOT NULL,
+    partition_id UUID NOT NULL,
+    last_item_id UUID,
+    items_processed BIGINT NOT NULL DEFAULT 0,
+    items_failed BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (job_name, run_key, partition_id),
+    CONSTRAINT fk_batch_job_checkpoints_run FOREIGN KEY (job_name, run_key)
+        REFERENCES batch_job_runs(job_name, run_key) ON DELETE CASCADE
+);
+
+-- Partition discovery and keyset chunks for the membership jobs
+CREATE INDEX IF NOT EXISTS idx_member_memberships_lapsed ON member_memberships(gym_id, id, end_date)
+    WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_member_memberships_frozen ON member_memberships(gym_id, id, frozen_until)
+    WHERE is_frozen = TRUE;
@@ -0,0 +1,38 @@
+-- ============================================================
+-- V20: durable outbound email queue
+--
+-- Emails are rendered and written here instead of being sent on the
+-- request's @Async thread, so a restart no longer loses them. Delivery
+-- workers claim due PENDING rows in batches (SKIP LOCKED, so nodes never
+-- share a row) and hold them as SENDING until lock_until. A node that dies
+-- mid-batch leaves its rows to be reclaimed once the lock lapses. Failed
+-- attempts go back to PENDING with a later next_attempt_at until
+-- max-attempts is reached, then stay FAILED.
+-- ============================================================
+CREATE TABLE IF NOT EXISTS outbound_emails (
+    id UUID PRIMARY KEY DEFAULT uuidv7(),
+    to_address VARCHAR(320) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    html_body TEXT NOT NULL,
+    -- Registration flow user whose email-status stream reports this email's progress
+    status_user_id VARCHAR(100),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(100),
+    lock_until TIMESTAMP,
+    last_error TEXT,
+    sent_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_outbound_emails_status CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED'))
+);
+
+-- Due work: the claim query scans only unsent rows in due order
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_due ON outbound_emails(next_attempt_at)
+    WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_sending ON outbound_emails(lock_until)
+    WHERE status = 'SENDING';
+-- Retention purge of delivered mail
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_sent ON outbound_emails(sent_at)
+    WHERE status = 'SENT';
@@ -0,0 +1,17 @@
+-- ============================================================
+-- V21: backfill class_bookings.gym_id from the booked schedule
+--
+-- Bookings created without a gym context were saved with a NULL
+-- gym_id. Rollups now attribute bookings through class_schedules,
+-- and updated_at is bumped so the next incremental analytics refresh
+-- recomputes the gym-days these bookings belong to.
+-- ============================================================
+UPDATE class_bookings cb
+SET gym_id = cs.gym_id,
+    updated_at = CURRENT_TIMESTAMP
+FROM class_schedules cs
+WHERE cs.id = cb.class_schedule_id
+  AND cb.gym_id IS NULL;
+
+-- Rollup refreshes now range over booking_date and join to the schedule for the gym
+CREATE INDEX IF NOT EXISTS idx_class_bookings_booking_date ON class_bookings(booking_date);
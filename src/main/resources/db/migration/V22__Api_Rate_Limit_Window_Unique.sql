@@ -0,0 +1,40 @@
+-- ============================================================
+-- V22: one api_rate_limits row per organisation and window
+--
+-- Usage flushes now add to the hourly window with
+-- INSERT ... ON CONFLICT, which needs a unique index on the window
+-- key. Concurrent read-modify-write flushes could have inserted
+-- duplicate rows for the same window, so those are merged into the
+-- oldest row first: counts are summed and any block is kept.
+-- ============================================================
+WITH windows AS (
+    SELECT id,
+           SUM(COALESCE(request_count, 0)) OVER w AS total_requests,
+           BOOL_OR(COALESCE(is_blocked, FALSE)) OVER w AS any_blocked,
+           MAX(blocked_until) OVER w AS latest_blocked_until,
+           COUNT(*) OVER w AS copies,
+           ROW_NUMBER() OVER (PARTITION BY organisation_id, window_start, window_type ORDER BY created_at, id) AS rn
+    FROM api_rate_limits
+    WINDOW w AS (PARTITION BY organisation_id, window_start, window_type)
+)
+UPDATE api_rate_limits arl
+SET request_count = w.total_requests,
+    is_blocked = w.any_blocked,
+    blocked_until = w.latest_blocked_until,
+    updated_at = CURRENT_TIMESTAMP
+FROM windows w
+WHERE arl.id = w.id
+  AND w.rn = 1
+  AND w.copies > 1;
+
+DELETE FROM api_rate_limits arl
+USING (
+    SELECT id,
+           ROW_NUMBER() OVER (PARTITION BY organisation_id, window_start, window_type ORDER BY created_at, id) AS rn
+    FROM api_rate_limits
+) d
+WHERE arl.id = d.id
+  AND d.rn > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_api_rate_limits_window
+    ON api_rate_limits(organisation_id, window_start, window_type);
@@ -0,0 +1,16 @@
+-- ============================================================
+-- V23: backfill member_memberships.gym_id from the member
+--
+-- Memberships subscribed without a gym claim in the caller's token
+-- were saved with a NULL gym_id. Rollups now attribute memberships
+-- through members, and updated_at is bumped so the next incremental
+-- analytics refresh recomputes the gym-days these memberships
+-- belong to.
+-- ============================================================
+UPDATE member_memberships mm
+SET gym_id = m.gym_id,
+    updated_at = CURRENT_TIMESTAMP
+FROM members m
+WHERE m.id = mm.member_id
+  AND mm.gym_id IS NULL
+  AND m.gym_id IS NOT NULL;
@@ -0,0 +1,10 @@
+-- ============================================================
+-- V24: link queued campaign emails to their campaign recipient
+--
+-- Campaign delivery counts a recipient as SENT once its email is
+-- queued. The queue row now carries the recipient, so an email that
+-- finally fails marks the recipient FAILED and moves it from the
+-- campaign's delivered count to its failed count. Rows are only looked
+-- up by primary key from the queue side, so no index is needed.
+-- ============================================================
+ALTER TABLE outbound_emails ADD COLUMN IF NOT EXISTS campaign_recipient_id UUID;
@@ -9,17 +9,22 @@ import com.gymmate.access.domain.enums.AccessPointMode;
 import com.gymmate.access.domain.enums.CredentialType;
 import com.gymmate.access.infrastructure.AccessCredentialRepository;
 import com.gymmate.access.infrastructure.AccessEventRepository;
+import com.gymmate.access.infrastructure.AccessEventWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gymmate.access.infrastructure.AccessPointRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.file.Files;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -74,6 +79,8 @@ class AccessPersistenceIntegrationTest {
   @Autowired AccessCredentialRepository accessCredentialRepository;
   @Autowired AccessEventRepository accessEventRepository;
   @Autowired JdbcTemplate jdbc;
+  @Autowired PlatformTransactionManager transactionManager;
+  @Autowired ObjectMapper objectMapper;
 
   // access_* rows have NOT NULL FKs to organisations/gyms (and members for
   // credentials). Seed the minimal parent rows so the inserts satisfy the
@@ -165,4 +172,30 @@ class AccessPersistenceIntegrationTest {
     assertTrue(lastGranted.isPresent());
     assertEquals(AccessDirection.IN, lastGranted.get().getDirection());
   }
+
+  @Test
+  void writeThroughInsideReadOnlyTransactionCommitsAndLeavesCallerIntact() throws Exception {
+    UUID gymId = UUID.randomUUID();
+    UUID orgId = UUID.randomUUID();
+    seedOrgAndGym(orgId, gymId);
+    AccessPoint point = persistPoint(gymId, orgId);
+    // Not started, so every write takes the caller-thread fallback
+    AccessEventWriter writer = new AccessEventWriter(jdbc, transactionManager, objectMapper, 10, 10, 20, 10,
+        Files.createTempFile("access-events", ".spill").toString());
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    AccessEvent ev = AccessEvent.builder()
+        .accessPointId(point.getId()).memberId(UUID.randomUUID())
+        .direction(AccessDirection.IN).decision(AccessDecision.GRANTED).build();
+    ev.setGymId(gymId);
+    ev.setOrganisationId(orgId);
+    readOnly.executeWithoutResult(status -> {
+      writer.write(ev);
+      assertFalse(status.isRollbackOnly());
+    });
+
+    assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM access_events WHERE id = ?", Integer.class,
+        ev.getId()));
+  }
 }
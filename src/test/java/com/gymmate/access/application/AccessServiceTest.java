@@ -13,6 +13,8 @@ import com.gymmate.access.events.AccessDeniedEvent;
 import com.gymmate.access.events.TailgatingSuspectedEvent;
 import com.gymmate.access.infrastructure.AccessCredentialRepository;
 import com.gymmate.access.infrastructure.AccessEventRepository;
+import com.gymmate.access.infrastructure.AccessEventWriter;
+import com.gymmate.access.infrastructure.AccessLogRepository;
 import com.gymmate.access.infrastructure.AccessPointRepository;
 import com.gymmate.access.infrastructure.AccessScheduleRepository;
 import com.gymmate.access.infrastructure.DoorBenefitRepository;
@@ -24,7 +26,11 @@ import com.gymmate.user.domain.Member;
 import com.gymmate.user.infrastructure.MemberRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -41,11 +47,14 @@ class AccessServiceTest {
   private AccessPointRepository accessPointRepository;
   private AccessCredentialRepository accessCredentialRepository;
   private AccessEventRepository accessEventRepository;
+  private AccessEventWriter accessEventWriter;
   private DoorBenefitRepository doorBenefitRepository;
   private AccessScheduleRepository accessScheduleRepository;
   private MemberRepository memberRepository;
   private MemberMembershipRepository memberMembershipRepository;
   private ApplicationEventPublisher eventPublisher;
+  private OccupancyTracker occupancyTracker;
+  private PlatformTransactionManager transactionManager;
   private AccessService service;
 
   private UUID gymId;
@@ -61,16 +70,24 @@ class AccessServiceTest {
     accessPointRepository = mock(AccessPointRepository.class);
     accessCredentialRepository = mock(AccessCredentialRepository.class);
     accessEventRepository = mock(AccessEventRepository.class);
+    accessEventWriter = mock(AccessEventWriter.class);
     doorBenefitRepository = mock(DoorBenefitRepository.class);
     accessScheduleRepository = mock(AccessScheduleRepository.class);
     memberRepository = mock(MemberRepository.class);
     memberMembershipRepository = mock(MemberMembershipRepository.class);
     eventPublisher = mock(ApplicationEventPublisher.class);
+    transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+
+    AccessEntitlementCache entitlementCache = new AccessEntitlementCache(
+        accessCredentialRepository, accessPointRepository, doorBenefitRepository,
+        accessScheduleRepository, memberRepository, memberMembershipRepository, transactionManager, 1000, 10);
+
+    occupancyTracker = new OccupancyTracker(accessEventRepository, mock(AccessLogRepository.class), 12);
 
     service = new AccessService(
-        accessPointRepository, accessCredentialRepository, accessEventRepository,
-        doorBenefitRepository, accessScheduleRepository, memberRepository,
-        memberMembershipRepository, List.of(new SoftwareAccessAdapter()), eventPublisher);
+        accessPointRepository, accessCredentialRepository, accessEventRepository, accessEventWriter,
+        memberRepository, entitlementCache, occupancyTracker, List.of(new SoftwareAccessAdapter()), eventPublisher);
 
     gymId = UUID.randomUUID();
     orgId = UUID.randomUUID();
@@ -99,15 +116,10 @@ class AccessServiceTest {
     when(accessCredentialRepository.findByTokenHashAndActiveTrue(anyString()))
         .thenReturn(Optional.of(credential));
     when(memberRepository.findById(memberId)).thenReturn(Optional.of(member));
-    when(accessEventRepository.save(any(AccessEvent.class)))
+    when(accessEventWriter.write(any(AccessEvent.class)))
         .thenAnswer(inv -> inv.getArgument(0));
     // No benefits/schedules configured by default
-    when(doorBenefitRepository.existsByAccessPointId(pointId)).thenReturn(false);
-    // Not currently inside, no recent entry
-    when(accessEventRepository.findTopByMemberIdAndDecisionOrderByOccurredAtDesc(memberId, AccessDecision.GRANTED))
-        .thenReturn(Optional.empty());
-    when(accessEventRepository.findTopByCredentialIdAndDecisionAndDirectionOrderByOccurredAtDesc(
-        any(), eq(AccessDecision.GRANTED), eq(AccessDirection.IN))).thenReturn(Optional.empty());
+    when(doorBenefitRepository.findByAccessPointId(pointId)).thenReturn(List.of());
   }
 
   private MemberMembership activeMembership() {
@@ -124,6 +136,7 @@ class AccessServiceTest {
     assertEquals(AccessDecision.GRANTED, ev.getDecision());
     assertNull(ev.getDenyReason());
     assertFalse(ev.isTailgatingSuspected());
+    assertEquals(1, service.getOccupancy(gymId));
   }
 
   @Test
@@ -163,10 +176,8 @@ class AccessServiceTest {
   void scan_flagsTailgatingWhenMemberAlreadyInside() {
     when(memberMembershipRepository.findActiveMembershipByMemberId(memberId))
         .thenReturn(Optional.of(activeMembership()));
-    AccessEvent insideEvent = AccessEvent.builder()
-        .direction(AccessDirection.IN).decision(AccessDecision.GRANTED).build();
-    when(accessEventRepository.findTopByMemberIdAndDecisionOrderByOccurredAtDesc(memberId, AccessDecision.GRANTED))
-        .thenReturn(Optional.of(insideEvent));
+    occupancyTracker.recordMove(gymId, memberId, credential.getId(), AccessDirection.IN,
+        LocalDateTime.now().minusHours(1));
 
     AccessEvent ev = service.scan("token", pointId, AccessDirection.IN);
 
@@ -180,12 +191,10 @@ class AccessServiceTest {
   void scan_blocksRapidReentryWithSameCredential() {
     when(memberMembershipRepository.findActiveMembershipByMemberId(memberId))
         .thenReturn(Optional.of(activeMembership()));
-    AccessEvent recentEntry = AccessEvent.builder()
-        .direction(AccessDirection.IN).decision(AccessDecision.GRANTED)
-        .occurredAt(LocalDateTime.now().minusSeconds(10)).build();
-    when(accessEventRepository.findTopByCredentialIdAndDecisionAndDirectionOrderByOccurredAtDesc(
-        any(), eq(AccessDecision.GRANTED), eq(AccessDirection.IN)))
-        .thenReturn(Optional.of(recentEntry));
+    occupancyTracker.recordMove(gymId, memberId, credential.getId(), AccessDirection.IN,
+        LocalDateTime.now().minusSeconds(10));
+    occupancyTracker.recordMove(gymId, memberId, credential.getId(), AccessDirection.OUT,
+        LocalDateTime.now().minusSeconds(5));
 
     AccessEvent ev = service.scan("token", pointId, AccessDirection.IN);
 
@@ -219,4 +228,20 @@ class AccessServiceTest {
     assertFalse(ev.isTailgatingSuspected());
     verify(eventPublisher, never()).publishEvent(any(TailgatingSuspectedEvent.class));
   }
+
+  @Test
+  void scan_onlyOpensTransactionOnCacheMiss() {
+    service.scan("token", pointId, AccessDirection.IN);
+    service.scan("token", pointId, AccessDirection.IN);
+
+    // One read-only load for the access point and one for the snapshot; the second scan is all hits
+    ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager, atLeast(2)).getTransaction(definitions.capture());
+    assertTrue(definitions.getAllValues().stream().allMatch(TransactionDefinition::isReadOnly));
+    int loads = definitions.getAllValues().size();
+
+    service.scan("token", pointId, AccessDirection.OUT);
+
+    verify(transactionManager, times(loads)).getTransaction(any());
+  }
 }
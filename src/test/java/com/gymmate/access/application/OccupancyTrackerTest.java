@@ -0,0 +1,110 @@
+package com.gymmate.access.application;
+
+import com.gymmate.access.domain.AccessEvent;
+import com.gymmate.access.domain.AccessLog;
+import com.gymmate.access.domain.enums.AccessDecision;
+import com.gymmate.access.domain.enums.AccessDirection;
+import com.gymmate.access.infrastructure.AccessEventRepository;
+import com.gymmate.access.infrastructure.AccessLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OccupancyTrackerTest {
+
+  private AccessEventRepository accessEventRepository;
+  private AccessLogRepository accessLogRepository;
+  private OccupancyTracker tracker;
+
+  private UUID gymId;
+  private UUID memberId;
+
+  @BeforeEach
+  void setUp() {
+    accessEventRepository = mock(AccessEventRepository.class);
+    accessLogRepository = mock(AccessLogRepository.class);
+    tracker = new OccupancyTracker(accessEventRepository, accessLogRepository, 12);
+    gymId = UUID.randomUUID();
+    memberId = UUID.randomUUID();
+  }
+
+  @Test
+  void entryAndExit_updateHeadcount() {
+    LocalDateTime now = LocalDateTime.now();
+    tracker.recordMove(gymId, memberId, null, AccessDirection.IN, now);
+    tracker.recordMove(gymId, UUID.randomUUID(), null, AccessDirection.IN, now);
+    assertEquals(2, tracker.occupancy(gymId));
+
+    tracker.recordMove(gymId, memberId, null, AccessDirection.OUT, now);
+    tracker.recordMove(gymId, memberId, null, AccessDirection.OUT, now);
+
+    assertEquals(1, tracker.occupancy(gymId));
+    assertFalse(tracker.presenceOf(memberId).inside());
+  }
+
+  @Test
+  void tryMove_rejectionLeavesStateUntouched() {
+    String rejection = tracker.tryMove(gymId, memberId, null, AccessDirection.IN, LocalDateTime.now(),
+        (presence, lastEntry) -> "blocked");
+
+    assertEquals("blocked", rejection);
+    assertEquals(0, tracker.occupancy(gymId));
+    assertNull(tracker.presenceOf(memberId).lastMovementAt());
+  }
+
+  @Test
+  void tryMove_passesCredentialLastEntryToRule() {
+    UUID credentialId = UUID.randomUUID();
+    LocalDateTime entered = LocalDateTime.now().minusMinutes(3);
+    tracker.recordMove(gymId, memberId, credentialId, AccessDirection.IN, entered);
+    tracker.recordMove(gymId, memberId, credentialId, AccessDirection.OUT, entered.plusMinutes(1));
+
+    LocalDateTime seen = tracker.tryMove(gymId, memberId, credentialId, AccessDirection.IN, LocalDateTime.now(),
+        (presence, lastEntry) -> lastEntry);
+
+    assertEquals(entered, seen);
+  }
+
+  @Test
+  void presenceOf_checksOutMembersWhoOverstayed() {
+    tracker.recordMove(gymId, memberId, null, AccessDirection.IN, LocalDateTime.now().minusHours(13));
+
+    assertFalse(tracker.presenceOf(memberId).inside());
+    assertEquals(0, tracker.occupancy(gymId));
+  }
+
+  @Test
+  void rebuild_replaysGrantedMovementsFromBothSources() {
+    LocalDateTime now = LocalDateTime.now();
+    UUID otherMember = UUID.randomUUID();
+
+    AccessEvent in = AccessEvent.builder().memberId(memberId).direction(AccessDirection.IN)
+        .decision(AccessDecision.GRANTED).occurredAt(now.minusHours(2)).build();
+    in.setGymId(gymId);
+    AccessEvent out = AccessEvent.builder().memberId(memberId).direction(AccessDirection.OUT)
+        .decision(AccessDecision.GRANTED).occurredAt(now.minusHours(1)).build();
+    out.setGymId(gymId);
+    AccessLog logEntry = AccessLog.builder().memberId(otherMember).direction(AccessLog.AccessDirection.ENTRY)
+        .status(AccessLog.AccessStatus.GRANTED).accessTime(now.minusMinutes(30)).accessMethod("QR").build();
+    logEntry.setGymId(gymId);
+
+    when(accessEventRepository.findByDecisionAndOccurredAtAfterOrderByOccurredAtAsc(eq(AccessDecision.GRANTED), any()))
+        .thenReturn(List.of(in, out));
+    when(accessLogRepository.findByStatusAndAccessTimeAfterOrderByAccessTimeAsc(eq(AccessLog.AccessStatus.GRANTED), any()))
+        .thenReturn(List.of(logEntry));
+
+    tracker.rebuild();
+
+    assertEquals(1, tracker.occupancy(gymId));
+    assertFalse(tracker.presenceOf(memberId).inside());
+    assertTrue(tracker.presenceOf(otherMember).inside());
+  }
+}
@@ -0,0 +1,118 @@
+package com.gymmate.access.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmate.access.domain.AccessEvent;
+import com.gymmate.access.domain.enums.AccessDecision;
+import com.gymmate.access.domain.enums.AccessDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccessEventWriterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private JdbcTemplate jdbcTemplate;
+  private PlatformTransactionManager transactionManager;
+  private ObjectMapper objectMapper;
+  private Path spillFile;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    transactionManager = mock(PlatformTransactionManager.class);
+    objectMapper = new ObjectMapper().findAndRegisterModules();
+    spillFile = tempDir.resolve("access-events.spill");
+    when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+  }
+
+  private AccessEventWriter newWriter() {
+    return new AccessEventWriter(jdbcTemplate, transactionManager, objectMapper, 100, 10, 20, 10,
+        spillFile.toString());
+  }
+
+  private AccessEvent event() {
+    AccessEvent ev = AccessEvent.builder().accessPointId(UUID.randomUUID()).memberId(UUID.randomUUID())
+        .direction(AccessDirection.IN).decision(AccessDecision.GRANTED).build();
+    ev.setGymId(UUID.randomUUID());
+    ev.setOrganisationId(UUID.randomUUID());
+    return ev;
+  }
+
+  @Test
+  void write_assignsIdAndAuditFieldsUpFront() {
+    AccessEvent ev = newWriter().write(event());
+
+    assertNotNull(ev.getId());
+    assertEquals(7, ev.getId().version());
+    assertNotNull(ev.getCreatedAt());
+  }
+
+  @Test
+  void write_beforeStartWritesThrough() {
+    newWriter().write(event());
+
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO access_events"), anyCollection(), eq(1),
+        any(ParameterizedPreparedStatementSetter.class));
+  }
+
+  @Test
+  void write_throughRunsInItsOwnReadWriteTransaction() {
+    newWriter().write(event());
+
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager).getTransaction(definition.capture());
+    assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+    assertFalse(definition.getValue().isReadOnly());
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void stop_flushesQueuedEvents() {
+    AccessEventWriter writer = newWriter();
+    writer.start();
+    for (int i = 0; i < 25; i++) {
+      writer.write(event());
+    }
+
+    writer.stop();
+
+    assertEquals(0, writer.pending());
+    verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("INSERT INTO access_events"), anyCollection(),
+        anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    assertFalse(Files.exists(spillFile));
+  }
+
+  @Test
+  void failedInsertsAreSpilledAndReplayedOnStart() throws Exception {
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+        .thenThrow(new RuntimeException("database down"));
+    AccessEvent ev = newWriter().write(event());
+    assertTrue(Files.exists(spillFile));
+    assertTrue(Files.readString(spillFile).contains(ev.getId().toString()));
+
+    reset(jdbcTemplate);
+    AccessEventWriter restarted = newWriter();
+    restarted.start();
+    restarted.stop();
+
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO access_events"), anyCollection(), eq(1),
+        any(ParameterizedPreparedStatementSetter.class));
+    assertFalse(Files.exists(spillFile));
+  }
+}
@@ -7,12 +7,15 @@ import com.gymmate.classes.infrastructure.GymClassJpaRepository;
 import com.gymmate.membership.domain.MemberMembership;
 import com.gymmate.membership.infrastructure.MemberMembershipRepository;
 import com.gymmate.shared.constants.BookingStatus;
+import com.gymmate.shared.exception.ConflictException;
 import com.gymmate.shared.exception.DomainException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -49,26 +52,29 @@ class ClassBookingServiceTest {
     ClassSchedule schedule = ClassSchedule.builder().classId(classId).startTime(LocalDateTime.now().plusDays(1)).endTime(LocalDateTime.now().plusDays(1).plusHours(1)).build();
     schedule.setId(scheduleId);
     schedule.setOrganisationId(gymId);
+    schedule.setGymId(gymId);
     when(scheduleRepository.findById(scheduleId)).thenReturn(Optional.of(schedule));
     when(bookingRepository.existsByClassScheduleIdAndMemberId(scheduleId, memberId)).thenReturn(false);
 
     GymClass gymClass = GymClass.builder().capacity(2).build();
     gymClass.setId(classId);
     when(classRepository.findById(classId)).thenReturn(Optional.of(gymClass));
-    when(bookingRepository.countConfirmedByScheduleId(scheduleId)).thenReturn(0L);
+    when(scheduleRepository.tryReserveSeat(scheduleId, 2)).thenReturn(1);
 
     MemberMembership membership = MemberMembership.builder().classCreditsRemaining(3).build();
     membership.setId(UUID.randomUUID());
     when(membershipRepository.findActiveMembershipByMemberId(memberId)).thenReturn(Optional.of(membership));
 
-    when(bookingRepository.save(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
+    when(bookingRepository.saveAndFlush(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
 
     ClassBooking booking = bookingService.createBooking(gymId, memberId, scheduleId, "notes");
 
     assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
     assertEquals(1, booking.getCreditsUsed());
+    assertEquals(gymId, booking.getGymId());
     verify(membershipRepository).save(membership);
-    verify(bookingRepository).save(any(ClassBooking.class));
+    verify(bookingRepository).saveAndFlush(any(ClassBooking.class));
+    verify(scheduleRepository, never()).lockSeatCounter(scheduleId);
   }
 
   @Test
@@ -87,14 +93,82 @@ class ClassBookingServiceTest {
     GymClass gymClass = GymClass.builder().capacity(1).build();
     gymClass.setId(classId);
     when(classRepository.findById(classId)).thenReturn(Optional.of(gymClass));
-    when(bookingRepository.countConfirmedByScheduleId(scheduleId)).thenReturn(1L);
+    when(scheduleRepository.tryReserveSeat(scheduleId, 1)).thenReturn(0);
+    when(bookingRepository.nextWaitlistSeq()).thenReturn(42L);
+    when(bookingRepository.countWaitlistAhead(scheduleId, 42L)).thenReturn(2L);
 
-    when(bookingRepository.save(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
+    when(bookingRepository.saveAndFlush(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
 
     ClassBooking booking = bookingService.createBooking(gymId, memberId, scheduleId, null);
 
     assertEquals(BookingStatus.WAITLISTED, booking.getStatus());
-    verify(bookingRepository).save(any(ClassBooking.class));
+    assertEquals(42L, booking.getWaitlistSeq());
+    assertEquals(3, booking.getWaitlistPosition());
+    verify(bookingRepository, never()).findWaitlistByScheduleId(scheduleId);
+    verify(scheduleRepository).lockSeatCounter(scheduleId);
+    verify(bookingRepository).saveAndFlush(any(ClassBooking.class));
+  }
+
+  @Test
+  void createBooking_confirmedWhenSeatFreedWhileWaitingForLock() {
+    UUID memberId = UUID.randomUUID();
+    UUID scheduleId = UUID.randomUUID();
+
+    ClassSchedule schedule = ClassSchedule.builder().classId(UUID.randomUUID()).capacityOverride(5).build();
+    schedule.setId(scheduleId);
+    when(scheduleRepository.findById(scheduleId)).thenReturn(Optional.of(schedule));
+    when(scheduleRepository.tryReserveSeat(scheduleId, 5)).thenReturn(0, 1);
+    when(bookingRepository.saveAndFlush(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    ClassBooking booking = bookingService.createBooking(UUID.randomUUID(), memberId, scheduleId, null);
+
+    assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
+    verify(bookingRepository, never()).nextWaitlistSeq();
+  }
+
+  @Test
+  void createBooking_returnsExistingBookingForRepeatedIdempotencyKey() {
+    UUID memberId = UUID.randomUUID();
+    UUID scheduleId = UUID.randomUUID();
+    ClassBooking existing = ClassBooking.builder().memberId(memberId).classScheduleId(scheduleId)
+        .idempotencyKey("req-1").build();
+    when(bookingRepository.findByMemberIdAndIdempotencyKey(memberId, "req-1")).thenReturn(Optional.of(existing));
+
+    ClassBooking booking = bookingService.createBooking(UUID.randomUUID(), memberId, scheduleId, null, "req-1");
+
+    assertSame(existing, booking);
+    verify(scheduleRepository, never()).tryReserveSeat(any(), anyInt());
+    verify(bookingRepository, never()).saveAndFlush(any(ClassBooking.class));
+  }
+
+  @Test
+  void createBooking_conflictWhenConcurrentDuplicateLosesRace() {
+    UUID memberId = UUID.randomUUID();
+    UUID scheduleId = UUID.randomUUID();
+
+    ClassSchedule schedule = ClassSchedule.builder().classId(UUID.randomUUID()).capacityOverride(5).build();
+    schedule.setId(scheduleId);
+    when(scheduleRepository.findById(scheduleId)).thenReturn(Optional.of(schedule));
+    when(scheduleRepository.tryReserveSeat(scheduleId, 5)).thenReturn(1);
+    when(bookingRepository.saveAndFlush(any(ClassBooking.class)))
+        .thenThrow(new DataIntegrityViolationException("uq_class_bookings_schedule_member"));
+
+    assertThrows(ConflictException.class,
+        () -> bookingService.createBooking(UUID.randomUUID(), memberId, scheduleId, null, "req-2"));
+  }
+
+  @Test
+  void cancelBooking_releasesSeatWhenNobodyWaiting() {
+    UUID bookingId = UUID.randomUUID();
+    UUID scheduleId = UUID.randomUUID();
+    ClassBooking booking = ClassBooking.builder().classScheduleId(scheduleId).status(BookingStatus.CONFIRMED).build();
+    booking.setId(bookingId);
+    when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+    bookingService.cancelBooking(bookingId, "reason");
+
+    verify(scheduleRepository).lockSeatCounter(scheduleId);
+    verify(scheduleRepository).releaseSeat(scheduleId);
   }
 
   @Test
@@ -109,13 +183,51 @@ class ClassBookingServiceTest {
     waitlisted.setId(waitlistBookingId);
 
     when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-    when(bookingRepository.findWaitlistByScheduleId(scheduleId)).thenReturn(List.of(waitlisted));
+    when(bookingRepository.findFirstByClassScheduleIdAndStatusOrderByWaitlistSeqAsc(scheduleId, BookingStatus.WAITLISTED))
+        .thenReturn(Optional.of(waitlisted));
     when(bookingRepository.save(any(ClassBooking.class))).thenAnswer(inv -> inv.getArgument(0));
 
     ClassBooking cancelled = bookingService.cancelBooking(bookingId, "reason");
 
     assertEquals(BookingStatus.CANCELLED, cancelled.getStatus());
-    verify(bookingRepository, times(3)).save(any(ClassBooking.class)); // cancelled + promoted
+    assertEquals(BookingStatus.CONFIRMED, waitlisted.getStatus());
+    verify(bookingRepository, times(2)).save(any(ClassBooking.class)); // cancelled + promoted
+    verify(scheduleRepository, never()).releaseSeat(scheduleId); // seat passed to the promoted member
+  }
+
+  @Test
+  void cancelBooking_deepWaitlistWritesOnlyCancelledAndPromotedRows() {
+    UUID bookingId = UUID.randomUUID();
+    UUID scheduleId = UUID.randomUUID();
+    ClassBooking booking = ClassBooking.builder().classScheduleId(scheduleId).status(BookingStatus.CONFIRMED).build();
+    booking.setId(bookingId);
+    List<ClassBooking> waitlist = new ArrayList<>();
+    for (long seq = 1; seq <= 500; seq++) {
+      waitlist.add(ClassBooking.builder().classScheduleId(scheduleId).memberId(UUID.randomUUID())
+          .status(BookingStatus.WAITLISTED).waitlistSeq(seq).build());
+    }
+    when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+    when(bookingRepository.findWaitlistByScheduleId(scheduleId)).thenReturn(waitlist);
+    when(bookingRepository.findFirstByClassScheduleIdAndStatusOrderByWaitlistSeqAsc(scheduleId, BookingStatus.WAITLISTED))
+        .thenReturn(Optional.of(waitlist.get(0)));
+
+    bookingService.cancelBooking(bookingId, "reason");
+
+    verify(bookingRepository, times(2)).save(any(ClassBooking.class));
+    verify(bookingRepository, never()).findWaitlistByScheduleId(scheduleId);
+  }
+
+  @Test
+  void getWaitlist_ranksBySequence() {
+    UUID scheduleId = UUID.randomUUID();
+    ClassBooking first = ClassBooking.builder().classScheduleId(scheduleId).status(BookingStatus.WAITLISTED).waitlistSeq(10L).build();
+    ClassBooking second = ClassBooking.builder().classScheduleId(scheduleId).status(BookingStatus.WAITLISTED).waitlistSeq(25L).build();
+    when(bookingRepository.findWaitlistByScheduleId(scheduleId)).thenReturn(List.of(first, second));
+
+    List<ClassBooking> waitlist = bookingService.getWaitlist(scheduleId);
+
+    assertEquals(1, waitlist.get(0).getWaitlistPosition());
+    assertEquals(2, waitlist.get(1).getWaitlistPosition());
   }
 
   @Test
@@ -69,6 +69,7 @@ class MembershipServiceTest {
     assertNotNull(created);
     assertEquals(memberId, created.getMemberId());
     assertEquals(planId, created.getMembershipPlanId());
+    assertEquals(gymId, created.getGymId());
     assertEquals(startDate, created.getStartDate());
     assertNotNull(created.getEndDate());
     assertEquals(plan.getPrice(), created.getMonthlyAmount());
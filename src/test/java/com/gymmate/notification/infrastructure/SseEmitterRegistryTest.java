@@ -0,0 +1,223 @@
+package com.gymmate.notification.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmate.notification.domain.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SseEmitterRegistry Tests")
+class SseEmitterRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StringRedisTemplate redisTemplate;
+    private SseEmitterRegistry registry;
+
+    private final UUID organisationId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(1L);
+        registry = new SseEmitterRegistry(objectMapper, redisTemplate,
+                mock(RedisMessageListenerContainer.class), 2, 2, 30_000, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should not let a blocked client hold up the publisher or other clients")
+    void sendToOrganisation_SlowClientDoesNotBlock() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1), 1);
+        RecordingEmitter fast = new RecordingEmitter(null, 2);
+        registry.register(organisationId, UUID.randomUUID(), slow);
+        registry.register(organisationId, UUID.randomUUID(), fast);
+
+        boolean queued = registry.sendToOrganisation(organisationId, notification("Class cancelled"));
+
+        assertThat(queued).isTrue();
+        assertThat(fast.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast.events).containsExactly("heartbeat", "notification");
+        slow.release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should not report delivery just because other nodes are subscribed")
+    void sendToUser_OtherNodesSubscribed_NotDelivered() {
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(3L);
+
+        boolean queued = registry.sendToUser(organisationId, UUID.randomUUID(), notification("Booking confirmed"));
+
+        assertThat(queued).isFalse();
+        verify(redisTemplate).convertAndSend(eq(SseEmitterRegistry.CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should collapse an overflowing queue into a single resync event")
+    void sendToOrganisation_OverflowBecomesResync() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1), 2);
+        registry.register(organisationId, UUID.randomUUID(), slow);
+        assertThat(slow.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 5; i++) {
+            registry.sendToOrganisation(organisationId, notification("Update " + i));
+        }
+        slow.release.countDown();
+
+        assertThat(slow.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.events).containsExactly("heartbeat", "resync");
+    }
+
+    @Test
+    @DisplayName("Should deliver notifications published by another node")
+    void onMessage_DeliversPeerNotification() throws Exception {
+        UUID userId = UUID.randomUUID();
+        RecordingEmitter emitter = new RecordingEmitter(null, 2);
+        registry.register(organisationId, userId, emitter);
+
+        var peerMessage = new SseEmitterRegistry.ClusterMessage("other-node", organisationId, userId, "{}", null);
+        registry.onMessage(message(objectMapper.writeValueAsString(peerMessage)), null);
+
+        assertThat(emitter.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.events).containsExactly("heartbeat", "notification");
+    }
+
+    @Test
+    @DisplayName("Should ignore its own notifications echoed back by Redis")
+    void onMessage_IgnoresOwnNotification() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null, 2);
+        registry.register(organisationId, UUID.randomUUID(), emitter);
+
+        registry.sendToOrganisation(organisationId, notification("Welcome"));
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(SseEmitterRegistry.CHANNEL), published.capture());
+        registry.onMessage(message(published.getValue()), null);
+
+        assertThat(emitter.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        // Give a wrongly accepted echo the chance to arrive
+        Thread.sleep(100);
+        assertThat(emitter.events).containsExactly("heartbeat", "notification");
+    }
+
+    @Test
+    @DisplayName("Should relay an email status to the node holding the client's stream")
+    void sendEmailStatus_RelaysToPeerNode() throws Exception {
+        SseEmitterRegistry peer = new SseEmitterRegistry(objectMapper, redisTemplate,
+                mock(RedisMessageListenerContainer.class), 2, 2, 30_000, 1_000);
+        RecordingEmitter emitter = new RecordingEmitter(null, 1);
+        peer.registerEmailStatus("user-1", emitter);
+
+        registry.sendEmailStatus("user-1", "SENT", "Verification email sent");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(SseEmitterRegistry.CHANNEL), published.capture());
+        peer.onMessage(message(published.getValue()), null);
+
+        assertThat(emitter.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.events).containsExactly("email-status");
+        peer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should not publish an email status delivered to a local stream")
+    void sendEmailStatus_LocalStreamNotPublished() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null, 1);
+        registry.registerEmailStatus("user-1", emitter);
+
+        registry.sendEmailStatus("user-1", "SENDING", "Sending verification email...");
+
+        assertThat(emitter.events).containsExactly("email-status");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should visit one heartbeat wheel slot per tick")
+    void sendHeartbeats_VisitsOneSlotPerTick() throws Exception {
+        registry.shutdown();
+        registry = new SseEmitterRegistry(objectMapper, redisTemplate,
+                mock(RedisMessageListenerContainer.class), 2, 2, 2, 1);
+        RecordingEmitter first = new RecordingEmitter(null, 1);
+        RecordingEmitter second = new RecordingEmitter(null, 1);
+        registry.register(organisationId, UUID.randomUUID(), first);
+        registry.register(organisationId, UUID.randomUUID(), second);
+        assertThat(first.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(10);
+
+        registry.sendHeartbeats();
+        Thread.sleep(100);
+
+        assertThat(first.events).containsExactly("heartbeat", "heartbeat");
+        assertThat(second.events).containsExactly("heartbeat");
+    }
+
+    private static Notification notification(String title) {
+        return Notification.builder()
+                .title(title)
+                .message("Message")
+                .build();
+    }
+
+    private static Message message(String body) {
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+
+    /**
+     * Records event names; optionally blocks in send until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch release;
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch sent;
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter(CountDownLatch release, int expectedEvents) {
+            this.release = release;
+            this.sent = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            entered.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder raw = new StringBuilder();
+            items.forEach(item -> raw.append(new String((byte[]) item.getData(), StandardCharsets.UTF_8)));
+            String name = raw.substring(raw.indexOf("event:") + 6, raw.indexOf("\n", raw.indexOf("event:")));
+            events.add(name);
+            sent.countDown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PasswordHashingService Tests")
+class PasswordHashingServiceTest {
+
+    private static final BCryptPasswordEncoder BCRYPT = new BCryptPasswordEncoder(4);
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingService hashingService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingService = new PasswordHashingService(meterRegistry, 2, 16, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should encode on the pool and verify the result")
+    void encodeAndMatch() {
+        String hash = hashingService.encode("S3cure!Passw0rd");
+
+        assertThat(hashingService.matches("S3cure!Passw0rd", hash)).isTrue();
+        assertThat(hashingService.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("security.password.hash").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("security.password.hash").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should find a password anywhere in its history")
+    void matchesAny_FindsMatch() {
+        List<String> history = List.of(
+                BCRYPT.encode("Old!Passw0rd1"),
+                BCRYPT.encode("Old!Passw0rd2"),
+                BCRYPT.encode("Reused!Passw0rd"),
+                BCRYPT.encode("Old!Passw0rd4"));
+
+        assertThat(hashingService.matchesAny("Reused!Passw0rd", history)).isTrue();
+        assertThat(hashingService.matchesAny("Brand!New0ne", history)).isFalse();
+        assertThat(hashingService.matchesAny("Brand!New0ne", List.of())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should shed with 503 when a hash cannot complete in time")
+    void shedsWhenSaturated() {
+        PasswordHashingService saturated = new PasswordHashingService(meterRegistry, 1, 1, 0);
+        try {
+            assertThatThrownBy(() -> saturated.encode("S3cure!Passw0rd"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(meterRegistry.get("security.password.hash.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            saturated.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.constants.UserRole;
+import com.gymmate.shared.constants.UserStatus;
+import com.gymmate.shared.security.TenantAwareUserDetails;
+import com.gymmate.user.domain.User;
+import com.gymmate.user.domain.events.UserAccessChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PrincipalCache Tests")
+class PrincipalCacheTest {
+
+    private PrincipalCache principalCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, 60);
+        loads = new AtomicInteger();
+    }
+
+    private Optional<User> load(User user) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(user);
+    }
+
+    private User user(UserStatus status) {
+        User user = User.builder()
+                .email("member@example.com")
+                .passwordHash("hash")
+                .role(UserRole.MEMBER)
+                .status(status)
+                .emailVerified(true)
+                .build();
+        user.setId(UUID.randomUUID());
+        user.setOrganisationId(UUID.randomUUID());
+        return user;
+    }
+
+    @Test
+    @DisplayName("Should load once and serve subsequent lookups from memory")
+    void get_ActiveUser_IsCached() {
+        User user = user(UserStatus.ACTIVE);
+
+        TenantAwareUserDetails first = principalCache.get(user.getId(), id -> load(user)).orElseThrow();
+        TenantAwareUserDetails second = principalCache.get(user.getId(), id -> load(user)).orElseThrow();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.getOrganisationId()).isEqualTo(user.getOrganisationId());
+        assertThat(first.getPassword()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not cache inactive users")
+    void get_InactiveUser_IsNotCached() {
+        User user = user(UserStatus.INACTIVE);
+
+        principalCache.get(user.getId(), id -> load(user));
+        principalCache.get(user.getId(), id -> load(user));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should evict on user access change")
+    void onUserAccessChanged_EvictsEntry() {
+        User user = user(UserStatus.ACTIVE);
+        principalCache.get(user.getId(), id -> load(user));
+
+        principalCache.onUserAccessChanged(
+                new UserAccessChangedEvent(this, user.getId(), UserAccessChangedEvent.Reason.DEACTIVATED));
+        principalCache.get(user.getId(), id -> load(user));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should return empty for unknown users")
+    void get_UnknownUser_ReturnsEmpty() {
+        assertThat(principalCache.get(UUID.randomUUID(), id -> load(null))).isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.security.service.RateLimitingService.RateLimitResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the GCRA Lua script against a real Redis, since its allow/deny and retry-after
+ * arithmetic cannot be exercised with a mocked template.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("RateLimitingService Redis Integration Tests")
+class RateLimitingServiceRedisIntegrationTest {
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RateLimitingService rateLimitingService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        rateLimitingService = new RateLimitingService(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Should allow up to the limit, then deny with a retry-after of one emission interval")
+    void check_AllowsThenDenies() {
+        // Login allows 5 per 15 minutes: one request every 180 s
+        for (int i = 0; i < 5; i++) {
+            RateLimitResult result = rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+            assertThat(result.allowed()).as("attempt %d", i + 1).isTrue();
+            assertThat(result.remaining()).isEqualTo(4 - i);
+            assertThat(result.retryAfterSeconds()).isZero();
+        }
+
+        RateLimitResult denied = rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.remaining()).isZero();
+        assertThat(denied.retryAfterSeconds()).isBetween(178L, 180L);
+        assertThat(denied.resetSeconds()).isBetween(898L, 900L);
+    }
+
+    @Test
+    @DisplayName("Should keep each endpoint's quota independent for the same user and IP")
+    void check_KeepsEndpointsIndependent() {
+        // Arrange - exhaust the login quota
+        for (int i = 0; i < 5; i++) {
+            rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+        }
+        assertThat(rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1").allowed()).isFalse();
+
+        // Act
+        RateLimitResult defaultResult = rateLimitingService.check("user-1", "/api/members", "10.0.0.1");
+        RateLimitResult registerResult = rateLimitingService.check("user-1", "/api/auth/register", "10.0.0.1");
+
+        // Assert - a full quota is still available on other endpoints
+        assertThat(defaultResult.allowed()).isTrue();
+        assertThat(defaultResult.remaining()).isEqualTo(99);
+        assertThat(registerResult.allowed()).isTrue();
+        assertThat(registerResult.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should deny a user on any IP once the user's quota is used, and an IP for any user")
+    void check_EnforcesUserAndIpKeys() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            rateLimitingService.check("user-1", "/api/auth/login", "10.0.0." + i);
+        }
+
+        // Act & Assert - same user, fresh IP
+        assertThat(rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.99").allowed()).isFalse();
+        // Different user, fresh IP
+        assertThat(rateLimitingService.check("user-2", "/api/auth/login", "10.0.0.98").allowed()).isTrue();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.security.service.RateLimitingService.RateLimitResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitingService Unit Tests")
+class RateLimitingServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private RateLimitingService rateLimitingService;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitingService = new RateLimitingService(stringRedisTemplate);
+    }
+
+    @Test
+    @DisplayName("Should scope the user and IP keys to the endpoint's config")
+    @SuppressWarnings("unchecked")
+    void check_ScopesKeysByConfig() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(1L, 4L, 180_000L, 0L));
+
+        // Act
+        rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+        rateLimitingService.check("user-1", "/api/members", "10.0.0.1");
+        rateLimitingService.check("user-1", "/api/files/upload", "10.0.0.1");
+
+        // Assert
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(stringRedisTemplate, times(3)).execute(any(RedisScript.class), keys.capture(), anyString(), anyString());
+        assertThat(keys.getAllValues()).containsExactly(
+                List.of("rate_limit:/api/auth/login:user-1", "ip_rate_limit:/api/auth/login:10.0.0.1"),
+                List.of("rate_limit:default:user-1", "ip_rate_limit:default:10.0.0.1"),
+                List.of("rate_limit:upload:user-1", "ip_rate_limit:upload:10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Should pass the config's emission interval and window to the script")
+    @SuppressWarnings("unchecked")
+    void check_PassesIntervalAndWindow() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(1L, 4L, 180_000L, 0L));
+
+        // Act
+        rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+
+        // Assert - 5 per 15 minutes
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(), eq("180000"), eq("900000"));
+    }
+
+    @Test
+    @DisplayName("Should map a denial reply to rounded-up reset and retry-after seconds")
+    @SuppressWarnings("unchecked")
+    void check_MapsDenial() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(0L, 0L, 899_001L, 179_001L));
+
+        // Act
+        RateLimitResult result = rateLimitingService.check("user-1", "/api/auth/login", "10.0.0.1");
+
+        // Assert
+        assertThat(result.allowed()).isFalse();
+        assertThat(result.limit()).isEqualTo(5);
+        assertThat(result.remaining()).isZero();
+        assertThat(result.resetSeconds()).isEqualTo(900);
+        assertThat(result.retryAfterSeconds()).isEqualTo(180);
+    }
+
+    @Test
+    @DisplayName("Should allow the request when Redis is unavailable")
+    @SuppressWarnings("unchecked")
+    void check_FailsOpen() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        // Act
+        RateLimitResult result = rateLimitingService.check("user-1", "/api/members", "10.0.0.1");
+
+        // Assert
+        assertThat(result.allowed()).isTrue();
+        assertThat(result.remaining()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,83 @@
+package com.gymmate.shared.security.service;
+
+import com.gymmate.shared.security.repository.TokenBlacklistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenBlacklistIndex Tests")
+class TokenBlacklistIndexTest {
+
+    @Mock
+    private TokenBlacklistRepository tokenBlacklistRepository;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenBlacklistIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TokenBlacklistIndex(tokenBlacklistRepository, stringRedisTemplate, listenerContainer, 1000, 0.001);
+    }
+
+    @Test
+    @DisplayName("Should report every token as a possible hit before the first rebuild")
+    void mightContain_BeforeRebuild_ReturnsTrue() {
+        assertThat(index.mightContain("any-token")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should contain tokens loaded from the repository and reject unknown ones")
+    void rebuild_LoadsRepositoryTokens() {
+        when(tokenBlacklistRepository.findActiveTokens(any())).thenReturn(List.of("revoked-1", "revoked-2"));
+
+        index.rebuild();
+
+        assertThat(index.mightContain("revoked-1")).isTrue();
+        assertThat(index.mightContain("revoked-2")).isTrue();
+        assertThat(index.mightContain("never-revoked")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should add tokens locally and broadcast them")
+    void add_AddsAndPublishes() {
+        when(tokenBlacklistRepository.findActiveTokens(any())).thenReturn(List.of());
+        index.rebuild();
+
+        index.add("logged-out");
+
+        assertThat(index.mightContain("logged-out")).isTrue();
+        verify(stringRedisTemplate).convertAndSend(eq(TokenBlacklistIndex.CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Should drop tokens that are no longer in the repository after rollover")
+    void rebuild_PrunesExpiredTokens() {
+        when(tokenBlacklistRepository.findActiveTokens(any()))
+                .thenReturn(List.of("expired"))
+                .thenReturn(List.of());
+        index.rebuild();
+        assertThat(index.mightContain("expired")).isTrue();
+
+        index.rebuild();
+
+        assertThat(index.mightContain("expired")).isFalse();
+    }
+}
@@ -0,0 +1,118 @@
+package com.gymmate.unit.ai.application;
+
+import com.gymmate.ai.application.AiGenerationExecutor;
+import com.gymmate.shared.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AiGenerationExecutor Unit Tests")
+class AiGenerationExecutorTest {
+
+    private AiGenerationExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new AiGenerationExecutor(2, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should run one generation for concurrent callers with the same key")
+    void execute_SameKeyConcurrently_GeneratesOnce() throws Exception {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UUID memberId = UUID.randomUUID();
+
+        // Act
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> executor.execute(memberId, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "plan";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> executor.execute(memberId, () -> {
+            calls.incrementAndGet();
+            return "other plan";
+        }));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("plan");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("plan");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should generate again once the previous run for the key has finished")
+    void execute_AfterCompletion_GeneratesAgain() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        UUID memberId = UUID.randomUUID();
+
+        // Act
+        executor.execute(memberId, calls::incrementAndGet);
+        Integer second = executor.execute(memberId, calls::incrementAndGet);
+
+        // Assert
+        assertThat(second).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should run a nested generation inline on the generation thread")
+    void execute_Nested_RunsInline() {
+        // Arrange
+        AtomicInteger providerCalls = new AtomicInteger();
+
+        // Act
+        String result = executor.execute("member", () ->
+                Thread.currentThread().getName() + "|" + executor.execute("prompt", () -> {
+                    providerCalls.incrementAndGet();
+                    return Thread.currentThread().getName();
+                }));
+
+        // Assert
+        String[] threads = result.split("\\|");
+        assertThat(threads[0]).startsWith("ai-generation-").isEqualTo(threads[1]);
+        assertThat(providerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should carry the caller's tenant context and rethrow generation failures")
+    void execute_PropagatesTenantAndFailures() {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+        TenantContext.setCurrentTenantId(tenantId);
+
+        // Act & Assert
+        assertThat(executor.execute("tenant", TenantContext::getCurrentTenantId)).isEqualTo(tenantId);
+        assertThatThrownBy(() -> executor.execute("failing", () -> {
+            throw new IllegalStateException("provider down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("provider down");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
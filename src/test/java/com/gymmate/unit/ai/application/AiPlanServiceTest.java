@@ -0,0 +1,127 @@
+package com.gymmate.unit.ai.application;
+
+import com.gymmate.ai.api.dto.AiPlanResponse;
+import com.gymmate.ai.application.AiGenerationExecutor;
+import com.gymmate.ai.application.AiPlanService;
+import com.gymmate.ai.domain.AiRecommendation;
+import com.gymmate.ai.infrastructure.AiPlanContentCache;
+import com.gymmate.ai.infrastructure.AiPlanContentCache.PlanContent;
+import com.gymmate.ai.infrastructure.AiRecommendationRepository;
+import com.gymmate.gym.domain.Gym;
+import com.gymmate.gym.infrastructure.GymRepository;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
+import com.gymmate.user.application.MemberService;
+import com.gymmate.user.domain.Member;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AiPlanService Unit Tests")
+class AiPlanServiceTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private ChatClient.Builder chatClientBuilder;
+
+    @Mock
+    private AiRecommendationRepository recommendationRepository;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private GymRepository gymRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private AiPlanContentCache planContentCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private AiPlanService aiPlanService;
+    private UUID memberId;
+
+    @BeforeEach
+    void setUp() {
+        aiPlanService = new AiPlanService(chatClientBuilder, recommendationRepository, memberService, gymRepository,
+                redisTemplate, new AiGenerationExecutor(2, 5), planContentCache, transactionTemplate,
+                new DownstreamLimiter(new SimpleMeterRegistry(), 2, 2, 2, 2, 100));
+
+        memberId = UUID.randomUUID();
+        Member member = Member.builder()
+                .userId(UUID.randomUUID())
+                .fitnessGoals(new String[]{"Build strength"})
+                .experienceLevel("beginner")
+                .build();
+        member.setGymId(UUID.randomUUID());
+        Gym gym = Gym.builder().city("Lagos").country("Nigeria").build();
+
+        when(memberService.findById(memberId)).thenReturn(member);
+        when(gymRepository.findById(member.getGymId())).thenReturn(Optional.of(gym));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(recommendationRepository.save(any(AiRecommendation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should call the provider on regenerate even when the prompt's content is cached")
+    void regeneratePlan_BypassesContentCache() {
+        // Arrange
+        lenient().when(planContentCache.get(anyString()))
+                .thenReturn(Optional.of(new PlanContent("Cached workout", "Cached meals")));
+        when(chatClientBuilder.build().prompt().user(anyString()).call().content())
+                .thenReturn("WORKOUT PLAN: Fresh workout MEAL PLAN: Fresh meals");
+
+        // Act
+        AiPlanResponse response = aiPlanService.regeneratePlan(memberId, null);
+
+        // Assert
+        assertThat(response.workoutPlan()).isEqualTo("Fresh workout");
+        assertThat(response.mealPlan()).isEqualTo("Fresh meals");
+        verify(planContentCache, never()).get(anyString());
+        verify(planContentCache).put(anyString(), eq(new PlanContent("Fresh workout", "Fresh meals")));
+    }
+
+    @Test
+    @DisplayName("Should reuse cached content for a first plan without calling the provider")
+    void getOrGeneratePlan_UsesContentCache() {
+        // Arrange
+        when(recommendationRepository.findTopByMemberIdOrderByCreatedAtDesc(memberId)).thenReturn(Optional.empty());
+        when(planContentCache.get(anyString()))
+                .thenReturn(Optional.of(new PlanContent("Cached workout", "Cached meals")));
+
+        // Act
+        AiPlanResponse response = aiPlanService.getOrGeneratePlan(memberId);
+
+        // Assert
+        assertThat(response.workoutPlan()).isEqualTo("Cached workout");
+        verify(planContentCache, never()).put(anyString(), any());
+        verifyNoInteractions(chatClientBuilder);
+    }
+}
@@ -0,0 +1,88 @@
+package com.gymmate.unit.ai.infrastructure;
+
+import com.gymmate.ai.infrastructure.AiPlanContentCache;
+import com.gymmate.ai.infrastructure.AiPlanContentCache.PlanContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AiPlanContentCache Unit Tests")
+class AiPlanContentCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private AiPlanContentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new AiPlanContentCache(redisTemplate, 24, 100, 10);
+    }
+
+    @Test
+    @DisplayName("Should give identical prompts the same fingerprint")
+    void fingerprint_IsContentAddressed() {
+        assertThat(AiPlanContentCache.fingerprint("plan for beginner in Lagos"))
+                .isEqualTo(AiPlanContentCache.fingerprint("plan for beginner in Lagos"))
+                .isNotEqualTo(AiPlanContentCache.fingerprint("plan for beginner in Accra"))
+                .hasSize(64);
+    }
+
+    @Test
+    @DisplayName("Should write through to Redis with a TTL and serve later reads locally")
+    void put_WritesRedisAndLocal() {
+        // Arrange
+        PlanContent content = new PlanContent("Squats", "Jollof rice");
+
+        // Act
+        cache.put("abc", content);
+
+        // Assert
+        assertThat(cache.get("abc")).contains(content);
+        verify(valueOperations).set("ai:plan:content:abc", content, 24 * 3600L, TimeUnit.SECONDS);
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Should fill the local tier from Redis on a local miss")
+    void get_RedisHit_PopulatesLocal() {
+        // Arrange
+        PlanContent content = new PlanContent("Rows", "Fufu");
+        when(valueOperations.get("ai:plan:content:def")).thenReturn(content);
+
+        // Act
+        cache.get("def");
+        var second = cache.get("def");
+
+        // Assert
+        assertThat(second).contains(content);
+        verify(valueOperations, times(1)).get("ai:plan:content:def");
+    }
+
+    @Test
+    @DisplayName("Should treat Redis failures as a miss")
+    void get_RedisDown_ReturnsEmpty() {
+        // Arrange
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act & Assert
+        assertThat(cache.get("ghi")).isEmpty();
+    }
+}
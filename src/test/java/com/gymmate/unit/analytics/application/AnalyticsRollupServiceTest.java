@@ -0,0 +1,179 @@
+package com.gymmate.unit.analytics.application;
+
+import com.gymmate.analytics.application.AnalyticsRollupService;
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository;
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository.GymDay;
+import com.gymmate.shared.batch.BatchJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AnalyticsRollupService Unit Tests")
+class AnalyticsRollupServiceTest {
+
+        @Mock
+        private AnalyticsRollupRepository rollupRepository;
+
+        @Mock
+        private BatchJobRepository batchJobRepository;
+
+        @Mock
+        private TransactionTemplate transactionTemplate;
+
+        private AnalyticsRollupService rollupService;
+
+        @BeforeEach
+        void setUp() {
+                rollupService = new AnalyticsRollupService(rollupRepository, batchJobRepository, transactionTemplate,
+                                300, 35, 5);
+                lenient().when(batchJobRepository.claim(anyString(), anyString(), anyString(), any()))
+                                .thenReturn(Optional.of(LocalDateTime.now()));
+                lenient().when(batchJobRepository.renew(anyString(), anyString(), anyString(), any())).thenReturn(true);
+                lenient().doAnswer(invocation -> {
+                        Consumer<TransactionStatus> action = invocation.getArgument(0);
+                        action.accept(null);
+                        return null;
+                }).when(transactionTemplate).executeWithoutResult(any());
+        }
+
+        @Test
+        @DisplayName("Should recompute every changed gym-day and keep going past failures")
+        void refreshChanged_RefreshesEachGymDay() {
+                // Arrange
+                UUID gymA = UUID.randomUUID();
+                UUID gymB = UUID.randomUUID();
+                LocalDate today = LocalDate.now();
+                when(rollupRepository.findChangedGymDays(any())).thenReturn(Set.of(
+                                new GymDay(gymA, today), new GymDay(gymB, today), new GymDay(gymB, today.minusDays(1))));
+                doThrow(new RuntimeException("deadlock")).when(rollupRepository).refresh(gymA, today);
+
+                // Act
+                rollupService.refreshChanged();
+
+                // Assert
+                verify(rollupRepository).refresh(gymA, today);
+                verify(rollupRepository).refresh(gymB, today);
+                verify(rollupRepository).refresh(gymB, today.minusDays(1));
+                verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        }
+
+        @Test
+        @DisplayName("Should look back from the previous run minus the change lag")
+        void refreshChanged_AdvancesWatermark() {
+                // Arrange
+                when(rollupRepository.findChangedGymDays(any())).thenReturn(Set.of());
+                ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+
+                // Act
+                LocalDateTime beforeFirstRun = LocalDateTime.now();
+                rollupService.refreshChanged();
+                rollupService.refreshChanged();
+
+                // Assert
+                verify(rollupRepository, times(2)).findChangedGymDays(since.capture());
+                assertThat(since.getAllValues().get(0)).isBefore(beforeFirstRun.minusHours(23));
+                assertThat(since.getAllValues().get(1))
+                                .isAfterOrEqualTo(beforeFirstRun.minusSeconds(300))
+                                .isBeforeOrEqualTo(LocalDateTime.now().minusSeconds(300));
+        }
+
+        @Test
+        @DisplayName("Should reconcile the trailing window up to and including today")
+        void reconcile_RefreshesTrailingWindow() {
+                // Arrange
+                UUID gymId = UUID.randomUUID();
+                LocalDate tomorrow = LocalDate.now().plusDays(1);
+                when(rollupRepository.findGymDays(tomorrow.minusDays(35), tomorrow))
+                                .thenReturn(Set.of(new GymDay(gymId, LocalDate.now())));
+
+                // Act
+                rollupService.reconcile();
+
+                // Assert
+                verify(rollupRepository).refresh(gymId, LocalDate.now());
+                verify(batchJobRepository).complete(eq("analytics-rollup-reconcile"), eq(LocalDate.now().toString()),
+                                anyString());
+        }
+
+        @Test
+        @DisplayName("Should leave the refresh to the node holding its lease")
+        void refreshChanged_LeasedElsewhere_Skips() {
+                // Arrange
+                when(batchJobRepository.claim(eq("analytics-rollup-refresh"), anyString(), anyString(), any()))
+                                .thenReturn(Optional.empty());
+
+                // Act
+                rollupService.refreshChanged();
+
+                // Assert
+                verify(rollupRepository, never()).findChangedGymDays(any());
+        }
+
+        @Test
+        @DisplayName("Should keep the refresh lease by renewing it instead of claiming it again")
+        void refreshChanged_RenewsHeldLease() {
+                // Arrange
+                when(rollupRepository.findChangedGymDays(any())).thenReturn(Set.of());
+
+                // Act
+                rollupService.refreshChanged();
+                rollupService.refreshChanged();
+
+                // Assert
+                verify(batchJobRepository, times(1)).claim(eq("analytics-rollup-refresh"), anyString(), anyString(),
+                                any());
+                verify(batchJobRepository).renew(eq("analytics-rollup-refresh"), anyString(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should claim the lease again once another node has taken over")
+        void refreshChanged_LostLease_ClaimsAgain() {
+                // Arrange
+                when(rollupRepository.findChangedGymDays(any())).thenReturn(Set.of());
+                when(batchJobRepository.renew(anyString(), anyString(), anyString(), any())).thenReturn(false);
+                when(batchJobRepository.claim(eq("analytics-rollup-refresh"), anyString(), anyString(), any()))
+                                .thenReturn(Optional.of(LocalDateTime.now()), Optional.empty());
+
+                // Act
+                rollupService.refreshChanged();
+                rollupService.refreshChanged();
+
+                // Assert
+                verify(rollupRepository, times(1)).findChangedGymDays(any());
+        }
+
+        @Test
+        @DisplayName("Should not reconcile a date another node has claimed")
+        void reconcile_ClaimedElsewhere_Skips() {
+                // Arrange
+                when(batchJobRepository.claim(eq("analytics-rollup-reconcile"), eq(LocalDate.now().toString()),
+                                anyString(), any())).thenReturn(Optional.empty());
+
+                // Act
+                rollupService.reconcile();
+
+                // Assert
+                verify(rollupRepository, never()).findGymDays(any(), any());
+                verify(batchJobRepository, never()).complete(anyString(), anyString(), anyString());
+        }
+}
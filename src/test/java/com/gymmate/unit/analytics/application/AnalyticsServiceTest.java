@@ -3,16 +3,16 @@ package com.gymmate.unit.analytics.application;
 import com.gymmate.analytics.api.dto.*;
 import com.gymmate.analytics.application.AnalyticsService;
 import com.gymmate.analytics.domain.AnalyticsPeriod;
-import com.gymmate.shared.constants.BookingStatus;
-import com.gymmate.classes.infrastructure.ClassBookingJpaRepository;
-import com.gymmate.classes.infrastructure.ClassScheduleJpaRepository;
+import com.gymmate.analytics.domain.CategoryBreakdown;
+import com.gymmate.analytics.domain.ClassBookingFacts;
+import com.gymmate.analytics.domain.DailyFacts;
+import com.gymmate.analytics.infrastructure.AnalyticsRollupRepository;
 import com.gymmate.classes.infrastructure.GymClassJpaRepository;
 import com.gymmate.inventory.infrastructure.InventoryItemJpaRepository;
 import com.gymmate.membership.domain.MembershipStatus;
 import com.gymmate.membership.infrastructure.MemberInvoiceRepository;
 import com.gymmate.membership.infrastructure.MemberMembershipJpaRepository;
 import com.gymmate.membership.infrastructure.MembershipPlanJpaRepository;
-import com.gymmate.pos.infrastructure.SaleJpaRepository;
 import com.gymmate.user.infrastructure.MemberRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,7 +23,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -44,12 +47,6 @@ class AnalyticsServiceTest {
         @Mock
         private MembershipPlanJpaRepository membershipPlanRepository;
 
-        @Mock
-        private ClassBookingJpaRepository classBookingRepository;
-
-        @Mock
-        private ClassScheduleJpaRepository classScheduleRepository;
-
         @Mock
         private GymClassJpaRepository gymClassRepository;
 
@@ -57,10 +54,10 @@ class AnalyticsServiceTest {
         private InventoryItemJpaRepository inventoryItemRepository;
 
         @Mock
-        private SaleJpaRepository saleRepository;
+        private MemberInvoiceRepository memberInvoiceRepository;
 
         @Mock
-        private MemberInvoiceRepository memberInvoiceRepository;
+        private AnalyticsRollupRepository rollupRepository;
 
         private AnalyticsService analyticsService;
 
@@ -72,14 +69,16 @@ class AnalyticsServiceTest {
                                 memberRepository,
                                 membershipRepository,
                                 membershipPlanRepository,
-                                classBookingRepository,
-                                classScheduleRepository,
                                 gymClassRepository,
                                 inventoryItemRepository,
-                                saleRepository,
-                                memberInvoiceRepository);
+                                memberInvoiceRepository,
+                                rollupRepository);
 
                 gymId = UUID.randomUUID();
+
+                // Days without rollup rows sum to zero
+                lenient().when(rollupRepository.sumDaily(any(), any(), any()))
+                                .thenAnswer(invocation -> DailyFacts.empty(invocation.getArgument(1)));
         }
 
         @Nested
@@ -146,10 +145,7 @@ class AnalyticsServiceTest {
                         when(membershipRepository.countActiveByGymId(gymId)).thenReturn(180L);
                         when(membershipRepository.countByGymIdAndStatus(eq(gymId), eq(MembershipStatus.PAUSED)))
                                         .thenReturn(10L);
-                        when(memberRepository.countByGymIdAndCreatedAtBetween(eq(gymId), any(), any()))
-                                        .thenReturn(25L);
-                        when(membershipRepository.countCancelledByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(5L);
+                        stubFacts(memberFacts(25, 5));
                         when(membershipRepository.findExpiringMemberships(eq(gymId), any(), any()))
                                         .thenReturn(List.of());
                         when(membershipRepository.countActiveMembersByPlan(gymId))
@@ -175,9 +171,7 @@ class AnalyticsServiceTest {
                         when(memberRepository.countByGymId(gymId)).thenReturn(100L);
                         when(membershipRepository.countActiveByGymId(gymId)).thenReturn(90L);
                         when(membershipRepository.countByGymIdAndStatus(eq(gymId), any())).thenReturn(5L);
-                        when(memberRepository.countByGymIdAndCreatedAtBetween(eq(gymId), any(), any())).thenReturn(10L);
-                        when(membershipRepository.countCancelledByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(5L);
+                        stubFacts(memberFacts(10, 5));
                         when(membershipRepository.findExpiringMemberships(eq(gymId), any(), any()))
                                         .thenReturn(List.of());
                         when(membershipRepository.countActiveMembersByPlan(gymId)).thenReturn(List.of());
@@ -199,9 +193,6 @@ class AnalyticsServiceTest {
                         when(memberRepository.countByGymId(gymId)).thenReturn(100L);
                         when(membershipRepository.countActiveByGymId(gymId)).thenReturn(90L);
                         when(membershipRepository.countByGymIdAndStatus(eq(gymId), any())).thenReturn(0L);
-                        when(memberRepository.countByGymIdAndCreatedAtBetween(eq(gymId), any(), any())).thenReturn(0L);
-                        when(membershipRepository.countCancelledByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(0L);
                         when(membershipRepository.findExpiringMemberships(eq(gymId), any(), any()))
                                         .thenReturn(List.of());
 
@@ -221,6 +212,28 @@ class AnalyticsServiceTest {
                         assertThat(result.membersByPlan().get(0).category()).isEqualTo("Monthly");
                         assertThat(result.membersByPlan().get(0).count()).isEqualTo(50L);
                 }
+
+                @Test
+                @DisplayName("Should build member growth from daily new members")
+                void getMemberAnalytics_MemberGrowthFromDailyFacts() {
+                        // Arrange
+                        LocalDate today = LocalDate.now();
+                        when(memberRepository.countByGymId(gymId)).thenReturn(100L);
+                        stubFacts(memberFacts(5, 0));
+                        when(rollupRepository.findDaily(eq(gymId), any(), any())).thenReturn(List.of(
+                                        withNewMembers(today.minusDays(1), 2),
+                                        withNewMembers(today, 3)));
+
+                        // Act
+                        MemberAnalyticsResponse result = analyticsService.getMemberAnalytics(gymId,
+                                        AnalyticsPeriod.LAST_7_DAYS);
+
+                        // Assert - 95 members before the period, then +2 and +3
+                        assertThat(result.memberGrowthTrend()).hasSize(9);
+                        assertThat(result.memberGrowthTrend().get(0).value()).isEqualByComparingTo("95");
+                        assertThat(result.memberGrowthTrend().get(6).value()).isEqualByComparingTo("97");
+                        assertThat(result.memberGrowthTrend().get(7).value()).isEqualByComparingTo("100");
+                }
         }
 
         @Nested
@@ -231,12 +244,7 @@ class AnalyticsServiceTest {
                 @DisplayName("Should calculate total revenue")
                 void getRevenueAnalytics_TotalRevenue() {
                         // Arrange
-                        when(saleRepository.sumTotalByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(BigDecimal.valueOf(5000));
-                        when(membershipRepository.sumProjectedRevenueByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(BigDecimal.valueOf(3000));
-                        when(saleRepository.findByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
+                        stubFacts(revenueFacts(BigDecimal.valueOf(3000), BigDecimal.valueOf(5000), 40));
 
                         // Act
                         RevenueAnalyticsResponse result = analyticsService.getRevenueAnalytics(gymId,
@@ -244,20 +252,13 @@ class AnalyticsServiceTest {
 
                         // Assert
                         assertThat(result).isNotNull();
-                        assertThat(result.totalRevenue()).isGreaterThan(BigDecimal.ZERO);
+                        assertThat(result.totalRevenue()).isEqualByComparingTo(BigDecimal.valueOf(8000));
+                        assertThat(result.transactionCount()).isEqualTo(40L);
                 }
 
                 @Test
-                @DisplayName("Should handle null POS revenue")
-                void getRevenueAnalytics_NullPosRevenue_ReturnsZero() {
-                        // Arrange
-                        when(saleRepository.sumTotalByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(null);
-                        when(membershipRepository.sumProjectedRevenueByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(null);
-                        when(saleRepository.findByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-
+                @DisplayName("Should return zero revenue when no rollup rows exist")
+                void getRevenueAnalytics_NoFacts_ReturnsZero() {
                         // Act
                         RevenueAnalyticsResponse result = analyticsService.getRevenueAnalytics(gymId,
                                         AnalyticsPeriod.LAST_30_DAYS);
@@ -266,6 +267,21 @@ class AnalyticsServiceTest {
                         assertThat(result.posRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
                         assertThat(result.membershipRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
                 }
+
+                @Test
+                @DisplayName("Should return zeros when the rollup cannot be read")
+                void getRevenueAnalytics_RollupFailure_ReturnsZero() {
+                        // Arrange
+                        when(rollupRepository.sumDaily(eq(gymId), any(), any()))
+                                        .thenThrow(new RuntimeException("connection refused"));
+
+                        // Act
+                        RevenueAnalyticsResponse result = analyticsService.getRevenueAnalytics(gymId,
+                                        AnalyticsPeriod.LAST_30_DAYS);
+
+                        // Assert
+                        assertThat(result.totalRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
+                }
         }
 
         @Nested
@@ -277,25 +293,7 @@ class AnalyticsServiceTest {
                 void getClassAnalytics_ReturnsCounts() {
                         // Arrange
                         when(gymClassRepository.countByGymId(gymId)).thenReturn(15L);
-                        when(classScheduleRepository.countByGymIdAndStartTimeBetween(eq(gymId), any(), any()))
-                                        .thenReturn(50L);
-                        when(classBookingRepository.countByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(200L);
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.COMPLETED), any(), any()))
-                                        .thenReturn(180L);
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.CANCELLED), any(), any()))
-                                        .thenReturn(15L);
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.NO_SHOW), any(), any()))
-                                        .thenReturn(5L);
-                        when(classBookingRepository.countBookingsByClassForGym(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-                        when(classBookingRepository.countBookingsByDayOfWeek(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-                        when(classBookingRepository.countBookingsByTimeSlot(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
+                        stubFacts(bookingFacts(50, 200, 180, 15, 5));
 
                         // Act
                         ClassAnalyticsResponse result = analyticsService.getClassAnalytics(gymId,
@@ -316,25 +314,7 @@ class AnalyticsServiceTest {
                 void getClassAnalytics_CalculatesAttendanceRate() {
                         // Arrange
                         when(gymClassRepository.countByGymId(gymId)).thenReturn(10L);
-                        when(classScheduleRepository.countByGymIdAndStartTimeBetween(eq(gymId), any(), any()))
-                                        .thenReturn(20L);
-                        when(classBookingRepository.countByGymIdAndDateRange(eq(gymId), any(), any()))
-                                        .thenReturn(100L);
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.COMPLETED), any(), any()))
-                                        .thenReturn(80L); // 80% attendance
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.CANCELLED), any(), any()))
-                                        .thenReturn(10L);
-                        when(classBookingRepository.countByGymIdAndStatusAndDateRange(
-                                        eq(gymId), eq(BookingStatus.NO_SHOW), any(), any()))
-                                        .thenReturn(10L);
-                        when(classBookingRepository.countBookingsByClassForGym(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-                        when(classBookingRepository.countBookingsByDayOfWeek(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-                        when(classBookingRepository.countBookingsByTimeSlot(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
+                        stubFacts(bookingFacts(20, 100, 80, 10, 10)); // 80% attendance
 
                         // Act
                         ClassAnalyticsResponse result = analyticsService.getClassAnalytics(gymId,
@@ -350,16 +330,10 @@ class AnalyticsServiceTest {
                 void getClassAnalytics_BookingsByClassBreakdown() {
                         // Arrange
                         setupClassMocks();
-                        List<Object[]> classData = List.of(
-                                        new Object[] { "Yoga", 50L },
-                                        new Object[] { "Spin", 30L },
-                                        new Object[] { "HIIT", 20L });
-                        when(classBookingRepository.countBookingsByClassForGym(eq(gymId), any(), any()))
-                                        .thenReturn(classData);
-                        when(classBookingRepository.countBookingsByDayOfWeek(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
-                        when(classBookingRepository.countBookingsByTimeSlot(eq(gymId), any(), any()))
-                                        .thenReturn(List.of());
+                        when(rollupRepository.sumByClass(eq(gymId), any(), any())).thenReturn(List.of(
+                                        new ClassBookingFacts(UUID.randomUUID(), "Yoga", 50, 30),
+                                        new ClassBookingFacts(UUID.randomUUID(), "Spin", 30, 28),
+                                        new ClassBookingFacts(UUID.randomUUID(), "HIIT", 20, 10)));
 
                         // Act
                         ClassAnalyticsResponse result = analyticsService.getClassAnalytics(gymId,
@@ -368,6 +342,33 @@ class AnalyticsServiceTest {
                         // Assert
                         assertThat(result.bookingsByClass()).hasSize(3);
                         assertThat(result.bookingsByClass().get(0).category()).isEqualTo("Yoga");
+                        assertThat(result.topClassesByBookings().get(0).attendanceRate())
+                                        .isEqualByComparingTo(BigDecimal.valueOf(60));
+                        assertThat(result.topClassesByAttendance().get(0).className()).isEqualTo("Yoga");
+                        assertThat(result.topClassesByAttendance().get(1).className()).isEqualTo("Spin");
+                }
+
+                @Test
+                @DisplayName("Should label weekday and time slot breakdowns")
+                void getClassAnalytics_WeekdayAndTimeSlotBreakdowns() {
+                        // Arrange
+                        setupClassMocks();
+                        Map<Integer, Long> weekdays = new LinkedHashMap<>();
+                        weekdays.put(1, 30L);
+                        weekdays.put(7, 10L);
+                        when(rollupRepository.sumByWeekday(eq(gymId), any(), any())).thenReturn(weekdays);
+                        when(rollupRepository.sumByHour(eq(gymId), any(), any())).thenReturn(Map.of(18, 40L));
+
+                        // Act
+                        ClassAnalyticsResponse result = analyticsService.getClassAnalytics(gymId,
+                                        AnalyticsPeriod.LAST_30_DAYS);
+
+                        // Assert
+                        assertThat(result.bookingsByDayOfWeek()).extracting(CategoryBreakdown::category)
+                                        .containsExactly("Monday", "Sunday");
+                        assertThat(result.bookingsByDayOfWeek().get(0).percentage())
+                                        .isEqualByComparingTo(BigDecimal.valueOf(75));
+                        assertThat(result.bookingsByTimeSlot().get(0).category()).isEqualTo("18:00-19:00");
                 }
         }
 
@@ -386,6 +387,7 @@ class AnalyticsServiceTest {
 
                         // Assert
                         assertThat(result).isNotNull();
+                        verify(rollupRepository, atLeastOnce()).sumDaily(gymId, LocalDate.now(), LocalDate.now().plusDays(1));
                 }
 
                 @Test
@@ -399,6 +401,7 @@ class AnalyticsServiceTest {
 
                         // Assert
                         assertThat(result).isNotNull();
+                        verify(rollupRepository).findDaily(gymId, LocalDate.now().minusDays(7), LocalDate.now().plusDays(1));
                 }
 
                 @Test
@@ -428,9 +431,30 @@ class AnalyticsServiceTest {
 
         private void setupClassMocks() {
                 when(gymClassRepository.countByGymId(gymId)).thenReturn(10L);
-                when(classScheduleRepository.countByGymIdAndStartTimeBetween(eq(gymId), any(), any())).thenReturn(20L);
-                when(classBookingRepository.countByGymIdAndDateRange(eq(gymId), any(), any())).thenReturn(100L);
-                when(classBookingRepository.countByGymIdAndStatusAndDateRange(eq(gymId), any(), any(), any()))
-                                .thenReturn(0L);
+                stubFacts(bookingFacts(20, 100, 0, 0, 0));
+        }
+
+        private void stubFacts(DailyFacts facts) {
+                when(rollupRepository.sumDaily(eq(gymId), any(), any())).thenReturn(facts);
+        }
+
+        private static DailyFacts memberFacts(long newMembers, long cancelled) {
+                return new DailyFacts(LocalDate.now(), newMembers, cancelled, BigDecimal.ZERO, BigDecimal.ZERO,
+                                0, 0, 0, 0, 0, 0);
+        }
+
+        private static DailyFacts withNewMembers(LocalDate date, long newMembers) {
+                return new DailyFacts(date, newMembers, 0, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, 0, 0, 0, 0);
+        }
+
+        private static DailyFacts revenueFacts(BigDecimal membershipRevenue, BigDecimal posRevenue, long transactions) {
+                return new DailyFacts(LocalDate.now(), 0, 0, membershipRevenue, posRevenue, transactions,
+                                0, 0, 0, 0, 0);
+        }
+
+        private static DailyFacts bookingFacts(long sessions, long bookings, long completed, long cancelled,
+                        long noShows) {
+                return new DailyFacts(LocalDate.now(), 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, 0,
+                                sessions, bookings, completed, cancelled, noShows);
         }
 }
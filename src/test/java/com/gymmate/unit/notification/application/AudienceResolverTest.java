@@ -0,0 +1,126 @@
+package com.gymmate.unit.notification.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmate.notification.api.dto.AudiencePreviewResponse;
+import com.gymmate.notification.application.AudienceResolver;
+import com.gymmate.notification.application.AudienceResolver.MemberRecipient;
+import com.gymmate.notification.domain.AudienceType;
+import com.gymmate.notification.infrastructure.AudienceQuery;
+import com.gymmate.notification.infrastructure.AudienceQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AudienceResolver Unit Tests")
+class AudienceResolverTest {
+
+    @Mock
+    private AudienceQueryRepository audienceQueryRepository;
+
+    private AudienceResolver audienceResolver;
+
+    private UUID gymId;
+    private AudienceQuery activeMembers;
+
+    @BeforeEach
+    void setUp() {
+        audienceResolver = new AudienceResolver(audienceQueryRepository, new ObjectMapper());
+        gymId = UUID.randomUUID();
+        activeMembers = new AudienceQuery("m.status = 'ACTIVE'", Map.of("gymId", gymId));
+    }
+
+    @Test
+    @DisplayName("Should compile a plan filter into a plan query")
+    void compile_MembershipPlan_UsesPlanIds() {
+        // Arrange
+        UUID planA = UUID.randomUUID();
+        UUID planB = UUID.randomUUID();
+        AudienceQuery planQuery = new AudienceQuery("plan", Map.of("gymId", gymId));
+        when(audienceQueryRepository.membershipPlans(gymId, Set.of(planA, planB))).thenReturn(planQuery);
+
+        // Act
+        AudienceQuery result = audienceResolver.compile(gymId, AudienceType.MEMBERSHIP_PLAN,
+                "{\"planIds\": [\"" + planA + "\", \"" + planB + "\"]}");
+
+        // Assert
+        assertThat(result).isSameAs(planQuery);
+    }
+
+    @Test
+    @DisplayName("Should fall back to all active members when class filter is missing")
+    void compile_ClassSubscribersWithoutIds_FallsBackToAllMembers() {
+        // Arrange
+        when(audienceQueryRepository.activeMembers(gymId)).thenReturn(activeMembers);
+
+        // Act
+        AudienceQuery result = audienceResolver.compile(gymId, AudienceType.CLASS_SUBSCRIBERS, "{}");
+
+        // Assert
+        assertThat(result).isSameAs(activeMembers);
+        verify(audienceQueryRepository, never()).classSubscribers(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should resolve an empty custom selection to nobody")
+    void compile_CustomWithoutIds_ReturnsNone() {
+        // Arrange
+        AudienceQuery none = new AudienceQuery("FALSE", Map.of("gymId", gymId));
+        when(audienceQueryRepository.none(gymId)).thenReturn(none);
+
+        // Act
+        AudienceQuery result = audienceResolver.compile(gymId, AudienceType.CUSTOM, null);
+
+        // Assert
+        assertThat(result).isSameAs(none);
+    }
+
+    @Test
+    @DisplayName("Should use the whole-day bounds of the booking date filter")
+    void compile_BookingParticipants_ParsesDateRange() {
+        // Arrange
+        AudienceQuery bookings = new AudienceQuery("bookings", Map.of("gymId", gymId));
+        when(audienceQueryRepository.bookingParticipants(gymId,
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 31, 23, 59, 59)))
+                .thenReturn(bookings);
+
+        // Act
+        AudienceQuery result = audienceResolver.compile(gymId, AudienceType.BOOKING_PARTICIPANTS,
+                "{\"dateFrom\": \"2026-01-01\", \"dateTo\": \"2026-01-31\"}");
+
+        // Assert
+        assertThat(result).isSameAs(bookings);
+    }
+
+    @Test
+    @DisplayName("Should preview the audience with a count and a small sample")
+    void getAudiencePreview_CountsWithoutLoadingAudience() {
+        // Arrange
+        MemberRecipient recipient = new MemberRecipient(UUID.randomUUID(), UUID.randomUUID(),
+                "Ann", "Smith", "ann@example.com");
+        when(audienceQueryRepository.activeMembers(gymId)).thenReturn(activeMembers);
+        when(audienceQueryRepository.count(activeMembers)).thenReturn(4200);
+        when(audienceQueryRepository.find(activeMembers, 10)).thenReturn(List.of(recipient));
+
+        // Act
+        AudiencePreviewResponse preview = audienceResolver.getAudiencePreview(gymId, AudienceType.ALL_MEMBERS, null);
+
+        // Assert
+        assertThat(preview.getTotalCount()).isEqualTo(4200);
+        assertThat(preview.getSampleRecipients()).hasSize(1);
+        assertThat(preview.getSampleRecipients().get(0).getEmail()).isEqualTo("ann@example.com");
+        verify(audienceQueryRepository, never()).stream(any(), any());
+    }
+}
@@ -0,0 +1,215 @@
+package com.gymmate.unit.notification.application;
+
+import com.gymmate.notification.application.AudienceResolver;
+import com.gymmate.notification.application.BroadcastService;
+import com.gymmate.notification.application.CampaignDeliveryService;
+import com.gymmate.notification.application.CompiledTemplate;
+import com.gymmate.notification.application.NewsletterTemplateService;
+import com.gymmate.notification.domain.*;
+import com.gymmate.notification.infrastructure.AudienceQuery;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.DeliveryCounts;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.DeliveryResult;
+import com.gymmate.notification.infrastructure.CampaignDeliveryRepository.PendingRecipient;
+import com.gymmate.notification.infrastructure.NewsletterCampaignRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CampaignDeliveryService Unit Tests")
+class CampaignDeliveryServiceTest {
+
+    @Mock
+    private NewsletterCampaignRepository campaignRepository;
+
+    @Mock
+    private CampaignDeliveryRepository deliveryRepository;
+
+    @Mock
+    private AudienceResolver audienceResolver;
+
+    @Mock
+    private NewsletterTemplateService templateService;
+
+    @Mock
+    private BroadcastService broadcastService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CampaignDeliveryService deliveryService;
+
+    private UUID campaignId;
+    private NewsletterCampaign campaign;
+    private BroadcastService.Route route;
+
+    @BeforeEach
+    void setUp() {
+        deliveryService = new CampaignDeliveryService(campaignRepository, deliveryRepository, audienceResolver,
+                templateService, broadcastService, transactionTemplate, 2, 2, 1, 10);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
+
+        campaignId = UUID.randomUUID();
+        campaign = NewsletterCampaign.builder()
+                .name("Spring Offer")
+                .subject("Hi {{first_name}}")
+                .body("<p>Hello {{member_name}}</p>")
+                .audienceType(AudienceType.ALL_MEMBERS)
+                .build();
+        campaign.setId(campaignId);
+        campaign.setGymId(UUID.randomUUID());
+        campaign.setOrganisationId(UUID.randomUUID());
+        campaign.startSending();
+        route = new BroadcastService.Route(new NotificationSettings());
+    }
+
+    @Test
+    @DisplayName("Should snapshot the audience, send it chunk by chunk and complete the campaign")
+    void deliver_SendsAllChunksAndCompletes() {
+        // Arrange
+        PendingRecipient first = pending("ann@example.com");
+        PendingRecipient second = pending("bob@example.com");
+        PendingRecipient third = pending("cat@example.com");
+        AudienceQuery audience = new AudienceQuery("m.status = 'ACTIVE'", Map.of("gymId", campaign.getGymId()));
+
+        when(deliveryRepository.claim(eq(campaignId), any())).thenReturn(true);
+        when(campaignRepository.findById(campaignId)).thenReturn(Optional.of(campaign));
+        when(deliveryRepository.hasRecipients(campaignId)).thenReturn(false);
+        when(audienceResolver.compile(campaign.getGymId(), AudienceType.ALL_MEMBERS, null)).thenReturn(audience);
+        when(deliveryRepository.insertRecipients(eq(campaignId), eq(audience), any())).thenReturn(3);
+        when(broadcastService.prepare(campaign.getOrganisationId())).thenReturn(route);
+        when(deliveryRepository.findPending(campaignId, null, 2)).thenReturn(List.of(first, second));
+        when(deliveryRepository.findPending(campaignId, second.id(), 2)).thenReturn(List.of(third));
+        when(deliveryRepository.findPending(campaignId, third.id(), 2)).thenReturn(List.of());
+        when(templateService.compiledSubject(campaign)).thenReturn(CompiledTemplate.compile(campaign.getSubject()));
+        when(templateService.compiledBody(campaign)).thenReturn(CompiledTemplate.compile(campaign.getBody()));
+        when(broadcastService.send(eq(route), anyString(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(new BroadcastService.BroadcastResult(true, NotificationChannel.EMAIL, false, null));
+        when(broadcastService.send(eq(route), eq(second.email()), anyString(), anyString(), anyString(), any()))
+                .thenReturn(new BroadcastService.BroadcastResult(false, NotificationChannel.EMAIL, false, "bounced"));
+        when(deliveryRepository.countResults(campaignId)).thenReturn(new DeliveryCounts(3, 2, 1));
+
+        // Act
+        deliveryService.deliver(campaignId);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DeliveryResult>> results = ArgumentCaptor.forClass(List.class);
+        verify(deliveryRepository, times(2)).recordResults(eq(campaignId), results.capture(), any());
+        assertThat(results.getAllValues().get(0))
+                .extracting(DeliveryResult::status)
+                .containsExactly(RecipientStatus.SENT, RecipientStatus.FAILED);
+        assertThat(results.getAllValues().get(1))
+                .extracting(DeliveryResult::recipientId)
+                .containsExactly(third.id());
+
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.SENT);
+        assertThat(campaign.getDeliveredCount()).isEqualTo(2);
+        assertThat(campaign.getFailedCount()).isEqualTo(1);
+        verify(campaignRepository).save(campaign);
+        verify(deliveryRepository).release(campaignId);
+        verify(broadcastService).send(route, first.email(), first.email(), "Hi Ann", "<p>Hello Ann A</p>", first.id());
+    }
+
+    @Test
+    @DisplayName("Should resume from pending rows without resolving the audience again")
+    void deliver_ResumesExistingSnapshot() {
+        // Arrange
+        when(deliveryRepository.claim(eq(campaignId), any())).thenReturn(true);
+        when(campaignRepository.findById(campaignId)).thenReturn(Optional.of(campaign));
+        when(deliveryRepository.hasRecipients(campaignId)).thenReturn(true);
+        when(broadcastService.prepare(campaign.getOrganisationId())).thenReturn(route);
+        when(deliveryRepository.findPending(campaignId, null, 2)).thenReturn(List.of());
+        when(deliveryRepository.countResults(campaignId)).thenReturn(new DeliveryCounts(5, 5, 0));
+
+        // Act
+        deliveryService.deliver(campaignId);
+
+        // Assert
+        verifyNoInteractions(audienceResolver);
+        verify(deliveryRepository, never()).insertRecipients(any(), any(), any());
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.SENT);
+        assertThat(campaign.getTotalRecipients()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should leave a campaign alone while another run holds its lease")
+    void deliver_SkipsWhenLeaseHeld() {
+        // Arrange
+        when(deliveryRepository.claim(eq(campaignId), any())).thenReturn(false);
+
+        // Act
+        deliveryService.deliver(campaignId);
+
+        // Assert
+        verifyNoInteractions(campaignRepository, audienceResolver, broadcastService);
+        verify(deliveryRepository, never()).findPending(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should not queue a campaign again while its resumed run is still waiting")
+    void resumeInterrupted_SkipsAlreadyQueued() throws Exception {
+        // Arrange - occupy the single runner thread
+        UUID blocker = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deliveryRepository.claim(eq(blocker), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        when(deliveryRepository.claim(eq(campaignId), any())).thenReturn(false);
+        when(deliveryRepository.findInterrupted()).thenReturn(List.of(campaignId));
+        deliveryService.deliverAfterCommit(blocker);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        deliveryService.resumeInterrupted();
+        deliveryService.resumeInterrupted();
+        deliveryService.resumeInterrupted();
+        release.countDown();
+
+        // Assert
+        verify(deliveryRepository, timeout(5000)).claim(eq(campaignId), any());
+        verify(deliveryRepository, after(200).times(1)).claim(eq(campaignId), any());
+
+        // Once its run has started, a later sweep may queue it again
+        deliveryService.resumeInterrupted();
+        verify(deliveryRepository, timeout(5000).times(2)).claim(eq(campaignId), any());
+    }
+
+    private static PendingRecipient pending(String email) {
+        String name = Character.toUpperCase(email.charAt(0)) + email.substring(1, email.indexOf('@'));
+        return new PendingRecipient(UUID.randomUUID(), UUID.randomUUID(), email, name, name.substring(0, 1));
+    }
+}
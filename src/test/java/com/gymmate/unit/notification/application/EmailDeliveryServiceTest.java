@@ -0,0 +1,165 @@
+package com.gymmate.unit.notification.application;
+
+import com.gymmate.notification.application.EmailDeliveryService;
+import com.gymmate.notification.infrastructure.OutboundEmailRepository;
+import com.gymmate.notification.infrastructure.OutboundEmailRepository.QueuedEmail;
+import com.gymmate.notification.infrastructure.SmtpTransportPool;
+import com.gymmate.notification.infrastructure.SseEmitterRegistry;
+import com.gymmate.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailDeliveryService Unit Tests")
+class EmailDeliveryServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private OutboundEmailRepository repository;
+
+    @Mock
+    private SmtpTransportPool transportPool;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private SseEmitterRegistry sseEmitterRegistry;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailDeliveryService deliveryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deliveryService = new EmailDeliveryService(repository, transportPool, mailSender, sseEmitterRegistry,
+                meterRegistry, "noreply@gymmatehub.com", 1, 10, MAX_ATTEMPTS, 1000, 60000, 5, 7);
+        Session session = Session.getInstance(new Properties());
+        lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should send a claimed batch over one pooled connection and mark it sent")
+    void deliverDue_SendsBatchAndMarksSent() {
+        // Arrange
+        QueuedEmail otp = queued("ann@example.com", "user-1", 1);
+        QueuedEmail welcome = queued("bob@example.com", null, 1);
+        when(repository.claim(anyString(), eq(10), any())).thenReturn(List.of(otp, welcome));
+        when(transportPool.send(anyList())).thenReturn(Map.of());
+
+        // Act
+        int claimed = deliveryService.deliverDue();
+
+        // Assert
+        assertThat(claimed).isEqualTo(2);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MimeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(transportPool).send(messages.capture());
+        assertThat(messages.getValue()).hasSize(2);
+        verify(repository).markSent(eq(List.of(otp.id(), welcome.id())), anyString());
+        verify(sseEmitterRegistry).sendEmailStatus(eq("user-1"), eq("SENT"), anyString());
+        verifyNoMoreInteractions(sseEmitterRegistry);
+        assertThat(meterRegistry.counter("email.delivery", "outcome", "sent").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed email later and give up once attempts run out")
+    void deliverDue_RetriesThenFails() {
+        // Arrange
+        QueuedEmail firstTry = queued("ann@example.com", "user-1", 1);
+        QueuedEmail lastTry = queued("bob@example.com", "user-2", MAX_ATTEMPTS);
+        when(repository.claim(anyString(), anyInt(), any())).thenReturn(List.of(firstTry, lastTry));
+        MessagingException timeout = new MessagingException("Read timed out");
+        when(transportPool.send(anyList())).thenReturn(Map.of(0, timeout, 1, timeout));
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        deliveryService.deliverDue();
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).reschedule(eq(firstTry.id()), anyString(), nextAttempt.capture(), eq("Read timed out"));
+        // First retry waits between half and all of the 1s base backoff
+        assertThat(nextAttempt.getValue()).isAfterOrEqualTo(before.plusNanos(500_000_000L));
+        assertThat(nextAttempt.getValue()).isBefore(before.plusSeconds(2));
+        verify(sseEmitterRegistry).sendEmailStatus(eq("user-1"), eq("SENDING"), anyString());
+
+        verify(repository).markFailed(eq(lastTry.id()), anyString(), eq("Read timed out"));
+        verify(sseEmitterRegistry).sendEmailStatus(eq("user-2"), eq("FAILED"), anyString());
+        verify(repository).markSent(eq(List.of()), anyString());
+    }
+
+    @Test
+    @DisplayName("Should put the whole batch back when SMTP capacity is exhausted")
+    void deliverDue_ReschedulesBatchWhenShed() {
+        // Arrange
+        QueuedEmail first = queued("ann@example.com", null, 1);
+        QueuedEmail second = queued("bob@example.com", null, 2);
+        when(repository.claim(anyString(), anyInt(), any())).thenReturn(List.of(first, second));
+        when(transportPool.send(anyList())).thenThrow(new ServiceUnavailableException("busy", 1));
+
+        // Act
+        deliveryService.deliverDue();
+
+        // Assert
+        verify(repository).reschedule(eq(first.id()), anyString(), any(), eq("busy"));
+        verify(repository).reschedule(eq(second.id()), anyString(), any(), eq("busy"));
+        verify(repository, never()).markFailed(any(), anyString(), anyString());
+        assertThat(meterRegistry.counter("email.delivery", "outcome", "retried").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not wake the workers until the enqueuing transaction commits")
+    void enqueue_DefersDeliveryUntilCommit() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(repository.enqueue("ann@example.com", "Welcome", "<p>Hi</p>", null, null)).thenReturn(id);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        UUID queuedId = deliveryService.enqueue("ann@example.com", "Welcome", "<p>Hi</p>", null);
+
+        // Assert
+        assertThat(queuedId).isEqualTo(id);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+        verify(repository, never()).claim(anyString(), anyInt(), any());
+    }
+
+    private static QueuedEmail queued(String to, String statusUserId, int attempts) {
+        return new QueuedEmail(UUID.randomUUID(), to, "Subject", "<p>Body</p>", statusUserId, attempts);
+    }
+}
@@ -3,11 +3,9 @@ package com.gymmate.unit.notification.application;
 import com.gymmate.notification.api.dto.AudiencePreviewResponse;
 import com.gymmate.notification.api.dto.CreateCampaignRequest;
 import com.gymmate.notification.application.AudienceResolver;
-import com.gymmate.notification.application.BroadcastService;
+import com.gymmate.notification.application.CampaignDeliveryService;
 import com.gymmate.notification.application.NewsletterCampaignService;
-import com.gymmate.notification.application.NewsletterTemplateService;
 import com.gymmate.notification.domain.*;
-import com.gymmate.notification.infrastructure.CampaignRecipientRepository;
 import com.gymmate.notification.infrastructure.NewsletterCampaignRepository;
 import com.gymmate.notification.infrastructure.NewsletterTemplateRepository;
 import com.gymmate.shared.exception.DomainException;
@@ -41,17 +39,11 @@ class NewsletterCampaignServiceTest {
     @Mock
     private NewsletterTemplateRepository templateRepository;
 
-    @Mock
-    private CampaignRecipientRepository recipientRepository;
-
     @Mock
     private AudienceResolver audienceResolver;
 
     @Mock
-    private NewsletterTemplateService templateService;
-
-    @Mock
-    private BroadcastService broadcastService;
+    private CampaignDeliveryService campaignDeliveryService;
 
     private NewsletterCampaignService campaignService;
 
@@ -64,10 +56,8 @@ class NewsletterCampaignServiceTest {
         campaignService = new NewsletterCampaignService(
                 campaignRepository,
                 templateRepository,
-                recipientRepository,
                 audienceResolver,
-                templateService,
-                broadcastService);
+                campaignDeliveryService);
         gymId = UUID.randomUUID();
         organisationId = UUID.randomUUID();
         createdBy = UUID.randomUUID();
@@ -346,18 +336,15 @@ class NewsletterCampaignServiceTest {
 
             when(campaignRepository.findById(campaignId)).thenReturn(Optional.of(campaign));
             when(campaignRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-            // Mock empty audience so async completes quickly
-            when(audienceResolver.resolveAudience(any(), any(), any())).thenReturn(List.of());
 
             // Act
             NewsletterCampaign result = campaignService.send(campaignId, sentByUserId);
 
-            // Assert - After async completes with 0 recipients it will be SENT or FAILED
-            // Verify that sentByUserId was set and campaign repository was called
+            // Assert - marked SENDING and handed to the background delivery
             assertThat(result.getSentByUserId()).isEqualTo(sentByUserId);
-            // Verify campaign was saved at least twice (once for SENDING, once for
-            // complete)
-            verify(campaignRepository, atLeast(2)).save(any(NewsletterCampaign.class));
+            assertThat(result.getStatus()).isEqualTo(CampaignStatus.SENDING);
+            verify(campaignRepository).save(campaign);
+            verify(campaignDeliveryService).deliverAfterCommit(campaignId);
         }
 
         @Test
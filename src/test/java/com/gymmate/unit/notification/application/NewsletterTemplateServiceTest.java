@@ -2,8 +2,10 @@ package com.gymmate.unit.notification.application;
 
 import com.gymmate.notification.api.dto.CreateTemplateRequest;
 import com.gymmate.notification.api.dto.UpdateTemplateRequest;
+import com.gymmate.notification.domain.NewsletterCampaign;
 import com.gymmate.notification.domain.NewsletterTemplate;
 import com.gymmate.notification.infrastructure.NewsletterTemplateRepository;
+import com.gymmate.notification.application.CompiledTemplate;
 import com.gymmate.notification.application.NewsletterTemplateService;
 import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.multitenancy.TenantContext;
@@ -17,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -351,7 +354,70 @@ class NewsletterTemplateServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Compiled Campaign Template Tests")
+    class CompiledCampaignTemplateTests {
+
+        @Test
+        @DisplayName("Should reuse the compiled body for the same campaign version")
+        void compiledBody_SameVersion_ReturnsCachedTemplate() {
+            // Arrange
+            NewsletterCampaign campaign = createCampaign("<p>Hi {{first_name}}</p>");
+
+            // Act
+            CompiledTemplate first = templateService.compiledBody(campaign);
+            CompiledTemplate second = templateService.compiledBody(campaign);
+
+            // Assert
+            assertThat(second).isSameAs(first);
+            assertThat(first.render(Map.of("first_name", "Ann"))).isEqualTo("<p>Hi Ann</p>");
+        }
+
+        @Test
+        @DisplayName("Should recompile the body after the campaign is edited")
+        void compiledBody_NewVersion_Recompiles() {
+            // Arrange
+            NewsletterCampaign campaign = createCampaign("<p>Hi {{first_name}}</p>");
+            CompiledTemplate before = templateService.compiledBody(campaign);
+            campaign.setBody("<p>Bye {{first_name}}</p>");
+            campaign.setUpdatedAt(campaign.getUpdatedAt().plusSeconds(1));
+
+            // Act
+            CompiledTemplate after = templateService.compiledBody(campaign);
+
+            // Assert
+            assertThat(after).isNotSameAs(before);
+            assertThat(after.render(Map.of("first_name", "Ann"))).isEqualTo("<p>Bye Ann</p>");
+        }
+
+        @Test
+        @DisplayName("Should keep subject and body of a campaign apart")
+        void compiledSubject_SameCampaign_DoesNotShareBody() {
+            // Arrange
+            NewsletterCampaign campaign = createCampaign("<p>Body</p>");
+
+            // Act
+            String subject = templateService.compiledSubject(campaign).render(Map.of("first_name", "Ann"));
+            String body = templateService.compiledBody(campaign).render(Map.of("first_name", "Ann"));
+
+            // Assert
+            assertThat(subject).isEqualTo("Offer for Ann");
+            assertThat(body).isEqualTo("<p>Body</p>");
+        }
+    }
+
     // Helper methods
+    private NewsletterCampaign createCampaign(String body) {
+        NewsletterCampaign campaign = NewsletterCampaign.builder()
+                .name("Offer")
+                .subject("Offer for {{first_name}}")
+                .body(body)
+                .build();
+        campaign.setId(UUID.randomUUID());
+        campaign.setUpdatedAt(LocalDateTime.now());
+        return campaign;
+    }
+
     private NewsletterTemplate createExistingTemplate(UUID id) {
         NewsletterTemplate template = NewsletterTemplate.builder()
                 .name("Existing Template")
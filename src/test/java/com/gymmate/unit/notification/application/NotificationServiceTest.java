@@ -11,12 +11,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -190,24 +192,40 @@ class NotificationServiceTest {
                 }
 
                 @Test
-                @DisplayName("Should mark all org notifications as read")
+                @DisplayName("Should mark all org notifications as read in one update")
                 void shouldMarkAllAsRead() {
                         // Arrange
-                        Notification notif1 = buildNotification(organisationId, null);
-                        Notification notif2 = buildNotification(organisationId, null);
-                        Page<Notification> unreadPage = new PageImpl<>(List.of(notif1, notif2));
+                        when(notificationRepository.markAllReadByOrganisationId(eq(organisationId), any()))
+                                        .thenReturn(100_000);
 
-                        when(notificationRepository.findUnreadByOrganisationId(
-                                        eq(organisationId), any(Pageable.class)))
-                                        .thenReturn(unreadPage);
-                        when(notificationRepository.save(any(Notification.class)))
-                                        .thenAnswer(i -> i.getArgument(0));
+                        // Act
+                        int marked = service.markAllAsRead(organisationId);
+
+                        // Assert
+                        assertThat(marked).isEqualTo(100_000);
+                        verify(notificationRepository, never()).findUnreadByOrganisationId(any(), any());
+                        verify(notificationRepository, never()).save(any(Notification.class));
+                }
+
+                @Test
+                @DisplayName("Should delete org notifications older than the cutoff in one delete")
+                void shouldDeleteOldNotifications() {
+                        // Arrange
+                        LocalDateTime before = LocalDateTime.now().minusDays(30);
+                        when(notificationRepository.deleteByOrganisationIdCreatedBefore(eq(organisationId), any()))
+                                        .thenReturn(42);
 
                         // Act
-                        service.markAllAsRead(organisationId);
+                        int deleted = service.deleteOldNotifications(organisationId, 30);
 
                         // Assert
-                        verify(notificationRepository, times(2)).save(any(Notification.class));
+                        assertThat(deleted).isEqualTo(42);
+                        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+                        verify(notificationRepository).deleteByOrganisationIdCreatedBefore(eq(organisationId),
+                                        cutoff.capture());
+                        assertThat(cutoff.getValue()).isAfterOrEqualTo(before)
+                                        .isBefore(LocalDateTime.now().minusDays(29));
+                        verify(notificationRepository, never()).delete(any());
                 }
         }
 
@@ -269,21 +287,14 @@ class NotificationServiceTest {
                 @DisplayName("Should mark all gym notifications as read")
                 void shouldMarkAllGymNotificationsAsRead() {
                         // Arrange
-                        Notification notif1 = buildNotification(organisationId, gymId);
-                        Notification notif2 = buildNotification(organisationId, gymId);
-                        Page<Notification> unreadPage = new PageImpl<>(List.of(notif1, notif2));
-
-                        when(notificationRepository.findUnreadByGymId(
-                                        eq(gymId), any(Pageable.class)))
-                                        .thenReturn(unreadPage);
-                        when(notificationRepository.save(any(Notification.class)))
-                                        .thenAnswer(i -> i.getArgument(0));
+                        when(notificationRepository.markAllReadByGymId(eq(gymId), any())).thenReturn(2);
 
                         // Act
-                        service.markAllGymNotificationsAsRead(gymId);
+                        int marked = service.markAllGymNotificationsAsRead(gymId);
 
                         // Assert
-                        verify(notificationRepository, times(2)).save(any(Notification.class));
+                        assertThat(marked).isEqualTo(2);
+                        verify(notificationRepository, never()).save(any(Notification.class));
                 }
 
                 @Test
@@ -0,0 +1,180 @@
+package com.gymmate.unit.notification.infrastructure;
+
+import com.gymmate.notification.infrastructure.SmtpTransportPool;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SmtpTransportPool Unit Tests")
+class SmtpTransportPoolTest {
+
+    @Mock
+    private JavaMailSenderImpl mailSender;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Transport transport;
+
+    private SmtpTransportPool pool;
+    private Session messageSession;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DownstreamLimiter limiter = new DownstreamLimiter(new SimpleMeterRegistry(), 2, 2, 2, 2, 100);
+        pool = new SmtpTransportPool(mailSender, limiter, 30000, 3);
+        messageSession = Session.getInstance(new Properties());
+
+        when(mailSender.getSession()).thenReturn(session);
+        when(mailSender.getHost()).thenReturn("smtp.example.com");
+        when(mailSender.getPort()).thenReturn(587);
+        when(session.getTransport(anyString())).thenReturn(transport);
+        lenient().when(transport.isConnected()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should reuse one connection across batches")
+    void send_ReusesConnection() throws Exception {
+        // Act
+        Map<Integer, Exception> first = pool.send(List.of(message("ann@example.com")));
+        Map<Integer, Exception> second = pool.send(List.of(message("bob@example.com")));
+
+        // Assert
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(transport, times(1)).connect(anyString(), anyInt(), any(), any());
+        verify(transport, times(2)).sendMessage(any(Message.class), any(Address[].class));
+    }
+
+    @Test
+    @DisplayName("Should report a rejected message without failing the rest of the batch")
+    void send_ReportsFailuresByIndex() throws Exception {
+        // Arrange
+        MimeMessage rejected = message("bad@example.com");
+        SendFailedException rejection = new SendFailedException("550 mailbox unavailable");
+        lenient().doThrow(rejection).when(transport).sendMessage(eq(rejected), any(Address[].class));
+
+        // Act
+        Map<Integer, Exception> failures = pool.send(List.of(message("ann@example.com"), rejected,
+                message("cat@example.com")));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(1);
+        assertThat(failures.get(1)).isSameAs(rejection);
+        verify(transport, times(3)).sendMessage(any(Message.class), any(Address[].class));
+        // A recipient rejection leaves the session usable
+        verify(transport, times(1)).connect(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should check liveness only when borrowing an idle connection")
+    void send_ChecksLivenessOnlyOnBorrow() throws Exception {
+        // Act
+        pool.send(List.of(message("a@example.com"), message("b@example.com")));
+        verify(transport, never()).isConnected();
+        pool.send(List.of(message("c@example.com")));
+
+        // Assert
+        verify(transport, times(1)).isConnected();
+    }
+
+    @Test
+    @DisplayName("Should reconnect after a send fails on the session")
+    void send_ReconnectsAfterSessionFailure() throws Exception {
+        // Arrange
+        MimeMessage dropped = message("bob@example.com");
+        MessagingException connectionLost = new MessagingException("421 closing connection");
+        doThrow(connectionLost).when(transport).sendMessage(eq(dropped), any(Address[].class));
+
+        // Act
+        Map<Integer, Exception> failures = pool.send(List.of(message("ann@example.com"), dropped,
+                message("cat@example.com")));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(1);
+        verify(transport).close();
+        verify(transport, times(2)).connect(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report an unexpected exception per message and keep the accepted ones")
+    void send_ReportsRuntimeFailureWithoutLosingBatch() throws Exception {
+        // Arrange
+        MimeMessage broken = message("bob@example.com");
+        IllegalStateException bug = new IllegalStateException("not connected");
+        doThrow(bug).when(transport).sendMessage(eq(broken), any(Address[].class));
+
+        // Act
+        Map<Integer, Exception> failures = pool.send(List.of(message("ann@example.com"), broken,
+                message("cat@example.com")));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(1);
+        assertThat(failures.get(1)).isSameAs(bug);
+        verify(transport, times(3)).sendMessage(any(Message.class), any(Address[].class));
+        verify(transport).close();
+    }
+
+    @Test
+    @DisplayName("Should fail the whole batch when no connection can be opened")
+    void send_FailsBatchWhenConnectFails() throws Exception {
+        // Arrange
+        MessagingException refused = new MessagingException("Connection refused");
+        doThrow(refused).when(transport).connect(anyString(), anyInt(), any(), any());
+
+        // Act
+        Map<Integer, Exception> failures = pool.send(List.of(message("ann@example.com"), message("bob@example.com")));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(0, 1);
+        verify(transport, never()).sendMessage(any(Message.class), any(Address[].class));
+    }
+
+    @Test
+    @DisplayName("Should open a fresh connection once one has sent its message quota")
+    void send_RotatesConnectionAfterQuota() throws Exception {
+        // Act - quota is 3 messages per connection
+        pool.send(List.of(message("a@example.com"), message("b@example.com"), message("c@example.com"),
+                message("d@example.com")));
+
+        // Assert
+        verify(transport, times(2)).connect(anyString(), anyInt(), any(), any());
+        verify(transport).close();
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = new MimeMessage(messageSession);
+        message.setFrom(new InternetAddress("noreply@gymmatehub.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Subject");
+        message.setText("Body");
+        return message;
+    }
+}
@@ -1,13 +1,16 @@
 package com.gymmate.unit.pos.application;
 
 import com.gymmate.inventory.application.InventoryService;
+import com.gymmate.inventory.domain.StockSaleLine;
 import com.gymmate.pos.api.dto.CreateSaleRequest;
 import com.gymmate.pos.api.dto.SaleItemRequest;
 import com.gymmate.pos.application.PosService;
+import com.gymmate.pos.application.SaleNumberAllocator;
 import com.gymmate.pos.domain.*;
 import com.gymmate.pos.infrastructure.CashDrawerJpaRepository;
 import com.gymmate.pos.infrastructure.SaleItemJpaRepository;
 import com.gymmate.pos.infrastructure.SaleJpaRepository;
+import com.gymmate.shared.exception.DomainException;
 import com.gymmate.shared.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -45,6 +48,9 @@ class PosServiceTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private SaleNumberAllocator saleNumberAllocator;
+
     private PosService posService;
 
     private UUID gymId;
@@ -57,7 +63,8 @@ class PosServiceTest {
                 saleRepository,
                 saleItemRepository,
                 cashDrawerRepository,
-                inventoryService);
+                inventoryService,
+                saleNumberAllocator);
 
         gymId = UUID.randomUUID();
         staffId = UUID.randomUUID();
@@ -140,12 +147,13 @@ class PosServiceTest {
                 return s;
             });
 
+            when(saleNumberAllocator.nextSaleNumber(gymId)).thenReturn("POS_SALE-20250114-000042");
+
             // Act
             Sale result = posService.createSale(request, staffId);
 
             // Assert
-            assertThat(result.getSaleNumber()).isNotNull();
-            assertThat(result.getSaleNumber()).startsWith("POS_SALE-");
+            assertThat(result.getSaleNumber()).isEqualTo("POS_SALE-20250114-000042");
         }
     }
 
@@ -170,8 +178,30 @@ class PosServiceTest {
 
             // Assert
             assertThat(result.getStatus()).isEqualTo(SaleStatus.COMPLETED);
-            // Verify inventory service was called for sale recording
-            verify(inventoryService).recordSale(eq(inventoryItemId), eq(2), any(), any(), any(), any());
+            verify(cashDrawerRepository).addCashSaleToOpenDrawer(gymId, sale.getTotalAmount());
+            // Verify the basket was taken out of stock in one call
+            verify(inventoryService).recordSales(
+                    eq(List.of(new StockSaleLine(inventoryItemId, 2, BigDecimal.valueOf(25)))),
+                    eq(memberId), eq("SALE-TEST-001"), any());
+        }
+
+        @Test
+        @DisplayName("Should fail the sale when an item is out of stock")
+        void completeSale_InsufficientStock_ThrowsAndDoesNotSave() {
+            // Arrange
+            UUID saleId = UUID.randomUUID();
+            Sale sale = createPendingSale(saleId, UUID.randomUUID());
+
+            when(saleRepository.findById(saleId)).thenReturn(Optional.of(sale));
+            doThrow(new DomainException("INSUFFICIENT_STOCK", "Insufficient stock for items: Test Item"))
+                    .when(inventoryService).recordSales(any(), any(), any(), any());
+
+            // Act & Assert
+            assertThatThrownBy(() -> posService.completeSale(saleId, PaymentType.CASH,
+                    sale.getTotalAmount(), null))
+                    .isInstanceOf(DomainException.class)
+                    .hasMessageContaining("Insufficient stock");
+            verify(saleRepository, never()).save(any());
         }
 
         @Test
@@ -273,6 +303,41 @@ class PosServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Sales Summary Tests")
+    class SalesSummaryTests {
+
+        @Test
+        @DisplayName("Should combine per-status totals into the summary")
+        void getSalesSummary_CombinesStatusRows() {
+            // Arrange
+            LocalDateTime start = LocalDateTime.now().minusDays(1);
+            LocalDateTime end = LocalDateTime.now();
+            when(saleRepository.summarizeByStatusAndDateRange(gymId, start, end)).thenReturn(List.of(
+                    new Object[]{"COMPLETED", 3L, new BigDecimal("150.00"), BigDecimal.ZERO,
+                            new BigDecimal("5.00"), new BigDecimal("12.00"), new BigDecimal("7")},
+                    new Object[]{"PARTIALLY_REFUNDED", 1L, new BigDecimal("40.00"), new BigDecimal("10.00"),
+                            BigDecimal.ZERO, new BigDecimal("3.20"), new BigDecimal("2")},
+                    new Object[]{"CANCELLED", 2L, new BigDecimal("20.00"), BigDecimal.ZERO,
+                            BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("2")}));
+
+            // Act
+            PosService.PosSalesSummary summary = posService.getSalesSummary(gymId, start, end);
+
+            // Assert
+            assertThat(summary.totalSales()).isEqualTo(6);
+            assertThat(summary.completedSales()).isEqualTo(3);
+            assertThat(summary.refundedSales()).isEqualTo(1);
+            assertThat(summary.cancelledSales()).isEqualTo(2);
+            assertThat(summary.totalItemsSold()).isEqualTo(7);
+            assertThat(summary.totalRevenue()).isEqualByComparingTo("150.00");
+            assertThat(summary.totalRefunds()).isEqualByComparingTo("10.00");
+            assertThat(summary.netRevenue()).isEqualByComparingTo("140.00");
+            assertThat(summary.totalDiscounts()).isEqualByComparingTo("5.00");
+            assertThat(summary.totalTax()).isEqualByComparingTo("15.20");
+        }
+    }
+
     @Nested
     @DisplayName("Cash Drawer Tests")
     class CashDrawerTests {
@@ -0,0 +1,120 @@
+package com.gymmate.unit.pos.application;
+
+import com.gymmate.pos.application.SaleNumberAllocator;
+import com.gymmate.pos.infrastructure.SaleNumberBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SaleNumberAllocator Unit Tests")
+class SaleNumberAllocatorTest {
+
+    @Mock
+    private SaleNumberBlockRepository blockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SaleNumberAllocator allocator;
+
+    private UUID gymId;
+    private String datePrefix;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        allocator = new SaleNumberAllocator(blockRepository, transactionManager, 3);
+        gymId = UUID.randomUUID();
+        datePrefix = "POS_SALE-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+    }
+
+    @Test
+    @DisplayName("Should serve numbers from a leased block and lease the next one when it runs out")
+    void nextSaleNumber_LeasesBlocksAsNeeded() {
+        // Arrange
+        when(blockRepository.reserve(eq(gymId), any(), eq(3))).thenReturn(1L, 4L);
+
+        // Act
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            numbers.add(allocator.nextSaleNumber(gymId));
+        }
+
+        // Assert
+        assertThat(numbers).containsExactly(
+                datePrefix + "000001", datePrefix + "000002", datePrefix + "000003", datePrefix + "000004");
+        verify(blockRepository, times(2)).reserve(eq(gymId), any(), eq(3));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should number each gym independently")
+    void nextSaleNumber_SeparateSequencePerGym() {
+        // Arrange
+        UUID otherGymId = UUID.randomUUID();
+        when(blockRepository.reserve(eq(gymId), any(), eq(3))).thenReturn(1L);
+        when(blockRepository.reserve(eq(otherGymId), any(), eq(3))).thenReturn(7L);
+
+        // Act
+        String first = allocator.nextSaleNumber(gymId);
+        String other = allocator.nextSaleNumber(otherGymId);
+
+        // Assert
+        assertThat(first).isEqualTo(datePrefix + "000001");
+        assertThat(other).isEqualTo(datePrefix + "000007");
+    }
+
+    @Test
+    @DisplayName("Should never hand out the same number twice under concurrent sales")
+    void nextSaleNumber_Concurrent_NoDuplicates() throws Exception {
+        // Arrange
+        AtomicLong nextBlock = new AtomicLong(1);
+        when(blockRepository.reserve(eq(gymId), any(), eq(3))).thenAnswer(invocation -> nextBlock.getAndAdd(3));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<String> numbers = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        numbers.add(allocator.nextSaleNumber(gymId));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(numbers).hasSize(400);
+        assertThat(new HashSet<>(numbers)).hasSize(400);
+    }
+}
@@ -0,0 +1,192 @@
+package com.gymmate.unit.shared.batch;
+
+import com.gymmate.shared.batch.BatchJob;
+import com.gymmate.shared.batch.BatchJobReport;
+import com.gymmate.shared.batch.BatchJobRepository;
+import com.gymmate.shared.batch.BatchJobRepository.Checkpoint;
+import com.gymmate.shared.batch.BatchJobRunner;
+import com.gymmate.shared.batch.BatchRun;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchJobRunner Unit Tests")
+class BatchJobRunnerTest {
+
+    private static final String RUN_KEY = "2026-01-15";
+
+    @Mock
+    private BatchJobRepository repository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ObjectProvider<BatchJob> jobs;
+
+    @Mock
+    private BatchJob job;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BatchJobRunner runner;
+    private UUID gymId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        runner = new BatchJobRunner(repository, transactionTemplate, meterRegistry, jobs, 2, 2, 15);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(job.name()).thenReturn("test-job");
+        lenient().when(repository.renew(anyString(), anyString(), anyString(), any())).thenReturn(true);
+        gymId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should process a partition chunk by chunk, checkpoint each chunk and complete the run")
+    void run_ProcessesChunksAndCompletes() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(repository.claim(eq("test-job"), eq(RUN_KEY), anyString(), any()))
+                .thenReturn(Optional.of(LocalDateTime.now()));
+        when(repository.findCheckpoints("test-job", RUN_KEY)).thenReturn(Map.of());
+        when(job.partitions(any())).thenReturn(List.of(gymId));
+        when(job.nextChunk(any(), eq(gymId), isNull(), eq(2))).thenReturn(List.of(first, second));
+        when(job.nextChunk(any(), eq(gymId), eq(second), eq(2))).thenReturn(List.of(third));
+        when(job.nextChunk(any(), eq(gymId), eq(third), eq(2))).thenReturn(List.of());
+
+        // Act
+        Optional<BatchJobReport> report = runner.run(job, RUN_KEY);
+
+        // Assert
+        assertThat(report).isPresent();
+        assertThat(report.get().processed()).isEqualTo(3);
+        assertThat(report.get().failed()).isZero();
+        verify(job).process(any(), eq(first));
+        verify(job).process(any(), eq(third));
+        verify(repository).saveCheckpoint(any(), eq(gymId), eq(second), eq(2), eq(0), eq(false));
+        verify(repository).saveCheckpoint(any(), eq(gymId), eq(third), eq(1), eq(0), eq(false));
+        verify(repository).saveCheckpoint(any(), eq(gymId), isNull(), eq(0), eq(0), eq(true));
+        verify(repository).complete(eq("test-job"), eq(RUN_KEY), anyString());
+        assertThat(meterRegistry.get("batch.job.items").tag("outcome", "processed").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed chunk item by item and hand the failing item to the job")
+    void run_IsolatesFailingItem() {
+        // Arrange
+        UUID good = UUID.randomUUID();
+        UUID bad = UUID.randomUUID();
+        IllegalStateException failure = new IllegalStateException("boom");
+        when(repository.claim(eq("test-job"), eq(RUN_KEY), anyString(), any()))
+                .thenReturn(Optional.of(LocalDateTime.now()));
+        when(repository.findCheckpoints("test-job", RUN_KEY)).thenReturn(Map.of());
+        when(job.partitions(any())).thenReturn(List.of(gymId));
+        when(job.nextChunk(any(), eq(gymId), isNull(), eq(2))).thenReturn(List.of(good, bad));
+        when(job.nextChunk(any(), eq(gymId), eq(bad), eq(2))).thenReturn(List.of());
+        doThrow(failure).when(job).process(any(), eq(bad));
+
+        // Act
+        Optional<BatchJobReport> report = runner.run(job, RUN_KEY);
+
+        // Assert
+        assertThat(report).isPresent();
+        assertThat(report.get().processed()).isEqualTo(1);
+        assertThat(report.get().failed()).isEqualTo(1);
+        verify(job, times(2)).process(any(), eq(good));
+        verify(job).onItemFailure(any(), eq(bad), eq(failure));
+        verify(repository).saveCheckpoint(any(), eq(gymId), eq(bad), eq(1), eq(1), eq(false));
+        verify(repository).complete(eq("test-job"), eq(RUN_KEY), anyString());
+    }
+
+    @Test
+    @DisplayName("Should resume each partition after its checkpoint and skip completed partitions")
+    void run_ResumesFromCheckpoints() {
+        // Arrange
+        UUID doneGymId = UUID.randomUUID();
+        UUID lastDone = UUID.randomUUID();
+        UUID next = UUID.randomUUID();
+        when(repository.claim(eq("test-job"), eq(RUN_KEY), anyString(), any()))
+                .thenReturn(Optional.of(LocalDateTime.now().minusHours(1)));
+        when(repository.findCheckpoints("test-job", RUN_KEY)).thenReturn(Map.of(
+                gymId, new Checkpoint(gymId, lastDone, false),
+                doneGymId, new Checkpoint(doneGymId, null, true)));
+        when(job.partitions(any())).thenReturn(List.of(gymId, doneGymId));
+        when(job.nextChunk(any(), eq(gymId), eq(lastDone), eq(2))).thenReturn(List.of(next));
+        when(job.nextChunk(any(), eq(gymId), eq(next), eq(2))).thenReturn(List.of());
+
+        // Act
+        runner.run(job, RUN_KEY);
+
+        // Assert
+        verify(job).process(any(), eq(next));
+        verify(job, never()).nextChunk(any(), eq(doneGymId), any(), anyInt());
+        verify(job, never()).nextChunk(any(), eq(gymId), isNull(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should leave the job alone while another node holds the run")
+    void run_SkipsWhenRunHeldElsewhere() {
+        // Arrange
+        when(repository.claim(eq("test-job"), eq(RUN_KEY), anyString(), any())).thenReturn(Optional.empty());
+
+        // Act
+        Optional<BatchJobReport> report = runner.run(job, RUN_KEY);
+
+        // Assert
+        assertThat(report).isEmpty();
+        verify(job, never()).partitions(any(BatchRun.class));
+        verify(repository, never()).complete(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should stop and leave the run unfinished when the lease is lost")
+    void run_StopsWhenLeaseLost() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        when(repository.claim(eq("test-job"), eq(RUN_KEY), anyString(), any()))
+                .thenReturn(Optional.of(LocalDateTime.now()));
+        when(repository.findCheckpoints("test-job", RUN_KEY)).thenReturn(Map.of());
+        when(job.partitions(any())).thenReturn(List.of(gymId));
+        when(job.nextChunk(any(), eq(gymId), isNull(), eq(2))).thenReturn(List.of(first));
+        when(job.nextChunk(any(), eq(gymId), eq(first), eq(2))).thenReturn(List.of(UUID.randomUUID()));
+        when(repository.renew(anyString(), anyString(), anyString(), any())).thenReturn(false);
+
+        // Act
+        runner.run(job, RUN_KEY);
+
+        // Assert
+        verify(job, times(1)).process(any(), any());
+        verify(repository, never()).saveCheckpoint(any(), eq(gymId), isNull(), eq(0), eq(0), eq(true));
+        verify(repository, never()).complete(anyString(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,85 @@
+package com.gymmate.unit.shared.concurrency;
+
+import com.gymmate.shared.concurrency.Downstream;
+import com.gymmate.shared.concurrency.DownstreamLimiter;
+import com.gymmate.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DownstreamLimiter Unit Tests")
+class DownstreamLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One SMTP permit, short wait
+        limiter = new DownstreamLimiter(meterRegistry, 1, 2, 2, 2, 100);
+    }
+
+    @Test
+    @DisplayName("Should shed a call with 503 when the downstream stays saturated")
+    void call_ShedsWhenSaturated() throws Exception {
+        // Arrange
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                limiter.run(Downstream.SMTP, () -> {
+                    holding.countDown();
+                    release.await();
+                });
+                return null;
+            });
+            assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act & Assert
+            assertThatThrownBy(() -> limiter.call(Downstream.SMTP, () -> "sent"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(meterRegistry.counter("downstream.rejected", "downstream", "smtp").count()).isEqualTo(1);
+            assertThat(meterRegistry.get("downstream.in_use").tag("downstream", "smtp").gauge().value()).isEqualTo(1);
+
+            // Other downstreams are unaffected
+            assertThat(limiter.call(Downstream.STRIPE, () -> "charged")).isEqualTo("charged");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should let a nested call to the same downstream reuse the held permit")
+    void call_IsReentrant() {
+        // Act
+        String result = limiter.call(Downstream.SMTP, () -> limiter.call(Downstream.SMTP, () -> "nested"));
+
+        // Assert
+        assertThat(result).isEqualTo("nested");
+        assertThat(meterRegistry.get("downstream.in_use").tag("downstream", "smtp").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release the permit and rethrow when the call fails")
+    void call_ReleasesPermitOnFailure() {
+        // Act & Assert
+        assertThatThrownBy(() -> limiter.run(Downstream.SMTP, () -> {
+            throw new IOException("connection reset");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(limiter.call(Downstream.SMTP, () -> "sent")).isEqualTo("sent");
+        assertThat(meterRegistry.counter("downstream.rejected", "downstream", "smtp").count()).isZero();
+    }
+}
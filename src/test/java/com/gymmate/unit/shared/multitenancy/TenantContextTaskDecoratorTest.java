@@ -0,0 +1,64 @@
+package com.gymmate.unit.shared.multitenancy;
+
+import com.gymmate.shared.multitenancy.TenantContext;
+import com.gymmate.shared.multitenancy.TenantContextTaskDecorator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TenantContextTaskDecorator Unit Tests")
+class TenantContextTaskDecoratorTest {
+
+    private final TenantContextTaskDecorator decorator = new TenantContextTaskDecorator();
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should run the task with the submitting thread's tenant and gym")
+    void decorate_PropagatesContext() throws Exception {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+        UUID gymId = UUID.randomUUID();
+        TenantContext.setCurrentTenantId(tenantId);
+        TenantContext.setCurrentGymId(gymId);
+        AtomicReference<UUID> seenTenant = new AtomicReference<>();
+        AtomicReference<UUID> seenGym = new AtomicReference<>();
+
+        Runnable task = decorator.decorate(() -> {
+            seenTenant.set(TenantContext.getCurrentTenantId());
+            seenGym.set(TenantContext.getCurrentGymId());
+        });
+
+        // Act
+        Thread worker = Thread.ofVirtual().start(task);
+        worker.join();
+
+        // Assert
+        assertThat(seenTenant.get()).isEqualTo(tenantId);
+        assertThat(seenGym.get()).isEqualTo(gymId);
+    }
+
+    @Test
+    @DisplayName("Should restore the worker thread's own context after the task")
+    void decorate_RestoresWorkerContext() {
+        // Arrange
+        TenantContext.setCurrentTenantId(UUID.randomUUID());
+        Runnable task = decorator.decorate(() -> { });
+        TenantContext.clear();
+
+        // Act - run on this thread, which now has no tenant
+        task.run();
+
+        // Assert
+        assertThat(TenantContext.getCurrentTenantId()).isNull();
+        assertThat(TenantContext.getCurrentGymId()).isNull();
+    }
+}
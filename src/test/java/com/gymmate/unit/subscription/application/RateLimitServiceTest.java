@@ -0,0 +1,210 @@
+package com.gymmate.unit.subscription.application;
+
+import com.gymmate.shared.constants.SubscriptionStatus;
+import com.gymmate.subscription.application.RateLimitService;
+import com.gymmate.subscription.application.TierRateLimiter;
+import com.gymmate.subscription.application.TierRateLimiter.UsageDelta;
+import com.gymmate.subscription.domain.Subscription;
+import com.gymmate.subscription.domain.SubscriptionRepository;
+import com.gymmate.subscription.domain.SubscriptionTier;
+import com.gymmate.subscription.infrastructure.ApiRateLimitRepository;
+import com.gymmate.subscription.infrastructure.RateLimitUsageRepository;
+import com.gymmate.subscription.infrastructure.RateLimitUsageRepository.UsageIncrement;
+import com.gymmate.subscription.infrastructure.RateLimitUsageRepository.WindowIncrement;
+import com.gymmate.subscription.infrastructure.SubscriptionUsageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitService Unit Tests")
+class RateLimitServiceTest {
+
+    @Mock
+    private ApiRateLimitRepository rateLimitRepository;
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionUsageRepository usageRepository;
+
+    @Mock
+    private RateLimitUsageRepository rateLimitUsageRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private TierRateLimiter tierRateLimiter;
+    private RateLimitService rateLimitService;
+
+    private Subscription firstSubscription;
+    private Subscription secondSubscription;
+
+    @BeforeEach
+    void setUp() {
+        tierRateLimiter = new TierRateLimiter(stringRedisTemplate);
+        rateLimitService = new RateLimitService(rateLimitRepository, subscriptionRepository, usageRepository,
+                rateLimitUsageRepository, tierRateLimiter, 30);
+
+        firstSubscription = subscription();
+        secondSubscription = subscription();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load limits in one query and add all usage with one statement per table")
+    @SuppressWarnings("unchecked")
+    void flushPendingUsage_AddsUsageAtomically() {
+        // Arrange
+        UUID first = firstSubscription.getOrganisationId();
+        UUID second = secondSubscription.getOrganisationId();
+        tierRateLimiter.recordAllowed(first);
+        tierRateLimiter.recordAllowed(first);
+        tierRateLimiter.recordRejected(first);
+        tierRateLimiter.recordAllowed(second);
+
+        when(subscriptionRepository.findByOrganisationIdIn(anyCollection()))
+                .thenReturn(List.of(firstSubscription, secondSubscription));
+        when(rateLimitUsageRepository.addUsage(anyList(), any()))
+                .thenReturn(Set.of(firstSubscription.getId(), secondSubscription.getId()));
+
+        // Act
+        rateLimitService.flushPendingUsage();
+
+        // Assert
+        verify(subscriptionRepository).findByOrganisationIdIn(Set.of(first, second));
+        verify(subscriptionRepository, never()).findByOrganisationId(any());
+
+        ArgumentCaptor<List<WindowIncrement>> windows = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<LocalDateTime> windowStart = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> windowEnd = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(rateLimitUsageRepository).addWindowRequests(windows.capture(), eq("hourly"),
+                windowStart.capture(), windowEnd.capture());
+        assertThat(windows.getValue()).containsExactlyInAnyOrder(
+                new WindowIncrement(first, 3, 1000),
+                new WindowIncrement(second, 1, 1000));
+        assertThat(windowStart.getValue().getMinute()).isZero();
+        assertThat(windowEnd.getValue()).isEqualTo(windowStart.getValue().plusHours(1));
+
+        ArgumentCaptor<List<UsageIncrement>> usages = ArgumentCaptor.forClass(List.class);
+        verify(rateLimitUsageRepository).addUsage(usages.capture(), any());
+        assertThat(usages.getValue()).containsExactlyInAnyOrder(
+                new UsageIncrement(firstSubscription.getId(), 2, 1),
+                new UsageIncrement(secondSubscription.getId(), 1, 0));
+
+        // Nothing is read back and saved
+        verifyNoInteractions(rateLimitRepository, usageRepository);
+    }
+
+    @Test
+    @DisplayName("Should drop usage for organisations without a subscription")
+    @SuppressWarnings("unchecked")
+    void flushPendingUsage_SkipsOrganisationsWithoutSubscription() {
+        // Arrange
+        UUID organisationId = firstSubscription.getOrganisationId();
+        tierRateLimiter.recordAllowed(organisationId);
+        tierRateLimiter.recordAllowed(UUID.randomUUID());
+        when(subscriptionRepository.findByOrganisationIdIn(anyCollection())).thenReturn(List.of(firstSubscription));
+
+        // Act
+        rateLimitService.flushPendingUsage();
+
+        // Assert
+        ArgumentCaptor<List<WindowIncrement>> windows = ArgumentCaptor.forClass(List.class);
+        verify(rateLimitUsageRepository).addWindowRequests(windows.capture(), any(), any(), any());
+        assertThat(windows.getValue()).containsExactly(new WindowIncrement(organisationId, 1, 1000));
+    }
+
+    @Test
+    @DisplayName("Should put drained usage back when the transaction rolls back")
+    void flushPendingUsage_RestoresUsageOnRollback() {
+        // Arrange
+        UUID organisationId = firstSubscription.getOrganisationId();
+        tierRateLimiter.recordAllowed(organisationId);
+        tierRateLimiter.recordRejected(organisationId);
+        when(subscriptionRepository.findByOrganisationIdIn(anyCollection())).thenReturn(List.of(firstSubscription));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act - the write succeeds but the commit fails
+        rateLimitService.flushPendingUsage();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertThat(tierRateLimiter.drainPending()).containsOnly(entry(organisationId, new UsageDelta(1, 1)));
+    }
+
+    @Test
+    @DisplayName("Should not put drained usage back once the transaction commits")
+    void flushPendingUsage_KeepsUsageDrainedOnCommit() {
+        // Arrange
+        UUID organisationId = firstSubscription.getOrganisationId();
+        tierRateLimiter.recordAllowed(organisationId);
+        when(subscriptionRepository.findByOrganisationIdIn(anyCollection())).thenReturn(List.of(firstSubscription));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        rateLimitService.flushPendingUsage();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertThat(tierRateLimiter.drainPending()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should put drained usage back when the write fails outside a transaction")
+    void flushPendingUsage_RestoresUsageOnWriteFailure() {
+        // Arrange
+        UUID organisationId = firstSubscription.getOrganisationId();
+        tierRateLimiter.recordAllowed(organisationId);
+        when(subscriptionRepository.findByOrganisationIdIn(anyCollection())).thenReturn(List.of(firstSubscription));
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(rateLimitUsageRepository).addWindowRequests(anyList(), any(), any(), any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> rateLimitService.flushPendingUsage())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(tierRateLimiter.drainPending()).containsOnly(entry(organisationId, new UsageDelta(1, 0)));
+    }
+
+    private static Subscription subscription() {
+        LocalDateTime now = LocalDateTime.now();
+        Subscription subscription = Subscription.builder()
+                .organisationId(UUID.randomUUID())
+                .tier(SubscriptionTier.builder().name("professional").apiRequestsPerHour(1000).apiBurstLimit(100).build())
+                .status(SubscriptionStatus.ACTIVE)
+                .currentPeriodStart(now.minusDays(1))
+                .currentPeriodEnd(now.plusMonths(1))
+                .build();
+        subscription.setId(UUID.randomUUID());
+        return subscription;
+    }
+}
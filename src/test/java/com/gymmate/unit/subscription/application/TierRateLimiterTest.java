@@ -0,0 +1,120 @@
+package com.gymmate.unit.subscription.application;
+
+import com.gymmate.subscription.application.TierRateLimiter;
+import com.gymmate.subscription.application.TierRateLimiter.UsageDelta;
+import com.gymmate.subscription.application.TierRateLimiter.WindowCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TierRateLimiter Unit Tests")
+class TierRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private TierRateLimiter tierRateLimiter;
+    private UUID organisationId;
+
+    @BeforeEach
+    void setUp() {
+        tierRateLimiter = new TierRateLimiter(stringRedisTemplate);
+        organisationId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should return the hourly and burst totals from the increment script")
+    @SuppressWarnings("unchecked")
+    void increment_ReturnsScriptCounts() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 10, 17, 14, 25, 30);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(42L, 7L));
+
+        // Act
+        WindowCounts counts = tierRateLimiter.increment(organisationId, now);
+
+        // Assert
+        assertThat(counts.hourly()).isEqualTo(42);
+        assertThat(counts.burst()).isEqualTo(7);
+        assertThat(counts.windows().hourEnd()).isEqualTo(LocalDateTime.of(2026, 10, 17, 15, 0));
+        assertThat(counts.windows().minuteEnd()).isEqualTo(LocalDateTime.of(2026, 10, 17, 14, 26));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        // Keys expire a minute after their window ends
+        verify(stringRedisTemplate).execute(any(RedisScript.class), keys.capture(), eq("2130"), eq("90"));
+        assertThat(keys.getValue()).hasSize(2);
+        assertThat(keys.getValue().get(0)).startsWith("tier_rate_limit:" + organisationId + ":hourly:");
+        assertThat(keys.getValue().get(1)).startsWith("tier_rate_limit:" + organisationId + ":burst:");
+    }
+
+    @Test
+    @DisplayName("Should fail open with zero counts when Redis is unavailable")
+    @SuppressWarnings("unchecked")
+    void increment_FailsOpen() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        // Act
+        WindowCounts counts = tierRateLimiter.increment(organisationId, LocalDateTime.now());
+
+        // Assert
+        assertThat(counts.hourly()).isZero();
+        assertThat(counts.burst()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drain accumulated usage once and omit idle organisations")
+    void drainPending_TakesAndResets() {
+        // Arrange
+        UUID idle = UUID.randomUUID();
+        tierRateLimiter.recordAllowed(organisationId);
+        tierRateLimiter.recordAllowed(organisationId);
+        tierRateLimiter.recordRejected(organisationId);
+        tierRateLimiter.recordAllowed(idle);
+        tierRateLimiter.drainPending();
+        tierRateLimiter.recordAllowed(organisationId);
+
+        // Act
+        Map<UUID, UsageDelta> drained = tierRateLimiter.drainPending();
+
+        // Assert
+        assertThat(drained).containsOnly(entry(organisationId, new UsageDelta(1, 0)));
+        assertThat(tierRateLimiter.drainPending()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should add restored usage to what was counted after the drain")
+    void restorePending_MergesWithNewUsage() {
+        // Arrange
+        tierRateLimiter.recordAllowed(organisationId);
+        tierRateLimiter.recordRejected(organisationId);
+        Map<UUID, UsageDelta> drained = tierRateLimiter.drainPending();
+        tierRateLimiter.recordAllowed(organisationId);
+
+        // Act
+        tierRateLimiter.restorePending(drained);
+
+        // Assert
+        assertThat(tierRateLimiter.drainPending()).containsOnly(entry(organisationId, new UsageDelta(2, 1)));
+    }
+}